@@ -22,10 +22,14 @@
  */
 package com.oracle.truffle.r.library.parallel;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LecuyerCMRG;
 
 /**
  * The .Call support for the parallel package.
@@ -37,4 +41,26 @@ public class ParallelFunctions {
             return RRuntime.asLogical(RContext.getInstance().getParent() != null);
         }
     }
+
+    /**
+     * The seed has been checked by {@code nextRNGStream}.
+     */
+    public abstract static class NextStream extends RExternalBuiltinNode.Arg1 {
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextStream(RIntVector seed) {
+            return RDataFactory.createIntVector(LecuyerCMRG.nextStream(seed.getDataWithoutCopying()), RDataFactory.COMPLETE_VECTOR);
+        }
+    }
+
+    /**
+     * The seed has been checked by {@code nextRNGSubStream}.
+     */
+    public abstract static class NextSubStream extends RExternalBuiltinNode.Arg1 {
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextSubStream(RIntVector seed) {
+            return RDataFactory.createIntVector(LecuyerCMRG.nextSubStream(seed.getDataWithoutCopying()), RDataFactory.COMPLETE_VECTOR);
+        }
+    }
 }
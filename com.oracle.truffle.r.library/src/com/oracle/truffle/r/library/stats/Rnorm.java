@@ -13,6 +13,7 @@ package com.oracle.truffle.r.library.stats;
 
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
@@ -20,16 +21,27 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RNode;
+import com.oracle.truffle.r.runtime.rng.RRNG;
+import com.oracle.truffle.r.runtime.rng.RRNG.NormKind;
 import com.oracle.truffle.r.runtime.rng.RandomNumberNode;
 
 /**
  * TODO GnuR checks/updates {@code .Random.seed} across this call. TODO Honor min/max.
+ *
+ * The numbers are generated with {@link NormKind#BOX_MULLER} if that kind is selected and with
+ * {@link NormKind#INVERSION} otherwise.
  */
 public abstract class Rnorm extends RExternalBuiltinNode.Arg3 {
 
     @Child private RandomNumberNode random = new RandomNumberNode();
 
     private static final double BIG = 134217728;
+    /**
+     * The number of results for which the uniform numbers are generated at once.
+     */
+    private static final int CHUNK_SIZE = 2048;
+
+    private final ConditionProfile boxMullerProfile = ConditionProfile.createBinaryProfile();
 
     @Override
     protected void createCasts(CastBuilder casts) {
@@ -50,21 +62,34 @@ public abstract class Rnorm extends RExternalBuiltinNode.Arg3 {
         }
         RNode.reportWork(this, nInt);
 
-        double[] numbers = random.executeDouble(nInt * 2);
-        double[] result = new double[numbers.length / 2];
+        double[] result = new double[nInt];
+        if (boxMullerProfile.profile(RRNG.currentNormKind() == NormKind.BOX_MULLER)) {
+            RRNG.boxMullerNormRand(result, 0, nInt);
+        } else {
+            inversion(result);
+        }
 
         int meanLength = meanProfile.profile(mean.getLength());
         int stdDEvLength = stdDevProfile.profile(stdDev.getLength());
-
-        /* unif_rand() alone is not of high enough precision */
         for (int i = 0; i < result.length; i++) {
-            double u1 = (int) (BIG * numbers[i * 2]) + numbers[i * 2 + 1];
-
             double meanValue = mean.getDataAt(i % meanLength);
             double stdDevValue = stdDev.getDataAt(i % stdDEvLength);
 
-            result[i] = Random2.qnorm5(u1 / BIG, 0.0, 1.0, true, false) * stdDevValue + meanValue;
+            result[i] = result[i] * stdDevValue + meanValue;
         }
         return RDataFactory.createDoubleVector(result, RDataFactory.COMPLETE_VECTOR);
     }
+
+    private void inversion(double[] result) {
+        double[] numbers = new double[Math.min(result.length, CHUNK_SIZE) * 2];
+        for (int start = 0; start < result.length; start += CHUNK_SIZE) {
+            int count = Math.min(result.length - start, CHUNK_SIZE);
+            random.executeDouble(numbers, 0, count * 2);
+            /* unif_rand() alone is not of high enough precision */
+            for (int i = 0; i < count; i++) {
+                double u1 = (int) (BIG * numbers[i * 2]) + numbers[i * 2 + 1];
+                result[start + i] = Random2.qnorm5(u1 / BIG, 0.0, 1.0, true, false);
+            }
+        }
+    }
 }
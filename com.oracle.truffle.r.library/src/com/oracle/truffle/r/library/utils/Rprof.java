@@ -27,6 +27,9 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -34,6 +37,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
+import com.oracle.truffle.api.instrumentation.EventBinding;
 import com.oracle.truffle.api.instrumentation.EventContext;
 import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
 import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
@@ -58,6 +62,7 @@ import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
+import com.oracle.truffle.r.runtime.instrument.ShadowStack;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
 
 /**
@@ -75,6 +80,13 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
  * and then the {@code N} is used in line number references of the form {@code N#L},which precede
  * the function name.
  *
+ * Line and memory profiling need to observe each statement, so they are implemented with an
+ * instrumentation listener. Plain function profiling instead samples the {@link ShadowStack} of the
+ * context from the profiling thread, which leaves compiled code essentially undisturbed. Samples are
+ * aggregated by distinct stack, and in addition to the GNU R compatible output a file with the
+ * suffix {@code .folded} is written containing one line per distinct stack, outermost function
+ * first and separated by {@code ;}, followed by the sample count, as consumed by flame graph tools.
+ *
  */
 public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFactory.Listener, MemoryCopyTracer.Listener {
 
@@ -109,10 +121,20 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
                 }
                 // interval is in seconds, we convert to millis
                 long intervalInMillis = (long) (1E3 * intervalD);
-                StatementListener statementListener = new StatementListener();
-                ProfileThread profileThread = new ProfileThread(intervalInMillis, statementListener);
+                boolean lineProfiling = RRuntime.fromLogical(lineProfilingL);
+                StatementListener statementListener = null;
+                StackSampler stackSampler = null;
+                ProfileThread profileThread;
+                if (memProfiling || lineProfiling) {
+                    statementListener = new StatementListener();
+                    profileThread = new ProfileThread(intervalInMillis, statementListener::intervalElapsed);
+                } else {
+                    ShadowStack.enable();
+                    stackSampler = new StackSampler(RContext.getInstance().stateInstrumentation.getShadowStack(), filename + ".folded");
+                    profileThread = new ProfileThread(intervalInMillis, stackSampler::sample);
+                }
                 profileThread.setDaemon(true);
-                profState.initialize(out, profileThread, statementListener, intervalInMillis, RRuntime.fromLogical(lineProfilingL), memProfiling);
+                profState.initialize(out, profileThread, statementListener, stackSampler, intervalInMillis, lineProfiling, memProfiling);
                 profileThread.start();
             } catch (IOException ex) {
                 throw RError.error(this, RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", filename));
@@ -160,12 +182,12 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
 
     private static final class ProfileThread extends Thread {
         private final long interval;
-        private final StatementListener statementListener;
+        private final Runnable intervalAction;
         private volatile boolean running = true;
 
-        private ProfileThread(long interval, StatementListener statementListener) {
+        private ProfileThread(long interval, Runnable intervalAction) {
             this.interval = interval;
-            this.statementListener = statementListener;
+            this.intervalAction = intervalAction;
         }
 
         @Override
@@ -173,13 +195,87 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
             while (running) {
                 try {
                     Thread.sleep(interval);
-                    statementListener.intervalElapsed();
+                    if (running) {
+                        intervalAction.run();
+                    }
                 } catch (InterruptedException ex) {
 
                 }
             }
         }
 
+        private void terminate() {
+            running = false;
+            interrupt();
+            try {
+                join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+    /**
+     * Takes a snapshot of the {@link ShadowStack} at each interval and counts the occurrences of
+     * each distinct stack. Only the profiling thread updates the counts, and they are only read
+     * once that thread has terminated.
+     */
+    private static final class StackSampler {
+        private final ShadowStack shadowStack;
+        private final String foldedFilename;
+        private final LinkedHashMap<List<String>, int[]> stackCounts = new LinkedHashMap<>();
+
+        private StackSampler(ShadowStack shadowStack, String foldedFilename) {
+            this.shadowStack = shadowStack;
+            this.foldedFilename = foldedFilename;
+        }
+
+        private void sample() {
+            RootNode[] frames = shadowStack.snapshot();
+            if (frames.length == 0) {
+                // idle at top level, GNU R does not record such intervals either
+                return;
+            }
+            List<String> stack = new ArrayList<>(frames.length);
+            for (RootNode frame : frames) {
+                stack.add(frame.getName());
+            }
+            int[] count = stackCounts.get(stack);
+            if (count == null) {
+                stackCounts.put(stack, new int[]{1});
+            } else {
+                count[0]++;
+            }
+        }
+
+        private void write(PrintStream out) {
+            for (Map.Entry<List<String>, int[]> entry : stackCounts.entrySet()) {
+                StringBuilder line = new StringBuilder();
+                for (String name : entry.getKey()) {
+                    line.append('"').append(name).append("\" ");
+                }
+                for (int i = 0; i < entry.getValue()[0]; i++) {
+                    out.println(line);
+                }
+            }
+        }
+
+        private void writeFolded() throws IOException {
+            try (PrintStream folded = new PrintStream(new FileOutputStream(foldedFilename))) {
+                for (Map.Entry<List<String>, int[]> entry : stackCounts.entrySet()) {
+                    List<String> stack = entry.getKey();
+                    StringBuilder line = new StringBuilder();
+                    for (int i = stack.size() - 1; i >= 0; i--) {
+                        line.append(stack.get(i));
+                        if (i > 0) {
+                            line.append(';');
+                        }
+                    }
+                    folded.printf("%s %d\n", line, entry.getValue()[0]);
+                }
+            }
+        }
     }
 
     /**
@@ -189,13 +285,14 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
     private final class StatementListener implements ExecutionEventListener {
         private ArrayList<ArrayList<RSyntaxNode>> intervalStacks = new ArrayList<>();
         private ArrayList<RprofState.MemoryQuad> intervalMemory = new ArrayList<>();
+        private final EventBinding<StatementListener> binding;
         private volatile boolean newInterval;
 
         private StatementListener() {
             SourceSectionFilter.Builder builder = SourceSectionFilter.newBuilder();
             builder.tagIs(StandardTags.StatementTag.class);
             SourceSectionFilter filter = builder.build();
-            RInstrumentation.getInstrumenter().attachListener(filter, this);
+            binding = RInstrumentation.getInstrumenter().attachListener(filter, this);
         }
 
         private void intervalElapsed() {
@@ -256,6 +353,7 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
     private static final class RprofState extends InstrumentationState.RprofState {
         private ProfileThread profileThread;
         private StatementListener statementListener;
+        private StackSampler stackSampler;
         private long intervalInMillis;
         private boolean lineProfiling;
         private boolean memoryProfiling;
@@ -290,11 +388,12 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
             return state;
         }
 
-        public void initialize(PrintStream outA, ProfileThread profileThreadA, StatementListener statementListenerA, long intervalInMillisA,
+        public void initialize(PrintStream outA, ProfileThread profileThreadA, StatementListener statementListenerA, StackSampler stackSamplerA, long intervalInMillisA,
                         boolean lineProfilingA, boolean memoryProfilingA) {
             setOut(outA);
             this.profileThread = profileThreadA;
             this.statementListener = statementListenerA;
+            this.stackSampler = stackSamplerA;
             this.intervalInMillis = intervalInMillisA;
             this.lineProfiling = lineProfilingA;
             this.memoryProfiling = memoryProfilingA;
@@ -303,9 +402,24 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
 
         @Override
         public void cleanup(int status) {
-            profileThread.running = false;
-            HashMap<String, Integer> fileMap = null;
+            profileThread.terminate();
             PrintStream out = this.out();
+            if (stackSampler != null) {
+                ShadowStack.disable();
+                out.printf("sample.interval=%d\n", this.intervalInMillis * 1000);
+                stackSampler.write(out);
+                out.close();
+                this.setOut(null);
+                try {
+                    stackSampler.writeFolded();
+                } catch (IOException ex) {
+                    RError.warning(RError.NO_CALLER, RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", stackSampler.foldedFilename));
+                }
+                stackSampler = null;
+                return;
+            }
+            statementListener.binding.dispose();
+            HashMap<String, Integer> fileMap = null;
             if (this.memoryProfiling) {
                 out.print("memory profiling: ");
             }
@@ -23,16 +23,15 @@
 package com.oracle.truffle.r.library.utils;
 
 import java.util.Arrays;
-import java.util.TreeSet;
 
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
-import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
-import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 
 public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
@@ -50,136 +49,191 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
         return false;
     }
 
-    /*
-     * In the next three methods, firstPos is the index of the first element in the vector that is
-     * not isNA(elem, naStrings). However, there may be isNA values after that.
-     */
+    private static boolean canBeComplete(int firstNonNAPos) {
+        return firstNonNAPos == 0 ? RDataFactory.COMPLETE_VECTOR : RDataFactory.INCOMPLETE_VECTOR;
+    }
 
-    private static RIntVector readIntVector(RAbstractStringVector x, int firstPos, int firstVal, RAbstractStringVector naStrings) {
-        int[] data = new int[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.INT_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
-            String s = x.getDataAt(i);
-            boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.INT_NA : RRuntime.string2intNoCheck(s, true);
-            complete = complete && !isNA;
-        }
-        return RDataFactory.createIntVector(data, complete);
+    /**
+     * Returns {@code INT_NA} if {@code s} is not an integer. Values that would be {@code NA} do not
+     * count as integers either.
+     */
+    private static int parseInt(String s) {
+        return RRuntime.string2intNoCheck(s, false);
     }
 
-    private static RDoubleVector readDoubleVector(RAbstractStringVector x, int firstPos, double firstVal, RAbstractStringVector naStrings) {
-        double[] data = new double[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.DOUBLE_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
-            String s = x.getDataAt(i);
-            boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.DOUBLE_NA : RRuntime.string2doubleNoCheck(s, true);
-            complete = complete && !isNA;
-        }
-        return RDataFactory.createDoubleVector(data, complete);
+    /**
+     * The conversions return {@code NA} if {@code s} is not a number, only {@code "NA_real_"}
+     * legitimately converts to {@code NA}.
+     */
+    private static boolean failed(double value, String s) {
+        return RRuntime.isNA(value) && !"NA_real_".equals(s);
     }
 
-    private static RLogicalVector readLogicalVector(RAbstractStringVector x, int firstPos, byte firstVal, RAbstractStringVector naStrings) {
-        byte[] data = new byte[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.LOGICAL_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
-            String s = x.getDataAt(i);
-            boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(s, true);
-            complete = complete && !isNA;
-        }
-        return RDataFactory.createLogicalVector(data, complete);
+    private static boolean failed(byte value) {
+        return RRuntime.isNA(value);
     }
 
-    private static boolean canBeComplete(int firstNonNAPos) {
-        return firstNonNAPos == 0 ? RDataFactory.COMPLETE_VECTOR : RDataFactory.INCOMPLETE_VECTOR;
+    private enum State {
+        LOGICAL,
+        INTEGER,
+        DOUBLE,
+        CHARACTER
     }
 
+    /**
+     * The conversion is a single pass over {@code x} that stores each element as the narrowest
+     * type that all elements seen so far have. As in GnuR an integer column turns into a double
+     * one if a later element is a double, the values converted so far are widened. Any other
+     * mismatch makes the result a factor (or character vector), so the pass stops there.
+     */
     @Specialization
     protected Object typeConvert(RAbstractStringVector x, RAbstractStringVector naStrings, byte asIs, @SuppressWarnings("unused") Object dec, @SuppressWarnings("unused") Object numeral) {
-        if (x.getLength() == 0) {
+        int length = x.getLength();
+        if (length == 0) {
             return RDataFactory.createEmptyLogicalVector();
         }
 
         int i = 0;
-        while (i < x.getLength() && isNA(x.getDataAt(i), naStrings)) {
+        while (i < length && isNA(x.getDataAt(i), naStrings)) {
             i++;
         }
 
-        if (i == x.getLength()) {
+        if (i == length) {
             // all NAs
             byte[] data = new byte[i];
             Arrays.fill(data, RRuntime.LOGICAL_NA);
             return RDataFactory.createLogicalVector(data, RDataFactory.INCOMPLETE_VECTOR);
         }
+        int firstPos = i;
+        boolean complete = canBeComplete(firstPos);
 
-        String s = x.getDataAt(i);
-        try {
-            int intVal = RRuntime.string2intNoCheck(s, true);
-            return readIntVector(x, i, intVal, naStrings);
-        } catch (NumberFormatException ix) {
-            try {
-                double doubleVal = RRuntime.string2doubleNoCheck(s, true);
-                try {
-                    return readDoubleVector(x, i, doubleVal, naStrings);
-                } catch (NumberFormatException lx) {
-                    // fall through
-                }
-            } catch (NumberFormatException dx) {
-                try {
-                    byte logicalVal = RRuntime.string2logicalNoCheck(s, true);
-                    try {
-                        return readLogicalVector(x, i, logicalVal, naStrings);
-                    } catch (NumberFormatException lx) {
-                        // fall through
+        // the state is determined by the first element that is not NA
+        String s = x.getDataAt(firstPos);
+        int[] intData = null;
+        double[] doubleData = null;
+        byte[] logicalData = null;
+        State state;
+        int intVal = parseInt(s);
+        double doubleVal = RRuntime.isNA(intVal) ? RRuntime.string2doubleNoCheck(s) : intVal;
+        byte logicalVal = failed(doubleVal, s) ? RRuntime.string2logicalNoCheck(s) : RRuntime.LOGICAL_NA;
+        if (!RRuntime.isNA(intVal)) {
+            state = State.INTEGER;
+            intData = new int[length];
+            Arrays.fill(intData, 0, firstPos, RRuntime.INT_NA);
+            intData[firstPos] = intVal;
+        } else if (!failed(doubleVal, s)) {
+            state = State.DOUBLE;
+            doubleData = new double[length];
+            Arrays.fill(doubleData, 0, firstPos, RRuntime.DOUBLE_NA);
+            doubleData[firstPos] = doubleVal;
+        } else if (!failed(logicalVal)) {
+            state = State.LOGICAL;
+            logicalData = new byte[length];
+            Arrays.fill(logicalData, 0, firstPos, RRuntime.LOGICAL_NA);
+            logicalData[firstPos] = logicalVal;
+        } else {
+            state = State.CHARACTER;
+        }
+
+        for (i = firstPos + 1; i < length && state != State.CHARACTER; i++) {
+            s = x.getDataAt(i);
+            boolean isNA = isNA(s, naStrings);
+            complete &= !isNA;
+            switch (state) {
+                case INTEGER:
+                    if (isNA) {
+                        intData[i] = RRuntime.INT_NA;
+                        break;
+                    }
+                    intVal = parseInt(s);
+                    if (!RRuntime.isNA(intVal)) {
+                        intData[i] = intVal;
+                        break;
+                    }
+                    doubleVal = RRuntime.string2doubleNoCheck(s);
+                    if (failed(doubleVal, s)) {
+                        state = State.CHARACTER;
+                        break;
+                    }
+                    // widen the integers read so far
+                    doubleData = new double[length];
+                    for (int j = 0; j < i; j++) {
+                        doubleData[j] = RRuntime.int2double(intData[j]);
+                    }
+                    intData = null;
+                    doubleData[i] = doubleVal;
+                    state = State.DOUBLE;
+                    break;
+                case DOUBLE:
+                    doubleVal = isNA ? RRuntime.DOUBLE_NA : RRuntime.string2doubleNoCheck(s);
+                    if (!isNA && failed(doubleVal, s)) {
+                        state = State.CHARACTER;
+                    } else {
+                        doubleData[i] = doubleVal;
+                    }
+                    break;
+                case LOGICAL:
+                    logicalVal = isNA ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(s);
+                    if (!isNA && failed(logicalVal)) {
+                        state = State.CHARACTER;
+                    } else {
+                        logicalData[i] = logicalVal;
                     }
-                } catch (NumberFormatException lx) {
-                    // fall through
-                }
+                    break;
+                default:
+                    throw RInternalError.shouldNotReachHere();
             }
         }
 
-        // fall through target - conversion to int, double or logical failed
+        switch (state) {
+            case INTEGER:
+                return RDataFactory.createIntVector(intData, complete);
+            case DOUBLE:
+                return RDataFactory.createDoubleVector(doubleData, complete);
+            case LOGICAL:
+                return RDataFactory.createLogicalVector(logicalData, complete);
+            default:
+                // conversion to int, double or logical failed
+                return asIs == RRuntime.LOGICAL_TRUE ? x : createFactor(x, naStrings);
+        }
+    }
 
-        if (asIs == RRuntime.LOGICAL_TRUE) {
-            return x;
-        } else {
-            // create a factor
-            TreeSet<String> levels = new TreeSet<>();
-            for (int j = 0; j < x.getLength(); j++) {
-                s = x.getDataAt(j);
-                if (!isNA(s, naStrings)) {
-                    levels.add(s);
-                }
+    /**
+     * Creates the factor with a hash index of {@code x}, so that each element is looked up once
+     * instead of being compared against all levels.
+     */
+    private static Object createFactor(RAbstractStringVector x, RAbstractStringVector naStrings) {
+        VectorHashIndex.StringIndex index = VectorHashIndex.getIndex(x);
+        int[] positions = index.uniquePositions(false);
+        String[] levels = new String[positions.length];
+        int levelCount = 0;
+        for (int position : positions) {
+            String s = x.getDataAt(position);
+            if (!isNA(s, naStrings)) {
+                levels[levelCount++] = s;
             }
-            String[] levelsArray = new String[levels.size()];
-            levels.toArray(levelsArray);
-
-            int[] data = new int[x.getLength()];
-            boolean complete = true;
-            for (int j = 0; j < data.length; j++) {
-                s = x.getDataAt(j);
-                if (!isNA(s, naStrings)) {
-                    for (int k = 0; k < levelsArray.length; k++) {
-                        if (levelsArray[k].equals(s)) {
-                            data[j] = k + 1;
-                            break;
-                        }
-                    }
-                } else {
-                    data[j] = RRuntime.INT_NA;
-                    complete = false;
-                }
+        }
+        levels = Arrays.copyOf(levels, levelCount);
+        Arrays.sort(levels);
+
+        // the code of each level, stored at the position of its first occurrence (0 for NA)
+        int[] codes = new int[x.getLength()];
+        for (int k = 0; k < levels.length; k++) {
+            codes[index.lookup(levels[k])] = k + 1;
+        }
+        int[] data = new int[x.getLength()];
+        boolean complete = true;
+        for (int j = 0; j < data.length; j++) {
+            int code = codes[index.lookup(x.getDataAt(j))];
+            if (code == 0) {
+                data[j] = RRuntime.INT_NA;
+                complete = false;
+            } else {
+                data[j] = code;
             }
-            RIntVector res = RDataFactory.createIntVector(data, complete);
-            res.setAttr(RRuntime.LEVELS_ATTR_KEY, RDataFactory.createStringVector(levelsArray, RDataFactory.COMPLETE_VECTOR));
-            return RVector.setVectorClassAttr(res, RDataFactory.createStringVector("factor"));
         }
+        RIntVector res = RDataFactory.createIntVector(data, complete);
+        res.setAttr(RRuntime.LEVELS_ATTR_KEY, RDataFactory.createStringVector(levels, RDataFactory.COMPLETE_VECTOR));
+        return RVector.setVectorClassAttr(res, RDataFactory.createStringVector("factor"));
     }
 }
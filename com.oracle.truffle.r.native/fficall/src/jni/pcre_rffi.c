@@ -21,7 +21,7 @@ char *pcre_maketables();
 void *pcre_compile(char *pattern, int options, char **errorMessage, int *errOffset, char *tables);
 int  pcre_exec(void *code, void *extra, char* subject, int subjectLength, int startOffset, int options, int *ovector, int ovecSize);
 int pcre_fullinfo(void *code, void *extra, int what, void *where);
-void pcre_free(void *code);
+extern void (*pcre_free)(void *);
 
 jclass JNI_PCRE_ResultClass;
 jmethodID ResultClassConstructorID;
@@ -97,3 +97,8 @@ Java_com_oracle_truffle_r_runtime_ffi_jni_JNI_1PCRE_nativeExec(JNIEnv *env, jcla
 	(*env)->ReleaseStringUTFChars(env, subject, subjectChars);
 	return rc;
 }
+
+JNIEXPORT void JNICALL
+Java_com_oracle_truffle_r_runtime_ffi_jni_JNI_1PCRE_nativeFree(JNIEnv *env, jclass c, jlong address) {
+	(*pcre_free)((void *) address);
+}
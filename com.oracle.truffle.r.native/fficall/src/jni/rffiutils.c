@@ -24,6 +24,7 @@
 #include <string.h>
 #include <stdlib.h>
 #include <errno.h>
+#include <stdint.h>
 
 /*
  * All calls pass through one of the call(N) methods in rfficall.c, which carry the JNIEnv value,
@@ -41,6 +42,13 @@ static jclass RInternalErrorClass;
 static jmethodID unimplementedMethodID;
 jmethodID createSymbolMethodID;
 static jmethodID validateMethodID;
+static jclass SystemClass;
+static jmethodID identityHashCodeMethodID;
+
+// Different JNI references can denote the same object, so tables of objects are keyed by this.
+static jint objectHash(JNIEnv *env, SEXP x) {
+	return (*env)->CallStaticIntMethod(env, SystemClass, identityHashCodeMethodID, x);
+}
 
 static JNIEnv *curenv = NULL;
 
@@ -50,12 +58,18 @@ FILE *traceFile = NULL;
 typedef struct globalRefTable_struct {
 	int permanent;
 	SEXP gref;         // The jobject (SEXP) global ref
+	jint hash;         // identity hash code of the object
+	int next;          // next entry in the same hash bucket, or -1
 } GlobalRefElem;
 
 #define CACHED_GLOBALREFS_INITIAL_SIZE 64
 static GlobalRefElem *cachedGlobalRefs;
 static int cachedGlobalRefsHwm;
 static int cachedGlobalRefsLength;
+// checkRef is applied to every argument of every call, so the cache is indexed by the
+// identity hash code of the object, see nativeArrayBuckets. Twice the size of cachedGlobalRefs.
+static int *cachedGlobalRefsBuckets;
+static int cachedGlobalRefsBucketsMask;
 
 // Data structure for managing the required copying of
 // Java arrays to return C arrays, e.g, int*.
@@ -64,19 +78,41 @@ static int cachedGlobalRefsLength;
 typedef struct nativeArrayTable_struct {
 	SEXPTYPE type;
 	SEXP obj;         // The jobject (SEXP) that data is derived from (e.g, RIntVector)
+	SEXP handle;      // obj as it was added, which stays set when obj is invalidated
 	void *jArray;     // the jarray corresponding to obj
 	void *data;       // the (possibly) copied (or pinned) data from JNI GetXXXArrayElements
+	jint hash;        // identity hash code of obj
+	int next;         // next entry in the same hash bucket, or -1
+	int handleNext;   // next entry in the same handle bucket, or -1
+	int epoch;        // if jArray is NULL, data is the off-heap address obtained in this upcall epoch
 } NativeArrayElem;
 
 #define NATIVE_ARRAY_TABLE_INITIAL_SIZE 64
 // A table of vectors that have been accessed and whose contents, e.g. the actual data
 // as a primitive array have been copied and handed out to the native code.
+// Entries are allocated in call order, so that callExit can pop the entries of a call.
 static NativeArrayElem *nativeArrayTable;
 // hwm of nativeArrayTable
 static int nativeArrayTableHwm;
 static int nativeArrayTableLength;
 static void releaseNativeArray(JNIEnv *env, int index, int freedata);
 
+// The SEXP handles given to native code are JNI references, and different references can
+// denote the same object, so the table is indexed by the identity hash code of the object.
+// Each bucket holds the index of the most recently added entry, the chain continues through
+// NativeArrayElem.next, which means that popping entries in reverse order only ever unlinks
+// bucket heads. Always twice the size of nativeArrayTable.
+static int *nativeArrayBuckets;
+static int nativeArrayBucketsMask;
+// Native code mostly passes the same handle again (e.g., REAL(x)[i] in a loop), so the entries
+// are also indexed by the handle itself, which finds them without an upcall. Chained through
+// NativeArrayElem.handleNext, same size and same discipline as nativeArrayBuckets.
+static int *nativeArrayHandleBuckets;
+
+// Incremented by every updateNativeArrays, i.e., before every upcall that may run R code, which
+// may move the data of an off-heap vector.
+static int upcallEpoch;
+
 static int isEmbedded = 0;
 void setEmbedded() {
 	isEmbedded = 1;
@@ -124,9 +160,20 @@ void init_utils(JNIEnv *env) {
     cachedGlobalRefs = calloc(CACHED_GLOBALREFS_INITIAL_SIZE, sizeof(GlobalRefElem));
     cachedGlobalRefsLength = CACHED_GLOBALREFS_INITIAL_SIZE;
     cachedGlobalRefsHwm = 0;
+    cachedGlobalRefsBuckets = malloc(2 * CACHED_GLOBALREFS_INITIAL_SIZE * sizeof(int));
+    memset(cachedGlobalRefsBuckets, -1, 2 * CACHED_GLOBALREFS_INITIAL_SIZE * sizeof(int));
+    cachedGlobalRefsBucketsMask = 2 * CACHED_GLOBALREFS_INITIAL_SIZE - 1;
+	SystemClass = checkFindClass(env, "java/lang/System");
+	identityHashCodeMethodID = checkGetMethodID(env, SystemClass, "identityHashCode", "(Ljava/lang/Object;)I", 1);
 	nativeArrayTable = calloc(NATIVE_ARRAY_TABLE_INITIAL_SIZE, sizeof(NativeArrayElem));
 	nativeArrayTableLength = NATIVE_ARRAY_TABLE_INITIAL_SIZE;
 	nativeArrayTableHwm = 0;
+	nativeArrayBuckets = malloc(2 * NATIVE_ARRAY_TABLE_INITIAL_SIZE * sizeof(int));
+	memset(nativeArrayBuckets, -1, 2 * NATIVE_ARRAY_TABLE_INITIAL_SIZE * sizeof(int));
+	nativeArrayBucketsMask = 2 * NATIVE_ARRAY_TABLE_INITIAL_SIZE - 1;
+	nativeArrayHandleBuckets = malloc(2 * NATIVE_ARRAY_TABLE_INITIAL_SIZE * sizeof(int));
+	memset(nativeArrayHandleBuckets, -1, 2 * NATIVE_ARRAY_TABLE_INITIAL_SIZE * sizeof(int));
+	upcallEpoch = 0;
 }
 
 const char *stringToChars(JNIEnv *jniEnv, jstring string) {
@@ -157,24 +204,40 @@ jmp_buf *getErrorJmpBuf() {
 	return callErrorJmpBufTable[callDepth - 1];
 }
 
+static int nativeArrayBucket(jint hash) {
+	unsigned int h = (unsigned int) hash * 0x9E3779B9U;
+	return (int) ((h ^ (h >> 16)) & nativeArrayBucketsMask);
+}
+
+static int nativeArrayHandleBucket(SEXP x) {
+	unsigned int h = (unsigned int) (((uintptr_t) x) >> 3) * 0x9E3779B9U;
+	return (int) ((h ^ (h >> 16)) & nativeArrayBucketsMask);
+}
+
 void callExit(JNIEnv *env) {
 	int oldHwm = nativeArrayTableHwmStack[callDepth - 1];
-	for (int i = oldHwm; i < nativeArrayTableHwm; i++) {
-               releaseNativeArray(env, i, 1);
+	// release in reverse order, so that each entry is the head of its buckets when unlinked
+	for (int i = nativeArrayTableHwm - 1; i >= oldHwm; i--) {
+		NativeArrayElem cv = nativeArrayTable[i];
+		releaseNativeArray(env, i, 1);
+		nativeArrayBuckets[nativeArrayBucket(cv.hash)] = cv.next;
+		nativeArrayHandleBuckets[nativeArrayHandleBucket(cv.handle)] = cv.handleNext;
 	}
 	nativeArrayTableHwm = oldHwm;
 	callDepth--;
 }
 
 void invalidateNativeArray(JNIEnv *env, SEXP oldObj) {
-	for (int i = 0; i < nativeArrayTableHwm; i++) {
+	jint hash = objectHash(env, oldObj);
+	for (int i = nativeArrayBuckets[nativeArrayBucket(hash)]; i >= 0; i = nativeArrayTable[i].next) {
 		NativeArrayElem cv = nativeArrayTable[i];
-		if ((*env)->IsSameObject(env, cv.obj, oldObj)) {
+		if (cv.hash == hash && cv.obj != NULL && (*env)->IsSameObject(env, cv.obj, oldObj)) {
 #if TRACE_NATIVE_ARRAYS
 			fprintf(traceFile, "invalidateNativeArray(%p): found\n", oldObj);
 #endif
 			releaseNativeArray(env, i, 1);
 			nativeArrayTable[i].obj = NULL;
+			return;
 		}
 	}
 #if TRACE_NATIVE_ARRAYS
@@ -182,35 +245,46 @@ void invalidateNativeArray(JNIEnv *env, SEXP oldObj) {
 #endif
 }
 
+/*
+ * Copies back the arrays that were handed out to native code, e.g. before an upcall that evaluates
+ * R code. Native code may keep a pointer across upcalls and write through it again without asking
+ * for it, so there is no telling which arrays were written since the last copy-back: all arrays of
+ * all call depths are copied. Off-heap data is not copied, its address is revalidated on the next
+ * access instead.
+ */
 void updateNativeArrays(JNIEnv *env) {
-	int oldHwm = nativeArrayTableHwmStack[callDepth - 1];
-	for (int i = oldHwm; i < nativeArrayTableHwm; i++) {
-        releaseNativeArray(env, i, 0);
+	for (int i = 0; i < nativeArrayTableHwm; i++) {
+		releaseNativeArray(env, i, 0);
 	}
+	upcallEpoch++;
 }
 
+static int findNativeArrayByHandle(SEXP x) {
+	for (int i = nativeArrayHandleBuckets[nativeArrayHandleBucket(x)]; i >= 0; i = nativeArrayTable[i].handleNext) {
+		if (nativeArrayTable[i].obj == x) {
+			return i;
+		}
+	}
+	return -1;
+}
 
-static void *findNativeArray(JNIEnv *env, SEXP x) {
-	int i;
-	for (i = 0; i < nativeArrayTableHwm; i++) {
+static int findNativeArray(JNIEnv *env, SEXP x, jint hash) {
+	for (int i = nativeArrayBuckets[nativeArrayBucket(hash)]; i >= 0; i = nativeArrayTable[i].next) {
 		NativeArrayElem cv = nativeArrayTable[i];
-		if (cv.obj != NULL) {
-			if ((*env)->IsSameObject(env, cv.obj, x)) {
-				void *data = cv.data;
+		if (cv.hash == hash && cv.obj != NULL && (*env)->IsSameObject(env, cv.obj, x)) {
 #if TRACE_NATIVE_ARRAYS
-				fprintf(traceFile, "findNativeArray(%p): found %p\n", x, data);
+			fprintf(traceFile, "findNativeArray(%p): found %p\n", x, cv.data);
 #endif
-				return data;
-			}
+			return i;
 		}
 	}
 #if TRACE_NATIVE_ARRAYS
 	fprintf(traceFile, "findNativeArray(%p): not found\n", x);
 #endif
-	return NULL;
+	return -1;
 }
 
-static void addNativeArray(JNIEnv *env, SEXP x, SEXPTYPE type, void *jArray, void *data) {
+static void addNativeArray(JNIEnv *env, SEXP x, jint hash, SEXPTYPE type, void *jArray, void *data) {
 #if TRACE_NATIVE_ARRAYS
 	fprintf(traceFile, "addNativeArray(x=%p, t=%p, ix=%d)\n", x, data, nativeArrayTableHwm);
 #endif
@@ -218,73 +292,132 @@ static void addNativeArray(JNIEnv *env, SEXP x, SEXPTYPE type, void *jArray, voi
 	if (nativeArrayTableHwm >= nativeArrayTableLength) {
 		int newLength = 2 * nativeArrayTableLength;
 		NativeArrayElem *newnativeArrayTable = calloc(newLength, sizeof(NativeArrayElem));
-		if (newnativeArrayTable == NULL) {
+		int *newBuckets = malloc(2 * newLength * sizeof(int));
+		int *newHandleBuckets = malloc(2 * newLength * sizeof(int));
+		if (newnativeArrayTable == NULL || newBuckets == NULL || newHandleBuckets == NULL) {
 			fatalError("FFI copied vectors table expansion failure");
 		}
 		memcpy(newnativeArrayTable, nativeArrayTable, nativeArrayTableLength * sizeof(NativeArrayElem));
 		free(nativeArrayTable);
+		free(nativeArrayBuckets);
+		free(nativeArrayHandleBuckets);
 		nativeArrayTable = newnativeArrayTable;
 		nativeArrayTableLength = newLength;
+		// rehash in table order, which keeps later entries ahead of earlier ones in each bucket
+		nativeArrayBuckets = newBuckets;
+		nativeArrayHandleBuckets = newHandleBuckets;
+		nativeArrayBucketsMask = 2 * newLength - 1;
+		memset(nativeArrayBuckets, -1, 2 * newLength * sizeof(int));
+		memset(nativeArrayHandleBuckets, -1, 2 * newLength * sizeof(int));
+		for (int i = 0; i < nativeArrayTableHwm; i++) {
+			int bucket = nativeArrayBucket(nativeArrayTable[i].hash);
+			nativeArrayTable[i].next = nativeArrayBuckets[bucket];
+			nativeArrayBuckets[bucket] = i;
+			int handleBucket = nativeArrayHandleBucket(nativeArrayTable[i].handle);
+			nativeArrayTable[i].handleNext = nativeArrayHandleBuckets[handleBucket];
+			nativeArrayHandleBuckets[handleBucket] = i;
+		}
 	}
+	int bucket = nativeArrayBucket(hash);
+	int handleBucket = nativeArrayHandleBucket(x);
 	nativeArrayTable[nativeArrayTableHwm].obj = x;
+	nativeArrayTable[nativeArrayTableHwm].handle = x;
 	nativeArrayTable[nativeArrayTableHwm].data = data;
 	nativeArrayTable[nativeArrayTableHwm].type = type;
 	nativeArrayTable[nativeArrayTableHwm].jArray = jArray;
+	nativeArrayTable[nativeArrayTableHwm].hash = hash;
+	nativeArrayTable[nativeArrayTableHwm].next = nativeArrayBuckets[bucket];
+	nativeArrayTable[nativeArrayTableHwm].handleNext = nativeArrayHandleBuckets[handleBucket];
+	nativeArrayTable[nativeArrayTableHwm].epoch = upcallEpoch;
+	nativeArrayBuckets[bucket] = nativeArrayTableHwm;
+	nativeArrayHandleBuckets[handleBucket] = nativeArrayTableHwm;
 	nativeArrayTableHwm++;
 }
 
+static void *getNativeDataAddress(JNIEnv *env, SEXP x, SEXPTYPE type) {
+	return (void *) (*env)->CallStaticLongMethod(env, CallRFFIHelperClass, getNativeDataAddress_MethodID, x, type);
+}
+
 void *getNativeArray(JNIEnv *thisenv, SEXP x, SEXPTYPE type) {
-	void *data = findNativeArray(thisenv, x);
-	jboolean isCopy;
-	if (data == NULL) {
-		jarray jArray;
-		switch (type) {
-		case INTSXP: {
-			jintArray intArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, INTEGER_MethodID, x);
-			int len = (*thisenv)->GetArrayLength(thisenv, intArray);
-			data = (*thisenv)->GetIntArrayElements(thisenv, intArray, &isCopy);
-			jArray = intArray;
-			break;
+	// the table is searched first, upcalls are only made for vectors not handed out before
+	int index = findNativeArrayByHandle(x);
+	jint hash;
+	if (index < 0) {
+		hash = objectHash(thisenv, x);
+		index = findNativeArray(thisenv, x, hash);
+	} else {
+		hash = nativeArrayTable[index].hash;
+	}
+	if (index >= 0) {
+		NativeArrayElem *cv = &nativeArrayTable[index];
+		if (cv->jArray != NULL || cv->epoch == upcallEpoch) {
+			return cv->data;
 		}
-
-		case REALSXP: {
-			jdoubleArray doubleArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, REAL_MethodID, x);
-			int len = (*thisenv)->GetArrayLength(thisenv, doubleArray);
-			data = (*thisenv)->GetDoubleArrayElements(thisenv, doubleArray, &isCopy);
-			jArray = doubleArray;
-			break;
+		// R code run by an upcall may have moved the off-heap data, see NativeDataAccess
+		void *address = getNativeDataAddress(thisenv, x, type);
+		if (address != NULL) {
+			cv->data = address;
+			cv->epoch = upcallEpoch;
+			return address;
 		}
-
-		case RAWSXP: {
-		    jbyteArray byteArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, RAW_MethodID, x);
-		    int len = (*thisenv)->GetArrayLength(thisenv, byteArray);
-		    data = (*thisenv)->GetByteArrayElements(thisenv, byteArray, &isCopy);
-	        jArray = byteArray;
-	        break;
+		cv->obj = NULL;
+	} else {
+		// vectors whose data lives off-heap are handed out directly, no copying and no copy-back
+		void *address = getNativeDataAddress(thisenv, x, type);
+		if (address != NULL) {
+			addNativeArray(thisenv, x, hash, type, NULL, address);
+			return address;
 		}
+	}
+	void *data;
+	jboolean isCopy;
+	jarray jArray;
+	switch (type) {
+	case INTSXP: {
+		jintArray intArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, INTEGER_MethodID, x);
+		int len = (*thisenv)->GetArrayLength(thisenv, intArray);
+		data = (*thisenv)->GetIntArrayElements(thisenv, intArray, &isCopy);
+		jArray = intArray;
+		break;
+	}
 
-		case LGLSXP: {
-			// Special treatment becuase R FFI wants int* and FastR represents using byte[]
-		    jbyteArray byteArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, LOGICAL_MethodID, x);
-		    int len = (*thisenv)->GetArrayLength(thisenv, byteArray);
-		    jbyte* internalData = (*thisenv)->GetByteArrayElements(thisenv, byteArray, &isCopy);
-		    int* idata = malloc(len * sizeof(int));
-		    for (int i = 0; i < len; i++) {
-		    	char value = internalData[i];
-		    	idata[i] = value == 0 ? FALSE : value == 1 ? TRUE : NA_INTEGER;
-		    }
-		    (*thisenv)->ReleaseByteArrayElements(thisenv, byteArray, internalData, JNI_ABORT);
-		    jArray = byteArray;
-		    data = idata;
-		    break;
-		}
+	case REALSXP: {
+		jdoubleArray doubleArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, REAL_MethodID, x);
+		int len = (*thisenv)->GetArrayLength(thisenv, doubleArray);
+		data = (*thisenv)->GetDoubleArrayElements(thisenv, doubleArray, &isCopy);
+		jArray = doubleArray;
+		break;
+	}
 
-		default:
-			fatalError("getNativeArray: unexpected type");
+	case RAWSXP: {
+	    jbyteArray byteArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, RAW_MethodID, x);
+	    int len = (*thisenv)->GetArrayLength(thisenv, byteArray);
+	    data = (*thisenv)->GetByteArrayElements(thisenv, byteArray, &isCopy);
+        jArray = byteArray;
+        break;
+	}
+
+	case LGLSXP: {
+		// Special treatment becuase R FFI wants int* and FastR represents using byte[]
+	    jbyteArray byteArray = (*thisenv)->CallStaticObjectMethod(thisenv, CallRFFIHelperClass, LOGICAL_MethodID, x);
+	    int len = (*thisenv)->GetArrayLength(thisenv, byteArray);
+	    jbyte* internalData = (*thisenv)->GetByteArrayElements(thisenv, byteArray, &isCopy);
+	    int* idata = malloc(len * sizeof(int));
+	    for (int i = 0; i < len; i++) {
+	    	char value = internalData[i];
+	    	idata[i] = value == 0 ? FALSE : value == 1 ? TRUE : NA_INTEGER;
+	    }
+	    (*thisenv)->ReleaseByteArrayElements(thisenv, byteArray, internalData, JNI_ABORT);
+	    jArray = byteArray;
+	    data = idata;
+	    break;
+	}
+
+	default:
+		fatalError("getNativeArray: unexpected type");
 
-		}
-		addNativeArray(thisenv, x, type, jArray, data);
 	}
+	addNativeArray(thisenv, x, hash, type, jArray, data);
 	return data;
 }
 
@@ -293,7 +426,8 @@ static void releaseNativeArray(JNIEnv *env, int i, int freedata) {
 #if TRACE_NATIVE_ARRAYS
                fprintf(traceFile, "releaseNativeArray(x=%p, ix=%d, freedata=%d)\n", cv.obj, i, freedata);
 #endif
-	if (cv.obj != NULL) {
+	// off-heap data (jArray == NULL) belongs to the vector, there is nothing to copy or free
+	if (cv.obj != NULL && cv.jArray != NULL) {
 		switch (cv.type) {
 		case INTSXP: {
 			jintArray intArray = (jintArray) cv.jArray;
@@ -340,10 +474,15 @@ static void releaseNativeArray(JNIEnv *env, int i, int freedata) {
 	}
 }
 
-static SEXP findCachedGlobalRef(JNIEnv *env, SEXP obj) {
-	for (int i = 0; i < cachedGlobalRefsHwm; i++) {
+static int globalRefBucket(jint hash) {
+	unsigned int h = (unsigned int) hash * 0x9E3779B9U;
+	return (int) ((h ^ (h >> 16)) & cachedGlobalRefsBucketsMask);
+}
+
+static SEXP findCachedGlobalRef(JNIEnv *env, SEXP obj, jint hash) {
+	for (int i = cachedGlobalRefsBuckets[globalRefBucket(hash)]; i >= 0; i = cachedGlobalRefs[i].next) {
 		GlobalRefElem elem = cachedGlobalRefs[i];
-		if (elem.gref == NULL) {
+		if (elem.gref == NULL || elem.hash != hash) {
 			continue;
 		}
 		if ((*env)->IsSameObject(env, elem.gref, obj)) {
@@ -356,25 +495,39 @@ static SEXP findCachedGlobalRef(JNIEnv *env, SEXP obj) {
 	return NULL;
 }
 
-SEXP addGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
+static SEXP addGlobalRefWithHash(JNIEnv *env, SEXP obj, jint hash, int permanent) {
 	SEXP gref;
 	if (cachedGlobalRefsHwm >= cachedGlobalRefsLength) {
 		int newLength = cachedGlobalRefsLength * 2;
 #if TRACE_REF_CACHE
 		fprintf(traceFile, "gref: extending table to %d\n", newLength);
 #endif
-		SEXP newCachedGlobalRefs = calloc(newLength, sizeof(GlobalRefElem));
-		if (newCachedGlobalRefs == NULL) {
+		GlobalRefElem *newCachedGlobalRefs = calloc(newLength, sizeof(GlobalRefElem));
+		int *newBuckets = malloc(2 * newLength * sizeof(int));
+		if (newCachedGlobalRefs == NULL || newBuckets == NULL) {
 			fatalError("FFI global refs table expansion failure");
 		}
 		memcpy(newCachedGlobalRefs, cachedGlobalRefs, cachedGlobalRefsLength * sizeof(GlobalRefElem));
 		free(cachedGlobalRefs);
+		free(cachedGlobalRefsBuckets);
 		cachedGlobalRefs = newCachedGlobalRefs;
 		cachedGlobalRefsLength = newLength;
+		cachedGlobalRefsBuckets = newBuckets;
+		cachedGlobalRefsBucketsMask = 2 * newLength - 1;
+		memset(cachedGlobalRefsBuckets, -1, 2 * newLength * sizeof(int));
+		for (int i = 0; i < cachedGlobalRefsHwm; i++) {
+			int bucket = globalRefBucket(cachedGlobalRefs[i].hash);
+			cachedGlobalRefs[i].next = cachedGlobalRefsBuckets[bucket];
+			cachedGlobalRefsBuckets[bucket] = i;
+		}
 	}
 	gref = (*env)->NewGlobalRef(env, obj);
+	int bucket = globalRefBucket(hash);
 	cachedGlobalRefs[cachedGlobalRefsHwm].gref = gref;
 	cachedGlobalRefs[cachedGlobalRefsHwm].permanent = permanent;
+	cachedGlobalRefs[cachedGlobalRefsHwm].hash = hash;
+	cachedGlobalRefs[cachedGlobalRefsHwm].next = cachedGlobalRefsBuckets[bucket];
+	cachedGlobalRefsBuckets[bucket] = cachedGlobalRefsHwm;
 #if TRACE_REF_CACHE
 			fprintf(traceFile, "gref: add: index %d, ref %p\n", cachedGlobalRefsHwm), gref;
 #endif
@@ -382,8 +535,15 @@ SEXP addGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
 	return gref;
 }
 
+SEXP addGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
+	return addGlobalRefWithHash(env, obj, objectHash(env, obj), permanent);
+}
+
 SEXP checkRef(JNIEnv *env, SEXP obj) {
-	SEXP gref = findCachedGlobalRef(env, obj);
+	if (obj == NULL) {
+		return obj;
+	}
+	SEXP gref = findCachedGlobalRef(env, obj, objectHash(env, obj));
 	TRACE(TARGpp, obj, gref);
 	if (gref == NULL) {
 		return obj;
@@ -393,17 +553,19 @@ SEXP checkRef(JNIEnv *env, SEXP obj) {
 }
 
 SEXP createGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
-	SEXP gref = findCachedGlobalRef(env, obj);
+	jint hash = objectHash(env, obj);
+	SEXP gref = findCachedGlobalRef(env, obj, hash);
 	if (gref == NULL) {
-		gref = addGlobalRef(env, obj, permanent);
+		gref = addGlobalRefWithHash(env, obj, hash, permanent);
 	}
 	return gref;
 }
 
 void releaseGlobalRef(JNIEnv *env, SEXP obj) {
-	for (int i = 0; i < cachedGlobalRefsHwm; i++) {
+	jint hash = objectHash(env, obj);
+	for (int i = cachedGlobalRefsBuckets[globalRefBucket(hash)]; i >= 0; i = cachedGlobalRefs[i].next) {
 		GlobalRefElem elem = cachedGlobalRefs[i];
-		if (elem.gref == NULL || elem.permanent) {
+		if (elem.gref == NULL || elem.permanent || elem.hash != hash) {
 			continue;
 		}
 		if ((*env)->IsSameObject(env, elem.gref, obj)) {
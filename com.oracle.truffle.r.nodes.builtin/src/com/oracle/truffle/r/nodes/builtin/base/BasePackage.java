@@ -96,10 +96,15 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRInspect;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInspectNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInterop;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMmap;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMmapFactory;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfo;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfoNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegExpCacheStats;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegExpCacheStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStackTrace;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStackTraceNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRCopyCount;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfAttr;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfFuncounts;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfTypecounts;
@@ -349,11 +354,15 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRInterop.IsNull.class, FastRInteropFactory.IsNullNodeGen::create);
         add(FastRInterop.IsExecutable.class, FastRInteropFactory.IsExecutableNodeGen::create);
         add(FastRInterop.ToBoolean.class, FastRInteropFactory.ToBooleanNodeGen::create);
+        add(FastRMmap.Map.class, FastRMmapFactory.MapNodeGen::create);
+        add(FastRMmap.Flush.class, FastRMmapFactory.FlushNodeGen::create);
         add(FastRRefCountInfo.class, FastRRefCountInfoNodeGen::create);
+        add(FastRRegExpCacheStats.class, FastRRegExpCacheStatsNodeGen::create);
         add(FastRStackTrace.class, FastRStackTraceNodeGen::create);
         add(FastRProfAttr.class, FastRStatsFactory.FastRProfAttrNodeGen::create);
         add(FastRProfTypecounts.class, FastRStatsFactory.FastRProfTypecountsNodeGen::create);
         add(FastRProfFuncounts.class, FastRStatsFactory.FastRProfFuncountsNodeGen::create);
+        add(FastRCopyCount.class, FastRStatsFactory.FastRCopyCountNodeGen::create);
         add(FastRSyntaxTree.class, FastRSyntaxTreeNodeGen::create);
         add(FastRThrowIt.class, FastRThrowItNodeGen::create);
         add(FastRTrace.Trace.class, FastRTraceFactory.TraceNodeGen::create);
@@ -613,6 +622,7 @@ public class BasePackage extends RBuiltinPackage {
         add(SysFunctions.SysUnSetEnv.class, SysFunctionsFactory.SysUnSetEnvNodeGen::create);
         add(SystemFunction.class, SystemFunctionNodeGen::create);
         add(Tabulate.class, TabulateNodeGen::create);
+        add(Tcrossprod.class, TcrossprodNodeGen::create);
         add(TempDir.class, TempDirNodeGen::create);
         add(TempFile.class, TempFileNodeGen::create);
         add(ToLowerOrUpper.ToLower.class, ToLowerOrUpperFactory.ToLowerNodeGen::create);
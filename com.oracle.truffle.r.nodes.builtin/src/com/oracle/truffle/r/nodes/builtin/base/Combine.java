@@ -69,9 +69,13 @@ import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
 import com.oracle.truffle.r.runtime.data.RAttributes;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLanguage;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
@@ -101,6 +105,7 @@ public abstract class Combine extends RBuiltinNode {
     private final ConditionProfile fastNamesMerge = ConditionProfile.createBinaryProfile();
     private final ConditionProfile isAbstractVectorProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile hasNewNamesProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile blockCopyProfile = ConditionProfile.createBinaryProfile();
     @CompilationFinal private final ValueProfile[] argProfiles = new ValueProfile[MAX_PROFILES];
 
     @Override
@@ -307,8 +312,12 @@ public abstract class Combine extends RBuiltinNode {
     private int processContentElement(RVector<?> result, int pos, Object element) {
         if (isAbstractVectorProfile.profile(element instanceof RAbstractVector)) {
             RAbstractVector v = (RAbstractVector) element;
-            for (int i = 0; i < v.getLength(); i++) {
-                result.transferElementSameType(pos + i, v, i);
+            if (blockCopyProfile.profile(v.getClass() == result.getClass())) {
+                copyBlock(result, pos, v);
+            } else {
+                for (int i = 0; i < v.getLength(); i++) {
+                    result.transferElementSameType(pos + i, v, i);
+                }
             }
             if (!v.isComplete()) {
                 naBranch.enter();
@@ -325,6 +334,28 @@ public abstract class Combine extends RBuiltinNode {
         }
     }
 
+    /**
+     * Copies an element that has the same storage class as the freshly allocated result in one
+     * block, the result vector always has its data on the heap.
+     */
+    private static void copyBlock(RVector<?> result, int pos, RAbstractVector v) {
+        if (result instanceof RDoubleVector) {
+            ((RDoubleVector) v).copyTo(((RDoubleVector) result).getInternalStore(), pos);
+        } else if (result instanceof RIntVector) {
+            ((RIntVector) v).copyTo(((RIntVector) result).getInternalStore(), pos);
+        } else if (result instanceof RLogicalVector) {
+            ((RLogicalVector) v).copyTo(((RLogicalVector) result).getInternalStore(), pos);
+        } else if (result instanceof RStringVector) {
+            ((RStringVector) v).copyTo(((RStringVector) result).getInternalStore(), pos);
+        } else if (result instanceof RRawVector) {
+            ((RRawVector) v).copyTo(((RRawVector) result).getInternalStore(), pos);
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                result.transferElementSameType(pos + i, v, i);
+            }
+        }
+    }
+
     private static boolean signatureHasNames(ArgumentsSignature signature) {
         return signature != null && signature.getNonNullCount() > 0;
     }
@@ -70,7 +70,7 @@ public abstract class Crossprod extends RBuiltinNode {
         return matMult.doubleMatrixMultiply(x, y, xCols, xRows, yRows, yCols, xRows, 1, 1, yRows, false);
     }
 
-    private static RDoubleVector mirror(RDoubleVector result) {
+    static RDoubleVector mirror(RDoubleVector result) {
         /*
          * Mirroring the result is not only good for performance, but it is also required to produce
          * the same result as GNUR.
@@ -33,8 +33,12 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.DuplicationHelper;
 
@@ -73,6 +77,22 @@ public class DuplicatedFunctions {
             return x.getLength() == 0;
         }
 
+        /**
+         * Returns the (possibly cached) hash index for vectors of the types it supports, or
+         * {@code null}.
+         */
+        @TruffleBoundary
+        protected static VectorHashIndex getHashIndex(RAbstractVector x) {
+            if (x instanceof RAbstractIntVector) {
+                return VectorHashIndex.getIndex((RAbstractIntVector) x);
+            } else if (x instanceof RAbstractDoubleVector) {
+                return VectorHashIndex.getIndex((RAbstractDoubleVector) x);
+            } else if (x instanceof RAbstractStringVector) {
+                return VectorHashIndex.getIndex((RAbstractStringVector) x);
+            }
+            return null;
+        }
+
         protected void initChildren() {
             if (castTypeNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -95,6 +115,12 @@ public class DuplicatedFunctions {
 
         @TruffleBoundary
         protected static RLogicalVector analyzeAndCreateResult(RAbstractVector x, RAbstractVector incomparables, byte fromLast) {
+            if (incomparables == null) {
+                VectorHashIndex index = getHashIndex(x);
+                if (index != null) {
+                    return RDataFactory.createLogicalVector(index.duplicated(RRuntime.fromLogical(fromLast)), RDataFactory.COMPLETE_VECTOR);
+                }
+            }
             DuplicationHelper ds = DuplicationHelper.analyze(x, incomparables, false, RRuntime.fromLogical(fromLast));
             return RDataFactory.createLogicalVector(ds.getDupVec(), RDataFactory.COMPLETE_VECTOR);
         }
@@ -140,6 +166,10 @@ public class DuplicatedFunctions {
         @SuppressWarnings("unused")
         @Specialization(guards = {"!isIncomparable(incomparables)", "!empty(x)"})
         protected int anyDuplicatedFalseIncomparables(RAbstractVector x, RAbstractVector incomparables, byte fromLast) {
+            VectorHashIndex index = getHashIndex(x);
+            if (index != null) {
+                return index.anyDuplicated(RRuntime.fromLogical(fromLast));
+            }
             return DuplicationHelper.analyze(x, null, true, RRuntime.fromLogical(fromLast)).getIndex();
         }
 
@@ -33,6 +33,7 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -203,10 +204,13 @@ public class GrepFunctions {
             return RDataFactory.createIntVector(naData, RDataFactory.INCOMPLETE_VECTOR);
         }
 
+        /**
+         * Returns the compiled form of {@code pattern} from the per-context cache. The handle is only
+         * valid until the next pattern lookup.
+         */
         protected PCRERFFI.Result compilePerlPattern(String pattern, boolean ignoreCase) {
             int cflags = ignoreCase ? PCRERFFI.CASELESS : 0;
-            long tables = RFFIFactory.getRFFI().getPCRERFFI().maketables();
-            PCRERFFI.Result pcre = RFFIFactory.getRFFI().getPCRERFFI().compile(pattern, cflags, tables);
+            PCRERFFI.Result pcre = RContext.getInstance().stateRegExp.getPCRE(pattern, cflags);
             if (pcre.result == 0) {
                 // TODO output warning if pcre.errorMessage not NULL
                 throw RError.error(this, RError.Message.INVALID_REGEXP, pattern);
@@ -410,6 +414,7 @@ public class GrepFunctions {
                 } else {
                     pattern = RegExp.checkPreDefinedClasses(pattern);
                 }
+                Pattern javaPattern = null;
                 String[] result = new String[len];
                 for (int i = 0; i < len; i++) {
                     String input = vector.getDataAt(i);
@@ -420,12 +425,7 @@ public class GrepFunctions {
 
                     String value;
                     if (fixed) {
-                        if (gsub) {
-                            value = input.replace(pattern, replacement);
-                        } else {
-                            int ix = input.indexOf(pattern);
-                            value = ix < 0 ? input : input.substring(0, ix) + replacement + input.substring(ix + pattern.length());
-                        }
+                        value = replaceFixed(input, pattern, replacement, gsub);
                     } else if (perl) {
                         int offset = 0;
                         int[] ovector = new int[30];
@@ -461,12 +461,14 @@ public class GrepFunctions {
                             value = sb.toString();
                         }
                     } else {
-                        replacement = convertGroups(replacement);
-
+                        if (javaPattern == null) {
+                            javaPattern = RContext.getInstance().stateRegExp.getPattern(pattern, 0);
+                            replacement = convertGroups(replacement);
+                        }
                         if (gsub) {
-                            value = input.replaceAll(pattern, replacement);
+                            value = javaPattern.matcher(input).replaceAll(replacement);
                         } else {
-                            value = input.replaceFirst(pattern, replacement);
+                            value = javaPattern.matcher(input).replaceFirst(replacement);
                         }
                     }
                     result[i] = value;
@@ -480,6 +482,28 @@ public class GrepFunctions {
             }
         }
 
+        /**
+         * Literal replacement of the first or, if {@code all}, every occurrence of {@code pattern},
+         * without going through a regular expression engine.
+         */
+        private static String replaceFixed(String input, String pattern, String replacement, boolean all) {
+            int ix = input.indexOf(pattern);
+            if (ix < 0) {
+                return input;
+            }
+            if (pattern.isEmpty()) {
+                return all ? input.replace(pattern, replacement) : replacement + input;
+            }
+            StringBuilder sb = new StringBuilder(input.length() + replacement.length());
+            int start = 0;
+            do {
+                sb.append(input, start, ix).append(replacement);
+                start = ix + pattern.length();
+                ix = all ? input.indexOf(pattern, start) : -1;
+            } while (ix >= 0);
+            return sb.append(input, start, input.length()).toString();
+        }
+
         private static final int SIMPLE_PATTERN_MAX_LENGTH = 5;
 
         private static boolean isSimpleReplacement(String pattern, @SuppressWarnings("unused") String replacement) {
@@ -775,12 +799,10 @@ public class GrepFunctions {
             List<Info> list = new ArrayList<>();
             if (fixed) {
                 int index = 0;
+                String searchText = ignoreCase ? text.toLowerCase() : text;
+                String searchPattern = ignoreCase ? pattern.toLowerCase() : pattern;
                 while (true) {
-                    if (ignoreCase) {
-                        index = text.toLowerCase().indexOf(pattern.toLowerCase(), index);
-                    } else {
-                        index = text.indexOf(pattern, index);
-                    }
+                    index = searchText.indexOf(searchPattern, index);
                     if (index == -1) {
                         break;
                     }
@@ -837,7 +859,7 @@ public class GrepFunctions {
 
         @TruffleBoundary
         private static Matcher getPatternMatcher(String pattern, String text, boolean ignoreCase) {
-            return Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(text);
+            return RContext.getInstance().stateRegExp.getPattern(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(text);
         }
     }
 
@@ -1152,8 +1174,7 @@ public class GrepFunctions {
             // treat split = NULL as split = ""
             RAbstractStringVector split = splitArg.getLength() == 0 ? RDataFactory.createStringVectorFromScalar("") : splitArg;
             String[] splits = new String[split.getLength()];
-            long pcreTables = perl ? RFFIFactory.getRFFI().getPCRERFFI().maketables() : 0;
-            PCRERFFI.Result[] pcreSplits = perl ? new PCRERFFI.Result[splits.length] : null;
+            RegExp.ContextStateImpl regExpCache = RContext.getInstance().stateRegExp;
 
             na.enable(x);
             for (int i = 0; i < splits.length; i++) {
@@ -1161,8 +1182,8 @@ public class GrepFunctions {
                 splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
                 if (perl) {
                     if (!currentSplit.isEmpty()) {
-                        pcreSplits[i] = RFFIFactory.getRFFI().getPCRERFFI().compile(currentSplit, 0, pcreTables);
-                        if (pcreSplits[i].result == 0) {
+                        // validate eagerly; the cached handle is looked up again for each use
+                        if (regExpCache.getPCRE(currentSplit, 0).result == 0) {
                             // TODO output warning if pcre.errorMessage not NULL
                             throw RError.error(this, RError.Message.INVALID_REGEXP, currentSplit);
                         }
@@ -1184,9 +1205,11 @@ public class GrepFunctions {
                         resultItem = RDataFactory.createNAStringVector();
                     } else {
                         if (perl) {
-                            resultItem = splitPerl(data, pcreSplits[i % splits.length]);
+                            resultItem = splitPerl(data, regExpCache.getPCRE(currentSplit, 0));
+                        } else if (fixed) {
+                            resultItem = splitFixed(data, currentSplit);
                         } else {
-                            resultItem = splitIntl(data, currentSplit);
+                            resultItem = splitIntl(data, regExpCache.getPattern(currentSplit, 0));
                         }
                         if (resultItem.getLength() == 0) {
                             if (fixed) {
@@ -1217,9 +1240,34 @@ public class GrepFunctions {
             }
         }
 
-        private static RStringVector splitIntl(String input, String separator) {
+        private static RStringVector splitIntl(String input, Pattern separator) {
             assert !RRuntime.isNA(input);
-            return RDataFactory.createStringVector(input.split(separator), true);
+            return RDataFactory.createStringVector(separator.split(input), true);
+        }
+
+        /**
+         * Splits at literal occurrences of {@code separator}, with the same treatment of leading and
+         * trailing empty strings as {@link Pattern#split(CharSequence)}.
+         */
+        private static RStringVector splitFixed(String input, String separator) {
+            assert !RRuntime.isNA(input) && !separator.isEmpty();
+            int ix = input.indexOf(separator);
+            if (ix < 0) {
+                return RDataFactory.createStringVector(new String[]{input}, true);
+            }
+            ArrayList<String> parts = new ArrayList<>();
+            int start = 0;
+            while (ix >= 0) {
+                parts.add(input.substring(start, ix));
+                start = ix + separator.length();
+                ix = input.indexOf(separator, start);
+            }
+            parts.add(input.substring(start));
+            int n = parts.size();
+            while (n > 0 && parts.get(n - 1).isEmpty()) {
+                n--;
+            }
+            return RDataFactory.createStringVector(parts.subList(0, n).toArray(new String[n]), true);
         }
 
         private static RStringVector emptySplitIntl(String input) {
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -208,14 +209,14 @@ public class HiddenInternalFunctions {
             }
             String dbPath = datafile.getDataAt(0);
             String packageName = new File(dbPath).getName();
-            byte[] dbData = RContext.getInstance().stateLazyDBCache.getData(dbPath);
             int dotIndex;
             if ((dotIndex = packageName.lastIndexOf('.')) > 0) {
                 packageName = packageName.substring(0, dotIndex);
             }
             int offset = key.getDataAt(0);
             int length = key.getDataAt(1);
-            int outlen = getOutlen(dbData, offset); // length of uncompressed data
+            // only the slice for this object is copied out of the (shared) database file
+            byte[] dbData = RContext.getInstance().stateLazyDBCache.getData(dbPath, offset, length);
             byte[] udata = null;
             boolean rc = true;
             /*
@@ -226,9 +227,9 @@ public class HiddenInternalFunctions {
              * compression=2 and compression=3 is that type='Z' is only possible for the latter.
              */
             if (compression == 0) {
-                udata = new byte[length];
-                System.arraycopy(dbData, offset, udata, 0, length);
+                udata = dbData;
             } else {
+                int outlen = getOutlen(dbData); // length of uncompressed data
                 udata = new byte[outlen];
                 if (compression == 2 || compression == 3) {
                     RCompression.Type type = RCompression.Type.fromTypeChar(dbData[4]);
@@ -236,13 +237,11 @@ public class HiddenInternalFunctions {
                         RError.warning(this, RError.Message.GENERIC, "unknown compression type");
                         return RNull.instance;
                     }
-                    byte[] data = new byte[length - 5];
-                    System.arraycopy(dbData, offset + 5, data, 0, data.length);
+                    byte[] data = Arrays.copyOfRange(dbData, 5, length);
                     rc = RCompression.uncompress(type, udata, data);
                 } else {
                     // GnuR treats any other value as 1
-                    byte[] data = new byte[length - 4];
-                    System.arraycopy(dbData, offset + 4, data, 0, data.length);
+                    byte[] data = Arrays.copyOfRange(dbData, 4, length);
                     rc = RCompression.uncompress(RCompression.Type.GZIP, udata, data);
                 }
             }
@@ -265,9 +264,9 @@ public class HiddenInternalFunctions {
             }
         }
 
-        private static int getOutlen(byte[] dbData, int offset) {
+        private static int getOutlen(byte[] dbData) {
             ByteBuffer dataLengthBuf = ByteBuffer.allocate(4);
-            dataLengthBuf.put(dbData, offset, 4);
+            dataLengthBuf.put(dbData, 0, 4);
             dataLengthBuf.position(0);
             return dataLengthBuf.getInt();
         }
@@ -36,6 +36,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.binary.BinaryMapArithmeticFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -130,9 +131,15 @@ public abstract class MatMult extends RBuiltinNode {
     }
 
     private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile incompleteProfile = BranchProfile.create();
     @CompilationFinal private boolean seenLargeMatrix;
 
+    /**
+     * Number of multiply-adds above which {@link ParallelMatMult} is used.
+     */
+    private final long parallelThreshold = FastROptions.MatMultParallelThreshold.getNonNegativeIntValue();
+
     private RDoubleVector doubleMatrixMultiply(RAbstractDoubleVector a, RAbstractDoubleVector b, int aRows, int aCols, int bRows, int bCols) {
         return doubleMatrixMultiply(a, b, aRows, aCols, bRows, bCols, 1, aRows, 1, bRows, false);
     }
@@ -168,7 +175,9 @@ public abstract class MatMult extends RBuiltinNode {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             seenLargeMatrix = true;
         }
-        if (seenLargeMatrix) {
+        if (parallelProfile.profile((long) aRows * aCols * bCols >= parallelThreshold)) {
+            ParallelMatMult.multiply(dataA, dataB, result, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, mirrored);
+        } else if (seenLargeMatrix) {
             for (int row = 0; row < aRows; row += BLOCK_SIZE) {
                 for (int col = mirrored ? row : 0; col < bCols; col += BLOCK_SIZE) {
                     for (int k = 0; k < aCols; k += BLOCK_SIZE) {
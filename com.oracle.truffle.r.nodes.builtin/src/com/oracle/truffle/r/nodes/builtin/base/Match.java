@@ -47,6 +47,7 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.closures.RClosures;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
@@ -155,9 +156,8 @@ public abstract class Match extends RBuiltinNode {
     protected RIntVector match(RAbstractIntVector x, RAbstractIntVector table, int nomatch, @SuppressWarnings("unused") Object incomparables) {
         int[] result = initResult(x.getLength(), nomatch);
         boolean matchAll = true;
-        NonRecursiveHashMapInt hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapInt(x.getLength());
+        if (bigTableProfile.profile(isBigTable(x, table))) {
+            NonRecursiveHashMapInt hashTable = new NonRecursiveHashMapInt(x.getLength());
             NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(x.getLength());
             for (int i = 0; i < result.length; i++) {
                 hashSet.add(x.getDataAt(i));
@@ -168,19 +168,23 @@ public abstract class Match extends RBuiltinNode {
                     hashTable.put(val, i);
                 }
             }
-        } else {
-            hashTable = new NonRecursiveHashMapInt(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
+            for (int i = 0; i < result.length; i++) {
+                int index = hashTable.get(x.getDataAt(i));
+                if (index != -1) {
+                    result[i] = index + 1;
+                } else {
+                    matchAll = false;
+                }
             }
-        }
-        for (int i = 0; i < result.length; i++) {
-            int xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
+        } else {
+            VectorHashIndex.IntIndex index = VectorHashIndex.getIndex(table);
+            for (int i = 0; i < result.length; i++) {
+                int position = index.lookup(x.getDataAt(i));
+                if (position != -1) {
+                    result[i] = position + 1;
+                } else {
+                    matchAll = false;
+                }
             }
         }
         return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
@@ -190,32 +194,35 @@ public abstract class Match extends RBuiltinNode {
     protected RIntVector match(RAbstractDoubleVector x, RAbstractIntVector table, int nomatch, @SuppressWarnings("unused") Object incomparables) {
         int[] result = initResult(x.getLength(), nomatch);
         boolean matchAll = true;
-        NonRecursiveHashMapDouble hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapDouble(x.getLength());
+        if (bigTableProfile.profile(isBigTable(x, table))) {
+            NonRecursiveHashMapDouble hashTable = new NonRecursiveHashMapDouble(x.getLength());
             NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(x.getLength());
             for (int i = 0; i < result.length; i++) {
                 hashSet.add(x.getDataAt(i));
             }
             for (int i = table.getLength() - 1; i >= 0; i--) {
-                int val = table.getDataAt(i);
-                if (hashSet.contains(RRuntime.int2double(val))) {
-                    hashTable.put(RRuntime.int2double(val), i);
+                double val = RRuntime.int2double(table.getDataAt(i));
+                if (hashSet.contains(val)) {
+                    hashTable.put(val, i);
                 }
             }
-        } else {
-            hashTable = new NonRecursiveHashMapDouble(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(RRuntime.int2double(table.getDataAt(i)), i);
+            for (int i = 0; i < result.length; i++) {
+                int index = hashTable.get(x.getDataAt(i));
+                if (index != -1) {
+                    result[i] = index + 1;
+                } else {
+                    matchAll = false;
+                }
             }
-        }
-        for (int i = 0; i < result.length; i++) {
-            double xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
+        } else {
+            VectorHashIndex.IntIndex index = VectorHashIndex.getIndex(table);
+            for (int i = 0; i < result.length; i++) {
+                int position = index.lookup(x.getDataAt(i));
+                if (position != -1) {
+                    result[i] = position + 1;
+                } else {
+                    matchAll = false;
+                }
             }
         }
         return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
@@ -225,9 +232,8 @@ public abstract class Match extends RBuiltinNode {
     protected RIntVector match(RAbstractIntVector x, RAbstractDoubleVector table, int nomatch, @SuppressWarnings("unused") Object incomparables) {
         int[] result = initResult(x.getLength(), nomatch);
         boolean matchAll = true;
-        NonRecursiveHashMapInt hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapInt(x.getLength());
+        if (bigTableProfile.profile(isBigTable(x, table))) {
+            NonRecursiveHashMapInt hashTable = new NonRecursiveHashMapInt(x.getLength());
             NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(x.getLength());
             for (int i = 0; i < result.length; i++) {
                 hashSet.add(x.getDataAt(i));
@@ -240,24 +246,23 @@ public abstract class Match extends RBuiltinNode {
                     hashTable.put((int) val, i);
                 }
             }
-        } else {
-            hashTable = new NonRecursiveHashMapInt(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                double xx = table.getDataAt(i);
-                if (RRuntime.isNA(xx)) {
-                    hashTable.put(RRuntime.INT_NA, i);
-                } else if (xx == (int) xx) {
-                    hashTable.put((int) xx, i);
+            for (int i = 0; i < result.length; i++) {
+                int index = hashTable.get(x.getDataAt(i));
+                if (index != -1) {
+                    result[i] = index + 1;
+                } else {
+                    matchAll = false;
                 }
             }
-        }
-        for (int i = 0; i < result.length; i++) {
-            int xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
+        } else {
+            VectorHashIndex.DoubleIndex index = VectorHashIndex.getIndex(table);
+            for (int i = 0; i < result.length; i++) {
+                int position = index.lookup(x.getDataAt(i));
+                if (position != -1) {
+                    result[i] = position + 1;
+                } else {
+                    matchAll = false;
+                }
             }
         }
         return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
@@ -267,9 +272,8 @@ public abstract class Match extends RBuiltinNode {
     protected RIntVector match(RAbstractDoubleVector x, RAbstractDoubleVector table, int nomatch, @SuppressWarnings("unused") Object incomparables) {
         int[] result = initResult(x.getLength(), nomatch);
         boolean matchAll = true;
-        NonRecursiveHashMapDouble hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapDouble(x.getLength());
+        if (bigTableProfile.profile(isBigTable(x, table))) {
+            NonRecursiveHashMapDouble hashTable = new NonRecursiveHashMapDouble(x.getLength());
             NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(x.getLength());
             for (int i = 0; i < result.length; i++) {
                 hashSet.add(x.getDataAt(i));
@@ -280,19 +284,23 @@ public abstract class Match extends RBuiltinNode {
                     hashTable.put(val, i);
                 }
             }
-        } else {
-            hashTable = new NonRecursiveHashMapDouble(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
+            for (int i = 0; i < result.length; i++) {
+                int index = hashTable.get(x.getDataAt(i));
+                if (index != -1) {
+                    result[i] = index + 1;
+                } else {
+                    matchAll = false;
+                }
             }
-        }
-        for (int i = 0; i < result.length; i++) {
-            double xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
+        } else {
+            VectorHashIndex.DoubleIndex index = VectorHashIndex.getIndex(table);
+            for (int i = 0; i < result.length; i++) {
+                int position = index.lookup(x.getDataAt(i));
+                if (position != -1) {
+                    result[i] = position + 1;
+                } else {
+                    matchAll = false;
+                }
             }
         }
         return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
@@ -359,9 +367,8 @@ public abstract class Match extends RBuiltinNode {
     protected RIntVector match(RAbstractStringVector x, RAbstractStringVector table, int nomatch, @SuppressWarnings("unused") Object incomparables) {
         int[] result = initResult(x.getLength(), nomatch);
         boolean matchAll = true;
-        NonRecursiveHashMapCharacter hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapCharacter(x.getLength());
+        if (bigTableProfile.profile(isBigTable(x, table))) {
+            NonRecursiveHashMapCharacter hashTable = new NonRecursiveHashMapCharacter(x.getLength());
             NonRecursiveHashSetCharacter hashSet = new NonRecursiveHashSetCharacter(x.getLength());
             for (int i = 0; i < result.length; i++) {
                 hashSet.add(x.getDataAt(i));
@@ -372,19 +379,23 @@ public abstract class Match extends RBuiltinNode {
                     hashTable.put(val, i);
                 }
             }
-        } else {
-            hashTable = new NonRecursiveHashMapCharacter(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
+            for (int i = 0; i < result.length; i++) {
+                int index = hashTable.get(x.getDataAt(i));
+                if (index != -1) {
+                    result[i] = index + 1;
+                } else {
+                    matchAll = false;
+                }
             }
-        }
-        for (int i = 0; i < result.length; i++) {
-            String xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
+        } else {
+            VectorHashIndex.StringIndex index = VectorHashIndex.getIndex(table);
+            for (int i = 0; i < result.length; i++) {
+                int position = index.lookup(x.getDataAt(i));
+                if (position != -1) {
+                    result[i] = position + 1;
+                } else {
+                    matchAll = false;
+                }
             }
         }
         return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
@@ -450,16 +461,11 @@ public abstract class Match extends RBuiltinNode {
         int nomatch = nomatchVec.getLength() == 0 ? RRuntime.INT_NA : nomatchVec.getDataAt(0);
         int[] result = initResult(x.getLength(), nomatch);
         boolean matchAll = true;
-        RAbstractStringVector stringTable = castString(table);
-        NonRecursiveHashMapCharacter hashTable = new NonRecursiveHashMapCharacter(table.getLength());
-        for (int i = table.getLength() - 1; i >= 0; i--) {
-            hashTable.put(stringTable.getDataAt(i), i);
-        }
+        VectorHashIndex.StringIndex index = VectorHashIndex.getIndex(castString(table));
         for (int i = 0; i < result.length; i++) {
-            String xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
+            int position = index.lookup(x.getDataAt(i));
+            if (position != -1) {
+                result[i] = position + 1;
             } else {
                 matchAll = false;
             }
@@ -515,6 +521,15 @@ public abstract class Match extends RBuiltinNode {
         throw RError.error(this, MATCH_VECTOR_ARGS);
     }
 
+    /**
+     * Tells whether it is cheaper to hash {@code x} and scan {@code table} than to index
+     * {@code table}, which is only the case if the table is much larger and its index would not be
+     * kept for later calls.
+     */
+    private static boolean isBigTable(RAbstractVector x, RAbstractVector table) {
+        return table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR) && !VectorHashIndex.isCacheable(table);
+    }
+
     protected boolean isStringVectorTable(RAbstractVector table) {
         return table.getElementClass() == String.class;
     }
@@ -18,6 +18,7 @@ import static com.oracle.truffle.r.runtime.RError.Message.INVALID_LOGICAL;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.text.CollationKey;
 import java.text.Collator;
 import java.text.ParseException;
 import java.text.RuleBasedCollator;
@@ -27,7 +28,6 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.BranchProfile;
-import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RPrecedenceBuiltinNode;
@@ -295,20 +295,119 @@ public abstract class Order extends RPrecedenceBuiltinNode {
 
     private void orderVector(int[] indx, Object[] vectors, boolean naLast, boolean dec) {
         if (indx.length > 1) {
-
-            int t = 0;
-            for (; SINCS[t] > indx.length; t++) {
+            long[][] keys = new long[vectors.length][];
+            for (int k = 0; k < vectors.length; k++) {
+                keys[k] = elementKeys((RAbstractVector) vectors[k], naLast);
+                if (keys[k] == null) {
+                    orderVectorShell(indx, vectors, naLast, dec);
+                    return;
+                }
             }
-            for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
-                for (int i = h; i < indx.length; i++) {
-                    int itmp = indx[i];
-                    int j = i;
-                    while (j >= h && greaterSub(indx[j - h], itmp, vectors, naLast, dec)) {
-                        indx[j] = indx[j - h];
-                        j -= h;
-                    }
-                    indx[j] = itmp;
+            StableSort.multiKeySort(indx, keys, dec);
+        }
+    }
+
+    /**
+     * Computes for each element of {@code v} an unsigned key whose order is that of
+     * {@link CmpNode}, or {@code null} if the type of {@code v} is not supported.
+     */
+    @TruffleBoundary
+    private static long[] elementKeys(RAbstractVector v, boolean naLast) {
+        int n = v.getLength();
+        long[] keys = new long[n];
+        if (v instanceof RAbstractIntVector) {
+            RAbstractIntVector iv = (RAbstractIntVector) v;
+            // NA is Integer.MIN_VALUE, so the keys of all other values are in [1, 2^32)
+            long naKey = naLast ? 1L << 32 : 0;
+            for (int i = 0; i < n; i++) {
+                int x = iv.getDataAt(i);
+                keys[i] = RRuntime.isNA(x) ? naKey : StableSort.intKey(x, false);
+            }
+        } else if (v instanceof RAbstractDoubleVector) {
+            RAbstractDoubleVector dv = (RAbstractDoubleVector) v;
+            // no non-NaN double maps to either 0 or -1L
+            long naKey = naLast ? -1L : 0;
+            for (int i = 0; i < n; i++) {
+                double x = dv.getDataAt(i);
+                keys[i] = RRuntime.isNAorNaN(x) ? naKey : StableSort.doubleKey(x, false);
+            }
+        } else if (v instanceof RAbstractLogicalVector) {
+            RAbstractLogicalVector lv = (RAbstractLogicalVector) v;
+            long naKey = naLast ? 3 : 0;
+            for (int i = 0; i < n; i++) {
+                byte x = lv.getDataAt(i);
+                keys[i] = RRuntime.isNA(x) ? naKey : x + 1;
+            }
+        } else if (v instanceof RAbstractStringVector) {
+            RAbstractStringVector sv = (RAbstractStringVector) v;
+            String[] values = new String[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = sv.getDataAt(i);
+            }
+            keys = StableSort.denseRanks(n, (a, b) -> {
+                int c = compareNA(RRuntime.isNA(values[a]), RRuntime.isNA(values[b]), naLast);
+                return c != 2 ? c : values[a].compareTo(values[b]);
+            });
+        } else if (v instanceof RAbstractComplexVector) {
+            RAbstractComplexVector cv = (RAbstractComplexVector) v;
+            RComplex[] values = new RComplex[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = cv.getDataAt(i);
+            }
+            keys = StableSort.denseRanks(n, (a, b) -> compareComplex(values[a], values[b], naLast));
+        } else {
+            return null;
+        }
+        return keys;
+    }
+
+    private static int compareComplex(RComplex x, RComplex y, boolean naLast) {
+        int c = compareNA(RRuntime.isNA(x.getRealPart()), RRuntime.isNA(y.getRealPart()), naLast);
+        if (c != 2) {
+            return c;
+        }
+        if (x.getRealPart() != y.getRealPart()) {
+            return x.getRealPart() < y.getRealPart() ? -1 : 1;
+        }
+        c = compareNA(RRuntime.isNA(x.getImaginaryPart()), RRuntime.isNA(y.getImaginaryPart()), naLast);
+        if (c != 2) {
+            return c;
+        }
+        return x.getImaginaryPart() < y.getImaginaryPart() ? -1 : x.getImaginaryPart() > y.getImaginaryPart() ? 1 : 0;
+    }
+
+    /**
+     * Returns the comparison result if at least one of the values is NA, or 2 otherwise.
+     */
+    private static int compareNA(boolean nax, boolean nay, boolean naLast) {
+        if (nax && nay) {
+            return 0;
+        }
+        if (nax) {
+            return naLast ? 1 : -1;
+        }
+        if (nay) {
+            return naLast ? -1 : 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Fallback for vector types that {@link #elementKeys} does not handle.
+     */
+    private void orderVectorShell(int[] indx, Object[] vectors, boolean naLast, boolean dec) {
+        int t = 0;
+        for (; SINCS[t] > indx.length; t++) {
+        }
+        for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
+            for (int i = h; i < indx.length; i++) {
+                int itmp = indx[i];
+                int j = i;
+                while (j >= h && greaterSub(indx[j - h], itmp, vectors, naLast, dec)) {
+                    indx[j] = indx[j - h];
+                    j -= h;
                 }
+                indx[j] = itmp;
             }
         }
     }
@@ -318,8 +417,6 @@ public abstract class Order extends RPrecedenceBuiltinNode {
      * (which involves rho)
      */
     abstract static class OrderVector1Node extends RBaseNode {
-        private final ConditionProfile decProfile = ConditionProfile.createBinaryProfile();
-
         private final boolean needsStringCollation;
 
         protected OrderVector1Node(boolean needsStringCollation) {
@@ -489,105 +586,41 @@ public abstract class Order extends RPrecedenceBuiltinNode {
             return indxVec;
         }
 
-        private void sort(int[] indx, RAbstractDoubleVector dv, int lo, int hi, boolean dec) {
-            int t = 0;
-            for (; SINCS[t] > hi - lo + 1; t++) {
-            }
-            for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
-                for (int i = lo + h; i <= hi; i++) {
-                    int itmp = indx[i];
-                    int j = i;
-                    while (j >= lo + h) {
-                        int a = indx[j - h];
-                        int b = itmp;
-                        if (decProfile.profile(dec)) {
-                            if (!((dv.getDataAt(a)) < dv.getDataAt(b) || (dv.getDataAt(a) == dv.getDataAt(b) && a > b))) {
-                                break;
-                            }
-                        } else {
-                            if (!((dv.getDataAt(a)) > dv.getDataAt(b) || (dv.getDataAt(a) == dv.getDataAt(b) && a > b))) {
-                                break;
-                            }
-
-                        }
-                        indx[j] = indx[j - h];
-                        j -= h;
-                    }
-                    indx[j] = itmp;
-                }
+        private static void sort(int[] indx, RAbstractDoubleVector dv, int lo, int hi, boolean dec) {
+            long[] keys = new long[hi - lo + 1];
+            for (int i = lo; i <= hi; i++) {
+                keys[i - lo] = StableSort.doubleKey(dv.getDataAt(indx[i]), dec);
             }
+            StableSort.radixSort(indx, lo, hi, keys);
         }
 
-        private void sort(int[] indx, RAbstractIntVector dv, int lo, int hi, boolean dec) {
-            int t = 0;
-            for (; SINCS[t] > hi - lo + 1; t++) {
-            }
-            for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
-                for (int i = lo + h; i <= hi; i++) {
-                    int itmp = indx[i];
-                    int j = i;
-                    while (j >= lo + h) {
-                        int a = indx[j - h];
-                        int b = itmp;
-                        if (decProfile.profile(dec)) {
-                            if (!((dv.getDataAt(a)) < dv.getDataAt(b) || (dv.getDataAt(a) == dv.getDataAt(b) && a > b))) {
-                                break;
-                            }
-                        } else {
-                            if (!((dv.getDataAt(a)) > dv.getDataAt(b) || (dv.getDataAt(a) == dv.getDataAt(b) && a > b))) {
-                                break;
-                            }
-
-                        }
-                        indx[j] = indx[j - h];
-                        j -= h;
-                    }
-                    indx[j] = itmp;
-                }
+        private static void sort(int[] indx, RAbstractIntVector dv, int lo, int hi, boolean dec) {
+            long[] keys = new long[hi - lo + 1];
+            for (int i = lo; i <= hi; i++) {
+                keys[i - lo] = StableSort.intKey(dv.getDataAt(indx[i]), dec);
             }
+            StableSort.radixSort(indx, lo, hi, keys);
         }
 
+        @TruffleBoundary
         private void sort(int[] indx, RAbstractStringVector dv, int lo, int hi, boolean dec) {
-            Collator collator = createCollator();
-            int t = 0;
-            for (; SINCS[t] > hi - lo + 1; t++) {
-            }
-            for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
-                for (int i = lo + h; i <= hi; i++) {
-                    int itmp = indx[i];
-                    int j = i;
-                    while (j >= lo + h) {
-                        int a = indx[j - h];
-                        int b = itmp;
-                        int c = compareString(collator, dv.getDataAt(a), dv.getDataAt(b));
-                        if (decProfile.profile(dec)) {
-                            if (!(c < 0 || (c == 0 && a > b))) {
-                                break;
-                            }
-                        } else {
-                            if (!(c > 0 || (c == 0 && a > b))) {
-                                break;
-                            }
-                        }
-                        indx[j] = indx[j - h];
-                        j -= h;
-                    }
-                    indx[j] = itmp;
-                }
-            }
-        }
-
-        private int compareString(Collator collator, String dataAt, String dataAt2) {
+            StableSort.IndexComparator cmp;
             if (needsStringCollation) {
-                return compare(collator, dataAt, dataAt2);
+                // collation keys are computed once per element instead of once per comparison
+                Collator collator = createCollator();
+                CollationKey[] keys = new CollationKey[dv.getLength()];
+                for (int i = lo; i <= hi; i++) {
+                    keys[indx[i]] = collator.getCollationKey(dv.getDataAt(indx[i]));
+                }
+                cmp = (a, b) -> keys[a].compareTo(keys[b]);
             } else {
-                return dataAt.compareToIgnoreCase(dataAt2);
+                String[] keys = new String[dv.getLength()];
+                for (int i = lo; i <= hi; i++) {
+                    keys[indx[i]] = dv.getDataAt(indx[i]);
+                }
+                cmp = (a, b) -> keys[a].compareToIgnoreCase(keys[b]);
             }
-        }
-
-        @TruffleBoundary
-        private static int compare(Collator collator, String dataAt, String dataAt2) {
-            return collator.compare(dataAt, dataAt2);
+            StableSort.mergeSort(indx, lo, hi, dec ? (a, b) -> cmp.compare(b, a) : cmp);
         }
 
         @TruffleBoundary
@@ -605,76 +638,41 @@ public abstract class Order extends RPrecedenceBuiltinNode {
             }
         }
 
-        private static boolean lt(RComplex a, RComplex b) {
+        private static int compare(RComplex a, RComplex b) {
             if (a.getRealPart() == b.getRealPart()) {
-                return a.getImaginaryPart() < b.getImaginaryPart();
+                return a.getImaginaryPart() < b.getImaginaryPart() ? -1 : a.getImaginaryPart() > b.getImaginaryPart() ? 1 : 0;
             } else {
-                return a.getRealPart() < b.getRealPart();
+                return a.getRealPart() < b.getRealPart() ? -1 : a.getRealPart() > b.getRealPart() ? 1 : 0;
             }
         }
 
-        private static boolean gt(RComplex a, RComplex b) {
-            if (a.getRealPart() == b.getRealPart()) {
-                return a.getImaginaryPart() > b.getImaginaryPart();
-            } else {
-                return a.getRealPart() > b.getRealPart();
-            }
-        }
-
-        private static boolean eq(RComplex a, RComplex b) {
-            return a.getRealPart() == b.getRealPart() && a.getImaginaryPart() == b.getImaginaryPart();
-        }
-
-        private void sort(int[] indx, RAbstractComplexVector dv, int lo, int hi, boolean dec) {
-            int t = 0;
-            for (; SINCS[t] > hi - lo + 1; t++) {
-            }
-            for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
-                for (int i = lo + h; i <= hi; i++) {
-                    int itmp = indx[i];
-                    int j = i;
-                    while (j >= lo + h) {
-                        int a = indx[j - h];
-                        int b = itmp;
-                        if (decProfile.profile(dec)) {
-                            if (!(lt(dv.getDataAt(a), dv.getDataAt(b)) || (eq(dv.getDataAt(a), dv.getDataAt(b)) && a > b))) {
-                                break;
-                            }
-                        } else {
-                            if (!(gt(dv.getDataAt(a), dv.getDataAt(b)) || (eq(dv.getDataAt(a), dv.getDataAt(b)) && a > b))) {
-                                break;
-                            }
-
-                        }
-                        indx[j] = indx[j - h];
-                        j -= h;
-                    }
-                    indx[j] = itmp;
-                }
+        @TruffleBoundary
+        private static void sort(int[] indx, RAbstractComplexVector dv, int lo, int hi, boolean dec) {
+            RComplex[] keys = new RComplex[dv.getLength()];
+            for (int i = lo; i <= hi; i++) {
+                keys[indx[i]] = dv.getDataAt(indx[i]);
             }
+            StableSort.IndexComparator cmp = dec ? (a, b) -> compare(keys[b], keys[a]) : (a, b) -> compare(keys[a], keys[b]);
+            StableSort.mergeSort(indx, lo, hi, cmp);
         }
     }
 
+    /**
+     * Moves the elements flagged in {@code isNa} behind the others, keeping the relative order
+     * within both groups.
+     */
     private static void sortNA(int[] indx, boolean[] isNa, int lo, int hi) {
-        int t = 0;
-        for (; SINCS[t] > indx.length; t++) {
-        }
-        for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
-            for (int i = lo + h; i <= hi; i++) {
-                int itmp = indx[i];
-                int j = i;
-                while (j >= lo + h) {
-                    int a = indx[j - h];
-                    int b = itmp;
-                    if (!((isNa[a] && !isNa[b]) || (isNa[a] == isNa[b] && a > b))) {
-                        break;
-                    }
-                    indx[j] = indx[j - h];
-                    j -= h;
-                }
-                indx[j] = itmp;
+        int[] flagged = new int[hi - lo + 1];
+        int numFlagged = 0;
+        int j = lo;
+        for (int i = lo; i <= hi; i++) {
+            if (isNa[indx[i]]) {
+                flagged[numFlagged++] = indx[i];
+            } else {
+                indx[j++] = indx[i];
             }
         }
+        System.arraycopy(flagged, 0, indx, j, numFlagged);
     }
 
     protected boolean isFirstIntegerPrecedence(RArgsValuesAndNames args) {
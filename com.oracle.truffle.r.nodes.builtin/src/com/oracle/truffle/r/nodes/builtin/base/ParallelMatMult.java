@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Multi-threaded double precision matrix multiplication for operands that are too large for the
+ * inlined loops in {@link MatMult}. The result matrix is split into panels of columns that are
+ * computed as independent fork/join tasks. Within a task, blocks of the (possibly strided) inputs
+ * are first packed into contiguous buffers, and the inner kernel is a column update over a packed
+ * block of {@code a} that the JIT can vectorize.
+ *
+ * Elements are addressed as in {@link MatMult#doubleMatrixMultiply}: {@code a[row, k]} is at
+ * {@code row * aRowStride + k * aColStride} and {@code b[k, col]} at
+ * {@code k * bRowStride + col * bColStride}; the result is a column-major {@code aRows x bCols}
+ * matrix.
+ */
+final class ParallelMatMult {
+
+    /**
+     * Rows of {@code a} per packed block.
+     */
+    private static final int ROW_BLOCK = 128;
+    /**
+     * Inner dimension per packed block; a packed block of {@code a} is {@code 256 KB}.
+     */
+    private static final int K_BLOCK = 256;
+    /**
+     * Columns of the result computed by one task.
+     */
+    private static final int COL_PANEL = 32;
+
+    private ParallelMatMult() {
+    }
+
+    /**
+     * Computes {@code result = a %*% b}. If {@code mirrored} is set, {@code a %*% b} is known to be
+     * symmetric (as for {@code crossprod(x)} and {@code tcrossprod(x)}) and only the upper triangle
+     * of {@code result} (including the diagonal) is computed, SYRK style; the caller is expected to
+     * mirror it.
+     */
+    @TruffleBoundary
+    static void multiply(double[] a, double[] b, double[] result, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, boolean mirrored) {
+        ArrayList<PanelTask> tasks = new ArrayList<>();
+        for (int col = 0; col < bCols; col += COL_PANEL) {
+            int cols = Math.min(COL_PANEL, bCols - col);
+            // in the upper triangle, the panel needs rows [0, col + cols) only
+            int rows = mirrored ? Math.min(aRows, col + cols) : aRows;
+            tasks.add(new PanelTask(a, b, result, aRows, aCols, aRowStride, aColStride, bRowStride, bColStride, col, cols, rows));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class PanelTask extends RecursiveAction {
+        private final double[] a;
+        private final double[] b;
+        private final double[] result;
+        private final int aRows;
+        private final int aCols;
+        private final int aRowStride;
+        private final int aColStride;
+        private final int bRowStride;
+        private final int bColStride;
+        private final int col;
+        private final int cols;
+        private final int rows;
+
+        PanelTask(double[] a, double[] b, double[] result, int aRows, int aCols, int aRowStride, int aColStride, int bRowStride, int bColStride, int col, int cols, int rows) {
+            this.a = a;
+            this.b = b;
+            this.result = result;
+            this.aRows = aRows;
+            this.aCols = aCols;
+            this.aRowStride = aRowStride;
+            this.aColStride = aColStride;
+            this.bRowStride = bRowStride;
+            this.bColStride = bColStride;
+            this.col = col;
+            this.cols = cols;
+            this.rows = rows;
+        }
+
+        @Override
+        protected void compute() {
+            double[] packedA = new double[ROW_BLOCK * K_BLOCK];
+            double[] packedB = new double[K_BLOCK * cols];
+            for (int k = 0; k < aCols; k += K_BLOCK) {
+                int ks = Math.min(K_BLOCK, aCols - k);
+                packB(k, ks, packedB);
+                for (int row = 0; row < rows; row += ROW_BLOCK) {
+                    int rs = Math.min(ROW_BLOCK, rows - row);
+                    packA(row, rs, k, ks, packedA);
+                    kernel(packedA, packedB, row, rs, ks);
+                }
+            }
+        }
+
+        /**
+         * Packs {@code b[k..k+ks, col..col+cols]} column by column.
+         */
+        private void packB(int k, int ks, double[] packedB) {
+            for (int c = 0; c < cols; c++) {
+                int src = k * bRowStride + (col + c) * bColStride;
+                int dst = c * ks;
+                for (int kk = 0; kk < ks; kk++) {
+                    packedB[dst + kk] = b[src];
+                    src += bRowStride;
+                }
+            }
+        }
+
+        /**
+         * Packs {@code a[row..row+rs, k..k+ks]} column by column.
+         */
+        private void packA(int row, int rs, int k, int ks, double[] packedA) {
+            for (int kk = 0; kk < ks; kk++) {
+                int src = row * aRowStride + (k + kk) * aColStride;
+                int dst = kk * rs;
+                for (int r = 0; r < rs; r++) {
+                    packedA[dst + r] = a[src];
+                    src += aRowStride;
+                }
+            }
+        }
+
+        private void kernel(double[] packedA, double[] packedB, int row, int rs, int ks) {
+            int c = 0;
+            // four result columns at a time, so that each element of packedA is loaded once for
+            // four multiply-adds
+            for (; c + 4 <= cols; c += 4) {
+                int r0 = (col + c) * aRows + row;
+                int r1 = r0 + aRows;
+                int r2 = r1 + aRows;
+                int r3 = r2 + aRows;
+                int b0 = c * ks;
+                for (int kk = 0; kk < ks; kk++) {
+                    double bValue0 = packedB[b0 + kk];
+                    double bValue1 = packedB[b0 + ks + kk];
+                    double bValue2 = packedB[b0 + 2 * ks + kk];
+                    double bValue3 = packedB[b0 + 3 * ks + kk];
+                    int aOffset = kk * rs;
+                    for (int r = 0; r < rs; r++) {
+                        double aValue = packedA[aOffset + r];
+                        result[r0 + r] += aValue * bValue0;
+                        result[r1 + r] += aValue * bValue1;
+                        result[r2 + r] += aValue * bValue2;
+                        result[r3 + r] += aValue * bValue3;
+                    }
+                }
+            }
+            for (; c < cols; c++) {
+                int resultOffset = (col + c) * aRows + row;
+                int bOffset = c * ks;
+                for (int kk = 0; kk < ks; kk++) {
+                    double bValue = packedB[bOffset + kk];
+                    int aOffset = kk * rs;
+                    for (int r = 0; r < rs; r++) {
+                        result[resultOffset + r] += packedA[aOffset + r] * bValue;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -26,11 +26,13 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.*;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RNull;
@@ -55,9 +57,12 @@ public abstract class RegFinalizer extends RBuiltinNode {
         return doRegFinalizerEither(env, fun, onexit);
     }
 
-    @SuppressWarnings("unused")
+    @TruffleBoundary
     private static RNull doRegFinalizerEither(Object env, RFunction fun, boolean onexit) {
-        // TODO the actual work
+        if (onexit) {
+            RContext.getInstance().registerExitFinalizer(() -> RContext.getEngine().evalFunction(fun, null, null, null, env));
+        }
+        // TODO run the finalizer when env is garbage collected
         return RNull.instance;
     }
 
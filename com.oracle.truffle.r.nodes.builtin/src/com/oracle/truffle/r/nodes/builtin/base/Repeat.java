@@ -30,7 +30,6 @@ import static com.oracle.truffle.r.runtime.RDispatch.INTERNAL_GENERIC;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
-import java.util.Arrays;
 import java.util.function.Function;
 
 import com.oracle.truffle.api.dsl.Cached;
@@ -121,9 +120,18 @@ public abstract class Repeat extends RBuiltinNode {
             throw invalidTimes();
         }
         int length = lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut)) ? lengthOut : t;
-        double[] data = new double[length];
-        Arrays.fill(data, x.getDataAt(0));
-        return RDataFactory.createDoubleVector(data, !RRuntime.isNA(x.getDataAt(0)));
+        return RDataFactory.createDoubleConstant(x.getDataAt(0), length);
+    }
+
+    @Specialization(guards = {"x.getLength() == 1", "times.getLength() == 1", "each <= 1", "!hasNames(x)"})
+    protected RAbstractVector repNoEachNoNamesSimple(RAbstractIntVector x, RAbstractIntVector times, int lengthOut, @SuppressWarnings("unused") int each) {
+        int t = times.getDataAt(0);
+        if (t < 0) {
+            errorBranch.enter();
+            throw invalidTimes();
+        }
+        int length = lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut)) ? lengthOut : t;
+        return RDataFactory.createIntConstant(x.getDataAt(0), length);
     }
 
     @Specialization(guards = {"each > 1", "!hasNames(x)"})
@@ -37,6 +37,7 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 
 @RBuiltin(name = "rep_len", kind = INTERNAL, parameterNames = {"x", "length.out"}, behavior = PURE)
@@ -66,17 +67,13 @@ public abstract class RepeatLength extends RBuiltinNode {
     }
 
     @Specialization
-    protected RIntVector repLen(int value, int length) {
-        int[] array = new int[length];
-        Arrays.fill(array, length);
-        return RDataFactory.createIntVector(array, !RRuntime.isNA(value));
+    protected RAbstractIntVector repLen(int value, int length) {
+        return RDataFactory.createIntConstant(value, length);
     }
 
     @Specialization
-    protected RDoubleVector repLen(double value, int length) {
-        double[] array = new double[length];
-        Arrays.fill(array, value);
-        return RDataFactory.createDoubleVector(array, !RRuntime.isNA(value));
+    protected RAbstractDoubleVector repLen(double value, int length) {
+        return RDataFactory.createDoubleConstant(value, length);
     }
 
     @Specialization
@@ -117,7 +114,7 @@ public abstract class RepeatLength extends RBuiltinNode {
     }
 
     @Specialization
-    protected RDoubleVector repLen(RDoubleVector value, int length) {
+    protected RDoubleVector repLen(RAbstractDoubleVector value, int length) {
         double[] array = new double[length];
         for (int i = 0, j = 0; i < length; i++, j = Utils.incMod(j, value.getLength())) {
             array[i] = value.getDataAt(j);
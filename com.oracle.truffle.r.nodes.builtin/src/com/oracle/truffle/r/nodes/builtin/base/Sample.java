@@ -35,6 +35,8 @@ import static com.oracle.truffle.r.runtime.RError.Message.VECTOR_SIZE_TOO_LARGE;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.MODIFIES_STATE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.util.HashMap;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -52,6 +54,11 @@ import com.oracle.truffle.r.runtime.rng.RRNG;
 
 @RBuiltin(name = "sample", kind = INTERNAL, parameterNames = {"x", "size", "replace", "prob"}, behavior = MODIFIES_STATE)
 public abstract class Sample extends RBuiltinNode {
+    /**
+     * Populations at least this large are shuffled sparsely if only a small part of them is drawn.
+     */
+    private static final int SPARSE_SHUFFLE_MIN = 1 << 16;
+
     private final ConditionProfile sampleSizeProfile = ConditionProfile.createBinaryProfile();
 
     @Override
@@ -122,8 +129,7 @@ public abstract class Sample extends RBuiltinNode {
             }
         }
         if (nc > 200) {
-            // TODO implement walker
-            throw new UnsupportedOperationException("walker_ProbSampleReplace is not yet implemented");
+            return RDataFactory.createIntVector(walkerProbSampleReplace(x, probArray, size), RDataFactory.COMPLETE_VECTOR);
         } else {
             return RDataFactory.createIntVector(probSampleReplace(x, probArray, size), RDataFactory.COMPLETE_VECTOR);
         }
@@ -144,10 +150,23 @@ public abstract class Sample extends RBuiltinNode {
         // The following code is transcribed from GNU R src/main/random.c lines 533-545 in
         // function do_sample.
         int[] result = new int[size];
+        UniformBlocks uniforms = new UniformBlocks(size);
         /* avoid allocation for a single sample */
         if (sampleSizeProfile.profile(isRepeatable || size < 2)) {
             for (int i = 0; i < size; i++) {
-                result[i] = (int) (x * RRNG.unifRand() + 1);
+                result[i] = (int) (x * uniforms.next() + 1);
+            }
+        } else if (x >= SPARSE_SHUFFLE_MIN && size < x / 4) {
+            // the same partial shuffle as below, but only the entries of ix that were replaced are
+            // stored
+            int n = x;
+            HashMap<Integer, Integer> replaced = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                int j = (int) (n * uniforms.next());
+                Integer ixj = replaced.get(j);
+                result[i] = (ixj == null ? j : ixj) + 1;
+                Integer ixn = replaced.remove(--n);
+                replaced.put(j, ixn == null ? n : ixn);
             }
         } else {
             int n = x;
@@ -156,7 +175,7 @@ public abstract class Sample extends RBuiltinNode {
                 ix[i] = i;
             }
             for (int i = 0; i < size; i++) {
-                int j = (int) (n * RRNG.unifRand());
+                int j = (int) (n * uniforms.next());
                 result[i] = ix[j] + 1;
                 ix[j] = ix[--n];
             }
@@ -202,15 +221,69 @@ public abstract class Sample extends RBuiltinNode {
         for (int i = 1; i < n; i++) {
             probArray[i] += probArray[i - 1];
         }
+        UniformBlocks uniforms = new UniformBlocks(resultSize);
         for (int i = 0; i < resultSize; i++) {
-            int j = 0;
-            double rU = RRNG.unifRand();
-            for (j = 0; j < n - 1; j++) {
-                if (rU <= probArray[j]) {
-                    break;
+            double rU = uniforms.next();
+            // the first j < n - 1 with rU <= probArray[j], or n - 1; the sums do not decrease
+            int lo = 0;
+            int hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (rU <= probArray[mid]) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
                 }
             }
-            result[i] = perm[j];
+            result[i] = perm[lo];
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    private static int[] walkerProbSampleReplace(int n, double[] probArray, int resultSize) {
+        // The following code is transcribed from GNU R src/main/random.c (walker_ProbSampleReplace)
+        int[] result = new int[resultSize];
+        int[] a = new int[n];
+        double[] q = new double[n];
+        /*
+         * Create the alias tables. hl[0 .. h] are the entries with q < 1 and hl[l .. n - 1] those
+         * with q >= 1.
+         */
+        int[] hl = new int[n];
+        int h = -1;
+        int l = n;
+        for (int i = 0; i < n; i++) {
+            q[i] = probArray[i] * n;
+            if (q[i] < 1.) {
+                hl[++h] = i;
+            } else {
+                hl[--l] = i;
+            }
+        }
+        if (h >= 0 && l < n) { /* So some q[i] are >= 1 and some < 1 */
+            for (int k = 0; k < n - 1; k++) {
+                int i = hl[k];
+                int j = hl[l];
+                a[i] = j;
+                q[j] += q[i] - 1;
+                if (q[j] < 1.) {
+                    l++;
+                }
+                if (l >= n) {
+                    break; /* now all are >= 1 */
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            q[i] += i;
+        }
+        /* generate sample */
+        UniformBlocks uniforms = new UniformBlocks(resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            double rU = uniforms.next() * n;
+            int k = (int) rU;
+            result[i] = (rU < q[k]) ? k + 1 : a[k] + 1;
         }
         return result;
     }
@@ -225,8 +298,9 @@ public abstract class Sample extends RBuiltinNode {
         }
         heapSort(perm, probArray);
         double totalMass = 1;
+        UniformBlocks uniforms = new UniformBlocks(resultSize);
         for (int i = 0, n1 = n - 1; i < resultSize; i++, n1--) {
-            double rT = totalMass * RRNG.unifRand();
+            double rT = totalMass * uniforms.next();
             double mass = 0;
             int j = 0;
             for (j = 0; j < n1; j++) {
@@ -245,6 +319,35 @@ public abstract class Sample extends RBuiltinNode {
         return ans;
     }
 
+    /**
+     * Hands out a fixed number of uniform random numbers, which are generated in blocks. They are
+     * the numbers that the same number of {@link RRNG#unifRand()} calls would return, so all of
+     * them must be consumed before anything else uses the generator.
+     */
+    private static final class UniformBlocks {
+        private static final int BLOCK_SIZE = 4096;
+
+        private final double[] block;
+        private int remaining;
+        private int filled;
+        private int pos;
+
+        UniformBlocks(int count) {
+            this.block = new double[Math.min(count, BLOCK_SIZE)];
+            this.remaining = count;
+        }
+
+        double next() {
+            if (pos == filled) {
+                filled = Math.min(remaining, block.length);
+                RRNG.unifRand(block, 0, filled);
+                remaining -= filled;
+                pos = 0;
+            }
+            return block[pos++];
+        }
+    }
+
     @TruffleBoundary
     private void buildheap(double[] keys, int[] values) {
         for (int i = (keys.length >> 1); i >= 0; i--) {
@@ -25,7 +25,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -52,6 +52,7 @@ import com.oracle.truffle.r.runtime.data.RLogical;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RString;
+import com.oracle.truffle.r.runtime.data.RStringCache;
 import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
@@ -99,6 +100,8 @@ public abstract class Scan extends RBuiltinNode {
         boolean atStart = false;
         boolean embedWarn = false;
         boolean skipNull = false;
+        boolean stripWhite = false;
+        ScanTokenizer tokens = null;
     }
 
     @Override
@@ -184,12 +187,15 @@ public abstract class Scan extends RBuiltinNode {
         }
 
         data.skipNull = skipNull;
+        data.stripWhite = strip == RRuntime.LOGICAL_TRUE;
 
         // TODO: quite a few more things happen in GNU R around connections
         data.con = RConnection.fromIndex(file);
 
         data.save = 0;
 
+        data.tokens = new ScanTokenizer(data.sepchar, data.quoteset, data.comchar, data.decchar);
+
         try (RConnection openConn = data.con.forceOpen("r")) {
             if (nskip > 0) {
                 openConn.readLines(nskip, true, skipNull);
@@ -205,116 +211,237 @@ public abstract class Scan extends RBuiltinNode {
         }
     }
 
-    private static int getFirstQuoteInd(String str, char sepChar) {
-        int quoteInd = str.indexOf(sepChar);
-        if (quoteInd >= 0) {
-            if (quoteInd == 0 || str.charAt(quoteInd - 1) == ' ' || str.charAt(quoteInd - 1) == '\t') {
-                // it's a quote character if it starts the string or is preceded by a blank space
-                return quoteInd;
+    /**
+     * Reads the next line into {@code data.tokens}, returns {@code false} at the end of input.
+     */
+    private static boolean readFields(LocalData data, boolean blSkip) throws IOException {
+        while (true) {
+            String[] str = data.con.readLines(1, true, false);
+            if (str == null || str.length == 0) {
+                return false;
             }
+            // with a separator character, leading and trailing white space belongs to the fields
+            String s = data.sepchar == null ? str[0].trim() : str[0];
+            if (blSkip && s.length() == 0) {
+                continue;
+            }
+            data.tokens.tokenize(s);
+            if (blSkip && data.tokens.isBlank()) {
+                // a line containing only a comment
+                continue;
+            }
+            return true;
         }
-        return -1;
     }
 
-    private static String[] getQuotedItems(LocalData data, String s) {
-        LinkedList<String> items = new LinkedList<>();
+    /**
+     * Accumulates the values scanned for one element of {@code what}. The common atomic types are
+     * parsed directly into a growing primitive array.
+     */
+    private abstract static class Column {
+        protected int size;
 
-        String str = s;
-        StringBuilder sb = null;
+        abstract void add(ScanTokenizer tokens, int field, LocalData data);
 
-        while (true) {
-            int sepInd;
-            if (data.sepchar == null) {
-                int blInd = str.indexOf(' ');
-                int tabInd = str.indexOf('\t');
-                if (blInd == -1) {
-                    sepInd = tabInd;
-                } else if (tabInd == -1) {
-                    sepInd = blInd;
-                } else {
-                    sepInd = Math.min(blInd, tabInd);
-                }
-            } else {
-                assert data.sepchar.length() == 1;
-                sepInd = str.indexOf(data.sepchar.charAt(0));
+        /**
+         * Adds the value of an empty field, used for filling incomplete records.
+         */
+        abstract void addEmpty(LocalData data);
+
+        abstract RVector<?> finish();
+    }
+
+    private static final class LogicalColumn extends Column {
+        private byte[] values;
+        private boolean complete = RDataFactory.COMPLETE_VECTOR;
+
+        LogicalColumn(int blockSize) {
+            values = new byte[blockSize];
+        }
+
+        private void append(byte value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(1, size * 2));
             }
+            complete &= !RRuntime.isNA(value);
+            values[size++] = value;
+        }
 
-            int quoteInd = getFirstQuoteInd(str, data.quoteset.charAt(0));
-            char quoteChar = data.quoteset.charAt(0);
-            for (int i = 1; i < data.quoteset.length(); i++) {
-                int ind = getFirstQuoteInd(str, data.quoteset.charAt(i));
-                if (ind >= 0 && (quoteInd == -1 || (quoteInd >= 0 && ind < quoteInd))) {
-                    // update quoteInd if either the new index is smaller or the previous one (for
-                    // another separator) was not found
-                    quoteInd = ind;
-                    quoteChar = data.quoteset.charAt(i);
-                }
+        @Override
+        void add(ScanTokenizer tokens, int field, LocalData data) {
+            tokens.strip(field);
+            append(tokens.isNaString(field, true, data.naStrings) ? RRuntime.LOGICAL_NA : tokens.parseLogical(field));
+        }
+
+        @Override
+        void addEmpty(LocalData data) {
+            append(RRuntime.LOGICAL_NA);
+        }
+
+        @Override
+        RVector<?> finish() {
+            return RDataFactory.createLogicalVector(size == values.length ? values : Arrays.copyOf(values, size), complete);
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private int[] values;
+        private boolean complete = RDataFactory.COMPLETE_VECTOR;
+
+        IntColumn(int blockSize) {
+            values = new int[blockSize];
+        }
+
+        private void append(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(1, size * 2));
             }
+            complete &= !RRuntime.isNA(value);
+            values[size++] = value;
+        }
 
-            if (sb == null) {
-                // first iteration
-                if (quoteInd == -1) {
-                    // no quotes at all
-                    return data.sepchar == null ? s.split("\\s+") : s.split(data.sepchar);
-                } else {
-                    sb = new StringBuilder();
-                }
+        @Override
+        void add(ScanTokenizer tokens, int field, LocalData data) {
+            tokens.strip(field);
+            append(tokens.isNaString(field, true, data.naStrings) ? RRuntime.INT_NA : tokens.parseInt(field));
+        }
+
+        @Override
+        void addEmpty(LocalData data) {
+            append(RRuntime.INT_NA);
+        }
+
+        @Override
+        RVector<?> finish() {
+            return RDataFactory.createIntVector(size == values.length ? values : Arrays.copyOf(values, size), complete);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private double[] values;
+        private boolean complete = RDataFactory.COMPLETE_VECTOR;
+
+        DoubleColumn(int blockSize) {
+            values = new double[blockSize];
+        }
+
+        private void append(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(1, size * 2));
             }
+            complete &= !RRuntime.isNA(value);
+            values[size++] = value;
+        }
 
-            if (sepInd == -1 && quoteInd == -1) {
-                // no more separators and no more quotes - add the last item and return
-                sb.append(str);
-                items.add(sb.toString());
-                break;
+        @Override
+        void add(ScanTokenizer tokens, int field, LocalData data) {
+            tokens.strip(field);
+            append(tokens.isNaString(field, true, data.naStrings) ? RRuntime.DOUBLE_NA : tokens.parseDouble(field));
+        }
+
+        @Override
+        void addEmpty(LocalData data) {
+            append(RRuntime.DOUBLE_NA);
+        }
+
+        @Override
+        RVector<?> finish() {
+            return RDataFactory.createDoubleVector(size == values.length ? values : Arrays.copyOf(values, size), complete);
+        }
+    }
+
+    private static final class StringColumn extends Column {
+        private String[] values;
+        private boolean complete = RDataFactory.COMPLETE_VECTOR;
+
+        StringColumn(int blockSize) {
+            values = new String[blockSize];
+        }
+
+        private void append(String value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(1, size * 2));
             }
+            complete &= !RRuntime.isNA(value);
+            values[size++] = value;
+        }
 
-            if (quoteInd >= 0 && (sepInd == -1 || (sepInd >= 0 && quoteInd < sepInd))) {
-                // quote character was found before the separator character - everything from the
-                // beginning of str up to the end of quote becomes part of this item
-                sb.append(str.substring(0, quoteInd));
-                int nextQuoteInd = str.indexOf(quoteChar, quoteInd + 1);
-                sb.append(str.substring(quoteInd + 1, nextQuoteInd));
-                str = str.substring(nextQuoteInd + 1, str.length());
-            } else {
-                assert sepInd >= 0;
-                // everything from the beginning of str becomes part of this time and item
-                // processing is completed (also eat up separators)
-                String[] tuple = data.sepchar == null ? str.split("\\s+", 2) : str.split(data.sepchar, 2);
-                assert tuple.length == 2;
-                sb.append(tuple[0]);
-                str = tuple[1];
-                items.add(sb.toString());
-                sb = new StringBuilder();
+        @Override
+        void add(ScanTokenizer tokens, int field, LocalData data) {
+            if (data.stripWhite) {
+                tokens.strip(field);
             }
+            append(tokens.isNaString(field, false, data.naStrings) ? RRuntime.STRING_NA : tokens.getString(field));
         }
 
-        return items.toArray(new String[items.size()]);
+        @Override
+        void addEmpty(LocalData data) {
+            append(isNaString("", 1, data) ? RRuntime.STRING_NA : "");
+        }
+
+        @Override
+        RVector<?> finish() {
+            RStringCache.internAll(values, size);
+            return RDataFactory.createStringVector(size == values.length ? values : Arrays.copyOf(values, size), complete);
+        }
     }
 
-    private static String[] getItems(LocalData data, boolean blSkip) throws IOException {
-        while (true) {
-            String[] str = data.con.readLines(1, true, false);
-            if (str == null || str.length == 0) {
-                return null;
-            } else {
-                String s = str[0].trim();
-                if (blSkip && s.length() == 0) {
-                    continue;
-                } else {
-                    if (data.quoteset.length() == 0) {
-                        return data.sepchar == null ? s.split("\\s+") : s.split(data.sepchar);
-                    } else {
-                        return getQuotedItems(data, s);
-                    }
-                }
+    /**
+     * Handles the remaining types (complex, raw) through {@link #extractItem}.
+     */
+    private static final class GenericColumn extends Column {
+        private final RAbstractVector what;
+        private final NACheck naCheck;
+        private RVector<?> vec;
+
+        GenericColumn(RAbstractVector what, int blockSize, NACheck naCheck) {
+            this.what = what;
+            this.naCheck = naCheck;
+            this.vec = what.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR);
+        }
+
+        private void append(Object item) {
+            if (size == vec.getLength()) {
+                vec = vec.copyResized(Math.max(1, size * 2), false);
             }
+            vec.updateDataAtAsObject(size++, item, naCheck);
+        }
+
+        @Override
+        void add(ScanTokenizer tokens, int field, LocalData data) {
+            tokens.strip(field);
+            append(extractItem(what, tokens.getString(field), data));
+        }
+
+        @Override
+        void addEmpty(LocalData data) {
+            append(extractItem(what, "", data));
+        }
+
+        @Override
+        RVector<?> finish() {
+            return vec.getLength() > size ? vec.copyResized(size, false) : vec;
+        }
+    }
+
+    private Column createColumn(RAbstractVector what, int blockSize) {
+        Class<?> elementClass = what.getElementClass();
+        if (elementClass == RLogical.class) {
+            return new LogicalColumn(blockSize);
+        } else if (elementClass == RInteger.class) {
+            return new IntColumn(blockSize);
+        } else if (elementClass == RDouble.class) {
+            return new DoubleColumn(blockSize);
+        } else if (elementClass == RString.class) {
+            return new StringColumn(blockSize);
+        } else {
+            return new GenericColumn(what, blockSize, naCheck);
         }
     }
 
-    private void fillEmpty(int from, int to, int records, RList list, LocalData data) {
+    private static void fillEmpty(int from, int to, Column[] columns, LocalData data) {
         for (int i = from; i < to; i++) {
-            RVector<?> vec = (RVector<?>) list.getDataAt(i);
-            vec.updateDataAtAsObject(records, extractItem(vec, "", data), naCheck);
+            columns[i].addEmpty(data);
         }
     }
 
@@ -328,73 +455,49 @@ public abstract class Scan extends RBuiltinNode {
         }
         int blockSize = maxRecords > 0 ? maxRecords : (maxLines > 0 ? maxLines : SCAN_BLOCKSIZE);
 
-        RList list = RDataFactory.createList(new Object[nc]);
+        Column[] columns = new Column[nc];
         for (int i = 0; i < nc; i++) {
             if (what.getDataAt(i) == RNull.instance) {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.INVALID_ARGUMENT, "what");
             } else {
-                RAbstractVector vec = castVector(what.getDataAt(i));
-                list.updateDataAt(i, vec.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR), null);
+                columns[i] = createColumn(castVector(what.getDataAt(i)), blockSize);
             }
         }
-        list.setNames(what.getNames(attrProfiles));
 
         naCheck.enable(true);
 
-        return scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, nc, blockSize, list);
+        int records = scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, columns);
+
+        if (!data.quiet) {
+            String s = String.format("Read %d record%s", records, (records == 1) ? "" : "s");
+            StdConnections.getStdout().writeString(s, true);
+        }
+        Object[] result = new Object[nc];
+        for (int i = 0; i < nc; i++) {
+            result[i] = columns[i].finish();
+        }
+        RList list = RDataFactory.createList(result);
+        list.setNames(what.getNames(attrProfiles));
+        return list;
     }
 
+    /**
+     * Distributes the fields of the lines read over the columns, one record after another, and
+     * returns the number of records read.
+     */
     @TruffleBoundary
-    private RVector<?> scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, int nc, int initialBlockSize, RList list)
-                    throws IOException {
-        int blockSize = initialBlockSize;
+    private int scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, Column[] columns) throws IOException {
+        int nc = columns.length;
+        ScanTokenizer tokens = data.tokens;
         int n = 0;
         int lines = 0;
         int records = 0;
-        while (true) {
-            // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, blSkip);
-            if (strItems == null) {
-                break;
-            }
-
-            boolean done = false;
-            for (int i = 0; i < Math.max(nc, strItems.length); i++) {
-
-                if (n == strItems.length) {
-                    if (fill) {
-                        fillEmpty(n, nc, records, list, data);
-                        records++;
-                        n = 0;
-                        break;
-                    } else if (!multiLine) {
-                        throw RError.error(this, RError.Message.LINE_ELEMENTS, lines + 1, nc);
-                    } else {
-                        strItems = getItems(data, blSkip);
-                        // Checkstyle: stop modified control variable check
-                        i = 0;
-                        // Checkstyle: resume modified control variable check
-                        if (strItems == null) {
-                            done = true;
-                            break;
-                        }
-                    }
-                }
-                Object item = extractItem((RAbstractVector) list.getDataAt(n), strItems[i], data);
-
-                if (records == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    for (int j = 0; j < nc; j++) {
-                        RVector<?> vec = (RVector<?>) list.getDataAt(j);
-                        vec = vec.copyResized(blockSize, false);
-                        list.updateDataAt(j, vec, null);
-                    }
-                }
-
-                RVector<?> vec = (RVector<?>) list.getDataAt(n);
-                vec.updateDataAtAsObject(records, item, naCheck);
+        boolean done = false;
+        while (!done && readFields(data, blSkip)) {
+            int count = tokens.getFieldCount();
+            for (int i = 0; i < count; i++) {
+                columns[n].add(tokens, i, data);
                 n++;
                 if (n == nc) {
                     records++;
@@ -408,88 +511,64 @@ public abstract class Scan extends RBuiltinNode {
                     }
                 }
             }
-            if (done) {
-                break;
+            if (!done && n > 0) {
+                // the line ended in the middle of a record
+                if (fill) {
+                    fillEmpty(n, nc, columns, data);
+                    records++;
+                    n = 0;
+                    done = records == maxRecords;
+                } else if (!multiLine) {
+                    throw RError.error(this, RError.Message.LINE_ELEMENTS, lines + 1, nc);
+                }
             }
             lines++;
             if (lines == maxLines) {
                 break;
             }
-
         }
 
-        if (n > 0 && n < nc) {
+        if (n > 0) {
             if (!fill) {
                 RError.warning(this, RError.Message.ITEMS_NOT_MULTIPLE);
             }
-            fillEmpty(n, nc, records, list, data);
+            fillEmpty(n, nc, columns, data);
             records++;
         }
-
-        if (!data.quiet) {
-            String s = String.format("Read %d record%s", records, (records == 1) ? "" : "s");
-            StdConnections.getStdout().writeString(s, true);
-        }
-        // trim vectors if necessary
-        for (int i = 0; i < nc; i++) {
-            RVector<?> vec = (RVector<?>) list.getDataAt(i);
-            if (vec.getLength() > records) {
-                list.updateDataAt(i, vec.copyResized(records, false), null);
-            }
-        }
-
-        return list;
+        return records;
     }
 
     @TruffleBoundary
     private RVector<?> scanVector(RAbstractVector what, int maxItems, int maxLines, @SuppressWarnings("unused") boolean flush, @SuppressWarnings("unused") boolean stripWhite, boolean blSkip,
                     LocalData data) throws IOException {
         int blockSize = maxItems > 0 ? maxItems : SCAN_BLOCKSIZE;
-        RVector<?> vec = what.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR);
+        Column column = createColumn(what, blockSize);
         naCheck.enable(true);
+        ScanTokenizer tokens = data.tokens;
 
         int n = 0;
         int lines = 0;
-        while (true) {
-            // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, blSkip);
-            if (strItems == null) {
-                break;
-            }
-
-            boolean done = false;
-            for (int i = 0; i < strItems.length; i++) {
-
-                Object item = extractItem(what, strItems[i], data);
-
-                if (n == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    vec = vec.copyResized(blockSize, false);
-                }
-
-                vec.updateDataAtAsObject(n, item, naCheck);
+        boolean done = false;
+        while (!done && readFields(data, blSkip)) {
+            int count = tokens.getFieldCount();
+            for (int i = 0; i < count; i++) {
+                column.add(tokens, i, data);
                 n++;
                 if (n == maxItems) {
                     done = true;
                     break;
                 }
             }
-            if (done) {
-                break;
-            }
             lines++;
             if (lines == maxLines) {
                 break;
             }
-
         }
         if (!data.quiet) {
             String s = String.format("Read %d item%s", n, (n == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vector if necessary
-        return vec.getLength() > n ? vec.copyResized(n, false) : vec;
+        return column.finish();
     }
 
     // If mode = 0 use for numeric fields where "" is NA
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+
+/**
+ * Splits the lines read by {@link Scan} into fields in a single pass over the characters, handling
+ * separators, quotes and comments. The (unquoted) field contents are kept in a shared character
+ * buffer so that numeric fields can be converted without creating a {@link String} per field.
+ */
+final class ScanTokenizer {
+
+    /**
+     * The powers of ten that are exactly representable as doubles, see {@link #parseDouble(int)}.
+     */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Separator character, {@code 0} if fields are separated by white space.
+     */
+    private final char sep;
+    private final String quoteSet;
+    private final int commentChar;
+    private final char dec;
+
+    private char[] line = new char[256];
+    private char[] chars = new char[256];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private int count;
+    private boolean blank;
+
+    ScanTokenizer(String sep, String quoteSet, int commentChar, char dec) {
+        this.sep = sep == null ? 0 : sep.charAt(0);
+        this.quoteSet = quoteSet;
+        this.commentChar = commentChar;
+        this.dec = dec;
+    }
+
+    private static boolean isSpace(char c) {
+        // same as "\\s" in Java regular expressions
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private boolean isQuote(char c) {
+        return quoteSet.indexOf(c) >= 0;
+    }
+
+    /**
+     * Splits {@code s} into fields. A line without any fields (also one that only contains a
+     * comment) yields a single empty field and is reported by {@link #isBlank()}.
+     */
+    void tokenize(String s) {
+        int len = s.length();
+        if (line.length < len) {
+            line = new char[len];
+            chars = new char[len];
+        }
+        s.getChars(0, len, line, 0);
+        boolean whitespace = sep == 0;
+        count = 0;
+        blank = true;
+        int out = 0;
+        int fieldStart = 0;
+        boolean fieldQuoted = false;
+        int pos = 0;
+        if (whitespace) {
+            while (pos < len && isSpace(line[pos])) {
+                pos++;
+            }
+        }
+        while (pos < len) {
+            char c = line[pos];
+            if (c == commentChar) {
+                break;
+            }
+            blank = false;
+            if (whitespace && isSpace(c)) {
+                addField(fieldStart, out, fieldQuoted);
+                fieldStart = out;
+                fieldQuoted = false;
+                while (pos < len && isSpace(line[pos])) {
+                    pos++;
+                }
+                if (pos == len || line[pos] == commentChar) {
+                    // nothing but white space (and possibly a comment) follows
+                    fieldStart = -1;
+                    break;
+                }
+                continue;
+            }
+            if (c == sep && !whitespace) {
+                addField(fieldStart, out, fieldQuoted);
+                fieldStart = out;
+                fieldQuoted = false;
+                pos++;
+                continue;
+            }
+            if (isQuote(c) && (out == fieldStart || line[pos - 1] == ' ' || line[pos - 1] == '\t')) {
+                // it's a quote character if it starts the field or is preceded by a blank space
+                fieldQuoted = true;
+                pos++;
+                while (pos < len) {
+                    char d = line[pos++];
+                    if (d == c) {
+                        if (!whitespace && pos < len && line[pos] == c) {
+                            // doubled quote within a quoted field stands for the quote itself
+                            pos++;
+                        } else {
+                            break;
+                        }
+                    }
+                    chars[out++] = d;
+                }
+                continue;
+            }
+            chars[out++] = c;
+            pos++;
+        }
+        if (fieldStart >= 0) {
+            addField(fieldStart, out, fieldQuoted);
+        }
+    }
+
+    private void addField(int start, int end, boolean isQuoted) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            quoted = Arrays.copyOf(quoted, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        quoted[count] = isQuoted;
+        count++;
+    }
+
+    private boolean isBlankChar(char c) {
+        return (c == ' ' || c == '\t') && c != sep;
+    }
+
+    /**
+     * Removes leading and trailing blanks from an unquoted field, as {@code strip.white} does for
+     * character fields and {@code scan} always does for numeric ones. Fields separated by white
+     * space never contain any.
+     */
+    void strip(int field) {
+        if (sep == 0 || quoted[field]) {
+            return;
+        }
+        int start = starts[field];
+        int end = ends[field];
+        while (start < end && isBlankChar(chars[start])) {
+            start++;
+        }
+        while (end > start && isBlankChar(chars[end - 1])) {
+            end--;
+        }
+        starts[field] = start;
+        ends[field] = end;
+    }
+
+    int getFieldCount() {
+        return count;
+    }
+
+    boolean isBlank() {
+        return blank;
+    }
+
+    String getString(int field) {
+        return new String(chars, starts[field], ends[field] - starts[field]);
+    }
+
+    private boolean fieldEquals(int field, String s) {
+        int start = starts[field];
+        int len = ends[field] - start;
+        if (s.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (chars[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks {@code field} against the {@code na.strings}. For numeric fields an empty field is
+     * always {@code NA}, for character fields only if {@code ""} is one of the {@code na.strings}.
+     */
+    boolean isNaString(int field, boolean numeric, RAbstractStringVector naStrings) {
+        if (numeric && starts[field] == ends[field]) {
+            return true;
+        }
+        for (int i = 0; i < naStrings.getLength(); i++) {
+            if (fieldEquals(field, naStrings.getDataAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    byte parseLogical(int field) {
+        return RRuntime.string2logicalNoCheck(getString(field));
+    }
+
+    /**
+     * Parses plain decimal integers directly from the buffer, anything else (hexadecimal
+     * constants, white space) goes through {@link RRuntime#string2intNoCheck(String)}.
+     */
+    int parseInt(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 10) {
+            return RRuntime.string2intNoCheck(getString(field));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return RRuntime.string2intNoCheck(getString(field));
+            }
+            value = value * 10 + (c - '0');
+        }
+        // out of range values (including the one that coincides with NA) are NA
+        return value > Integer.MAX_VALUE ? RRuntime.INT_NA : (int) (negative ? -value : value);
+    }
+
+    /**
+     * Parses decimal numbers with up to 15 significant digits and a small exponent directly from
+     * the buffer. Both the significand and the power of ten are then exact doubles, so a single
+     * multiplication or division yields the correctly rounded result. Other numbers go through
+     * {@link RRuntime#string2doubleNoCheck(String)}.
+     */
+    double parseDouble(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long significand = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (significand != 0 || c != '0') {
+                    if (++significantDigits > 15) {
+                        return parseDoubleSlow(field);
+                    }
+                    significand = significand * 10 + (c - '0');
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (c == dec && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return parseDoubleSlow(field);
+        }
+        if (i < end) {
+            if ((chars[i] != 'e' && chars[i] != 'E') || ++i == end) {
+                return parseDoubleSlow(field);
+            }
+            boolean negativeExponent = false;
+            if (chars[i] == '-' || chars[i] == '+') {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            if (i == end || end - i > 3) {
+                return parseDoubleSlow(field);
+            }
+            int e = 0;
+            for (; i < end; i++) {
+                char c = chars[i];
+                if (c < '0' || c > '9') {
+                    return parseDoubleSlow(field);
+                }
+                e = e * 10 + (c - '0');
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        double value = significand;
+        if (exponent > 0) {
+            if (exponent >= POWERS_OF_TEN.length) {
+                return parseDoubleSlow(field);
+            }
+            value *= POWERS_OF_TEN[exponent];
+        } else if (exponent < 0) {
+            if (-exponent >= POWERS_OF_TEN.length) {
+                return parseDoubleSlow(field);
+            }
+            value /= POWERS_OF_TEN[-exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int field) {
+        String s = getString(field);
+        return RRuntime.string2doubleNoCheck(dec == '.' ? s : s.replace(dec, '.'));
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Stable sorting of index permutations as used by {@link Order} and {@link Rank}. All methods sort
+ * the range {@code indx[lo..hi]} in place and keep elements that compare equal in their incoming
+ * relative order, so that, starting from an ascending permutation, ties end up ordered by index as
+ * GnuR's shell sort does.
+ *
+ * Keys that can be mapped to an unsigned {@code long} (integers, logicals, factors and doubles) are
+ * sorted with an LSD radix sort, everything else with a merge sort over an
+ * {@link IndexComparator}.
+ */
+final class StableSort {
+
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    /**
+     * Below this size insertion sort beats both the radix and the merge sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private StableSort() {
+    }
+
+    /**
+     * Compares two elements identified by their index in the (unpermuted) source vector.
+     */
+    interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Maps an integer to a key whose unsigned order is the signed order of the integer (or the
+     * reverse for {@code dec}).
+     */
+    static long intKey(int x, boolean dec) {
+        long key = (long) x - Integer.MIN_VALUE;
+        return dec ? ~key : key;
+    }
+
+    /**
+     * Maps a non-NaN double to a key whose unsigned order is the numeric order of the double (or
+     * the reverse for {@code dec}). {@code -0.0} and {@code 0.0} map to the same key as they
+     * compare equal.
+     */
+    static long doubleKey(double x, boolean dec) {
+        long bits = Double.doubleToRawLongBits(x == 0 ? 0d : x);
+        long key = bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+        return dec ? ~key : key;
+    }
+
+    /**
+     * Sorts {@code indx[lo..hi]} by {@code keys}, where {@code keys[i - lo]} is the key of the
+     * element at {@code indx[i]}, compared as unsigned values. The contents of {@code keys} are
+     * clobbered.
+     */
+    @TruffleBoundary
+    static void radixSort(int[] indx, int lo, int hi, long[] keys) {
+        int n = hi - lo + 1;
+        if (n < 2) {
+            return;
+        }
+        if (n <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(indx, lo, hi, keys);
+            return;
+        }
+        // digits that are the same in all keys need no pass
+        long first = keys[0];
+        long diff = 0;
+        for (int i = 1; i < n; i++) {
+            diff |= keys[i] ^ first;
+        }
+        if (diff == 0) {
+            return;
+        }
+        long[] srcKeys = keys;
+        int[] srcIndx = Arrays.copyOfRange(indx, lo, hi + 1);
+        long[] dstKeys = new long[n];
+        int[] dstIndx = new int[n];
+        int[] count = new int[RADIX];
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            if (((diff >>> shift) & RADIX_MASK) == 0) {
+                continue;
+            }
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) {
+                count[(int) ((srcKeys[i] >>> shift) & RADIX_MASK)]++;
+            }
+            int pos = 0;
+            for (int d = 0; d < RADIX; d++) {
+                int c = count[d];
+                count[d] = pos;
+                pos += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int p = count[(int) ((srcKeys[i] >>> shift) & RADIX_MASK)]++;
+                dstKeys[p] = srcKeys[i];
+                dstIndx[p] = srcIndx[i];
+            }
+            long[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+            int[] tmpIndx = srcIndx;
+            srcIndx = dstIndx;
+            dstIndx = tmpIndx;
+        }
+        System.arraycopy(srcIndx, 0, indx, lo, n);
+    }
+
+    private static void insertionSort(int[] indx, int lo, int hi, long[] keys) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long key = keys[i - lo];
+            int itmp = indx[i];
+            int j = i - 1;
+            while (j >= lo && Long.compareUnsigned(keys[j - lo], key) > 0) {
+                keys[j - lo + 1] = keys[j - lo];
+                indx[j + 1] = indx[j];
+                j--;
+            }
+            keys[j - lo + 1] = key;
+            indx[j + 1] = itmp;
+        }
+    }
+
+    /**
+     * Sorts the whole of {@code indx} by several keys, the first one being the most significant.
+     * {@code elementKeys[k][e]} is the unsigned key of element {@code e} for the {@code k}th
+     * vector.
+     */
+    @TruffleBoundary
+    static void multiKeySort(int[] indx, long[][] elementKeys, boolean dec) {
+        int n = indx.length;
+        long[] keys = new long[n];
+        for (int k = elementKeys.length - 1; k >= 0; k--) {
+            long[] ek = elementKeys[k];
+            for (int i = 0; i < n; i++) {
+                long key = ek[indx[i]];
+                keys[i] = dec ? ~key : key;
+            }
+            radixSort(indx, 0, n - 1, keys);
+        }
+    }
+
+    /**
+     * Sorts {@code indx[lo..hi]} with a stable merge sort.
+     */
+    @TruffleBoundary
+    static void mergeSort(int[] indx, int lo, int hi, IndexComparator cmp) {
+        int n = hi - lo + 1;
+        if (n < 2) {
+            return;
+        }
+        int[] buf = Arrays.copyOfRange(indx, lo, hi + 1);
+        mergeSort(buf, 0, indx, lo, n, cmp);
+    }
+
+    /**
+     * Sorts {@code src[srcLo..srcLo+n)} into {@code dst[dstLo..dstLo+n)}; both ranges must hold the
+     * same elements on entry.
+     */
+    private static void mergeSort(int[] src, int srcLo, int[] dst, int dstLo, int n, IndexComparator cmp) {
+        if (n <= INSERTION_SORT_THRESHOLD) {
+            for (int i = dstLo + 1; i < dstLo + n; i++) {
+                int itmp = dst[i];
+                int j = i - 1;
+                while (j >= dstLo && cmp.compare(dst[j], itmp) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = itmp;
+            }
+            return;
+        }
+        int half = n >>> 1;
+        // sort both halves of dst into src, then merge them back into dst
+        mergeSort(dst, dstLo, src, srcLo, half, cmp);
+        mergeSort(dst, dstLo + half, src, srcLo + half, n - half, cmp);
+        int mid = srcLo + half;
+        int end = srcLo + n;
+        if (cmp.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, srcLo, dst, dstLo, n);
+            return;
+        }
+        int i = srcLo;
+        int j = mid;
+        for (int k = dstLo; k < dstLo + n; k++) {
+            if (j >= end || (i < mid && cmp.compare(src[i], src[j]) <= 0)) {
+                dst[k] = src[i++];
+            } else {
+                dst[k] = src[j++];
+            }
+        }
+    }
+
+    /**
+     * Returns for each of the {@code n} elements its dense rank according to {@code cmp}, i.e.
+     * equal elements get the same rank and ranks are consecutive starting at zero.
+     */
+    @TruffleBoundary
+    static long[] denseRanks(int n, IndexComparator cmp) {
+        int[] indx = new int[n];
+        for (int i = 0; i < n; i++) {
+            indx[i] = i;
+        }
+        mergeSort(indx, 0, n - 1, cmp);
+        long[] ranks = new long[n];
+        long rank = 0;
+        for (int i = 1; i < n; i++) {
+            if (cmp.compare(indx[i - 1], indx[i]) != 0) {
+                rank++;
+            }
+            ranks[indx[i]] = rank;
+        }
+        return ranks;
+    }
+}
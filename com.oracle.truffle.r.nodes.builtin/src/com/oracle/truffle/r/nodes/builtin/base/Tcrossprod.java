@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.*;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * {@code tcrossprod(x, y)} is {@code x %*% t(y)}. For double matrices the transposition is folded
+ * into the strides passed to {@link MatMult#doubleMatrixMultiply}, and {@code tcrossprod(x)} only
+ * computes the upper triangle of the symmetric result.
+ */
+@RBuiltin(name = "tcrossprod", kind = INTERNAL, parameterNames = {"x", "y"}, behavior = PURE)
+public abstract class Tcrossprod extends RBuiltinNode {
+
+    @Child private MatMult matMult = MatMultNodeGen.create(/* promoteDimNames: */ false);
+    @Child private Transpose transpose;
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("x").mustBe(numericValue().or(complexValue()), RError.ROOTNODE, RError.Message.NUMERIC_COMPLEX_MATRIX_VECTOR);
+        casts.arg("y").defaultError(RError.ROOTNODE, RError.Message.NUMERIC_COMPLEX_MATRIX_VECTOR).allowNull().mustBe(numericValue().or(complexValue()));
+    }
+
+    private Object matMult(Object op1, Object op2) {
+        return matMult.executeObject(op1, op2);
+    }
+
+    private Object transpose(RAbstractVector value) {
+        if (transpose == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            transpose = insert(TransposeNodeGen.create());
+        }
+        return transpose.execute(value);
+    }
+
+    @Specialization(guards = {"x.isMatrix()", "y.isMatrix()"})
+    protected RDoubleVector tcrossprod(RAbstractDoubleVector x, RAbstractDoubleVector y) {
+        int xRows = x.getDimensions()[0];
+        int xCols = x.getDimensions()[1];
+        int yRows = y.getDimensions()[0];
+        int yCols = y.getDimensions()[1];
+        return matMult.doubleMatrixMultiply(x, y, xRows, xCols, yCols, yRows, 1, xRows, yRows, 1, false);
+    }
+
+    @Specialization
+    protected Object tcrossprod(RAbstractVector x, RAbstractVector y) {
+        return matMult(x, transpose(y));
+    }
+
+    @Specialization(guards = "x.isMatrix()")
+    protected RDoubleVector tcrossprodDoubleMatrix(RAbstractDoubleVector x, @SuppressWarnings("unused") RNull y) {
+        int xRows = x.getDimensions()[0];
+        int xCols = x.getDimensions()[1];
+        return Crossprod.mirror(matMult.doubleMatrixMultiply(x, x, xRows, xCols, xCols, xRows, 1, xRows, xRows, 1, true));
+    }
+
+    @Specialization
+    protected Object tcrossprod(RAbstractVector x, @SuppressWarnings("unused") RNull y) {
+        return matMult(x, transpose(x));
+    }
+}
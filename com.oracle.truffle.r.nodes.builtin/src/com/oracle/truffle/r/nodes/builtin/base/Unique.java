@@ -50,6 +50,7 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -92,17 +93,13 @@ public abstract class Unique extends RBuiltinNode {
     @SuppressWarnings("unused")
     @Specialization
     protected RStringVector doUnique(RAbstractStringVector vec, RAbstractVector incomparables, byte fromLast, int nmax) {
-        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            Utils.NonRecursiveHashSet<String> set = new Utils.NonRecursiveHashSet<>(vec.getLength());
-            String[] data = new String[vec.getLength()];
-            int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                String val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    data[ind++] = val;
-                }
+        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD || RRuntime.fromLogical(fromLast))) {
+            int[] positions = VectorHashIndex.getIndex(vec).uniquePositions(RRuntime.fromLogical(fromLast));
+            String[] data = new String[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                data[i] = vec.getDataAt(positions[i]);
             }
-            return RDataFactory.createStringVector(Arrays.copyOf(data, ind), vec.isComplete());
+            return RDataFactory.createStringVector(data, vec.isComplete());
         } else {
             ArrayList<String> dataList = new ArrayList<>(vec.getLength());
             for (int i = 0; i < vec.getLength(); i++) {
@@ -248,20 +245,13 @@ public abstract class Unique extends RBuiltinNode {
     @SuppressWarnings("unused")
     @Specialization
     protected RIntVector doUnique(RAbstractIntVector vec, RAbstractVector incomparables, byte fromLast, int nmax) {
-        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            NonRecursiveHashSetInt set = new NonRecursiveHashSetInt();
-            int[] data = new int[16];
-            int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                int val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    if (ind == data.length) {
-                        data = Arrays.copyOf(data, data.length << 1);
-                    }
-                    data[ind++] = val;
-                }
+        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD || RRuntime.fromLogical(fromLast))) {
+            int[] positions = VectorHashIndex.getIndex(vec).uniquePositions(RRuntime.fromLogical(fromLast));
+            int[] data = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                data[i] = vec.getDataAt(positions[i]);
             }
-            return RDataFactory.createIntVector(Arrays.copyOf(data, ind), vec.isComplete());
+            return RDataFactory.createIntVector(data, vec.isComplete());
         } else {
             IntArray dataList = new IntArray(vec.getLength());
             for (int i = 0; i < vec.getLength(); i++) {
@@ -321,69 +311,16 @@ public abstract class Unique extends RBuiltinNode {
         return list.getLength() == 1;
     }
 
-    private static final class NonRecursiveHashSetInt {
-
-        private int[] keys;
-        private int size;
-        private boolean containsZero;
-
-        NonRecursiveHashSetInt() {
-            keys = new int[64];
-        }
-
-        public boolean add(int key) {
-            if (key == 0) {
-                if (containsZero) {
-                    return true;
-                } else {
-                    containsZero = true;
-                    return false;
-                }
-            }
-            int ind = Math.abs(Integer.hashCode(key)) & (keys.length - 1);
-            while (true) {
-                if (keys[ind] == 0) {
-                    keys[ind] = key;
-                    size++;
-                    if (size << 1 == keys.length) {
-                        int[] newKeys = new int[keys.length << 1];
-                        for (int rehashKey : keys) {
-                            if (rehashKey != 0) {
-                                int tmpInd = Math.abs(Integer.hashCode(rehashKey)) & (newKeys.length - 1);
-                                while (newKeys[tmpInd] != 0) {
-                                    assert newKeys[tmpInd] != rehashKey;
-                                    tmpInd = (tmpInd + 1) & (newKeys.length - 1);
-                                }
-                                newKeys[tmpInd] = rehashKey;
-                            }
-                        }
-
-                        keys = newKeys;
-                    }
-                    return false;
-                } else if (key == keys[ind]) {
-                    return true;
-                } else {
-                    ind = (ind + 1) & (keys.length - 1);
-                }
-            }
-        }
-    }
-
     @SuppressWarnings("unused")
     @Specialization
     protected RDoubleVector doUnique(RAbstractDoubleVector vec, RAbstractVector incomparables, byte fromLast, int nmax) {
-        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            Utils.NonRecursiveHashSetDouble set = new Utils.NonRecursiveHashSetDouble(vec.getLength());
-            double[] data = new double[vec.getLength()];
-            int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                double val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    data[ind++] = val;
-                }
+        if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD || RRuntime.fromLogical(fromLast))) {
+            int[] positions = VectorHashIndex.getIndex(vec).uniquePositions(RRuntime.fromLogical(fromLast));
+            double[] data = new double[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                data[i] = vec.getDataAt(positions[i]);
             }
-            return RDataFactory.createDoubleVector(Arrays.copyOf(data, ind), vec.isComplete());
+            return RDataFactory.createDoubleVector(data, vec.isComplete());
         } else {
             DoubleArray dataList = new DoubleArray(vec.getLength());
             for (int i = 0; i < vec.getLength(); i++) {
@@ -15,6 +15,8 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -22,6 +24,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.UnlistNodeGen.RecursiveLengthNodeGen;
@@ -33,14 +36,24 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RExpression;
 import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RIntSequence;
+import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLanguage;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
+import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "unlist", kind = INTERNAL, parameterNames = {"x", "recursive", "use.names"}, behavior = PURE)
@@ -59,6 +72,7 @@ public abstract class Unlist extends RBuiltinNode {
     @Child private RecursiveLength recursiveLengthNode;
 
     private final RAttributeProfiles attrProfiles = RAttributeProfiles.create();
+    private final ConditionProfile plannedProfile = ConditionProfile.createBinaryProfile();
 
     @TypeSystemReference(RTypes.class)
     protected abstract static class RecursiveLength extends Node {
@@ -158,13 +172,19 @@ public abstract class Unlist extends RBuiltinNode {
     protected Object unlistList(VirtualFrame frame, RList list, boolean recursive, boolean useNames) {
         int precedence = PrecedenceNode.NO_PRECEDENCE;
         int totalSize = 0;
-        for (int i = 0; i < list.getLength(); i++) {
-            Object data = list.getDataAt(i);
-            precedence = Math.max(precedence, precedenceNode.executeInteger(data, recursive));
-            if (recursive) {
-                totalSize += getRecursiveLength(frame, data);
-            } else {
-                totalSize += getLength(frame, data);
+        UnlistPlan plan = UnlistPlan.create(list, recursive);
+        if (plannedProfile.profile(plan != null)) {
+            precedence = plan.precedence;
+            totalSize = plan.length;
+        } else {
+            for (int i = 0; i < list.getLength(); i++) {
+                Object data = list.getDataAt(i);
+                precedence = Math.max(precedence, precedenceNode.executeInteger(data, recursive));
+                if (recursive) {
+                    totalSize += getRecursiveLength(frame, data);
+                } else {
+                    totalSize += getLength(frame, data);
+                }
             }
         }
         // If the precedence is still NO_PRECEDENCE the result is RNull.instance
@@ -181,10 +201,76 @@ public abstract class Unlist extends RBuiltinNode {
         return o;
     }
 
+    /**
+     * The result type and length of {@code unlist}, determined in a single traversal of the
+     * argument. This agrees with {@link PrecedenceNode} and {@link RecursiveLength} for the values
+     * it knows, {@link #create} returns {@code null} if it meets any other value.
+     */
+    private static final class UnlistPlan {
+        private int precedence = PrecedenceNode.NO_PRECEDENCE;
+        private int length;
+
+        @TruffleBoundary
+        static UnlistPlan create(RList list, boolean recursive) {
+            UnlistPlan plan = new UnlistPlan();
+            for (int i = 0; i < list.getLength(); i++) {
+                if (!plan.add(list.getDataAt(i), recursive)) {
+                    return null;
+                }
+            }
+            return plan;
+        }
+
+        private boolean add(Object o, boolean recursive) {
+            if (o == RNull.instance) {
+                return true;
+            } else if (o instanceof RList) {
+                RList list = (RList) o;
+                if (recursive) {
+                    for (int i = 0; i < list.getLength(); i++) {
+                        if (!add(list.getDataAt(i), true)) {
+                            return false;
+                        }
+                    }
+                } else {
+                    precedence = Math.max(precedence, PrecedenceNode.LIST_PRECEDENCE);
+                    length += list.getLength();
+                }
+                return true;
+            }
+            int p = precedence(o);
+            if (p == PrecedenceNode.NO_PRECEDENCE) {
+                return false;
+            }
+            precedence = Math.max(precedence, p);
+            length += o instanceof RAbstractVector ? ((RAbstractVector) o).getLength() : 1;
+            return true;
+        }
+
+        private static int precedence(Object o) {
+            if (o instanceof RIntVector || o instanceof RIntSequence || o instanceof Integer) {
+                return PrecedenceNode.INT_PRECEDENCE;
+            } else if (o instanceof RDoubleVector || o instanceof RDoubleSequence || o instanceof Double) {
+                return PrecedenceNode.DOUBLE_PRECEDENCE;
+            } else if (o instanceof RStringVector || o instanceof String) {
+                return PrecedenceNode.STRING_PRECEDENCE;
+            } else if (o instanceof RLogicalVector || o instanceof Byte) {
+                return PrecedenceNode.LOGICAL_PRECEDENCE;
+            } else if (o instanceof RComplexVector || o instanceof RComplex) {
+                return PrecedenceNode.COMPLEX_PRECEDENCE;
+            } else if (o instanceof RRawVector || o instanceof RRaw) {
+                return PrecedenceNode.RAW_PRECEDENCE;
+            } else if (o instanceof RExpression) {
+                return PrecedenceNode.EXPRESSION_PRECEDENCE;
+            } else {
+                return PrecedenceNode.NO_PRECEDENCE;
+            }
+        }
+    }
+
     @TruffleBoundary
     private RAbstractVector unlistHelper(RList list, boolean recursive, boolean useNames, int precedence, int totalSize) {
-        String[] namesData = useNames ? new String[totalSize] : null;
-        NamesInfo namesInfo = useNames ? new NamesInfo() : null;
+        NamesInfo namesInfo = useNames ? new NamesInfo(totalSize) : null;
         switch (precedence) {
             case PrecedenceNode.RAW_PRECEDENCE: {
                 byte[] result = new byte[totalSize];
@@ -193,13 +279,13 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperRaw(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperRaw(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperRaw(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperRaw(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
-                return RDataFactory.createRawVector(result, namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                return RDataFactory.createRawVector(result, getNames(namesInfo));
             }
             case PrecedenceNode.LOGICAL_PRECEDENCE: {
                 byte[] result = new byte[totalSize];
@@ -208,14 +294,14 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperLogical(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperLogical(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperLogical(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperLogical(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
                 return RDataFactory.createLogicalVector(result, RDataFactory.INCOMPLETE_VECTOR,
-                                namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                                getNames(namesInfo));
             }
             case PrecedenceNode.INT_PRECEDENCE: {
                 int[] result = new int[totalSize];
@@ -224,14 +310,14 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperInt(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperInt(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperInt(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperInt(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
                 return RDataFactory.createIntVector(result, RDataFactory.INCOMPLETE_VECTOR,
-                                namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                                getNames(namesInfo));
             }
             case PrecedenceNode.DOUBLE_PRECEDENCE: {
                 double[] result = new double[totalSize];
@@ -240,14 +326,14 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperDouble(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperDouble(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperDouble(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperDouble(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
                 return RDataFactory.createDoubleVector(result, RDataFactory.INCOMPLETE_VECTOR,
-                                namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                                getNames(namesInfo));
             }
             case PrecedenceNode.COMPLEX_PRECEDENCE: {
                 double[] result = new double[totalSize << 1];
@@ -256,14 +342,14 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperComplex(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperComplex(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperComplex(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperComplex(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
                 return RDataFactory.createComplexVector(result, RDataFactory.INCOMPLETE_VECTOR,
-                                namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                                getNames(namesInfo));
             }
             case PrecedenceNode.STRING_PRECEDENCE: {
                 String[] result = new String[totalSize];
@@ -272,14 +358,14 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperString(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperString(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperString(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperString(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
                 return RDataFactory.createStringVector(result, RDataFactory.INCOMPLETE_VECTOR,
-                                namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                                getNames(namesInfo));
             }
             case PrecedenceNode.LIST_PRECEDENCE:
             case PrecedenceNode.EXPRESSION_PRECEDENCE: {
@@ -289,13 +375,13 @@ public abstract class Unlist extends RBuiltinNode {
                     int position = 0;
                     for (int i = 0; i < list.getLength(); i++) {
                         if (list.getDataAt(i) != RNull.instance) {
-                            position = unlistHelperList(result, namesData, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
+                            position = unlistHelperList(result, position, namesInfo, list.getDataAt(i), null, itemName(listNames, i), recursive, useNames);
                         }
                     }
                 } else {
-                    unlistHelperList(result, namesData, 0, namesInfo, list, null, null, recursive, useNames);
+                    unlistHelperList(result, 0, namesInfo, list, null, null, recursive, useNames);
                 }
-                return RDataFactory.createList(result, namesInfo != null && namesInfo.namesAssigned ? RDataFactory.createStringVector(namesData, RDataFactory.INCOMPLETE_VECTOR) : null);
+                return RDataFactory.createList(result, getNames(namesInfo));
             }
 
             default:
@@ -311,17 +397,54 @@ public abstract class Unlist extends RBuiltinNode {
         private int count = 0;
         private int seqNo = 0;
         private int firstPos = 0;
-        private boolean namesAssigned = false;
+        /**
+         * The names, allocated when the first non-empty name is assigned.
+         */
+        private String[] names;
+        private final int size;
+
+        NamesInfo(int size) {
+            this.size = size;
+        }
 
         private void reset() {
             this.firstPos = -1;
             this.seqNo = 0;
             this.count = 0;
         }
+
+        private void setName(int position, String name) {
+            if (names == null) {
+                if (name.isEmpty()) {
+                    return;
+                }
+                names = new String[size];
+                Arrays.fill(names, RRuntime.NAMES_ATTR_EMPTY_VALUE);
+            }
+            names[position] = name;
+        }
+
+        /**
+         * Accounts for {@code n} elements without name and without base starting at
+         * {@code position}, like {@code n} calls to {@link Unlist#assignName}.
+         */
+        private void assignEmptyNames(int position, int n) {
+            if (n > 0) {
+                if (count == 0) {
+                    firstPos = position;
+                }
+                count += n;
+                seqNo += n;
+            }
+        }
+    }
+
+    private static RStringVector getNames(NamesInfo namesInfo) {
+        return namesInfo != null && namesInfo.names != null ? RDataFactory.createStringVector(namesInfo.names, RDataFactory.INCOMPLETE_VECTOR) : null;
     }
 
     @TruffleBoundary
-    private int unlistHelperRaw(byte[] result, String[] namesData, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperRaw(byte[] result, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
         int position = pos;
         int saveFirstPos = 0;
         int saveSeqNo = 0;
@@ -338,26 +461,33 @@ public abstract class Unlist extends RBuiltinNode {
         if (o instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) o;
             RStringVector listNames = useNames && v.getNames(attrProfiles) != null ? v.getNames(attrProfiles) : null;
+            if (listNames == null && base == null && !(v instanceof RList)) {
+                if (useNames) {
+                    namesInfo.assignEmptyNames(position, v.getLength());
+                }
+                // without a tag there is no name to fix up
+                return copyRaw(result, position, v);
+            }
             for (int i = 0; i < v.getLength(); i++) {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperRaw(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperRaw(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position, namesData, namesInfo, useNames);
+                    assignName(name, base, position, namesInfo, useNames);
                     result[position++] = unlistValueRaw(cur);
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position, namesData, namesInfo, useNames);
+            assignName(null, base, position, namesInfo, useNames);
             result[position++] = unlistValueRaw(o);
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
     @TruffleBoundary
-    private int unlistHelperLogical(byte[] result, String[] namesData, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperLogical(byte[] result, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
         int position = pos;
         int saveFirstPos = 0;
         int saveSeqNo = 0;
@@ -374,26 +504,33 @@ public abstract class Unlist extends RBuiltinNode {
         if (o instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) o;
             RStringVector listNames = useNames && v.getNames(attrProfiles) != null ? v.getNames(attrProfiles) : null;
+            if (listNames == null && base == null && !(v instanceof RList)) {
+                if (useNames) {
+                    namesInfo.assignEmptyNames(position, v.getLength());
+                }
+                // without a tag there is no name to fix up
+                return copyLogical(result, position, v);
+            }
             for (int i = 0; i < v.getLength(); i++) {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperLogical(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperLogical(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position, namesData, namesInfo, useNames);
+                    assignName(name, base, position, namesInfo, useNames);
                     result[position++] = unlistValueLogical(cur);
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position, namesData, namesInfo, useNames);
+            assignName(null, base, position, namesInfo, useNames);
             result[position++] = unlistValueLogical(o);
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
     @TruffleBoundary
-    private int unlistHelperInt(int[] result, String[] namesData, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperInt(int[] result, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
         int position = pos;
         int saveFirstPos = 0;
         int saveSeqNo = 0;
@@ -410,26 +547,33 @@ public abstract class Unlist extends RBuiltinNode {
         if (o instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) o;
             RStringVector listNames = useNames && v.getNames(attrProfiles) != null ? v.getNames(attrProfiles) : null;
+            if (listNames == null && base == null && !(v instanceof RList)) {
+                if (useNames) {
+                    namesInfo.assignEmptyNames(position, v.getLength());
+                }
+                // without a tag there is no name to fix up
+                return copyInt(result, position, v);
+            }
             for (int i = 0; i < v.getLength(); i++) {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperInt(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperInt(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position, namesData, namesInfo, useNames);
+                    assignName(name, base, position, namesInfo, useNames);
                     result[position++] = unlistValueInt(cur);
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position, namesData, namesInfo, useNames);
+            assignName(null, base, position, namesInfo, useNames);
             result[position++] = unlistValueInt(o);
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
     @TruffleBoundary
-    private int unlistHelperDouble(double[] result, String[] namesData, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperDouble(double[] result, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
         int position = pos;
         int saveFirstPos = 0;
         int saveSeqNo = 0;
@@ -446,26 +590,33 @@ public abstract class Unlist extends RBuiltinNode {
         if (o instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) o;
             RStringVector listNames = useNames && v.getNames(attrProfiles) != null ? v.getNames(attrProfiles) : null;
+            if (listNames == null && base == null && !(v instanceof RList)) {
+                if (useNames) {
+                    namesInfo.assignEmptyNames(position, v.getLength());
+                }
+                // without a tag there is no name to fix up
+                return copyDouble(result, position, v);
+            }
             for (int i = 0; i < v.getLength(); i++) {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperDouble(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperDouble(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position, namesData, namesInfo, useNames);
+                    assignName(name, base, position, namesInfo, useNames);
                     result[position++] = unlistValueDouble(cur);
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position, namesData, namesInfo, useNames);
+            assignName(null, base, position, namesInfo, useNames);
             result[position++] = unlistValueDouble(o);
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
     @TruffleBoundary
-    private int unlistHelperComplex(double[] result, String[] namesData, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperComplex(double[] result, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
         int position = pos;
         int saveFirstPos = 0;
         int saveSeqNo = 0;
@@ -482,30 +633,37 @@ public abstract class Unlist extends RBuiltinNode {
         if (o instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) o;
             RStringVector listNames = useNames && v.getNames(attrProfiles) != null ? v.getNames(attrProfiles) : null;
+            if (listNames == null && base == null && !(v instanceof RList)) {
+                if (useNames) {
+                    namesInfo.assignEmptyNames(position >> 1, v.getLength());
+                }
+                // without a tag there is no name to fix up
+                return copyComplex(result, position, v);
+            }
             for (int i = 0; i < v.getLength(); i++) {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperComplex(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperComplex(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position >> 1, namesData, namesInfo, useNames);
+                    assignName(name, base, position >> 1, namesInfo, useNames);
                     RComplex val = unlistValueComplex(cur);
                     result[position++] = val.getRealPart();
                     result[position++] = val.getImaginaryPart();
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position >> 1, namesData, namesInfo, useNames);
+            assignName(null, base, position >> 1, namesInfo, useNames);
             RComplex val = unlistValueComplex(o);
             result[position++] = val.getRealPart();
             result[position++] = val.getImaginaryPart();
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
     @TruffleBoundary
-    private int unlistHelperList(Object[] result, String[] namesData, int pos, NamesInfo namesInfo, Object obj, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperList(Object[] result, int pos, NamesInfo namesInfo, Object obj, String outerBase, String tag, boolean recursive, boolean useNames) {
         Object o = obj;
         int position = pos;
         int saveFirstPos = 0;
@@ -527,22 +685,22 @@ public abstract class Unlist extends RBuiltinNode {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperList(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperList(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position, namesData, namesInfo, useNames);
+                    assignName(name, base, position, namesInfo, useNames);
                     result[position++] = cur;
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position, namesData, namesInfo, useNames);
+            assignName(null, base, position, namesInfo, useNames);
             result[position++] = o;
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
     @TruffleBoundary
-    private int unlistHelperString(String[] result, String[] namesData, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
+    private int unlistHelperString(String[] result, int pos, NamesInfo namesInfo, Object o, String outerBase, String tag, boolean recursive, boolean useNames) {
         int position = pos;
         int saveFirstPos = 0;
         int saveSeqNo = 0;
@@ -559,29 +717,125 @@ public abstract class Unlist extends RBuiltinNode {
         if (o instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) o;
             RStringVector listNames = useNames && v.getNames(attrProfiles) != null ? v.getNames(attrProfiles) : null;
+            if (listNames == null && base == null && !(v instanceof RList)) {
+                if (useNames) {
+                    namesInfo.assignEmptyNames(position, v.getLength());
+                }
+                // without a tag there is no name to fix up
+                return copyString(result, position, v);
+            }
             for (int i = 0; i < v.getLength(); i++) {
                 String name = itemName(listNames, i);
                 Object cur = v.getDataAtAsObject(i);
                 if (v instanceof RList && recursive) {
-                    position = unlistHelperString(result, namesData, position, namesInfo, cur, base, name, recursive, useNames);
+                    position = unlistHelperString(result, position, namesInfo, cur, base, name, recursive, useNames);
                 } else {
-                    assignName(name, base, position, namesData, namesInfo, useNames);
+                    assignName(name, base, position, namesInfo, useNames);
                     result[position++] = unlistValueString(v.getDataAtAsObject(i));
                 }
             }
         } else if (o != RNull.instance) {
-            assignName(null, base, position, namesData, namesInfo, useNames);
+            assignName(null, base, position, namesInfo, useNames);
             result[position++] = unlistValueString(o);
         }
-        fixupName(tag, base, namesData, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
+        fixupName(tag, base, namesInfo, useNames, saveFirstPos, saveCount, saveSeqNo);
         return position;
     }
 
-    private static void fixupName(String tag, String base, String[] namesData, NamesInfo namesInfo, boolean useNames, int saveFirstPos, int saveCount, int saveSeqNo) {
+    /*
+     * The copy methods store all elements of a non-list vector, they produce the same values as
+     * the unlistValue methods applied to each element.
+     */
+
+    private static int copyRaw(byte[] result, int position, RAbstractVector v) {
+        if (v instanceof RRawVector) {
+            ((RRawVector) v).copyTo(result, position);
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                result[position + i] = unlistValueRaw(v.getDataAtAsObject(i));
+            }
+        }
+        return position + v.getLength();
+    }
+
+    private static int copyLogical(byte[] result, int position, RAbstractVector v) {
+        if (v instanceof RLogicalVector) {
+            ((RLogicalVector) v).copyTo(result, position);
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                result[position + i] = unlistValueLogical(v.getDataAtAsObject(i));
+            }
+        }
+        return position + v.getLength();
+    }
+
+    private static int copyInt(int[] result, int position, RAbstractVector v) {
+        if (v instanceof RIntVector) {
+            ((RIntVector) v).copyTo(result, position);
+        } else if (v instanceof RAbstractIntVector) {
+            RAbstractIntVector iv = (RAbstractIntVector) v;
+            for (int i = 0; i < iv.getLength(); i++) {
+                result[position + i] = iv.getDataAt(i);
+            }
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                result[position + i] = unlistValueInt(v.getDataAtAsObject(i));
+            }
+        }
+        return position + v.getLength();
+    }
+
+    private static int copyDouble(double[] result, int position, RAbstractVector v) {
+        if (v instanceof RDoubleVector) {
+            ((RDoubleVector) v).copyTo(result, position);
+        } else if (v instanceof RAbstractDoubleVector) {
+            RAbstractDoubleVector dv = (RAbstractDoubleVector) v;
+            for (int i = 0; i < dv.getLength(); i++) {
+                result[position + i] = dv.getDataAt(i);
+            }
+        } else if (v instanceof RAbstractIntVector) {
+            RAbstractIntVector iv = (RAbstractIntVector) v;
+            for (int i = 0; i < iv.getLength(); i++) {
+                int value = iv.getDataAt(i);
+                result[position + i] = RRuntime.isNA(value) ? RRuntime.DOUBLE_NA : value;
+            }
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                result[position + i] = unlistValueDouble(v.getDataAtAsObject(i));
+            }
+        }
+        return position + v.getLength();
+    }
+
+    private static int copyComplex(double[] result, int position, RAbstractVector v) {
+        if (v instanceof RComplexVector) {
+            System.arraycopy(((RComplexVector) v).getDataWithoutCopying(), 0, result, position, v.getLength() << 1);
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                RComplex val = unlistValueComplex(v.getDataAtAsObject(i));
+                result[position + (i << 1)] = val.getRealPart();
+                result[position + (i << 1) + 1] = val.getImaginaryPart();
+            }
+        }
+        return position + (v.getLength() << 1);
+    }
+
+    private static int copyString(String[] result, int position, RAbstractVector v) {
+        if (v instanceof RStringVector) {
+            ((RStringVector) v).copyTo(result, position);
+        } else {
+            for (int i = 0; i < v.getLength(); i++) {
+                result[position + i] = unlistValueString(v.getDataAtAsObject(i));
+            }
+        }
+        return position + v.getLength();
+    }
+
+    private static void fixupName(String tag, String base, NamesInfo namesInfo, boolean useNames, int saveFirstPos, int saveCount, int saveSeqNo) {
         if (useNames) {
             if (tag != null) {
                 if (namesInfo.firstPos >= 0 && namesInfo.count == 1) {
-                    namesData[namesInfo.firstPos] = base;
+                    namesInfo.setName(namesInfo.firstPos, base);
                 }
                 namesInfo.firstPos = saveFirstPos;
                 namesInfo.count = saveCount;
@@ -590,13 +844,13 @@ public abstract class Unlist extends RBuiltinNode {
         }
     }
 
-    private static void assignName(String name, String base, int position, String[] namesData, NamesInfo namesInfo, boolean useNames) {
+    private static void assignName(String name, String base, int position, NamesInfo namesInfo, boolean useNames) {
         if (useNames) {
             if (name == null && namesInfo.count == 0) {
                 namesInfo.firstPos = position;
             }
             namesInfo.count++;
-            namesData[position] = newName(base, name, namesInfo);
+            namesInfo.setName(position, newName(base, name, namesInfo));
         }
     }
 
@@ -623,13 +877,10 @@ public abstract class Unlist extends RBuiltinNode {
     private static String newName(String base, String tag, NamesInfo namesInfo) {
         namesInfo.seqNo++;
         if (base != null && tag != null) {
-            namesInfo.namesAssigned = true;
             return createCompositeName(base, tag);
         } else if (base != null) {
-            namesInfo.namesAssigned = true;
             return createCompositeName(base, namesInfo.seqNo);
         } else if (tag != null) {
-            namesInfo.namesAssigned = true;
             return tag;
         } else {
             return RRuntime.NAMES_ATTR_EMPTY_VALUE;
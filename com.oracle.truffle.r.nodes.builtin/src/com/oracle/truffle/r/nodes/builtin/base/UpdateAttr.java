@@ -135,7 +135,7 @@ public abstract class UpdateAttr extends RBuiltinNode {
     @Specialization
     protected RAbstractContainer updateAttr(RAbstractContainer container, String name, RNull value) {
         String internedName = intern(name);
-        RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
         // the name is interned, so identity comparison is sufficient
         if (internedName == RRuntime.DIM_ATTR_KEY) {
             result.setDimensions(null);
@@ -167,7 +167,7 @@ public abstract class UpdateAttr extends RBuiltinNode {
     @Specialization(guards = "!nullValue(value)")
     protected RAbstractContainer updateAttr(RAbstractContainer container, String name, Object value) {
         String internedName = intern(name);
-        RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
         // the name is interned, so identity comparison is sufficient
         if (internedName == RRuntime.DIM_ATTR_KEY) {
             RAbstractIntVector dimsVector = castInteger(castVector(value));
@@ -106,7 +106,7 @@ public abstract class UpdateAttributes extends RBuiltinNode {
 
     @Specialization
     protected RAbstractContainer updateAttributes(RAbstractContainer abstractContainer, @SuppressWarnings("unused") RNull list) {
-        RAbstractContainer resultVector = (RAbstractContainer) abstractContainer.getNonShared();
+        RAbstractContainer resultVector = (RAbstractContainer) abstractContainer.reuseNonShared();
         resultVector.resetAllAttributes(true);
         return resultVector;
     }
@@ -118,7 +118,7 @@ public abstract class UpdateAttributes extends RBuiltinNode {
             throw RError.error(this, RError.Message.ATTRIBUTES_NAMED);
         }
         RStringVector listNames = (RStringVector) listNamesObject;
-        RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
         if (numAttributesProfile.profile(list.getLength() == 0)) {
             result.resetAllAttributes(true);
         } else {
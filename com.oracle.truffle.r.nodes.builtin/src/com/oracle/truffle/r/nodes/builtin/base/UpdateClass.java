@@ -186,7 +186,7 @@ public abstract class UpdateClass extends RBuiltinNode {
 
     @SuppressWarnings("unchecked")
     private static <T extends RAbstractContainer> T reuseNonShared(T obj) {
-        return (T) obj.getNonShared();
+        return (T) obj.reuseNonShared();
     }
 
     private void initCastTypeNode() {
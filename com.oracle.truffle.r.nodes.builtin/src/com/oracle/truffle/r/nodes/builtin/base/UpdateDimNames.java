@@ -95,7 +95,7 @@ public abstract class UpdateDimNames extends RBuiltinNode {
     @Specialization
     protected RAbstractContainer updateDimnamesNull(RAbstractContainer container, @SuppressWarnings("unused") RNull list, //
                     @Cached("create(DIMNAMES_ATTR_KEY)") RemoveAttributeNode remove) {
-        RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
         if (isRVectorProfile.profile(container instanceof RVector)) {
             RVector<?> vector = (RVector<?>) result;
             if (vector.getInternalDimNames() != null) {
@@ -117,7 +117,7 @@ public abstract class UpdateDimNames extends RBuiltinNode {
     @Specialization(guards = "list.getLength() > 0")
     protected RAbstractContainer updateDimnames(RAbstractContainer container, RList list, //
                     @Cached("create(DIMNAMES_ATTR_KEY)") PutAttributeNode put) {
-        RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
         setDimNames(result, convertToListOfStrings(list), put);
         return result;
     }
@@ -61,7 +61,7 @@ public abstract class UpdateNames extends RBuiltinNode {
     protected RAbstractContainer updateNames(RAbstractContainer container, Object names) {
         Object newNames = castString(names);
         if (newNames == RNull.instance) {
-            RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+            RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
             result.setNames(null);
             return result;
         }
@@ -72,7 +72,7 @@ public abstract class UpdateNames extends RBuiltinNode {
         } else {
             stringVector = (RStringVector) ((RAbstractVector) newNames).materialize().copyDropAttributes();
         }
-        RAbstractContainer result = (RAbstractContainer) container.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) container.reuseNonShared();
         if (stringVector.getLength() < result.getLength()) {
             stringVector = (RStringVector) stringVector.copyResized(result.getLength(), true);
         } else if (stringVector.getLength() > result.getLength()) {
@@ -72,14 +72,14 @@ public abstract class UpdateOldClass extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected Object setOldClass(RAbstractContainer arg, RStringVector className) {
-        RAbstractContainer result = (RAbstractContainer) arg.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) arg.reuseNonShared();
         return result.setClassAttr(className);
     }
 
     @Specialization
     @TruffleBoundary
     protected Object setOldClass(RAbstractContainer arg, @SuppressWarnings("unused") RNull className) {
-        RAbstractContainer result = (RAbstractContainer) arg.getNonShared();
+        RAbstractContainer result = (RAbstractContainer) arg.reuseNonShared();
         return result.setClassAttr(null);
     }
 
@@ -29,19 +29,35 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RFastPathNode;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 public abstract class IsElementFastPath extends RFastPathNode {
 
+    /**
+     * Sets at least this long are looked up through their (cached) {@link VectorHashIndex} rather
+     * than scanned, provided the index can be kept for later calls.
+     */
+    private static final int INDEX_THRESHOLD = 64;
+
+    protected static boolean useIndex(RAbstractVector set) {
+        return set.getLength() >= INDEX_THRESHOLD && VectorHashIndex.isCacheable(set);
+    }
+
     @Specialization(guards = "el.getLength() == 1")
     protected Byte iselementOne(RAbstractStringVector el, RAbstractStringVector set, //
+                    @Cached("createBinaryProfile()") ConditionProfile indexProfile, //
                     @Cached("create()") BranchProfile trueProfile, //
                     @Cached("create()") BranchProfile falseProfile) {
         String element = el.getDataAt(0);
+        if (indexProfile.profile(useIndex(set))) {
+            return RRuntime.asLogical(VectorHashIndex.getIndex(set).lookup(element) != -1);
+        }
         int length = set.getLength();
         for (int i = 0; i < length; i++) {
             if (element.equals(set.getDataAt(i))) {
@@ -60,9 +76,13 @@ public abstract class IsElementFastPath extends RFastPathNode {
 
     @Specialization(guards = "el.getLength() == 1")
     protected Byte iselementOne(RAbstractDoubleVector el, RAbstractDoubleVector set, //
+                    @Cached("createBinaryProfile()") ConditionProfile indexProfile, //
                     @Cached("create()") BranchProfile trueProfile, //
                     @Cached("create()") BranchProfile falseProfile) {
         double element = el.getDataAt(0);
+        if (indexProfile.profile(useIndex(set))) {
+            return RRuntime.asLogical(VectorHashIndex.getIndex(set).lookup(element) != -1);
+        }
         int length = set.getLength();
         for (int i = 0; i < length; i++) {
             if (element == set.getDataAt(i)) {
@@ -84,9 +104,13 @@ public abstract class IsElementFastPath extends RFastPathNode {
     @Specialization(contains = "isElementOneSequence", guards = "el.getLength() == 1")
     protected Byte iselementOne(RAbstractDoubleVector el, RAbstractIntVector set, //
                     @Cached("create()") NACheck na, //
+                    @Cached("createBinaryProfile()") ConditionProfile indexProfile, //
                     @Cached("create()") BranchProfile trueProfile, //
                     @Cached("create()") BranchProfile falseProfile) {
         double element = el.getDataAt(0);
+        if (indexProfile.profile(useIndex(set))) {
+            return RRuntime.asLogical(VectorHashIndex.getIndex(set).lookup(element) != -1);
+        }
         int length = set.getLength();
         na.enable(set);
         for (int i = 0; i < length; i++) {
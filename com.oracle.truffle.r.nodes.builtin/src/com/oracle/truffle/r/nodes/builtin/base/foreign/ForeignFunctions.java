@@ -15,6 +15,7 @@ import static com.oracle.truffle.r.runtime.RVisibility.CUSTOM;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -42,6 +43,8 @@ import com.oracle.truffle.r.library.methods.SlotFactory.R_getSlotNodeGen;
 import com.oracle.truffle.r.library.methods.SlotFactory.R_setSlotNodeGen;
 import com.oracle.truffle.r.library.methods.SubstituteDirectNodeGen;
 import com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.MCIsChildNodeGen;
+import com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.NextStreamNodeGen;
+import com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.NextSubStreamNodeGen;
 import com.oracle.truffle.r.library.stats.CompleteCases;
 import com.oracle.truffle.r.library.stats.CovcorNodeGen;
 import com.oracle.truffle.r.library.stats.Dbinom;
@@ -163,6 +166,62 @@ public class ForeignFunctions {
             return UNKNOWN_EXTERNAL_BUILTIN;
         }
 
+        /**
+         * Returns the address stored in a native symbol info list, or {@link DLL#SYMBOL_NOT_FOUND}.
+         * Used to cache the address per call site, the lists are never expected to change.
+         */
+        protected static long lookupAddress(RList f) {
+            CompilerAsserts.neverPartOfCompilation();
+            if (f.getNames() != null) {
+                RAbstractStringVector names = f.getNames();
+                for (int i = 0; i < names.getLength(); i++) {
+                    if (names.getDataAt(i).equals("address")) {
+                        Object address = f.getDataAt(i);
+                        return address instanceof RExternalPtr ? ((RExternalPtr) address).getAddr() : DLL.SYMBOL_NOT_FOUND;
+                    }
+                }
+            }
+            return DLL.SYMBOL_NOT_FOUND;
+        }
+
+        protected static boolean isFound(long address) {
+            return address != DLL.SYMBOL_NOT_FOUND;
+        }
+
+        protected static boolean isPackageArg(Object packageName) {
+            return packageName instanceof RMissing || packageName instanceof String;
+        }
+
+        protected static boolean isSamePackage(Object packageName, Object cachedPackageName) {
+            return packageName instanceof RMissing ? cachedPackageName instanceof RMissing : packageName.equals(cachedPackageName);
+        }
+
+        protected static Assumption getSymbolsUnchangedAssumption() {
+            return DLL.getSymbolsUnchangedAssumption();
+        }
+
+        /**
+         * Looks up a symbol named in a call, for caching at the call site while
+         * {@link DLL#getSymbolsUnchangedAssumption()} holds.
+         */
+        @TruffleBoundary
+        private long findSymbol(String name, Object packageName, DLL.NativeSymbolType type) {
+            DLL.RegisteredNativeSymbol rns = new DLL.RegisteredNativeSymbol(type, null, null);
+            long func = DLL.findSymbol(name, packageName instanceof String ? (String) packageName : null, rns);
+            if (func == DLL.SYMBOL_NOT_FOUND) {
+                throw RError.error(this, RError.Message.C_SYMBOL_NOT_IN_TABLE, name);
+            }
+            return func;
+        }
+
+        protected long findCallSymbol(String name, Object packageName) {
+            return findSymbol(name, packageName, DLL.NativeSymbolType.Call);
+        }
+
+        protected long findExternalSymbol(String name, Object packageName) {
+            return findSymbol(name, packageName, DLL.NativeSymbolType.External);
+        }
+
         @TruffleBoundary
         protected RuntimeException fallback(Object fobj) {
             String name = null;
@@ -520,6 +579,10 @@ public class ForeignFunctions {
                 // parallel
                 case "mc_is_child":
                     return MCIsChildNodeGen.create();
+                case "nextStream":
+                    return NextStreamNodeGen.create();
+                case "nextSubStream":
+                    return NextSubStreamNodeGen.create();
                 default:
                     return null;
             }
@@ -533,11 +596,35 @@ public class ForeignFunctions {
             return builtin.call(frame, args);
         }
 
+        /**
+         * The symbol info lists passed by packages are constant per call site, so the name and
+         * address are only extracted once.
+         */
+        @SuppressWarnings("unused")
+        @Specialization(limit = "2", guards = {"cached == symbol", "builtin == null", "isFound(address)"})
+        protected Object callCachedSymbol(RList symbol, RArgsValuesAndNames args, Object packageName, //
+                        @Cached("symbol") RList cached, //
+                        @Cached("lookupBuiltin(symbol)") RExternalBuiltinNode builtin, //
+                        @Cached("lookupName(symbol)") String name, //
+                        @Cached("lookupAddress(symbol)") long address) {
+            return RFFIFactory.getRFFI().getCallRFFI().invokeCall(address, name, args.getArguments());
+        }
+
         @Specialization
         protected Object callNamedFunction(VirtualFrame frame, RList symbol, RArgsValuesAndNames args, @SuppressWarnings("unused") Object packageName) {
             return RFFIFactory.getRFFI().getCallRFFI().invokeCall(getAddressFromSymbolInfo(frame, symbol), getNameFromSymbolInfo(frame, symbol), args.getArguments());
         }
 
+        @SuppressWarnings("unused")
+        @Specialization(limit = "2", guards = {"isPackageArg(packageName)", "name.equals(cachedName)", "isSamePackage(packageName, cachedPackageName)"}, assumptions = "symbolsUnchanged")
+        protected Object callCachedNamedFunction(String name, RArgsValuesAndNames args, Object packageName, //
+                        @Cached("name") String cachedName, //
+                        @Cached("packageName") Object cachedPackageName, //
+                        @Cached("getSymbolsUnchangedAssumption()") Assumption symbolsUnchanged, //
+                        @Cached("findCallSymbol(name, packageName)") long address) {
+            return RFFIFactory.getRFFI().getCallRFFI().invokeCall(address, cachedName, args.getArguments());
+        }
+
         @Specialization
         protected Object callNamedFunction(String name, RArgsValuesAndNames args, @SuppressWarnings("unused") RMissing packageName) {
             return callNamedFunctionWithPackage(name, args, null);
@@ -618,6 +705,17 @@ public class ForeignFunctions {
             return builtin.call(frame, args);
         }
 
+        @SuppressWarnings("unused")
+        @Specialization(limit = "2", guards = {"cached == symbol", "builtin == null", "isFound(address)"})
+        protected Object callCachedSymbol(RList symbol, RArgsValuesAndNames args, Object packageName, //
+                        @Cached("symbol") RList cached, //
+                        @Cached("lookupBuiltin(symbol)") RExternalBuiltinNode builtin, //
+                        @Cached("lookupName(symbol)") String name, //
+                        @Cached("lookupAddress(symbol)") long address) {
+            Object list = encodeArgumentPairList(args, name);
+            return RFFIFactory.getRFFI().getCallRFFI().invokeCall(address, name, new Object[]{list});
+        }
+
         @Specialization
         protected Object callNamedFunction(VirtualFrame frame, RList symbol, RArgsValuesAndNames args, @SuppressWarnings("unused") Object packageName) {
             String name = getNameFromSymbolInfo(frame, symbol);
@@ -625,6 +723,17 @@ public class ForeignFunctions {
             return RFFIFactory.getRFFI().getCallRFFI().invokeCall(getAddressFromSymbolInfo(frame, symbol), name, new Object[]{list});
         }
 
+        @SuppressWarnings("unused")
+        @Specialization(limit = "2", guards = {"isPackageArg(packageName)", "name.equals(cachedName)", "isSamePackage(packageName, cachedPackageName)"}, assumptions = "symbolsUnchanged")
+        protected Object callCachedNamedFunction(String name, RArgsValuesAndNames args, Object packageName, //
+                        @Cached("name") String cachedName, //
+                        @Cached("packageName") Object cachedPackageName, //
+                        @Cached("getSymbolsUnchangedAssumption()") Assumption symbolsUnchanged, //
+                        @Cached("findExternalSymbol(name, packageName)") long address) {
+            Object list = encodeArgumentPairList(args, cachedName);
+            return RFFIFactory.getRFFI().getCallRFFI().invokeCall(address, cachedName, new Object[]{list});
+        }
+
         @Specialization
         protected Object callNamedFunction(String name, RArgsValuesAndNames args, @SuppressWarnings("unused") RMissing packageName) {
             return callNamedFunctionWithPackage(name, args, null);
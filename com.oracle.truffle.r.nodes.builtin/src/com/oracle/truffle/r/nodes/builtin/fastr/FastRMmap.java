@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.*;
+import static com.oracle.truffle.r.runtime.RVisibility.OFF;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.IOException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.NativeDataAccess;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RVector;
+
+/**
+ * Vectors backed by memory mapped files, see {@link NativeDataAccess#mapFile}. The elements are
+ * read and written in native byte order, i.e., files written with
+ * {@code writeBin(x, con, endian = .Platform$endian)} can be mapped directly.
+ */
+public class FastRMmap {
+
+    @RBuiltin(name = ".fastr.mmap", kind = PRIMITIVE, parameterNames = {"path", "type", "length", "readonly"}, behavior = COMPLEX)
+    public abstract static class Map extends RBuiltinNode {
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, "double", RRuntime.INT_NA, RRuntime.LOGICAL_TRUE};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("path").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst().notNA();
+            casts.arg("type").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst().notNA().mustBe(
+                            equalTo("double").or(equalTo("integer")).or(equalTo("raw")));
+            casts.arg("length").asIntegerVector().findFirst(RRuntime.INT_NA).mustBe(intNA().or(gte(0)));
+            casts.arg("readonly").asLogicalVector().findFirst().notNA().map(toBoolean());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object map(String path, String type, int length, boolean readOnly) {
+            try {
+                return NativeDataAccess.mapFile(Utils.tildeExpand(path), RType.fromMode(type), RRuntime.isNA(length) ? -1 : length, readOnly);
+            } catch (IOException e) {
+                throw RError.error(this, RError.Message.CANNOT_OPEN_FILE, path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the data of a writable mapped vector back to its file.
+     */
+    @RBuiltin(name = ".fastr.mmap.flush", visibility = OFF, kind = PRIMITIVE, parameterNames = {"x"}, behavior = COMPLEX)
+    public abstract static class Flush extends RBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        protected RNull flush(RVector<?> x) {
+            try {
+                NativeDataAccess.flush(x);
+            } catch (IOException e) {
+                throw RError.error(this, RError.Message.GENERIC, e.getMessage());
+            }
+            return RNull.instance;
+        }
+
+        @Fallback
+        protected RNull flush(@SuppressWarnings("unused") Object x) {
+            throw RError.error(this, RError.Message.GENERIC, "not a memory mapped vector");
+        }
+    }
+}
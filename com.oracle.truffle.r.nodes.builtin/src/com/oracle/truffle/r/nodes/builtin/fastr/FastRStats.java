@@ -47,6 +47,7 @@ import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.RAttributes;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RNull;
@@ -442,4 +443,28 @@ public class FastRStats {
         }
 
     }
+
+    /**
+     * Counts the copies of vectors reported to {@link MemoryCopyTracer}, e.g., to check that an
+     * update in a loop does not copy the vector in every iteration. Returns the number of copies
+     * since the previous call, {@code enable} tells whether to continue counting.
+     */
+    @RBuiltin(name = ".fastr.stats.copies", kind = PRIMITIVE, parameterNames = {"enable"}, behavior = COMPLEX)
+    public abstract static class FastRCopyCount extends RBuiltinNode {
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RRuntime.LOGICAL_FALSE};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("enable").asLogicalVector().findFirst(RRuntime.LOGICAL_FALSE).notNA().map(toBoolean());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected double copyCount(boolean enable) {
+            return MemoryCopyTracer.setCountingState(enable);
+        }
+    }
 }
@@ -41,10 +41,12 @@ import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
 import com.oracle.truffle.r.runtime.data.RAttributes;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RLanguage;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RLogical;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RSequence;
 import com.oracle.truffle.r.runtime.data.RString;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
@@ -65,6 +67,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
     private final Class<? extends RTypedValue> dropDimensionsClass;
     private final boolean exact;
     private final boolean dropDimensions;
+    private final boolean sequenceTarget;
 
     private final VectorLengthProfile vectorLengthProfile = VectorLengthProfile.create();
     private final RAttributeProfiles vectorNamesProfile = RAttributeProfiles.create();
@@ -89,6 +92,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
     CachedExtractVectorNode(ElementAccessMode mode, RTypedValue vector, Object[] positions, RTypedValue exact, RTypedValue dropDimensions, boolean recursive) {
         super(mode, vector, positions, recursive);
         this.targetClass = vector.getClass();
+        this.sequenceTarget = vector instanceof RSequence;
         this.exactClass = exact.getClass();
         this.dropDimensionsClass = dropDimensions.getClass();
         Object[] convertedPositions = filterPositions(positions);
@@ -113,6 +117,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
     }
 
     private final ConditionProfile extractedLengthGTZeroProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile subsequenceProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile oneDimensionProfile = ConditionProfile.createBinaryProfile();
 
     public Object apply(Object originalVector, Object[] originalPositions, PositionProfile[] originalProfiles, Object originalExact, Object originalDropDimensions) {
@@ -160,6 +165,14 @@ final class CachedExtractVectorNode extends CachedVectorNode {
             return originalVector;
         }
 
+        if (sequenceTarget && mode.isSubset() && numberOfDimensions == 1) {
+            RSequence subsequence = trySubsequence((RSequence) vector, positions[0], vectorLength);
+            if (subsequenceProfile.profile(subsequence != null)) {
+                RNode.reportWork(this, 1);
+                return subsequence;
+            }
+        }
+
         int extractedVectorLength = positionsCheckNode.getSelectedPositionsCount(positionProfiles);
         final RVector<?> extractedVector;
         switch (vectorType) {
@@ -211,6 +224,22 @@ final class CachedExtractVectorNode extends CachedVectorNode {
         }
     }
 
+    /**
+     * A subset of a sequence by an integer sequence of valid positions, e.g. {@code rev(1:n)} or
+     * {@code (1:n)[i:j]}, is again a sequence and does not need to be copied.
+     */
+    private static RSequence trySubsequence(RSequence vector, Object position, int vectorLength) {
+        if (position instanceof RIntSequence) {
+            RIntSequence p = (RIntSequence) position;
+            int first = p.getStart();
+            int last = p.getEnd();
+            if (p.getLength() > 1 && first >= 1 && last >= 1 && first <= vectorLength && last <= vectorLength) {
+                return vector.subsequence(first - 1, p.getStride(), p.getLength());
+            }
+        }
+        return null;
+    }
+
     private int[] getDimensions(final RAbstractContainer vector) {
         int[] dimensions;
         if (numberOfDimensions == 1) {
@@ -513,6 +513,8 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
                 shareable = (RShareable) returnVector.copy();
                 returnVector = (RAbstractVector) shareable;
                 assert shareable.isTemporary();
+            } else if (returnVector instanceof RVector) {
+                ((RVector<?>) returnVector).clearHashIndex();
             }
         }
         returnVector = sharedClassProfile.profile(returnVector);
@@ -129,12 +129,12 @@ abstract class WriteIndexedVectorNode extends Node {
         assert left.getLength() == leftLength;
         assert totalDimensions == positions.length : "totalDimensions must be constant per vector write node";
 
-        Object leftStore = left.getInternalStore();
+        Object leftStore = left.getInternalStoreForAccess();
         Object rightStore = null;
         if (right instanceof RAbstractContainer) {
             RAbstractContainer rightContainer = (RAbstractContainer) right;
             assert rightContainer.getLength() == rightLength;
-            rightStore = rightContainer.getInternalStore();
+            rightStore = rightContainer.getInternalStoreForAccess();
         }
 
         int initialPositionOffset;
@@ -270,7 +270,8 @@ abstract class WriteIndexedVectorNode extends Node {
         int stride = strideProfile.profile(position.getStride());
         int end = start + positionLength * stride;
 
-        if (start < 0 || end <= 0) {
+        if (start < 0 || end <= 0 || stride == 0) {
+            // constant sequences, e.g. rep(1L, n), would not terminate the loop below
             throw new SlowPathException("rewrite to doIntegerPosition");
         }
 
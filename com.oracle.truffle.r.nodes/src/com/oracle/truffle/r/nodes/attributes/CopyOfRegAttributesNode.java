@@ -92,7 +92,33 @@ public abstract class CopyOfRegAttributesNode extends RBaseNode {
 
     @Specialization(guards = "onlyClassAttribute(source)")
     protected void copyClassOnly(RAbstractVector source, RVector<?> target) {
-        target.initAttributes(RAttributes.createInitialized(new String[]{RRuntime.CLASS_ATTR_KEY}, new Object[]{source.getAttributes().getValueAtIndex(0)}));
+        target.initAttributes(source.getAttributes().copy());
+    }
+
+    protected static final boolean onlyRegularAttributes(RAbstractVector source) {
+        RAttributes attributes = source.getAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        for (int i = 0; i < attributes.size(); i++) {
+            String name = attributes.getNameAtIndex(i);
+            if (name == RRuntime.DIM_ATTR_KEY || name == RRuntime.DIMNAMES_ATTR_KEY || name == RRuntime.NAMES_ATTR_KEY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * If the target has no attributes yet, it can share the arrays of the source attributes, see
+     * {@link RAttributes#copy()}.
+     */
+    @Specialization(guards = {"target.getAttributes() == null", "onlyRegularAttributes(source)"})
+    protected void copyShared(RAbstractVector source, RVector<?> target) {
+        RAttributes attributes = source.getAttributes();
+        target.initAttributes(attributes.copy());
+        Object newRowNames = attributes.get(RRuntime.ROWNAMES_ATTR_KEY);
+        target.setInternalRowNames(newRowNames == null ? RNull.instance : newRowNames);
     }
 
     @Specialization
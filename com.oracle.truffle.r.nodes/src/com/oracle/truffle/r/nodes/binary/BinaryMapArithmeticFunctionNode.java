@@ -260,6 +260,10 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
                 return null;
             }
         }
+        if (newStride == 0 && newStart == 0 && 1 / newStart < 0) {
+            // a constant -0.0 cannot be represented as a sequence
+            return null;
+        }
         return RDataFactory.createDoubleSequence(newStart, newStride, castSequence.getLength());
     }
 
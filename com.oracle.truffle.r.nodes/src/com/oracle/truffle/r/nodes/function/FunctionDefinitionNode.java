@@ -66,6 +66,7 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.env.frame.RFrameSlot;
+import com.oracle.truffle.r.runtime.instrument.ShadowStack;
 import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
@@ -245,6 +246,11 @@ public final class FunctionDefinitionNode extends RRootNode implements RSyntaxNo
         Object handlerStack = RErrorHandling.getHandlerStack();
         Object restartStack = RErrorHandling.getRestartStack();
         boolean runOnExitHandlers = true;
+        ShadowStack shadowStack = null;
+        if (ShadowStack.isEnabled()) {
+            shadowStack = RContext.getInstance().stateInstrumentation.getShadowStack();
+            shadowStack.push(this);
+        }
         try {
             verifyEnclosingAssumptions(frame);
             setupDispatchSlots(frame);
@@ -287,6 +293,9 @@ public final class FunctionDefinitionNode extends RRootNode implements RSyntaxNo
              * has no exit handlers (by fiat), so any exceptions from onExits handlers will be
              * caught above.
              */
+            if (shadowStack != null) {
+                shadowStack.pop();
+            }
             visibility.executeEndOfFunction(frame);
             if (argPostProcess != null) {
                 resetArgs.enter();
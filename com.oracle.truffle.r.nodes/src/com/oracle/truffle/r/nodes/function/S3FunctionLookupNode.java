@@ -19,6 +19,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
 import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.MaterializedFrame;
@@ -44,6 +45,8 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.frame.DispatchCache;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 public abstract class S3FunctionLookupNode extends RBaseNode {
@@ -392,6 +395,79 @@ public abstract class S3FunctionLookupNode extends RBaseNode {
         }
     }
 
+    /**
+     * Key of the results cached in the context-wide {@link DispatchCache}. The lookups start in the
+     * caller frame and in the methods table of the generic's definition frame, which are identified
+     * by the descriptors under which {@link FrameSlotChangeMonitor} keeps their lookups.
+     */
+    private static final class DispatchKey {
+        private final FrameDescriptor callerDescriptor;
+        private final FrameDescriptor genericDefDescriptor;
+        private final String genericName;
+        private final String group;
+        private final boolean nextMethod;
+        private final String[] type;
+        private final int hash;
+
+        private DispatchKey(FrameDescriptor callerDescriptor, FrameDescriptor genericDefDescriptor, String genericName, String group, boolean nextMethod, String[] type) {
+            this.callerDescriptor = callerDescriptor;
+            this.genericDefDescriptor = genericDefDescriptor;
+            this.genericName = genericName;
+            this.group = group;
+            this.nextMethod = nextMethod;
+            this.type = type;
+            this.hash = ((genericName.hashCode() * 31 + Arrays.hashCode(type)) * 31 + System.identityHashCode(callerDescriptor)) * 2 + (nextMethod ? 1 : 0);
+        }
+
+        /**
+         * Returns {@code null} if the lookup cannot be cached.
+         */
+        private static DispatchKey create(String genericName, RStringVector type, String group, boolean nextMethod, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame) {
+            if (type == null || callerFrame == null) {
+                return null;
+            }
+            FrameDescriptor callerDescriptor = FrameSlotChangeMonitor.getLookupDescriptor(callerFrame);
+            FrameDescriptor genericDefDescriptor = genericDefFrame == null ? null : FrameSlotChangeMonitor.getLookupDescriptor(genericDefFrame);
+            if (callerDescriptor == null || (genericDefFrame != null && genericDefDescriptor == null)) {
+                return null;
+            }
+            return new DispatchKey(callerDescriptor, genericDefDescriptor, genericName, group, nextMethod, type.getDataCopy());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DispatchKey)) {
+                return false;
+            }
+            DispatchKey other = (DispatchKey) obj;
+            return hash == other.hash && callerDescriptor == other.callerDescriptor && genericDefDescriptor == other.genericDefDescriptor && nextMethod == other.nextMethod &&
+                            genericName.equals(other.genericName) && (group == null ? other.group == null : group.equals(other.group)) && Arrays.equals(type, other.type);
+        }
+    }
+
+    /**
+     * Records the lookup of {@code name} in {@code frame}, which delivered {@code value}, as a
+     * dependency of a cached dispatch result.
+     */
+    private static void addDependency(DispatchCache.Dependencies dependencies, Frame frame, String name, boolean local, Object value) {
+        if (FrameSlotChangeMonitor.getLookupDescriptor(frame) == null) {
+            dependencies.markUncacheable();
+        } else {
+            dependencies.add(local ? FrameSlotChangeMonitor.lookupLocal(frame, name) : FrameSlotChangeMonitor.lookup(frame, name), value);
+        }
+    }
+
+    /**
+     * Performs the full lookup, which is used once a call site has seen too many different
+     * generics or classes. The results are cached per context, keyed by the generic, the class
+     * vector and the frames the lookup starts in. A cached result is used as long as the bindings
+     * it was found through are unchanged, see {@link DispatchCache}.
+     */
     private static final class UseMethodFunctionLookupGenericNode extends S3FunctionLookupNode {
 
         protected UseMethodFunctionLookupGenericNode(boolean throwsError, boolean nextMethod) {
@@ -405,23 +481,46 @@ public abstract class S3FunctionLookupNode extends RBaseNode {
 
         @TruffleBoundary
         private Result executeInternal(String genericName, RStringVector type, String group, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame) {
+            DispatchCache.ContextStateImpl cache = RContext.getInstance().stateDispatchCache;
+            DispatchKey key = DispatchKey.create(genericName, type, group, nextMethod, callerFrame, genericDefFrame);
+            if (key != null) {
+                Result cached = (Result) cache.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            DispatchCache.Dependencies dependencies = new DispatchCache.Dependencies();
+
             LookupOperation op = (lookupFrame, name, inMethodsTable) -> {
-                return ReadVariableNode.lookupFunction(name, lookupFrame, inMethodsTable, true);
+                RFunction function = ReadVariableNode.lookupFunction(name, lookupFrame, inMethodsTable, true);
+                if (key != null) {
+                    addDependency(dependencies, lookupFrame, name, inMethodsTable, function);
+                }
+                return function;
             };
 
             GetMethodsTable getTable = () -> {
                 FrameSlot slot = genericDefFrame == null ? null : genericDefFrame.getFrameDescriptor().findFrameSlot(RRuntime.RS3MethodsTable);
+                Object table;
                 if (slot == null) {
-                    return null;
+                    table = null;
+                } else {
+                    try {
+                        table = genericDefFrame.getObject(slot);
+                    } catch (FrameSlotTypeException e) {
+                        throw RInternalError.shouldNotReachHere();
+                    }
                 }
-                try {
-                    return genericDefFrame.getObject(slot);
-                } catch (FrameSlotTypeException e) {
-                    throw RInternalError.shouldNotReachHere();
+                if (key != null && genericDefFrame != null) {
+                    addDependency(dependencies, genericDefFrame, RRuntime.RS3MethodsTable, true, table);
                 }
+                return table;
             };
 
             Result result = performLookup(callerFrame, genericName, group, type, nextMethod, op, getTable);
+            if (key != null && result != null) {
+                cache.put(key, result, dependencies);
+            }
 
             if (result == null) {
                 if (throwsError) {
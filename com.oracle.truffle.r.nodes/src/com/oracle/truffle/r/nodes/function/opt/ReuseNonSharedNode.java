@@ -29,6 +29,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.r.runtime.data.RShareable;
 import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
+import com.oracle.truffle.r.runtime.data.RVector;
 
 /**
  * Internal node that should be used whenever you want to alter some data: if the data is shared,
@@ -53,6 +54,9 @@ public abstract class ReuseNonSharedNode extends Node {
             assert res.isTemporary();
             return res;
         }
+        if (value instanceof RVector) {
+            ((RVector<?>) value).clearHashIndex();
+        }
         return value;
     }
 
@@ -63,6 +67,9 @@ public abstract class ReuseNonSharedNode extends Node {
             RShareable res = value.copy();
             return res;
         }
+        if (value instanceof RVector) {
+            ((RVector<?>) value).clearHashIndex();
+        }
         return value;
     }
 
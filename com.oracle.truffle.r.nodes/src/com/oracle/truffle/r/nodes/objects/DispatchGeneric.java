@@ -104,9 +104,7 @@ public abstract class DispatchGeneric extends RBaseNode {
                 // anwyay
                 if (cachedClasses.getDataAt(i) != classes.getDataAt(i)) {
                     equalsMethodRequired.enter();
-                    if (cachedClasses.getDataAt(i).equals(classes.getDataAt(i))) {
-                        return true;
-                    } else {
+                    if (!cachedClasses.getDataAt(i).equals(classes.getDataAt(i))) {
                         return false;
                     }
                 }
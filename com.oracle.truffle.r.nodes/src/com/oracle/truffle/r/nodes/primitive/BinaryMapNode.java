@@ -269,9 +269,11 @@ public final class BinaryMapNode extends RBaseNode {
 
     private RAbstractVector createOrShareVector(int leftLength, RAbstractVector left, int rightLength, RAbstractVector right, int maxLength) {
         if (mayShareLeft && left.getRType() == resultType && shareLeft.profile(leftLength == maxLength && ((RShareable) left).isTemporary())) {
+            ((RVector<?>) left).clearHashIndex();
             return left;
         }
         if (mayShareRight && right.getRType() == resultType && shareRight.profile(rightLength == maxLength && ((RShareable) right).isTemporary())) {
+            ((RVector<?>) right).clearHashIndex();
             return right;
         }
         return resultType.create(maxLength, false);
@@ -160,6 +160,7 @@ public final class UnaryMapNode extends RBaseNode {
     private RAbstractVector createOrShareVector(int operandLength, RAbstractVector operand) {
         RType resultType = getResultType();
         if (mayShareOperand && operand.getRType() == resultType && shareOperand.profile(((RShareable) operand).isTemporary())) {
+            ((RVector<?>) operand).clearHashIndex();
             return operand;
         }
         return resultType.create(operandLength, false);
@@ -65,6 +65,11 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
 
     private final NACheck na = NACheck.create();
 
+    /**
+     * Bound up to which all integral doubles are representable.
+     */
+    private static final double MAX_EXACT_SUM = 1L << 53;
+
     private final ConditionProfile naRmProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile warningProfile = BranchProfile.create();
 
@@ -280,6 +285,17 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
 
     @Specialization
     protected int doIntSequence(RIntSequence operand, @SuppressWarnings("unused") boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        if (operand.getLength() > 0) {
+            if (factory == BinaryArithmetic.MAX || factory == BinaryArithmetic.MIN) {
+                // the extremes of an arithmetic sequence are at its ends
+                return arithmetic.op(arithmetic.op(semantics.getIntStart(), operand.getStart()), operand.getEnd());
+            } else if (factory == BinaryArithmetic.ADD) {
+                long sum = sequenceSum(operand);
+                if (sum > Integer.MIN_VALUE && sum <= Integer.MAX_VALUE) {
+                    return arithmetic.op(semantics.getIntStart(), (int) sum);
+                }
+            }
+        }
         RNode.reportWork(this, operand.getLength());
         int result = semantics.getIntStart();
         int current = operand.getStart();
@@ -295,6 +311,16 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
 
     @Specialization
     protected double doDoubleSequence(RDoubleSequence operand, @SuppressWarnings("unused") boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        if (operand.getStride() == 0) {
+            // constant vector, e.g. from rep(x, n)
+            double value = operand.getStart();
+            if (factory == BinaryArithmetic.MAX || factory == BinaryArithmetic.MIN) {
+                return arithmetic.op(semantics.getDoubleStart(), value);
+            } else if (factory == BinaryArithmetic.ADD && value == Math.rint(value) && Math.abs(value) * operand.getLength() <= MAX_EXACT_SUM) {
+                // all partial sums are exact, so the product is what the loop would compute
+                return arithmetic.op(semantics.getDoubleStart(), value * operand.getLength());
+            }
+        }
         RNode.reportWork(this, operand.getLength());
         double result = semantics.getDoubleStart();
         double current = operand.getStart();
@@ -308,6 +334,21 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
         return result;
     }
 
+    /**
+     * Closed form of the sum of an integer sequence whose elements all have the same sign. The
+     * partial sums are monotone then, so none of them overflows unless the result does. Returns
+     * {@link Long#MIN_VALUE} for other sequences.
+     */
+    private static long sequenceSum(RIntSequence operand) {
+        int first = operand.getStart();
+        int last = operand.getEnd();
+        if ((first < 0 || last < 0) && (first > 0 || last > 0)) {
+            return Long.MIN_VALUE;
+        }
+        long n = operand.getLength();
+        return n * first + operand.getStride() * (n * (n - 1) / 2);
+    }
+
     @Specialization
     protected RComplex doComplexVector(RComplexVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
         RNode.reportWork(this, operand.getLength());
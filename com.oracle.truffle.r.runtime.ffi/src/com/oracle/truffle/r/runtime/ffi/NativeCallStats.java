@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ffi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Per-symbol call counts and latency histograms of native calls, collected when
+ * {@link RFFIUtils#traceEnabled()}, i.e., with {@code TraceNativeCalls}, and written to the trace
+ * file by {@link #report()} when a context is destroyed. The
+ * histogram buckets are powers of two in microseconds, i.e., bucket {@code i} counts the calls that
+ * took less than {@code 2^i} microseconds (and at least {@code 2^(i-1)}).
+ */
+public final class NativeCallStats {
+
+    private static final int BUCKETS = 24;
+
+    private static final class Entry {
+        private final String name;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private final long[] histogram = new long[BUCKETS];
+
+        Entry(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final HashMap<String, Entry> entries = new HashMap<>();
+
+    private NativeCallStats() {
+        // no instances
+    }
+
+    @TruffleBoundary
+    public static synchronized void record(String name, long nanos) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            entry = new Entry(name);
+            entries.put(name, entry);
+        }
+        entry.count++;
+        entry.totalNanos += nanos;
+        entry.maxNanos = Math.max(entry.maxNanos, nanos);
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+        entry.histogram[Math.min(bucket, BUCKETS - 1)]++;
+    }
+
+    /**
+     * Writes one line per symbol, most frequently called first: count, total and mean time, maximum
+     * time and the non-empty histogram buckets as {@code <upper bound in us>:<count>}.
+     */
+    @TruffleBoundary
+    public static synchronized void report() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort((a, b) -> Long.compare(b.count, a.count));
+        RFFIUtils.traceLine("native call statistics (name, count, total ms, mean us, max us, histogram us:count)");
+        for (Entry entry : sorted) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(entry.name).append(' ').append(entry.count);
+            sb.append(String.format(" %.3f %.3f %.3f", entry.totalNanos / 1e6, entry.totalNanos / 1e3 / entry.count, entry.maxNanos / 1e3));
+            for (int i = 0; i < BUCKETS; i++) {
+                if (entry.histogram[i] != 0) {
+                    sb.append(' ').append(i == BUCKETS - 1 ? "inf" : Long.toString(1L << i)).append(':').append(entry.histogram[i]);
+                }
+            }
+            RFFIUtils.traceLine(sb.toString());
+        }
+        entries.clear();
+    }
+}
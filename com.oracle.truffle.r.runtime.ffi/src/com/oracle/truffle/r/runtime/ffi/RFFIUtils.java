@@ -152,13 +152,17 @@ public class RFFIUtils {
             sb.append('(');
             printArgs(sb, args);
             sb.append(')');
-            try {
-                traceStream.write(sb.toString().getBytes());
-                traceStream.write('\n');
-                traceStream.flush();
-            } catch (IOException ex) {
-                // ignore
-            }
+            traceLine(sb.toString());
+        }
+    }
+
+    static void traceLine(String line) {
+        try {
+            traceStream.write(line.getBytes());
+            traceStream.write('\n');
+            traceStream.flush();
+        } catch (IOException ex) {
+            // ignore
         }
     }
 
@@ -22,7 +22,9 @@
  */
 package com.oracle.truffle.r.runtime.ffi.jni;
 
+import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
+import java.util.WeakHashMap;
 import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -45,6 +47,7 @@ import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.context.Engine.ParseException;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.NativeDataAccess;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributes;
 import com.oracle.truffle.r.runtime.data.RComplex;
@@ -67,6 +70,7 @@ import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RShareable;
+import com.oracle.truffle.r.runtime.data.RStringCache;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
@@ -90,12 +94,39 @@ import com.oracle.truffle.r.runtime.rng.RRNG;
 public class CallRFFIHelper {
 
     public static final class CharSXPWrapper {
+        /**
+         * Equal strings map to the same wrapper while it is referenced, so that {@code mkChar} or
+         * {@code STRING_ELT} do not allocate a new wrapper each time. This does not make CHARSXPs
+         * comparable by identity in native code, which sees JNI references rather than the
+         * wrappers. The keys are the contents of the wrappers: an entry is removed once its string
+         * is no longer referenced, which may be later than its wrapper is collected, in that case
+         * the next lookup creates a new wrapper.
+         */
+        private static final WeakHashMap<String, WeakReference<CharSXPWrapper>> cache = new WeakHashMap<>();
+        private static final CharSXPWrapper NA = new CharSXPWrapper(RRuntime.STRING_NA);
+
         private final String contents;
 
-        CharSXPWrapper(String contents) {
+        private CharSXPWrapper(String contents) {
             this.contents = contents;
         }
 
+        @TruffleBoundary
+        private static CharSXPWrapper get(String contents) {
+            if (RRuntime.isNA(contents)) {
+                return NA;
+            }
+            synchronized (cache) {
+                WeakReference<CharSXPWrapper> ref = cache.get(contents);
+                CharSXPWrapper wrapper = ref == null ? null : ref.get();
+                if (wrapper == null) {
+                    wrapper = new CharSXPWrapper(RStringCache.intern(contents));
+                    cache.put(wrapper.contents, new WeakReference<>(wrapper));
+                }
+                return wrapper;
+            }
+        }
+
         public String getContents() {
             return contents;
         }
@@ -107,7 +138,7 @@ public class CallRFFIHelper {
     }
 
     public static Object createCharSXP(String contents) {
-        return new CharSXPWrapper(contents);
+        return CharSXPWrapper.get(contents);
     }
 
     private static RuntimeException unimplemented() {
@@ -228,7 +259,7 @@ public class CallRFFIHelper {
         if (x instanceof CharSXPWrapper) {
             return x;
         } else if (x instanceof RSymbol) {
-            return new CharSXPWrapper(((RSymbol) x).getName());
+            return createCharSXP(((RSymbol) x).getName());
         }
 
         Object obj = RRuntime.asAbstractVector(x);
@@ -236,14 +267,14 @@ public class CallRFFIHelper {
             RAbstractVector vector = (RAbstractVector) obj;
             if (vector.getLength() > 0) {
                 if (vector instanceof RAbstractStringVector) {
-                    return new CharSXPWrapper(((RAbstractStringVector) vector).getDataAt(0));
+                    return createCharSXP(((RAbstractStringVector) vector).getDataAt(0));
                 } else {
                     unimplemented("asChar type " + x.getClass());
                 }
             }
         }
 
-        return new CharSXPWrapper(RRuntime.STRING_NA);
+        return createCharSXP(RRuntime.STRING_NA);
     }
 
     public static Object Rf_mkCharLenCE(byte[] bytes, @SuppressWarnings("unused") int encoding) {
@@ -251,7 +282,7 @@ public class CallRFFIHelper {
             RFFIUtils.traceUpCall("Rf_mkCharLenCE", bytes);
         }
         // TODO: handle encoding properly
-        return new CharSXPWrapper(new String(bytes, StandardCharsets.UTF_8));
+        return createCharSXP(new String(bytes, StandardCharsets.UTF_8));
     }
 
     public static Object Rf_cons(Object car, Object cdr) {
@@ -638,7 +669,10 @@ public class CallRFFIHelper {
             RFFIUtils.traceUpCall("INTEGER", x);
         }
         if (x instanceof RIntVector) {
-            return ((RIntVector) x).getDataWithoutCopying();
+            RIntVector vector = (RIntVector) x;
+            // native code may write into the array
+            vector.clearHashIndex();
+            return vector.getDataWithoutCopying();
         } else if (x instanceof RIntSequence) {
             return ((RIntSequence) x).materialize().getDataWithoutCopying();
         } else if (x instanceof Integer) {
@@ -656,12 +690,39 @@ public class CallRFFIHelper {
         }
     }
 
+    /**
+     * Returns the address of the off-heap data of {@code x} when accessed as {@code mode}, or
+     * {@code 0} if the data has to be copied through a Java array, see {@link NativeDataAccess}.
+     */
+    public static long getNativeDataAddress(Object x, int mode) {
+        if (RFFIUtils.traceEnabled()) {
+            RFFIUtils.traceUpCall("getNativeDataAddress", x, mode);
+        }
+        if (!NativeDataAccess.usesNativeStorage(x)) {
+            return 0;
+        }
+        SEXPTYPE type = SEXPTYPE.mapInt(mode);
+        if (x instanceof RDoubleVector && type == SEXPTYPE.REALSXP) {
+            return ((RDoubleVector) x).getNativeAddress();
+        } else if (x instanceof RIntVector && type == SEXPTYPE.INTSXP) {
+            return ((RIntVector) x).getNativeAddress();
+        } else if (x instanceof RLogicalVector && (type == SEXPTYPE.LGLSXP || type == SEXPTYPE.INTSXP)) {
+            return ((RLogicalVector) x).getNativeAddress();
+        } else if (x instanceof RRawVector && type == SEXPTYPE.RAWSXP) {
+            return ((RRawVector) x).getNativeAddress();
+        }
+        return 0;
+    }
+
     public static double[] REAL(Object x) {
         if (RFFIUtils.traceEnabled()) {
             RFFIUtils.traceUpCall("REAL", x);
         }
         if (x instanceof RDoubleVector) {
-            return ((RDoubleVector) x).getDataWithoutCopying();
+            RDoubleVector vector = (RDoubleVector) x;
+            // native code may write into the array
+            vector.clearHashIndex();
+            return vector.getDataWithoutCopying();
         } else if (x instanceof RDoubleSequence) {
             return ((RDoubleSequence) x).materialize().getDataWithoutCopying();
         } else {
@@ -680,7 +741,7 @@ public class CallRFFIHelper {
             RFFIUtils.traceUpCall("STRING_ELT", x, i);
         }
         RAbstractStringVector vector = guaranteeInstanceOf(RRuntime.asAbstractVector(x), RAbstractStringVector.class);
-        return new CharSXPWrapper(vector.getDataAt(i));
+        return createCharSXP(vector.getDataAt(i));
     }
 
     public static Object VECTOR_ELT(Object x, int i) {
@@ -770,7 +831,7 @@ public class CallRFFIHelper {
             RFFIUtils.traceUpCall("PRINTNAME", x);
         }
         guaranteeInstanceOf(x, RSymbol.class);
-        return new CharSXPWrapper(((RSymbol) x).getName());
+        return createCharSXP(((RSymbol) x).getName());
     }
 
     public static Object TAG(Object e) {
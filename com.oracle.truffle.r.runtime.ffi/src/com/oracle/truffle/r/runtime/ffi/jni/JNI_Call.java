@@ -33,6 +33,7 @@ import com.oracle.truffle.r.runtime.ffi.CallRFFI;
 import com.oracle.truffle.r.runtime.ffi.DLL;
 import com.oracle.truffle.r.runtime.ffi.DLL.DLLException;
 import com.oracle.truffle.r.runtime.ffi.LibPaths;
+import com.oracle.truffle.r.runtime.ffi.NativeCallStats;
 import com.oracle.truffle.r.runtime.ffi.RFFIUtils;
 import com.oracle.truffle.r.runtime.ffi.RFFIVariables;
 
@@ -92,8 +93,10 @@ public class JNI_Call implements CallRFFI {
     @TruffleBoundary
     public synchronized Object invokeCall(long address, String name, Object[] args) {
         Object result = null;
+        long start = 0;
         if (traceEnabled()) {
             traceDownCall(name, args);
+            start = System.nanoTime();
         }
         try {
             switch (args.length) {
@@ -115,6 +118,7 @@ public class JNI_Call implements CallRFFI {
             return result;
         } finally {
             if (traceEnabled()) {
+                NativeCallStats.record(name, System.nanoTime() - start);
                 traceDownCallReturn(name, result);
             }
         }
@@ -69,6 +69,11 @@ public class JNI_PCRE implements PCRERFFI {
         return nativeExec(code, extra, subject, offset, options, ovector, ovector.length);
     }
 
+    @Override
+    public void free(long address) {
+        nativeFree(address);
+    }
+
     private static native long nativeMaketables();
 
     private static native Result nativeCompile(String pattern, int options, long tables);
@@ -80,4 +85,6 @@ public class JNI_PCRE implements PCRERFFI {
     private static native int nativeExec(long code, long extra, String subject, int offset,
                     int options, int[] ovector, int ovectorLen);
 
+    private static native void nativeFree(long address);
+
 }
@@ -54,6 +54,12 @@ public enum FastROptions {
     RefCountIncrementOnly("Disable reference count decrements for experimental state transition implementation", false),
     UseInternalGraphics("Whether the internal (Java) graphics subsystem should be used", false),
     UseSpecials("Whether the fast-path special call nodes should be created for simple enough arguments.", true),
+    MatMultParallelThreshold("Number of multiply-adds above which matrix products are computed by the multi-threaded kernel", "1000000", true),
+    RegExpCacheSize("Maximum number of compiled regular expressions cached per context", "64", true),
+    DispatchCacheSize("Maximum number of method dispatch results cached per context for call sites with many different receivers", "1024", true),
+    LazyDBCacheSize("Maximum number of lazy-load database files kept memory-mapped by the process-wide cache", "32", true),
+    NativeVectorStorage("Move the data of double, integer, logical and raw vectors off-heap on first access from native code", false),
+    InternStrings("Share a single instance of equal strings read by scan, unserialize and native code", true),
 
     // Promises optimizations
     EagerEval("If enabled, overrides all other EagerEval switches (see EagerEvalHelper)", false),
@@ -23,35 +23,125 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
-import java.nio.file.FileSystems;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.context.RContext;
 
+/**
+ * Support for the lazy-load databases ({@code .rdb} files) used by {@code lazyLoadDBfetch}.
+ *
+ * The database files are memory-mapped once per process and the mappings are shared by all
+ * {@link RContext}s, so spawning additional contexts does not create additional heap copies of the
+ * base/stats/methods databases. Each fetch only copies the slice for the requested object out of
+ * the mapping. A mapping is discarded, and re-created on the next access, when
+ * {@code lazyLoadDBflush} is called for the file, or when a context finds that the modification
+ * time or size of the file changed. Like GNU R, which caches the files without any check, a
+ * context only looks at the file on its first fetch from it and on the first fetch after
+ * {@code lazyLoadDBflush}, so that the fetches themselves do not make any system calls. The number of mapped files is bounded by {@link FastROptions#LazyDBCacheSize}, the least
+ * recently used mapping being evicted first. Evicted mappings are released by the GC once no
+ * reader refers to them any more.
+ */
 public class LazyDBCache {
 
+    private static final class MappedDB {
+        private final MappedByteBuffer buffer;
+        private final long lastModified;
+        private final long size;
+
+        private MappedDB(MappedByteBuffer buffer, long lastModified, long size) {
+            this.buffer = buffer;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        private boolean isValid(BasicFileAttributes attrs) {
+            return attrs.lastModifiedTime().toMillis() == lastModified && attrs.size() == size;
+        }
+    }
+
+    /**
+     * The process-wide set of mapped databases, in access order.
+     */
+    private static final Map<String, MappedDB> mappedDBs = new LinkedHashMap<String, MappedDB>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MappedDB> eldest) {
+            return size() > FastROptions.LazyDBCacheSize.getNonNegativeIntValue();
+        }
+    };
+
+    /**
+     * Returns the mapping of {@code dbPath}, which is only checked against the file if
+     * {@code validate} is set.
+     */
+    @TruffleBoundary
+    private static synchronized ByteBuffer getMappedData(String dbPath, boolean validate) throws IOException {
+        MappedDB db = mappedDBs.get(dbPath);
+        if (db != null && !validate) {
+            return db.buffer.duplicate();
+        }
+        Path path = Paths.get(dbPath);
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        if (db == null || !db.isValid(attrs)) {
+            if (attrs.size() > Integer.MAX_VALUE) {
+                throw RInternalError.shouldNotReachHere("lazy-load database too large: " + dbPath);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                db = new MappedDB(channel.map(FileChannel.MapMode.READ_ONLY, 0, attrs.size()), attrs.lastModifiedTime().toMillis(), attrs.size());
+            }
+            mappedDBs.put(dbPath, db);
+        }
+        // the mapping is shared, so every reader gets its own position/limit
+        return db.buffer.duplicate();
+    }
+
+    @TruffleBoundary
+    private static synchronized void removeMappedData(String dbPath) {
+        mappedDBs.remove(dbPath);
+    }
+
     public static final class ContextStateImpl implements RContext.ContextState {
-        private Map<String, byte[]> dbCache = new HashMap<>();
-
-        public byte[] getData(String dbPath) {
-            byte[] dbData = dbCache.get(dbPath);
-            if (dbData == null) {
-                try {
-                    dbData = Files.readAllBytes(FileSystems.getDefault().getPath(dbPath));
-                } catch (IOException ex) {
-                    // unexpected
-                    throw RInternalError.shouldNotReachHere(ex);
-                }
-                dbCache.put(dbPath, dbData);
+
+        /**
+         * The files whose mapping this context has checked against the file since it last flushed
+         * them.
+         */
+        private final Set<String> validated = new HashSet<>();
+
+        /**
+         * Returns a copy of the {@code length} bytes starting at {@code offset} in the database file
+         * {@code dbPath}, i.e., the (possibly compressed) serialized form of a single object.
+         */
+        public byte[] getData(String dbPath, int offset, int length) {
+            try {
+                ByteBuffer dbData = getMappedData(dbPath, validated.add(dbPath));
+                byte[] result = new byte[length];
+                dbData.position(offset);
+                dbData.get(result);
+                return result;
+            } catch (IOException ex) {
+                // unexpected
+                throw RInternalError.shouldNotReachHere(ex);
             }
-            return dbData;
         }
 
         public void remove(String dbPath) {
             // no an error if missing
-            dbCache.remove(dbPath);
+            validated.remove(dbPath);
+            removeMappedData(dbPath);
         }
 
         public static ContextStateImpl newContextState() {
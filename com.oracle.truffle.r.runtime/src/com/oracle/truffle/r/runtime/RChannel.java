@@ -47,6 +47,8 @@ import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RShareable;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
+import com.oracle.truffle.r.runtime.data.model.RAbstractListBaseVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess;
 import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
@@ -54,11 +56,14 @@ import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
 /**
  * Implementation of a channel abstraction used for communication between parallel contexts in
  * shared memory space.
+ *
+ * Only closures, environments, promises and language objects are (partially) serialized when
+ * transmitted. Other values, in particular atomic vectors and lists of them, are handed to the
+ * receiving context by reference: they are made permanently shared, so that an update in either
+ * context copies the vector first and neither side ever observes the other's modifications.
  */
 public class RChannel {
 
-    // TODO: cheaper way of serializing data (re-usable buffer?)
-
     private static final int INITIAL_CHANNEL_NUM = 4;
     private static final int CHANNEL_NUM_GROW_FACTOR = 2;
     private static final int QUEUE_CAPACITY = 1;
@@ -203,6 +208,14 @@ public class RChannel {
 
     private static class TransmitterCommon extends RSerialize.RefCounter {
 
+        /**
+         * Atomic vectors without attributes contain nothing that needs to be converted and are
+         * always transmitted by reference.
+         */
+        protected static boolean isPlainAtomicVector(Object o) {
+            return o instanceof RAbstractVector && !(o instanceof RAbstractListBaseVector) && ((RAbstractVector) o).getAttributes() == null;
+        }
+
         protected static class SerializedRef {
             private final int index;
 
@@ -473,7 +486,9 @@ public class RChannel {
         }
 
         private Object convertPrivate(Object o) throws IOException {
-            if (o instanceof RList) {
+            if (isPlainAtomicVector(o)) {
+                return makeShared(o);
+            } else if (o instanceof RList) {
                 return convertPrivateListSlow(o);
             } else if (shareableEnv(o)) {
                 return convertPrivateEnv(o);
@@ -573,7 +588,9 @@ public class RChannel {
 
         private Object unserializeObject(Object el) throws IOException {
             Object ret = el;
-            if (el instanceof SerializedRef) {
+            if (isPlainAtomicVector(el)) {
+                return el;
+            } else if (el instanceof SerializedRef) {
                 ret = getReadRef(((SerializedRef) el).getIndex());
             } else {
                 if (el instanceof SerializedList) {
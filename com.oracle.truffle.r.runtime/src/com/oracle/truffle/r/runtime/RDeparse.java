@@ -905,7 +905,10 @@ public class RDeparse {
             }
             RAbstractIntVector intVec = (RAbstractIntVector) vec;
             if (vec instanceof RIntSequence) {
-                return (RIntSequence) vec;
+                int stride = ((RIntSequence) vec).getStride();
+                if (stride == 1 || stride == -1) {
+                    return (RIntSequence) vec;
+                }
             }
             assert vec.getLength() >= 2;
             int start = intVec.getDataAt(0);
@@ -448,6 +448,7 @@ public final class RError extends RuntimeException {
         NOT_CONNECTION("'%s' is not a connection"),
         UNUSED_TEXTCONN("closing unused text connection %d (%s)"),
         INCOMPLETE_FINAL_LINE("incomplete final line found on '%s'"),
+        LINE_CONTAINS_EMBEDDED_NUL("line %d appears to contain an embedded nul"),
         CANNOT_OPEN_PIPE("cannot open pipe() cmd '%s': %s"),
         INVALID_TYPE_ARGUMENT("invalid 'type' (%s) of argument"),
         ATTRIBUTE_VECTOR_SAME_LENGTH("'%s' attribute [%d] must be the same length as the vector [%d]"),
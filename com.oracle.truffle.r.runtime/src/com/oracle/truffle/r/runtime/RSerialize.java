@@ -19,7 +19,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Deque;
@@ -27,7 +28,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -45,6 +45,7 @@ import com.oracle.truffle.r.runtime.data.RAttributes.RAttribute;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.REmpty;
 import com.oracle.truffle.r.runtime.data.RExpression;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
@@ -62,6 +63,7 @@ import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RScalar;
 import com.oracle.truffle.r.runtime.data.RShareable;
+import com.oracle.truffle.r.runtime.data.RStringCache;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
@@ -107,6 +109,12 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxVisitor;
 // Checkstyle: stop final class check
 public class RSerialize {
 
+    /**
+     * Number of elements converted at a time when logical vectors are read or written through the
+     * bulk int methods of the streams, and when vectors whose data lives off-heap are written.
+     */
+    private static final int BULK_CHUNK_SIZE = 4096;
+
     private static class Flags {
         static final int IS_OBJECT_BIT_MASK = 1 << 8;
         static final int HAS_ATTR_BIT_MASK = 1 << 9;
@@ -710,13 +718,13 @@ public class RSerialize {
                 case INTSXP: {
                     int len = stream.readInt();
                     int[] data = new int[len];
+                    stream.readInts(data, 0, len);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
+                        if (data[i] == RRuntime.INT_NA) {
                             complete = false;
+                            break;
                         }
-                        data[i] = intVal;
                     }
                     result = RDataFactory.createIntVector(data, complete);
                     break;
@@ -725,14 +733,19 @@ public class RSerialize {
                 case LGLSXP: {
                     int len = stream.readInt();
                     byte[] data = new byte[len];
+                    int[] chunk = new int[Math.min(len, BULK_CHUNK_SIZE)];
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
-                    for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
-                            complete = false;
-                            data[i] = RRuntime.LOGICAL_NA;
-                        } else {
-                            data[i] = (byte) intVal;
+                    for (int i = 0; i < len; i += chunk.length) {
+                        int n = Math.min(chunk.length, len - i);
+                        stream.readInts(chunk, 0, n);
+                        for (int j = 0; j < n; j++) {
+                            int intVal = chunk[j];
+                            if (intVal == RRuntime.INT_NA) {
+                                complete = false;
+                                data[i + j] = RRuntime.LOGICAL_NA;
+                            } else {
+                                data[i + j] = (byte) intVal;
+                            }
                         }
                     }
                     result = RDataFactory.createLogicalVector(data, complete);
@@ -742,13 +755,13 @@ public class RSerialize {
                 case REALSXP: {
                     int len = stream.readInt();
                     double[] data = new double[len];
+                    stream.readDoubles(data, 0, len);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        double doubleVal = stream.readDouble();
-                        if (RRuntime.isNA(doubleVal)) {
+                        if (RRuntime.isNA(data[i])) {
                             complete = false;
+                            break;
                         }
-                        data[i] = doubleVal;
                     }
                     result = RDataFactory.createDoubleVector(data, complete);
                     break;
@@ -757,14 +770,15 @@ public class RSerialize {
                 case CPLXSXP: {
                     int len = stream.readInt();
                     double[] data = new double[2 * len];
+                    stream.readDoubles(data, 0, 2 * len);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
                         int ix = 2 * i;
-                        double reVal = stream.readDouble();
+                        double reVal = data[ix];
                         if (RRuntime.isNA(reVal)) {
                             complete = false;
                         }
-                        double imVal = stream.readDouble();
+                        double imVal = data[ix + 1];
                         if (RRuntime.isNA(imVal)) {
                             complete = false;
                         }
@@ -1111,6 +1125,16 @@ public class RSerialize {
 
         abstract void readRaw(byte[] data) throws IOException;
 
+        /**
+         * Reads {@code count} ints into {@code data} starting at {@code offset}.
+         */
+        abstract void readInts(int[] data, int offset, int count) throws IOException;
+
+        /**
+         * Reads {@code count} doubles into {@code data} starting at {@code offset}.
+         */
+        abstract void readDoubles(double[] data, int offset, int count) throws IOException;
+
     }
 
     @SuppressWarnings("unused")
@@ -1135,8 +1159,6 @@ public class RSerialize {
         private int size;
         private int offset;
 
-        private final WeakHashMap<String, WeakReference<String>> strings = RContext.getInstance().stringMap;
-
         XdrInputFormat(InputStream is) {
             super(is);
             if (is instanceof PByteArrayInputStream) {
@@ -1189,15 +1211,7 @@ public class RSerialize {
                 result = new String(buf, offset, len, StandardCharsets.UTF_8);
             }
             offset += len;
-            WeakReference<String> entry;
-            if ((entry = strings.get(result)) != null) {
-                String string = entry.get();
-                if (string != null) {
-                    return string;
-                }
-            }
-            strings.put(result, new WeakReference<>(result));
-            return result;
+            return RStringCache.intern(result);
         }
 
         private void ensureData(int n) throws IOException {
@@ -1224,9 +1238,47 @@ public class RSerialize {
 
         @Override
         void readRaw(byte[] data) throws IOException {
-            ensureData(data.length);
-            System.arraycopy(buf, offset, data, 0, data.length);
-            offset += data.length;
+            // use what is buffered and read the rest directly, the data may exceed the buffer size
+            int buffered = Math.min(size - offset, data.length);
+            System.arraycopy(buf, offset, data, 0, buffered);
+            offset += buffered;
+            int total = buffered;
+            while (total < data.length) {
+                int nread = is.read(data, total, data.length - total);
+                if (nread <= 0) {
+                    throw RInternalError.unimplemented("handle unexpected eof");
+                }
+                total += nread;
+            }
+        }
+
+        /*
+         * The bulk reads decode (and byte-swap, on little-endian platforms) everything that is
+         * currently buffered with a single call on a big-endian view of the buffer.
+         */
+
+        @Override
+        void readInts(int[] data, int dataOffset, int count) throws IOException {
+            int i = 0;
+            while (i < count) {
+                ensureData(4);
+                int n = Math.min(count - i, (size - offset) / 4);
+                ByteBuffer.wrap(buf, offset, n * 4).order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(data, dataOffset + i, n);
+                offset += n * 4;
+                i += n;
+            }
+        }
+
+        @Override
+        void readDoubles(double[] data, int dataOffset, int count) throws IOException {
+            int i = 0;
+            while (i < count) {
+                ensureData(8);
+                int n = Math.min(count - i, (size - offset) / 8);
+                ByteBuffer.wrap(buf, offset, n * 8).order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().get(data, dataOffset + i, n);
+                offset += n * 8;
+                i += n;
+            }
         }
     }
 
@@ -1285,6 +1337,21 @@ public class RSerialize {
 
         abstract void writeRaw(byte[] value) throws IOException;
 
+        /**
+         * Writes {@code count} bytes from {@code data} starting at {@code offset}.
+         */
+        abstract void writeRaw(byte[] data, int offset, int count) throws IOException;
+
+        /**
+         * Writes {@code count} ints from {@code data} starting at {@code offset}.
+         */
+        abstract void writeInts(int[] data, int offset, int count) throws IOException;
+
+        /**
+         * Writes {@code count} doubles from {@code data} starting at {@code offset}.
+         */
+        abstract void writeDoubles(double[] data, int offset, int count) throws IOException;
+
         abstract void flush() throws IOException;
 
     }
@@ -1345,14 +1412,18 @@ public class RSerialize {
 
         @Override
         void writeRaw(byte[] value) throws IOException {
-            int valueLen = value.length;
-            if (valueLen > buf.length) {
+            writeRaw(value, 0, value.length);
+        }
+
+        @Override
+        void writeRaw(byte[] data, int dataOffset, int count) throws IOException {
+            if (count > buf.length) {
                 flushBuffer();
-                os.write(value);
+                os.write(data, dataOffset, count);
             } else {
-                ensureSpace(valueLen);
-                System.arraycopy(value, 0, buf, offset, valueLen);
-                offset += valueLen;
+                ensureSpace(count);
+                System.arraycopy(data, dataOffset, buf, offset, count);
+                offset += count;
             }
         }
 
@@ -1370,6 +1441,30 @@ public class RSerialize {
             buf[offset++] = (byte) (valueBits & 0xff);
         }
 
+        @Override
+        void writeInts(int[] data, int dataOffset, int count) throws IOException {
+            int i = 0;
+            while (i < count) {
+                ensureSpace(4);
+                int n = Math.min(count - i, (buf.length - offset) / 4);
+                ByteBuffer.wrap(buf, offset, n * 4).order(ByteOrder.BIG_ENDIAN).asIntBuffer().put(data, dataOffset + i, n);
+                offset += n * 4;
+                i += n;
+            }
+        }
+
+        @Override
+        void writeDoubles(double[] data, int dataOffset, int count) throws IOException {
+            int i = 0;
+            while (i < count) {
+                ensureSpace(8);
+                int n = Math.min(count - i, (buf.length - offset) / 8);
+                ByteBuffer.wrap(buf, offset, n * 8).order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().put(data, dataOffset + i, n);
+                offset += n * 8;
+                i += n;
+            }
+        }
+
         private void ensureSpace(int n) throws IOException {
             if (offset + n > buf.length) {
                 flushBuffer();
@@ -1400,6 +1495,13 @@ public class RSerialize {
         private State state;
         protected final POutputStream stream;
         private int version;
+        /*
+         * Reused to write vectors whose data lives off-heap (see NativeDataAccess), which must not
+         * be moved on-heap just to be written.
+         */
+        private int[] intChunk;
+        private double[] doubleChunk;
+        private byte[] rawChunk;
 
         private Output(OutputStream os, int format, int version, CallHook hook) throws IOException {
             super(hook);
@@ -1564,8 +1666,12 @@ public class RSerialize {
                         case INTSXP: {
                             RAbstractIntVector vec = (RAbstractIntVector) obj;
                             stream.writeInt(vec.getLength());
-                            for (int i = 0; i < vec.getLength(); i++) {
-                                stream.writeInt(vec.getDataAt(i));
+                            if (vec instanceof RIntVector) {
+                                writeInts((RIntVector) vec);
+                            } else {
+                                for (int i = 0; i < vec.getLength(); i++) {
+                                    stream.writeInt(vec.getDataAt(i));
+                                }
                             }
                             break;
                         }
@@ -1573,8 +1679,12 @@ public class RSerialize {
                         case REALSXP: {
                             RAbstractDoubleVector vec = (RAbstractDoubleVector) obj;
                             stream.writeInt(vec.getLength());
-                            for (int i = 0; i < vec.getLength(); i++) {
-                                stream.writeDouble(vec.getDataAt(i));
+                            if (vec instanceof RDoubleVector) {
+                                writeDoubles((RDoubleVector) vec);
+                            } else {
+                                for (int i = 0; i < vec.getLength(); i++) {
+                                    stream.writeDouble(vec.getDataAt(i));
+                                }
                             }
                             break;
                         }
@@ -1582,14 +1692,16 @@ public class RSerialize {
                         case LGLSXP: {
                             // Output as ints
                             RLogicalVector vec = (RLogicalVector) obj;
-                            stream.writeInt(vec.getLength());
-                            for (int i = 0; i < vec.getLength(); i++) {
-                                byte val = vec.getDataAt(i);
-                                if (RRuntime.isNA(val)) {
-                                    stream.writeInt(RRuntime.INT_NA);
-                                } else {
-                                    stream.writeInt(vec.getDataAt(i));
+                            int len = vec.getLength();
+                            stream.writeInt(len);
+                            int[] chunk = getIntChunk();
+                            for (int i = 0; i < len; i += chunk.length) {
+                                int n = Math.min(chunk.length, len - i);
+                                for (int j = 0; j < n; j++) {
+                                    byte val = vec.getDataAt(i + j);
+                                    chunk[j] = RRuntime.isNA(val) ? RRuntime.INT_NA : val;
                                 }
+                                stream.writeInts(chunk, 0, n);
                             }
                             break;
                         }
@@ -1628,9 +1740,8 @@ public class RSerialize {
 
                         case RAWSXP: {
                             RRawVector raw = (RRawVector) obj;
-                            byte[] data = raw.getDataWithoutCopying();
-                            stream.writeInt(data.length);
-                            stream.writeRaw(data);
+                            stream.writeInt(raw.getLength());
+                            writeRaw(raw);
                             break;
                         }
 
@@ -1830,6 +1941,70 @@ public class RSerialize {
             }
         }
 
+        private int[] getIntChunk() {
+            if (intChunk == null) {
+                intChunk = new int[BULK_CHUNK_SIZE];
+            }
+            return intChunk;
+        }
+
+        private void writeInts(RIntVector vec) throws IOException {
+            int len = vec.getLength();
+            int[] data = (int[]) vec.getInternalStoreForAccess();
+            if (data != null) {
+                stream.writeInts(data, 0, len);
+            } else {
+                int[] chunk = getIntChunk();
+                for (int i = 0; i < len; i += chunk.length) {
+                    int n = Math.min(chunk.length, len - i);
+                    for (int j = 0; j < n; j++) {
+                        chunk[j] = vec.getDataAt(i + j);
+                    }
+                    stream.writeInts(chunk, 0, n);
+                }
+            }
+        }
+
+        private void writeDoubles(RDoubleVector vec) throws IOException {
+            int len = vec.getLength();
+            double[] data = (double[]) vec.getInternalStoreForAccess();
+            if (data != null) {
+                stream.writeDoubles(data, 0, len);
+            } else {
+                if (doubleChunk == null) {
+                    doubleChunk = new double[BULK_CHUNK_SIZE];
+                }
+                double[] chunk = doubleChunk;
+                for (int i = 0; i < len; i += chunk.length) {
+                    int n = Math.min(chunk.length, len - i);
+                    for (int j = 0; j < n; j++) {
+                        chunk[j] = vec.getDataAt(i + j);
+                    }
+                    stream.writeDoubles(chunk, 0, n);
+                }
+            }
+        }
+
+        private void writeRaw(RRawVector vec) throws IOException {
+            int len = vec.getLength();
+            byte[] data = (byte[]) vec.getInternalStoreForAccess();
+            if (data != null) {
+                stream.writeRaw(data, 0, len);
+            } else {
+                if (rawChunk == null) {
+                    rawChunk = new byte[BULK_CHUNK_SIZE];
+                }
+                byte[] chunk = rawChunk;
+                for (int i = 0; i < len; i += chunk.length) {
+                    int n = Math.min(chunk.length, len - i);
+                    for (int j = 0; j < n; j++) {
+                        chunk[j] = vec.getRawDataAt(i + j);
+                    }
+                    stream.writeRaw(chunk, 0, n);
+                }
+            }
+        }
+
         private static final int ASCII_MASK = 1 << 6;
 
         /**
@@ -22,7 +22,14 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.ffi.PCRERFFI;
+import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 
 /**
  * Support methods for regular expressions.
@@ -106,4 +113,142 @@ public class RegExp {
         }
         return result;
     }
+
+    private static final class CacheKey {
+        private final String pattern;
+        private final int flags;
+        private final boolean perl;
+
+        private CacheKey(String pattern, int flags, boolean perl) {
+            this.pattern = pattern;
+            this.flags = flags;
+            this.perl = perl;
+        }
+
+        @Override
+        public int hashCode() {
+            return pattern.hashCode() * 31 + flags * 2 + (perl ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return pattern.equals(other.pattern) && flags == other.flags && perl == other.perl;
+        }
+    }
+
+    /**
+     * A per-context cache of compiled regular expressions, i.e. Java {@link Pattern}s and PCRE
+     * handles, so that repeatedly calling e.g. {@code grepl} or {@code gsub} with the same pattern
+     * does not recompile it each time. The cache holds at most {@link FastROptions#RegExpCacheSize}
+     * entries, but at least one, and evicts the least recently used one first; evicted PCRE handles
+     * are freed, so a handle obtained from {@link #getPCRE} must not be used after further lookups.
+     * The entry returned by the latest lookup is never evicted. Patterns that fail to compile are
+     * not cached.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+
+        private final Map<CacheKey, Object> cache = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                // with a capacity of at least one, the entry just inserted is never the eldest
+                if (size() > Math.max(1, FastROptions.RegExpCacheSize.getNonNegativeIntValue())) {
+                    release(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        /**
+         * Character tables for PCRE, created on first use.
+         */
+        private long pcreTables;
+
+        private long hits;
+        private long misses;
+
+        /**
+         * Returns the compiled form of the Java regular expression {@code pattern}.
+         *
+         * @throws java.util.regex.PatternSyntaxException if {@code pattern} is invalid
+         */
+        @TruffleBoundary
+        public Pattern getPattern(String pattern, int flags) {
+            CacheKey key = new CacheKey(pattern, flags, false);
+            Pattern result = (Pattern) cache.get(key);
+            if (result != null) {
+                hits++;
+            } else {
+                misses++;
+                result = Pattern.compile(pattern, flags);
+                cache.put(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the result of compiling {@code pattern} with PCRE, which has a zero
+         * {@link PCRERFFI.Result#result} if the pattern is invalid. The handle is owned by the cache
+         * and must not be freed by the caller.
+         */
+        @TruffleBoundary
+        public PCRERFFI.Result getPCRE(String pattern, int options) {
+            CacheKey key = new CacheKey(pattern, options, true);
+            PCRERFFI.Result result = (PCRERFFI.Result) cache.get(key);
+            if (result != null) {
+                hits++;
+            } else {
+                misses++;
+                PCRERFFI pcreRFFI = RFFIFactory.getRFFI().getPCRERFFI();
+                if (pcreTables == 0) {
+                    pcreTables = pcreRFFI.maketables();
+                }
+                result = pcreRFFI.compile(pattern, options, pcreTables);
+                if (result.result != 0) {
+                    cache.put(key, result);
+                }
+            }
+            return result;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public int getSize() {
+            return cache.size();
+        }
+
+        private static void release(Object value) {
+            if (value instanceof PCRERFFI.Result) {
+                RFFIFactory.getRFFI().getPCRERFFI().free(((PCRERFFI.Result) value).result);
+            }
+        }
+
+        @Override
+        public void beforeDestroy(RContext context) {
+            for (Object value : cache.values()) {
+                release(value);
+            }
+            cache.clear();
+            if (pcreTables != 0) {
+                RFFIFactory.getRFFI().getPCRERFFI().free(pcreTables);
+                pcreTables = 0;
+            }
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+    }
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.conn;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RError;
+
+/**
+ * Block-oriented implementation of {@code readLines} on an {@link InputStream}.
+ *
+ * Connections allow text and binary operations to be mixed on the same stream, so reading ahead is
+ * only allowed if the bytes that are not part of the returned lines can be given back. This is
+ * possible for streams that support {@link InputStream#mark} (which the connections ensure by
+ * wrapping, e.g., gzip streams in a {@link java.io.BufferedInputStream}) and for
+ * {@link FileInputStream}s on regular files, whose {@link FileChannel} position is simply reset.
+ * Any other stream, including a {@link FileInputStream} on a FIFO or a pipe, is read one byte at a
+ * time, as before.
+ *
+ * Each block is scanned for line terminators ({@code \n}, {@code \r} and {@code \r\n}) and every
+ * line is decoded directly from the block, only lines that span blocks are accumulated separately.
+ */
+public final class BufferedLineReader {
+
+    static final int BLOCK_SIZE = 8192;
+
+    private BufferedLineReader() {
+        // no instances
+    }
+
+    private abstract static class BlockSource {
+        protected final byte[] block;
+
+        BlockSource(int size) {
+            this.block = new byte[size];
+        }
+
+        /**
+         * Reads the next block into {@link #block} and returns the number of bytes read, or
+         * {@code -1} at the end of the stream.
+         */
+        abstract int fill() throws IOException;
+
+        /**
+         * Declares that only the first {@code count} bytes of the last block were used, the rest
+         * will be returned by subsequent reads from the underlying stream.
+         */
+        abstract void consume(int count) throws IOException;
+    }
+
+    private static final class MarkableStreamSource extends BlockSource {
+        private final InputStream in;
+
+        MarkableStreamSource(InputStream in) {
+            super(BLOCK_SIZE);
+            this.in = in;
+        }
+
+        @Override
+        int fill() throws IOException {
+            in.mark(BLOCK_SIZE);
+            return in.read(block, 0, BLOCK_SIZE);
+        }
+
+        @Override
+        void consume(int count) throws IOException {
+            in.reset();
+            long remaining = count;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    throw new IOException("unable to skip consumed input");
+                }
+                remaining -= skipped;
+            }
+        }
+    }
+
+    private static final class FileChannelSource extends BlockSource {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long position;
+
+        FileChannelSource(FileChannel channel) {
+            super(BLOCK_SIZE);
+            this.channel = channel;
+            this.buffer = ByteBuffer.wrap(block);
+        }
+
+        @Override
+        int fill() throws IOException {
+            position = channel.position();
+            buffer.clear();
+            return channel.read(buffer);
+        }
+
+        @Override
+        void consume(int count) throws IOException {
+            channel.position(position + count);
+        }
+    }
+
+    private static final class SingleByteSource extends BlockSource {
+        private final InputStream in;
+
+        SingleByteSource(InputStream in) {
+            super(1);
+            this.in = in;
+        }
+
+        @Override
+        int fill() throws IOException {
+            int ch = in.read();
+            if (ch < 0) {
+                return -1;
+            }
+            block[0] = (byte) ch;
+            return 1;
+        }
+
+        @Override
+        void consume(int count) {
+            // nothing can be given back (a byte read after a final '\r' is lost)
+        }
+    }
+
+    private static BlockSource createSource(InputStream in) {
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            if (isSeekable(channel)) {
+                return new FileChannelSource(channel);
+            }
+            return new SingleByteSource(in);
+        } else if (in.markSupported()) {
+            return new MarkableStreamSource(in);
+        } else {
+            return new SingleByteSource(in);
+        }
+    }
+
+    /**
+     * A {@link FileInputStream} may also be opened on a FIFO or a pipe (e.g. {@code /dev/stdin}),
+     * whose channel position cannot be queried or set.
+     */
+    private static boolean isSeekable(FileChannel channel) {
+        try {
+            channel.position();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads at most {@code n} lines (all remaining lines if {@code n < 0}) from {@code in}.
+     *
+     * @param warn whether to warn about an incomplete final line and embedded nuls
+     * @param skipNul whether embedded nuls are dropped; otherwise they terminate the line
+     */
+    @TruffleBoundary
+    public static String[] readLines(InputStream in, int n, boolean warn, boolean skipNul) throws IOException {
+        BlockSource source = createSource(in);
+        byte[] block = source.block;
+        ArrayList<String> lines = new ArrayList<>();
+        // the part of the current line that was read in previous blocks
+        byte[] pending = new byte[64];
+        int pendingLength = 0;
+        // a '\r' ended the previous block, a '\n' starting this one belongs to it
+        boolean pendingCR = false;
+        while (true) {
+            int length = source.fill();
+            if (length < 0) {
+                if (pendingLength > 0) {
+                    /*
+                     * TODO GnuR says keep data and output a warning if blocking, otherwise silently
+                     * push back. FastR doesn't support non-blocking yet, so we keep the data. Some
+                     * refactoring is needed to be able to reliably access the "name" for the
+                     * warning.
+                     */
+                    lines.add(decodeLine(pending, 0, pendingLength, lines.size() + 1, warn, skipNul));
+                    if (warn) {
+                        RError.warning(RError.SHOW_CALLER2, RError.Message.INCOMPLETE_FINAL_LINE, "TODO: connection path");
+                    }
+                }
+                break;
+            }
+            int lineStart = 0;
+            int i = 0;
+            if (pendingCR) {
+                pendingCR = false;
+                if (length > 0 && block[0] == '\n') {
+                    lineStart = i = 1;
+                }
+            }
+            boolean done = false;
+            while (i < length) {
+                byte b = block[i];
+                if (b != '\n' && b != '\r') {
+                    i++;
+                    continue;
+                }
+                if (pendingLength == 0) {
+                    lines.add(decodeLine(block, lineStart, i - lineStart, lines.size() + 1, warn, skipNul));
+                } else {
+                    pending = append(pending, pendingLength, block, lineStart, i - lineStart);
+                    lines.add(decodeLine(pending, 0, pendingLength + i - lineStart, lines.size() + 1, warn, skipNul));
+                    pendingLength = 0;
+                }
+                i++;
+                if (b == '\r') {
+                    if (i < length) {
+                        if (block[i] == '\n') {
+                            i++;
+                        }
+                    } else {
+                        pendingCR = true;
+                    }
+                }
+                lineStart = i;
+                if (n > 0 && lines.size() == n) {
+                    done = true;
+                    break;
+                }
+            }
+            if (!done && lineStart < length) {
+                pending = append(pending, pendingLength, block, lineStart, length - lineStart);
+                pendingLength += length - lineStart;
+            }
+            source.consume(done ? i : length);
+            if (done) {
+                if (pendingCR) {
+                    // swallow the '\n' of a "\r\n" that was split between blocks
+                    if (source.fill() > 0) {
+                        source.consume(block[0] == '\n' ? 1 : 0);
+                    }
+                }
+                break;
+            }
+        }
+        String[] result = new String[lines.size()];
+        lines.toArray(result);
+        return result;
+    }
+
+    private static byte[] append(byte[] buffer, int bufferLength, byte[] data, int offset, int length) {
+        byte[] result = buffer;
+        if (bufferLength + length > buffer.length) {
+            result = new byte[Math.max(bufferLength + length, buffer.length + buffer.length / 2)];
+            System.arraycopy(buffer, 0, result, 0, bufferLength);
+        }
+        System.arraycopy(data, offset, result, bufferLength, length);
+        return result;
+    }
+
+    private static String decodeLine(byte[] data, int offset, int length, int lineNumber, boolean warn, boolean skipNul) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (data[i] == 0) {
+                if (!skipNul) {
+                    if (warn) {
+                        RError.warning(RError.SHOW_CALLER2, RError.Message.LINE_CONTAINS_EMBEDDED_NUL, lineNumber);
+                    }
+                    return new String(data, offset, i - offset);
+                }
+                byte[] withoutNul = new byte[length];
+                int count = 0;
+                for (int j = offset; j < end; j++) {
+                    if (data[j] != 0) {
+                        withoutNul[count++] = data[j];
+                    }
+                }
+                return new String(withoutNul, 0, count);
+            }
+        }
+        return new String(data, offset, length);
+    }
+}
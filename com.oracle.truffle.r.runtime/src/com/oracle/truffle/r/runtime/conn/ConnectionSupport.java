@@ -788,65 +788,14 @@ public class ConnectionSupport {
         /**
          * {@code readLines} from an {@link InputStream}. It would be convenient to use a
          * {@link BufferedReader} but mixing binary and text operations, which is a requirement,
-         * would then be difficult.
+         * would then be difficult. {@link BufferedLineReader} reads blocks but never consumes more
+         * than the returned lines.
          *
-         * @param warn TODO
-         * @param skipNul TODO
+         * @param warn whether to warn about an incomplete final line and embedded nuls
+         * @param skipNul whether embedded nuls are dropped
          */
         default String[] readLinesHelper(InputStream in, int n, boolean warn, boolean skipNul) throws IOException {
-            ArrayList<String> lines = new ArrayList<>();
-            int totalRead = 0;
-            byte[] buffer = new byte[64];
-            int pushBack = 0;
-            while (true) {
-                int ch;
-                if (pushBack != 0) {
-                    ch = pushBack;
-                    pushBack = 0;
-                } else {
-                    ch = in.read();
-                }
-                boolean lineEnd = false;
-                if (ch < 0) {
-                    if (totalRead > 0) {
-                        /*
-                         * TODO GnuR says keep data and output a warning if blocking, otherwise
-                         * silently push back. FastR doesn't support non-blocking yet, so we keep
-                         * the data. Some refactoring is needed to be able to reliably access the
-                         * "name" for the warning.
-                         */
-                        lines.add(new String(buffer, 0, totalRead));
-                        if (warn) {
-                            RError.warning(RError.SHOW_CALLER2, RError.Message.INCOMPLETE_FINAL_LINE, "TODO: connection path");
-                        }
-                    }
-                    break;
-                }
-                if (ch == '\n') {
-                    lineEnd = true;
-                } else if (ch == '\r') {
-                    lineEnd = true;
-                    ch = in.read();
-                    if (ch == '\n') {
-                        // swallow the trailing lf
-                    } else {
-                        pushBack = ch;
-                    }
-                }
-                if (lineEnd) {
-                    lines.add(new String(buffer, 0, totalRead));
-                    if (n > 0 && lines.size() == n) {
-                        break;
-                    }
-                    totalRead = 0;
-                } else {
-                    buffer = checkBuffer(buffer, totalRead);
-                    buffer[totalRead++] = (byte) (ch & 0xFF);
-                }
-            }
-            String[] result = new String[lines.size()];
-            lines.toArray(result);
-            return result;
+            return BufferedLineReader.readLines(in, n, warn, skipNul);
         }
 
         default void writeLinesHelper(OutputStream out, RAbstractStringVector lines, String sep) throws IOException {
@@ -917,9 +866,13 @@ public class ConnectionSupport {
 
         default String readCharHelper(int nchars, InputStream in, @SuppressWarnings("unused") boolean useBytes) throws IOException {
             byte[] bytes = new byte[nchars];
-            in.read(bytes);
+            int totalRead = 0;
+            int thisRead;
+            while (totalRead < nchars && (thisRead = in.read(bytes, totalRead, nchars - totalRead)) > 0) {
+                totalRead += thisRead;
+            }
             int j = 0;
-            for (; j < bytes.length; j++) {
+            for (; j < totalRead; j++) {
                 // strings end at 0
                 if (bytes[j] == 0) {
                     break;
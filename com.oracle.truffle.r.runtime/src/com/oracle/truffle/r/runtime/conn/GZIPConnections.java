@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -114,7 +115,8 @@ public class GZIPConnections {
 
         GZIPInputRConnection(GZIPRConnection base) throws IOException {
             super(base);
-            inputStream = new GZIPInputStream(new FileInputStream(base.path), GZIP_BUFFER_SIZE);
+            // buffered so that readLines can read ahead (see BufferedLineReader)
+            inputStream = new BufferedInputStream(new GZIPInputStream(new FileInputStream(base.path), GZIP_BUFFER_SIZE));
         }
 
         protected GZIPInputRConnection(GZIPRConnection base, InputStream is) {
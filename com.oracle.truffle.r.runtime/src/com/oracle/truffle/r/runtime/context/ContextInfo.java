@@ -54,6 +54,11 @@ public final class ContextInfo implements TruffleObject {
     private final RContext parent;
     private final ConsoleHandler consoleHandler;
     private final int id;
+    /**
+     * The random number stream assigned by the parent, see
+     * {@link com.oracle.truffle.r.runtime.rng.RRNG.ContextStateImpl#nextChildStream()}.
+     */
+    private final int[] rngStream;
     private PolyglotEngine vm;
 
     private ContextInfo(RStartParams startParams, String[] env, ContextKind kind, RContext parent, ConsoleHandler consoleHandler, TimeZone systemTimeZone, int id) {
@@ -64,6 +69,7 @@ public final class ContextInfo implements TruffleObject {
         this.consoleHandler = consoleHandler;
         this.systemTimeZone = systemTimeZone;
         this.id = id;
+        this.rngStream = parent == null ? null : parent.stateRNG.nextChildStream();
     }
 
     public PolyglotEngine createVM() {
@@ -130,6 +136,10 @@ public final class ContextInfo implements TruffleObject {
         return id;
     }
 
+    public int[] getRNGStream() {
+        return rngStream;
+    }
+
     public PolyglotEngine getVM() {
         return vm;
     }
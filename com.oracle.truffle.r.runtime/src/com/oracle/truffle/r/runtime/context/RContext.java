@@ -23,12 +23,11 @@
 package com.oracle.truffle.r.runtime.context;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TimeZone;
-import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.Assumption;
@@ -61,6 +60,7 @@ import com.oracle.truffle.r.runtime.RRuntimeASTAccess;
 import com.oracle.truffle.r.runtime.RSerialize;
 import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.RStartParams;
+import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinKind;
@@ -73,6 +73,7 @@ import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.frame.DispatchCache;
 import com.oracle.truffle.r.runtime.ffi.RFFIContextStateFactory;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
@@ -392,6 +393,10 @@ public final class RContext extends ExecutionContext implements TruffleObject {
      * State that is used to support interposing on loadNamespace() for overrides.
      */
     @CompilationFinal private String nameSpaceName;
+    /**
+     * The finalizers registered with {@code reg.finalizer(onexit = TRUE)}.
+     */
+    private final ArrayList<Runnable> exitFinalizers = new ArrayList<>();
 
     /**
      * The set of classes for which the context manages context-specific state, and their state. We
@@ -408,6 +413,8 @@ public final class RContext extends ExecutionContext implements TruffleObject {
     public final RRNG.ContextStateImpl stateRNG;
     public final RSerialize.ContextStateImpl stateRSerialize;
     public final LazyDBCache.ContextStateImpl stateLazyDBCache;
+    public final RegExp.ContextStateImpl stateRegExp;
+    public final DispatchCache.ContextStateImpl stateDispatchCache;
     public final InstrumentationState stateInstrumentation;
     public final ContextStateImpl stateInternalCode;
     /**
@@ -416,11 +423,9 @@ public final class RContext extends ExecutionContext implements TruffleObject {
      */
     private ContextState stateRFFI;
 
-    public final WeakHashMap<String, WeakReference<String>> stringMap = new WeakHashMap<>();
-
     private ContextState[] contextStates() {
         return new ContextState[]{stateREnvVars, stateRProfile, stateROptions, stateREnvironment, stateRErrorHandling, stateRConnection, stateStdConnections, stateRNG, stateRFFI, stateRSerialize,
-                        stateLazyDBCache, stateInstrumentation};
+                        stateLazyDBCache, stateRegExp, stateDispatchCache, stateInstrumentation};
     }
 
     public static void setEmbedded() {
@@ -462,6 +467,8 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         this.stateRNG = RRNG.ContextStateImpl.newContextState();
         this.stateRSerialize = RSerialize.ContextStateImpl.newContextState();
         this.stateLazyDBCache = LazyDBCache.ContextStateImpl.newContextState();
+        this.stateRegExp = RegExp.ContextStateImpl.newContextState();
+        this.stateDispatchCache = DispatchCache.ContextStateImpl.newContextState();
         this.stateInstrumentation = InstrumentationState.newContextState(instrumenter);
         this.stateInternalCode = ContextStateImpl.newContextState();
         this.engine = RContext.getRRuntimeASTAccess().createEngine(this);
@@ -526,6 +533,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         stateRFFI.initialize(this);
         stateRSerialize.initialize(this);
         stateLazyDBCache.initialize(this);
+        stateRegExp.initialize(this);
         stateInstrumentation.initialize(this);
         stateInternalCode.initialize(this);
         state.add(State.INITIALIZED);
@@ -592,6 +600,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
     public synchronized void destroy() {
         if (!state.contains(State.DESTROYED)) {
             if (state.contains(State.INITIALIZED)) {
+                runExitFinalizers();
                 for (ContextState contextState : contextStates()) {
                     contextState.beforeDestroy(this);
                 }
@@ -608,6 +617,27 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         }
     }
 
+    /**
+     * Registers a finalizer to be run when this context is destroyed.
+     */
+    @TruffleBoundary
+    public synchronized void registerExitFinalizer(Runnable finalizer) {
+        exitFinalizers.add(finalizer);
+    }
+
+    private void runExitFinalizers() {
+        for (Runnable finalizer : exitFinalizers) {
+            try {
+                finalizer.run();
+            } catch (RError e) {
+                // as in GNU R, an error in a finalizer does not stop the others
+            } catch (Throwable t) {
+                RInternalError.reportError(t);
+            }
+        }
+        exitFinalizers.clear();
+    }
+
     public RContext getParent() {
         return info.getParent();
     }
@@ -624,6 +654,14 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         return info.getKind();
     }
 
+    /**
+     * The {@code .Random.seed} of the L'Ecuyer-CMRG stream that the parent assigned to this
+     * context, or {@code null}.
+     */
+    public int[] getInitialRNGStream() {
+        return info.getRNGStream();
+    }
+
     @TruffleBoundary
     public static RContext getThreadLocalInstance() {
         return threadLocalContext.get();
@@ -25,6 +25,7 @@ package com.oracle.truffle.r.runtime.data;
 
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.Truffle;
@@ -34,11 +35,14 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
  * Helper for tracing memory copying events, as used by the {@code tracemem} bultin. All
  * implementors of {@link RAbstractVector} are expected to report to {@link MemoryCopyTracer} and
  * others can listen to them through {@link Listener} interface. Use method
- * {@link #setTracingState(boolean)} to enable/disable the tracing.
+ * {@link #setTracingState(boolean)} to enable/disable the tracing. Independently of the listeners,
+ * the copies can be counted, see {@link #setCountingState(boolean)}.
  */
 public final class MemoryCopyTracer {
     private static Deque<Listener> listeners = new ConcurrentLinkedDeque<>();
     private static boolean enabled;
+    private static boolean counting;
+    private static final AtomicLong copyCount = new AtomicLong();
 
     private static final Assumption noMemoryCopyTracingAssumption = Truffle.getRuntime().createAssumption("data copy tracing");
 
@@ -66,14 +70,31 @@ public final class MemoryCopyTracer {
         }
     }
 
+    /**
+     * Starts or stops counting of the copies and returns the number of copies counted since the
+     * previous call. Like {@link #setTracingState(boolean)}, this invalidates global assumption.
+     */
+    public static long setCountingState(boolean newState) {
+        if (newState) {
+            noMemoryCopyTracingAssumption.invalidate();
+        }
+        counting = newState;
+        return copyCount.getAndSet(0);
+    }
+
     /**
      * Reports copy event to the listener. If there are no traced objects, this should turn into
      * no-op.
      */
     public static void reportCopying(RAbstractVector source, RAbstractVector dest) {
-        if (!noMemoryCopyTracingAssumption.isValid() && enabled) {
-            for (Listener listener : listeners) {
-                listener.reportCopying(source, dest);
+        if (!noMemoryCopyTracingAssumption.isValid()) {
+            if (counting) {
+                copyCount.incrementAndGet();
+            }
+            if (enabled) {
+                for (Listener listener : listeners) {
+                    listener.reportCopying(source, dest);
+                }
             }
         }
     }
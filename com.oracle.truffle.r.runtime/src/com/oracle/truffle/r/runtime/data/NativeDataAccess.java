@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+
+import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * Off-heap storage for the data of {@link RDoubleVector}, {@link RIntVector},
+ * {@link RLogicalVector} and {@link RRawVector}.
+ *
+ * When native code asks for the data pointer of such a vector (e.g., {@code REAL(x)}), the data is
+ * copied once into a {@link NativeMirror} and from then on the mirror is the authoritative store:
+ * the vector drops its Java array and reads and writes its elements through {@link Unsafe}. Native
+ * code therefore gets a pointer that stays valid for the lifetime of the vector, and neither the
+ * downcall nor the return to Java copies anything.
+ *
+ * At any time exactly one side owns the data. Java code that needs the data as an array (e.g.,
+ * {@link RVector#getDataWithoutCopying()}) moves it back on-heap, which detaches the mirror: a later
+ * native access copies the data into a freshly allocated mirror with a new address, so that a
+ * pointer obtained before the move can never overwrite newer data. Such a stale pointer still points
+ * to valid memory, because detached mirrors are only freed once the owning vector has been garbage
+ * collected, but writes through it are not seen by R. This only matters if an upcall from native
+ * code hands the very same vector to array based Java code; element-wise accessors and updates
+ * (e.g., {@code x[i] <- v}) never move the data.
+ *
+ * Permanently shared vectors can be read from other threads, so their data never changes owner:
+ * off-heap data is only copied for array based code and on-heap data is copied into a read-only
+ * snapshot for native code.
+ *
+ * Logical vectors are stored as 32-bit integers off-heap, as native code expects.
+ *
+ * The same mechanism backs vectors whose data is a memory mapped file (see {@link #mapFile}): such
+ * a vector starts out off-heap, its mirror points into the mapping and the mapping is released
+ * instead of freed once the vector has been collected.
+ */
+public final class NativeDataAccess {
+
+    private static final Unsafe UNSAFE = initUnsafe();
+
+    private static final ReferenceQueue<RVector<?>> collectedVectors = new ReferenceQueue<>();
+    /**
+     * Keeps the mirrors (as phantom references) reachable until their memory is freed.
+     */
+    private static final Set<NativeMirror> liveMirrors = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /*
+     * FileChannel.map is limited to 2GB per buffer, the underlying native method is not. It is used
+     * (if available) so that a mapped vector always has a single contiguous address, which is what
+     * native code and the mirror accessors expect.
+     */
+    private static final int MAP_RW = 1;
+    private static final int MAP_PV = 2;
+    private static final Method MAP0 = initMappingMethod("map0", int.class, long.class, long.class);
+    private static final Method UNMAP0 = initMappingMethod("unmap0", long.class, long.class);
+
+    private NativeDataAccess() {
+        // only static members
+    }
+
+    private static Unsafe initUnsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (Exception e) {
+            throw new RInternalError(e, "cannot access sun.misc.Unsafe");
+        }
+    }
+
+    private static Method initMappingMethod(String name, Class<?>... parameterTypes) {
+        try {
+            Method method = Class.forName("sun.nio.ch.FileChannelImpl").getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (Exception e) {
+            // fall back to FileChannel.map
+            return null;
+        }
+    }
+
+    /**
+     * A file region mapped into memory, owned by the {@link NativeMirror} of a mapped vector.
+     */
+    static final class FileMapping {
+        private final FileChannel channel;
+        private final long address;
+        private final long size;
+        private final int length;
+        private final boolean readOnly;
+        /**
+         * Only set if the mapping was created through {@link FileChannel#map}, in which case it is
+         * released by the buffer's cleaner.
+         */
+        private final MappedByteBuffer buffer;
+
+        private FileMapping(FileChannel channel, long address, long size, int length, boolean readOnly, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.address = address;
+            this.size = size;
+            this.length = length;
+            this.readOnly = readOnly;
+            this.buffer = buffer;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        boolean isReadOnly() {
+            return readOnly;
+        }
+
+        private void release() {
+            if (buffer == null) {
+                try {
+                    UNMAP0.invoke(null, address, size);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    // nothing sensible to do while freeing collected vectors
+                }
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ditto
+            }
+        }
+    }
+
+    /**
+     * The off-heap memory of a single vector.
+     */
+    public static final class NativeMirror extends PhantomReference<RVector<?>> {
+        private final long address;
+        private final int length;
+        /**
+         * The file this mirror maps, or {@code null} if the memory was allocated.
+         */
+        private final FileMapping mapping;
+        /**
+         * Whether this is a copy of the on-heap data of a permanently shared vector.
+         */
+        private final boolean snapshot;
+
+        private NativeMirror(RVector<?> owner, long address, int length, FileMapping mapping, boolean snapshot) {
+            super(owner, collectedVectors);
+            this.address = address;
+            this.length = length;
+            this.mapping = mapping;
+            this.snapshot = snapshot;
+        }
+
+        public boolean isSnapshot() {
+            return snapshot;
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public double getDouble(int index) {
+            return UNSAFE.getDouble(address + (long) index * Unsafe.ARRAY_DOUBLE_INDEX_SCALE);
+        }
+
+        public void putDouble(int index, double value) {
+            UNSAFE.putDouble(address + (long) index * Unsafe.ARRAY_DOUBLE_INDEX_SCALE, value);
+        }
+
+        public int getInt(int index) {
+            return UNSAFE.getInt(address + (long) index * Unsafe.ARRAY_INT_INDEX_SCALE);
+        }
+
+        public void putInt(int index, int value) {
+            UNSAFE.putInt(address + (long) index * Unsafe.ARRAY_INT_INDEX_SCALE, value);
+        }
+
+        public byte getByte(int index) {
+            return UNSAFE.getByte(address + index);
+        }
+
+        public void putByte(int index, byte value) {
+            UNSAFE.putByte(address + index, value);
+        }
+
+        /**
+         * Reads a logical stored as a native {@code int}.
+         */
+        public byte getLogical(int index) {
+            int value = getInt(index);
+            return value == RRuntime.INT_NA ? RRuntime.LOGICAL_NA : value == 0 ? RRuntime.LOGICAL_FALSE : RRuntime.LOGICAL_TRUE;
+        }
+
+        public void putLogical(int index, byte value) {
+            putInt(index, RRuntime.isNA(value) ? RRuntime.INT_NA : value);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return FastROptions.NativeVectorStorage.getBooleanValue();
+    }
+
+    /**
+     * Tells whether native code should access the data of {@code x} through its off-heap address:
+     * always for memory mapped vectors, otherwise if {@link FastROptions#NativeVectorStorage} is
+     * set.
+     */
+    public static boolean usesNativeStorage(Object x) {
+        if (isEnabled()) {
+            return true;
+        }
+        NativeMirror mirror;
+        if (x instanceof RDoubleVector) {
+            mirror = ((RDoubleVector) x).getNativeMirror();
+        } else if (x instanceof RIntVector) {
+            mirror = ((RIntVector) x).getNativeMirror();
+        } else if (x instanceof RRawVector) {
+            mirror = ((RRawVector) x).getNativeMirror();
+        } else {
+            mirror = null;
+        }
+        return mirror != null && mirror.mapping != null;
+    }
+
+    @TruffleBoundary
+    private static synchronized NativeMirror allocate(RVector<?> owner, int length, long elementSize, boolean snapshot) {
+        freeCollected();
+        long address = UNSAFE.allocateMemory(Math.max(1, length * elementSize));
+        NativeMirror mirror = new NativeMirror(owner, address, length, null, snapshot);
+        liveMirrors.add(mirror);
+        return mirror;
+    }
+
+    @TruffleBoundary
+    static synchronized NativeMirror attach(RVector<?> owner, FileMapping mapping) {
+        freeCollected();
+        NativeMirror mirror = new NativeMirror(owner, mapping.address, mapping.length, mapping, false);
+        liveMirrors.add(mirror);
+        return mirror;
+    }
+
+    private static void freeCollected() {
+        NativeMirror mirror;
+        while ((mirror = (NativeMirror) collectedVectors.poll()) != null) {
+            liveMirrors.remove(mirror);
+            if (mirror.mapping != null) {
+                mirror.mapping.release();
+            } else {
+                UNSAFE.freeMemory(mirror.address);
+            }
+        }
+    }
+
+    private static int elementSize(RType type) {
+        switch (type) {
+            case Double:
+                return Unsafe.ARRAY_DOUBLE_INDEX_SCALE;
+            case Integer:
+                return Unsafe.ARRAY_INT_INDEX_SCALE;
+            case Raw:
+                return Unsafe.ARRAY_BYTE_INDEX_SCALE;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Creates a double, integer or raw vector backed by the first {@code length} elements of a file
+     * in native byte order. A negative {@code length} maps the whole file. Read-only vectors are
+     * made permanently shared, so that any update works on a copy. Writable vectors extend the file
+     * if necessary. Element updates (e.g., {@code x[i] <- v}) and native code write directly into
+     * the file, unless the vector is shared, in which case updates copy, as usual.
+     *
+     * Builtins that need the data as a Java array (through {@link RVector#getDataWithoutCopying()}
+     * or {@link RVector#getInternalStore()}) copy the whole mapping on-heap. A writable vector
+     * moves its data there, and its writes only reach the file again after the next native access
+     * or {@link #flush}. A read-only vector makes the copy on the first such request and keeps it
+     * for its lifetime, so from then on the mapped file also occupies its full size on the Java
+     * heap.
+     */
+    @TruffleBoundary
+    public static RVector<?> mapFile(String path, RType type, int length, boolean readOnly) throws IOException {
+        return mapFile(path, type, length, readOnly, true);
+    }
+
+    /**
+     * Like {@link #mapFile(String, RType, int, boolean)}, {@code singleRegion == false} forces the
+     * use of {@link FileChannel#map}, which cannot map more than 2GB.
+     */
+    @TruffleBoundary
+    public static RVector<?> mapFile(String path, RType type, int length, boolean readOnly, boolean singleRegion) throws IOException {
+        int elementSize = elementSize(type);
+        FileChannel channel = readOnly ? FileChannel.open(Paths.get(path), StandardOpenOption.READ)
+                        : FileChannel.open(Paths.get(path), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            long fileSize = channel.size();
+            long count = length >= 0 ? length : fileSize / elementSize;
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("file too large to be mapped as a single vector");
+            }
+            long size = count * elementSize;
+            if (fileSize < size) {
+                if (readOnly) {
+                    throw new IOException("file is shorter than " + size + " bytes");
+                }
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+            if (count == 0) {
+                channel.close();
+                return type.create(0, false);
+            }
+            FileMapping mapping = map(channel, size, (int) count, readOnly, singleRegion);
+            RVector<?> result;
+            switch (type) {
+                case Double:
+                    result = new RDoubleVector(mapping);
+                    break;
+                case Integer:
+                    result = new RIntVector(mapping);
+                    break;
+                default:
+                    result = new RRawVector(mapping);
+                    break;
+            }
+            if (readOnly) {
+                result.makeSharedPermanent();
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static FileMapping map(FileChannel channel, long size, int length, boolean readOnly, boolean singleRegion) throws IOException {
+        if (singleRegion && MAP0 != null && UNMAP0 != null) {
+            try {
+                long address = (long) MAP0.invoke(channel, readOnly ? MAP_PV : MAP_RW, 0L, size);
+                return new FileMapping(channel, address, size, length, readOnly, null);
+            } catch (IllegalAccessException e) {
+                // fall through to FileChannel.map
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException("map failed", cause);
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("cannot map more than 2GB on this platform");
+        }
+        // unlike map0, FileChannel.map refuses a private mapping of a channel opened for reading
+        MappedByteBuffer buffer = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, size);
+        return new FileMapping(channel, ((DirectBuffer) buffer).address(), size, length, readOnly, buffer);
+    }
+
+    /**
+     * Writes the data of a vector created by {@link #mapFile} back to the file: data that was moved
+     * on-heap is copied into the mapping and the mapping is forced to the storage device.
+     */
+    @TruffleBoundary
+    public static void flush(RVector<?> vector) throws IOException {
+        NativeMirror mirror;
+        if (vector instanceof RDoubleVector) {
+            mirror = ((RDoubleVector) vector).getNativeMirror();
+        } else if (vector instanceof RIntVector) {
+            mirror = ((RIntVector) vector).getNativeMirror();
+        } else if (vector instanceof RRawVector) {
+            mirror = ((RRawVector) vector).getNativeMirror();
+        } else {
+            mirror = null;
+        }
+        if (mirror == null || mirror.mapping == null) {
+            throw new IOException("not a memory mapped vector");
+        }
+        if (mirror.mapping.isReadOnly()) {
+            throw new IOException("memory mapped vector is read-only");
+        }
+        if (vector instanceof RDoubleVector) {
+            ((RDoubleVector) vector).getNativeAddress();
+        } else if (vector instanceof RIntVector) {
+            ((RIntVector) vector).getNativeAddress();
+        } else {
+            ((RRawVector) vector).getNativeAddress();
+        }
+        if (mirror.mapping.buffer != null) {
+            mirror.mapping.buffer.force();
+        } else {
+            // with a unified buffer cache this also writes back the dirty pages of the mapping
+            mirror.mapping.channel.force(false);
+        }
+    }
+
+    /*
+     * The following methods copy the data into a mirror and back. The data is copied into the
+     * previous mirror only if that maps a file, otherwise into a new one, see the class comment.
+     */
+
+    @TruffleBoundary
+    static NativeMirror toNative(RVector<?> owner, NativeMirror previous, double[] data, boolean snapshot) {
+        NativeMirror mirror = previous != null && previous.mapping != null ? previous : allocate(owner, data.length, Unsafe.ARRAY_DOUBLE_INDEX_SCALE, snapshot);
+        UNSAFE.copyMemory(data, Unsafe.ARRAY_DOUBLE_BASE_OFFSET, null, mirror.address, (long) data.length * Unsafe.ARRAY_DOUBLE_INDEX_SCALE);
+        return mirror;
+    }
+
+    @TruffleBoundary
+    static NativeMirror toNative(RVector<?> owner, NativeMirror previous, int[] data, boolean snapshot) {
+        NativeMirror mirror = previous != null && previous.mapping != null ? previous : allocate(owner, data.length, Unsafe.ARRAY_INT_INDEX_SCALE, snapshot);
+        UNSAFE.copyMemory(data, Unsafe.ARRAY_INT_BASE_OFFSET, null, mirror.address, (long) data.length * Unsafe.ARRAY_INT_INDEX_SCALE);
+        return mirror;
+    }
+
+    @TruffleBoundary
+    static NativeMirror toNative(RVector<?> owner, NativeMirror previous, byte[] data, boolean snapshot) {
+        NativeMirror mirror = previous != null && previous.mapping != null ? previous : allocate(owner, data.length, Unsafe.ARRAY_BYTE_INDEX_SCALE, snapshot);
+        UNSAFE.copyMemory(data, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, mirror.address, data.length);
+        return mirror;
+    }
+
+    @TruffleBoundary
+    static NativeMirror logicalToNative(RVector<?> owner, NativeMirror previous, byte[] data, boolean snapshot) {
+        NativeMirror mirror = previous != null && previous.mapping != null ? previous : allocate(owner, data.length, Unsafe.ARRAY_INT_INDEX_SCALE, snapshot);
+        for (int i = 0; i < data.length; i++) {
+            mirror.putLogical(i, data[i]);
+        }
+        return mirror;
+    }
+
+    @TruffleBoundary
+    static double[] copyDoubles(NativeMirror mirror, int size) {
+        double[] result = new double[size];
+        UNSAFE.copyMemory(null, mirror.address, result, Unsafe.ARRAY_DOUBLE_BASE_OFFSET, (long) Math.min(size, mirror.length) * Unsafe.ARRAY_DOUBLE_INDEX_SCALE);
+        return result;
+    }
+
+    @TruffleBoundary
+    static int[] copyInts(NativeMirror mirror, int size) {
+        int[] result = new int[size];
+        UNSAFE.copyMemory(null, mirror.address, result, Unsafe.ARRAY_INT_BASE_OFFSET, (long) Math.min(size, mirror.length) * Unsafe.ARRAY_INT_INDEX_SCALE);
+        return result;
+    }
+
+    @TruffleBoundary
+    static byte[] copyBytes(NativeMirror mirror, int size) {
+        byte[] result = new byte[size];
+        UNSAFE.copyMemory(null, mirror.address, result, Unsafe.ARRAY_BYTE_BASE_OFFSET, Math.min(size, mirror.length));
+        return result;
+    }
+
+    @TruffleBoundary
+    static byte[] copyLogicals(NativeMirror mirror, int size) {
+        byte[] result = new byte[size];
+        int length = Math.min(size, mirror.length);
+        for (int i = 0; i < length; i++) {
+            result[i] = mirror.getLogical(i);
+        }
+        return result;
+    }
+}
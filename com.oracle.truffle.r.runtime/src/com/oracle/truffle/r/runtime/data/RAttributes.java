@@ -37,6 +37,11 @@ import com.oracle.truffle.api.utilities.CyclicAssumption;
 /**
  * Provides the generic mechanism for associating attributes with a R object. It does no special
  * analysis of the "name" of the attribute; that is left to other classes, e.g. {@link RVector}.
+ *
+ * A {@link #copy()} shares the arrays of names and values with the original, they are only cloned
+ * when either of the two is modified. Most copies, e.g., when a vector is copied before an update
+ * of its elements or when the attributes of an operand are copied to the result of an arithmetic
+ * operation, are never modified, so that the attributes of many vectors use the same arrays.
  */
 public final class RAttributes implements Iterable<RAttributes.RAttribute> {
 
@@ -109,8 +114,10 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     private RAttributes(RAttributes attrs) {
         if (attrs.size != 0) {
             size = attrs.size;
-            names = attrs.names.clone();
-            values = attrs.values.clone();
+            names = attrs.names;
+            values = attrs.values;
+            sharedArrays = true;
+            attrs.sharedArrays = true;
         }
     }
 
@@ -142,6 +149,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         // TODO: this assertion should hold in general
         // assert value == null || !(value instanceof RShareable) || !((RShareable)
         // value).isTemporary();
+        ensureOwnArrays();
         values[pos] = value;
         if (AttributeTracer.enabled) {
             AttributeTracer.reportAttributeChange(spos == -1 ? AttributeTracer.Change.ADD : AttributeTracer.Change.UPDATE, this, name);
@@ -153,9 +161,23 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
             names = Arrays.copyOf(names, (size + 1) * 2);
             values = Arrays.copyOf(values, (size + 1) * 2);
             assert names.length == values.length;
+            sharedArrays = false;
             if (AttributeTracer.enabled) {
                 AttributeTracer.reportAttributeChange(AttributeTracer.Change.GROW, this, names.length);
             }
+        } else {
+            ensureOwnArrays();
+        }
+    }
+
+    /**
+     * Clones the arrays if they are shared with a copy, must be called before any modification.
+     */
+    private void ensureOwnArrays() {
+        if (sharedArrays) {
+            names = names.clone();
+            values = values.clone();
+            sharedArrays = false;
         }
     }
 
@@ -171,6 +193,10 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     private String[] names = EMPTY_STRING_ARRAY;
     private Object[] values = EMPTY_OBJECT_ARRAY;
     private int size;
+    /**
+     * Tells whether {@link #names} and {@link #values} may be referenced by another instance.
+     */
+    private boolean sharedArrays;
 
     public int size() {
         return size;
@@ -185,12 +211,14 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     }
 
     public void setNameAtIndex(int i, String v) {
+        ensureOwnArrays();
         names[i] = v;
     }
 
     public void setValueAtIndex(int i, Object v) {
         // TODO: this assertion should hold in general
         // assert v == null || !(v instanceof RShareable) || !((RShareable) v).isTemporary();
+        ensureOwnArrays();
         values[i] = v;
     }
 
@@ -202,6 +230,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         assert isInterned(name);
         int pos = find(name);
         if (pos != -1) {
+            ensureOwnArrays();
             size--;
             for (int i = pos; i < size; i++) {
                 names[i] = names[i + 1];
@@ -225,6 +254,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         names = EMPTY_STRING_ARRAY;
         values = EMPTY_OBJECT_ARRAY;
         size = 0;
+        sharedArrays = false;
     }
 
     public RAttributes copy() {
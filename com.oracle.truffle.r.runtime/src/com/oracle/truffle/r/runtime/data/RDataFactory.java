@@ -41,6 +41,8 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.data.RPromise.Closure;
 import com.oracle.truffle.r.runtime.data.RPromise.EagerFeedback;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
@@ -251,6 +253,33 @@ public final class RDataFactory {
         return traceDataCreated(new RDoubleSequence(start, stride, length));
     }
 
+    /**
+     * Creates a vector of {@code length} copies of {@code value}. Unless {@code value} is NA, the
+     * result is a sequence with stride zero and its data is only allocated when it is materialized.
+     */
+    public static RAbstractIntVector createIntConstant(int value, int length) {
+        if (length > 1 && !RRuntime.isNA(value)) {
+            return createIntSequence(value, 0, length);
+        }
+        int[] data = new int[length];
+        Arrays.fill(data, value);
+        return createIntVector(data, !RRuntime.isNA(value));
+    }
+
+    /**
+     * Creates a vector of {@code length} copies of {@code value}, see
+     * {@link #createIntConstant(int, int)}. NaN and negative zero are always allocated, the former
+     * cannot be in a sequence and the latter would lose its sign in {@code start + 0 * index}.
+     */
+    public static RAbstractDoubleVector createDoubleConstant(double value, int length) {
+        if (length > 1 && !Double.isNaN(value) && !(value == 0 && 1 / value < 0)) {
+            return createDoubleSequence(value, 0, length);
+        }
+        double[] data = new double[length];
+        Arrays.fill(data, value);
+        return createDoubleVector(data, !RRuntime.isNA(value));
+    }
+
     public static RIntVector createEmptyIntVector() {
         return createIntVector(new int[0], true);
     }
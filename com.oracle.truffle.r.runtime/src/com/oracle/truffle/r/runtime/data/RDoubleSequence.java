@@ -31,6 +31,12 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 public final class RDoubleSequence extends RSequence implements RAbstractDoubleVector {
 
+    /**
+     * Bound on the magnitude of integral values for which the values and all differences between
+     * them are exactly representable.
+     */
+    private static final double MAX_EXACT_INTEGRAL = 1L << 52;
+
     private final double start;
     private final double stride;
 
@@ -102,6 +108,21 @@ public final class RDoubleSequence extends RSequence implements RAbstractDoubleV
         return populateVectorData(new double[getLength()]);
     }
 
+    /**
+     * Only constant sequences and sequences of integral values (e.g. {@code rep(0, n)} or
+     * {@code as.double(1:n)}) are exact under the re-association of {@code start + stride * index}.
+     */
+    @Override
+    public RDoubleSequence subsequence(int from, int by, int count) {
+        if (stride == 0) {
+            return RDataFactory.createDoubleSequence(start, 0, count);
+        }
+        if (start == Math.rint(start) && stride == Math.rint(stride) && Math.max(Math.abs(start), Math.abs(getEnd())) <= MAX_EXACT_INTEGRAL) {
+            return RDataFactory.createDoubleSequence(getDataAt(from), stride * by, count);
+        }
+        return null;
+    }
+
     @Override
     public RDoubleVector materialize() {
         return this.internalCreateVector();
@@ -37,7 +37,17 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Double.getClazz());
 
-    private final double[] data;
+    /**
+     * The data, or {@code null} while it lives off-heap in {@link #nativeMirror}, see
+     * {@link NativeDataAccess}.
+     */
+    private double[] data;
+    private NativeDataAccess.NativeMirror nativeMirror;
+    /**
+     * The on-heap copy a permanently shared vector hands out while its data lives off-heap. It is
+     * made once, the data of such a vector never changes.
+     */
+    private volatile double[] sharedCopy;
 
     RDoubleVector(double[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
@@ -45,6 +55,14 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
         assert verify();
     }
 
+    /**
+     * Creates a vector whose data is the given file mapping, see {@link NativeDataAccess#mapFile}.
+     */
+    RDoubleVector(NativeDataAccess.FileMapping mapping) {
+        super(false, mapping.getLength(), null, null);
+        this.nativeMirror = NativeDataAccess.attach(this, mapping);
+    }
+
     private RDoubleVector(double[] data, boolean complete, int[] dims) {
         this(data, complete, dims, null);
     }
@@ -69,24 +87,41 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     @Override
     protected RDoubleVector internalCopy() {
-        return new RDoubleVector(Arrays.copyOf(data, data.length), this.isComplete(), null);
+        return new RDoubleVector(getDataCopy(), this.isComplete(), null);
     }
 
     @Override
     public double[] getInternalStore() {
+        return heapData();
+    }
+
+    /**
+     * Does not move the data on-heap, {@code null} is returned while it lives off-heap and the
+     * accessors then read and write the off-heap data.
+     */
+    @Override
+    public Object getInternalStoreForAccess() {
         return data;
     }
 
     @Override
     public void setDataAt(Object store, int index, double value) {
         assert data == store;
-        ((double[]) store)[index] = value;
+        clearHashIndex();
+        double[] d = (double[]) store;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putDouble(index, value);
+        }
     }
 
     @Override
     public double getDataAt(Object store, int index) {
-        assert data == store;
-        return ((double[]) store)[index];
+        // a permanently shared vector hands out a copy of its off-heap data
+        assert data == store || isSharedPermanent();
+        double[] d = (double[]) store;
+        return d != null ? d[index] : nativeMirror.getDouble(index);
     }
 
     public RDoubleVector copyResetData(double[] newData) {
@@ -104,7 +139,8 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     @Override
     public int getLength() {
-        return data.length;
+        double[] d = data;
+        return d != null ? d.length : nativeMirror.getLength();
     }
 
     @Override
@@ -115,7 +151,8 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (double d : data) {
+            for (int i = 0; i < getLength(); i++) {
+                double d = getDataAt(i);
                 if (d == RRuntime.DOUBLE_NA) {
                     return false;
                 }
@@ -126,12 +163,13 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     @Override
     public double getDataAt(int i) {
-        return data[i];
+        double[] d = data;
+        return d != null ? d[i] : nativeMirror.getDouble(i);
     }
 
     @Override
     public double[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return copyData(getLength());
     }
 
     /**
@@ -140,17 +178,33 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
      */
     @Override
     public double[] getDataWithoutCopying() {
-        return data;
+        return heapData();
+    }
+
+    /**
+     * Copies all elements into {@code dest}, starting at {@code destPos}. Unlike
+     * {@link #getDataWithoutCopying()} this leaves off-heap data where it is.
+     */
+    public void copyTo(double[] dest, int destPos) {
+        double[] d = data;
+        if (d != null) {
+            System.arraycopy(d, 0, dest, destPos, d.length);
+        } else {
+            int length = nativeMirror.getLength();
+            for (int i = 0; i < length; i++) {
+                dest[destPos + i] = nativeMirror.getDouble(i);
+            }
+        }
     }
 
     @Override
     public RDoubleVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createDoubleVector(data, isComplete(), newDimensions);
+        return RDataFactory.createDoubleVector(heapData(), isComplete(), newDimensions);
     }
 
     public RDoubleVector updateDataAt(int i, double right, NACheck valueNACheck) {
         assert !this.isShared();
-        data[i] = right;
+        setDataInternal(i, right);
         if (valueNACheck.check(right)) {
             complete = false;
         }
@@ -180,13 +234,13 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     }
 
     private double[] copyResizedData(int size, boolean fillNA) {
-        double[] newData = Arrays.copyOf(data, size);
-        return resizeData(newData, this.data, this.getLength(), fillNA);
+        double[] newData = copyData(size);
+        return resizeData(newData, newData, this.getLength(), fillNA);
     }
 
     @Override
     protected RDoubleVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((getLength() >= size) || !fillNA);
         return RDataFactory.createDoubleVector(copyResizedData(size, fillNA), isComplete);
     }
 
@@ -203,7 +257,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractDoubleVector other = (RAbstractDoubleVector) fromVector;
-        data[toIndex] = other.getDataAt(fromIndex);
+        setDataInternal(toIndex, other.getDataAt(fromIndex));
     }
 
     @Override
@@ -215,4 +269,70 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     public RStringVector getImplicitClass() {
         return getClassHierarchyHelper(implicitClassHeader);
     }
+
+    private double[] copyData(int size) {
+        double[] d = data;
+        return d != null ? Arrays.copyOf(d, size) : NativeDataAccess.copyDoubles(nativeMirror, size);
+    }
+
+    private void setDataInternal(int index, double value) {
+        clearHashIndex();
+        double[] d = data;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putDouble(index, value);
+        }
+    }
+
+    /**
+     * Returns the data as a Java array, moving it back on-heap if it currently lives off-heap. The
+     * mirror is detached from then on, see {@link NativeDataAccess}. Permanently shared vectors may
+     * be read by other threads, their data is never moved: they hand out a copy, which is only
+     * made on the first request.
+     */
+    private double[] heapData() {
+        double[] d = data;
+        if (d == null) {
+            if (isSharedPermanent()) {
+                d = sharedCopy;
+                if (d == null) {
+                    d = NativeDataAccess.copyDoubles(nativeMirror, nativeMirror.getLength());
+                    sharedCopy = d;
+                }
+            } else {
+                d = NativeDataAccess.copyDoubles(nativeMirror, nativeMirror.getLength());
+                data = d;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Moves the data off-heap, unless it already lives there, and returns its address for native
+     * code. The address remains valid for the lifetime of this vector. The data of a permanently
+     * shared vector stays on-heap, native code gets the address of a read-only snapshot.
+     */
+    public long getNativeAddress() {
+        // native code may write through the address
+        clearHashIndex();
+        double[] d = data;
+        if (d != null) {
+            if (isSharedPermanent()) {
+                NativeDataAccess.NativeMirror mirror = nativeMirror;
+                if (mirror == null || !mirror.isSnapshot()) {
+                    mirror = NativeDataAccess.toNative(this, null, d, true);
+                    nativeMirror = mirror;
+                }
+                return mirror.getAddress();
+            }
+            nativeMirror = NativeDataAccess.toNative(this, nativeMirror, d, false);
+            data = null;
+        }
+        return nativeMirror.getAddress();
+    }
+
+    NativeDataAccess.NativeMirror getNativeMirror() {
+        return nativeMirror;
+    }
 }
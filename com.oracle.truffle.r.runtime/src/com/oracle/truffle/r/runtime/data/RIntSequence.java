@@ -107,6 +107,15 @@ public final class RIntSequence extends RSequence implements RAbstractIntVector
         return start + (getLength() - 1) * stride;
     }
 
+    @Override
+    public RIntSequence subsequence(int from, int by, int count) {
+        long newStride = (long) stride * by;
+        if (newStride != (int) newStride) {
+            return null;
+        }
+        return RDataFactory.createIntSequence(getDataAt(from), (int) newStride, count);
+    }
+
     @Override
     public RIntVector materialize() {
         return this.internalCreateVector();
@@ -37,7 +37,17 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Integer.getClazz());
 
-    private final int[] data;
+    /**
+     * The data, or {@code null} while it lives off-heap in {@link #nativeMirror}, see
+     * {@link NativeDataAccess}.
+     */
+    private int[] data;
+    private NativeDataAccess.NativeMirror nativeMirror;
+    /**
+     * The on-heap copy a permanently shared vector hands out while its data lives off-heap. It is
+     * made once, the data of such a vector never changes.
+     */
+    private volatile int[] sharedCopy;
 
     RIntVector(int[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
@@ -45,6 +55,14 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
         assert verify();
     }
 
+    /**
+     * Creates a vector whose data is the given file mapping, see {@link NativeDataAccess#mapFile}.
+     */
+    RIntVector(NativeDataAccess.FileMapping mapping) {
+        super(false, mapping.getLength(), null, null);
+        this.nativeMirror = NativeDataAccess.attach(this, mapping);
+    }
+
     private RIntVector(int[] data, boolean complete, int[] dims) {
         this(data, complete, dims, null);
     }
@@ -69,29 +87,47 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     public int[] getInternalStore() {
+        return heapData();
+    }
+
+    /**
+     * Does not move the data on-heap, {@code null} is returned while it lives off-heap and the
+     * accessors then read and write the off-heap data.
+     */
+    @Override
+    public Object getInternalStoreForAccess() {
         return data;
     }
 
     @Override
     public int getDataAt(int index) {
-        return data[index];
+        int[] d = data;
+        return d != null ? d[index] : nativeMirror.getInt(index);
     }
 
     @Override
     public int getDataAt(Object store, int index) {
-        assert data == store;
-        return ((int[]) store)[index];
+        // a permanently shared vector hands out a copy of its off-heap data
+        assert data == store || isSharedPermanent();
+        int[] d = (int[]) store;
+        return d != null ? d[index] : nativeMirror.getInt(index);
     }
 
     @Override
     public void setDataAt(Object store, int index, int value) {
         assert data == store;
-        ((int[]) store)[index] = value;
+        clearHashIndex();
+        int[] d = (int[]) store;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putInt(index, value);
+        }
     }
 
     @Override
     protected RIntVector internalCopy() {
-        return new RIntVector(Arrays.copyOf(data, data.length), isComplete(), null);
+        return new RIntVector(getDataCopy(), isComplete(), null);
     }
 
     public RIntVector copyResetData(int[] newData) {
@@ -109,7 +145,8 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     public int getLength() {
-        return data.length;
+        int[] d = data;
+        return d != null ? d.length : nativeMirror.getLength();
     }
 
     @Override
@@ -120,7 +157,8 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (int x : data) {
+            for (int i = 0; i < getLength(); i++) {
+                int x = getDataAt(i);
                 if (x == RRuntime.INT_NA) {
                     return false;
                 }
@@ -131,7 +169,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     public int[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return copyData(getLength());
     }
 
     /**
@@ -140,17 +178,33 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
      */
     @Override
     public int[] getDataWithoutCopying() {
-        return data;
+        return heapData();
+    }
+
+    /**
+     * Copies all elements into {@code dest}, starting at {@code destPos}. Unlike
+     * {@link #getDataWithoutCopying()} this leaves off-heap data where it is.
+     */
+    public void copyTo(int[] dest, int destPos) {
+        int[] d = data;
+        if (d != null) {
+            System.arraycopy(d, 0, dest, destPos, d.length);
+        } else {
+            int length = nativeMirror.getLength();
+            for (int i = 0; i < length; i++) {
+                dest[destPos + i] = nativeMirror.getInt(i);
+            }
+        }
     }
 
     @Override
     public RIntVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createIntVector(data, isComplete(), newDimensions);
+        return RDataFactory.createIntVector(heapData(), isComplete(), newDimensions);
     }
 
     public RIntVector updateDataAt(int i, int right, NACheck valueNACheck) {
         assert !this.isShared();
-        data[i] = right;
+        setDataInternal(i, right);
         if (valueNACheck.check(right)) {
             setComplete(false);
         }
@@ -179,13 +233,13 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     }
 
     private int[] copyResizedData(int size, boolean fillNA) {
-        int[] newData = Arrays.copyOf(data, size);
-        return resizeData(newData, this.data, this.getLength(), fillNA);
+        int[] newData = copyData(size);
+        return resizeData(newData, newData, this.getLength(), fillNA);
     }
 
     @Override
     protected RIntVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((getLength() >= size) || !fillNA);
         return RDataFactory.createIntVector(copyResizedData(size, fillNA), isComplete);
     }
 
@@ -202,7 +256,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractIntVector other = (RAbstractIntVector) fromVector;
-        data[toIndex] = other.getDataAt(fromIndex);
+        setDataInternal(toIndex, other.getDataAt(fromIndex));
     }
 
     @Override
@@ -217,6 +271,72 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     public void setElement(int i, Object value) {
-        data[i] = (int) value;
+        setDataInternal(i, (int) value);
+    }
+
+    private int[] copyData(int size) {
+        int[] d = data;
+        return d != null ? Arrays.copyOf(d, size) : NativeDataAccess.copyInts(nativeMirror, size);
+    }
+
+    private void setDataInternal(int index, int value) {
+        clearHashIndex();
+        int[] d = data;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putInt(index, value);
+        }
+    }
+
+    /**
+     * Returns the data as a Java array, moving it back on-heap if it currently lives off-heap. The
+     * mirror is detached from then on, see {@link NativeDataAccess}. Permanently shared vectors may
+     * be read by other threads, their data is never moved: they hand out a copy, which is only
+     * made on the first request.
+     */
+    private int[] heapData() {
+        int[] d = data;
+        if (d == null) {
+            if (isSharedPermanent()) {
+                d = sharedCopy;
+                if (d == null) {
+                    d = NativeDataAccess.copyInts(nativeMirror, nativeMirror.getLength());
+                    sharedCopy = d;
+                }
+            } else {
+                d = NativeDataAccess.copyInts(nativeMirror, nativeMirror.getLength());
+                data = d;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Moves the data off-heap, unless it already lives there, and returns its address for native
+     * code. The address remains valid for the lifetime of this vector. The data of a permanently
+     * shared vector stays on-heap, native code gets the address of a read-only snapshot.
+     */
+    public long getNativeAddress() {
+        // native code may write through the address
+        clearHashIndex();
+        int[] d = data;
+        if (d != null) {
+            if (isSharedPermanent()) {
+                NativeDataAccess.NativeMirror mirror = nativeMirror;
+                if (mirror == null || !mirror.isSnapshot()) {
+                    mirror = NativeDataAccess.toNative(this, null, d, true);
+                    nativeMirror = mirror;
+                }
+                return mirror.getAddress();
+            }
+            nativeMirror = NativeDataAccess.toNative(this, nativeMirror, d, false);
+            data = null;
+        }
+        return nativeMirror.getAddress();
+    }
+
+    NativeDataAccess.NativeMirror getNativeMirror() {
+        return nativeMirror;
     }
 }
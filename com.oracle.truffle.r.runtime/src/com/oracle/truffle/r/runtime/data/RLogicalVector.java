@@ -37,7 +37,17 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Logical.getClazz());
 
-    private final byte[] data;
+    /**
+     * The data, or {@code null} while it lives off-heap in {@link #nativeMirror}, see
+     * {@link NativeDataAccess}.
+     */
+    private byte[] data;
+    private NativeDataAccess.NativeMirror nativeMirror;
+    /**
+     * The on-heap copy a permanently shared vector hands out while its data lives off-heap. It is
+     * made once, the data of such a vector never changes.
+     */
+    private volatile byte[] sharedCopy;
 
     RLogicalVector(byte[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
@@ -71,24 +81,40 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     public byte[] getInternalStore() {
+        return heapData();
+    }
+
+    /**
+     * Does not move the data on-heap, {@code null} is returned while it lives off-heap and the
+     * accessors then read and write the off-heap data.
+     */
+    @Override
+    public Object getInternalStoreForAccess() {
         return data;
     }
 
     @Override
     public void setDataAt(Object store, int index, byte value) {
         assert data == store;
-        ((byte[]) store)[index] = value;
+        byte[] d = (byte[]) store;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putLogical(index, value);
+        }
     }
 
     @Override
     public byte getDataAt(Object store, int index) {
-        assert data == store;
-        return ((byte[]) store)[index];
+        // a permanently shared vector hands out a copy of its off-heap data
+        assert data == store || isSharedPermanent();
+        byte[] d = (byte[]) store;
+        return d != null ? d[index] : nativeMirror.getLogical(index);
     }
 
     @Override
     protected RLogicalVector internalCopy() {
-        return new RLogicalVector(Arrays.copyOf(data, data.length), isComplete(), null);
+        return new RLogicalVector(getDataCopy(), isComplete(), null);
     }
 
     public RLogicalVector copyResetData(byte[] newData) {
@@ -106,7 +132,8 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     public int getLength() {
-        return data.length;
+        byte[] d = data;
+        return d != null ? d.length : nativeMirror.getLength();
     }
 
     @Override
@@ -117,7 +144,8 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (byte b : data) {
+            for (int i = 0; i < getLength(); i++) {
+                byte b = getDataAt(i);
                 if (b == RRuntime.LOGICAL_NA) {
                     return false;
                 }
@@ -128,12 +156,13 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     public byte getDataAt(int i) {
-        return data[i];
+        byte[] d = data;
+        return d != null ? d[i] : nativeMirror.getLogical(i);
     }
 
     private RLogicalVector updateDataAt(int index, byte right, NACheck valueNACheck) {
         assert !this.isShared();
-        data[index] = right;
+        setDataInternal(index, right);
         if (valueNACheck.check(right)) {
             setComplete(false);
         }
@@ -148,15 +177,15 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
     }
 
     private byte[] copyResizedData(int size, boolean fillNA) {
-        byte[] newData = Arrays.copyOf(data, size);
+        byte[] newData = copyData(size);
         if (size > this.getLength()) {
             if (fillNA) {
-                for (int i = data.length; i < size; i++) {
+                for (int i = getLength(); i < size; i++) {
                     newData[i] = RRuntime.LOGICAL_NA;
                 }
             } else {
-                for (int i = data.length, j = 0; i < size; ++i, j = Utils.incMod(j, data.length)) {
-                    newData[i] = data[j];
+                for (int i = getLength(), j = 0; i < size; ++i, j = Utils.incMod(j, getLength())) {
+                    newData[i] = newData[j];
                 }
             }
         }
@@ -165,7 +194,7 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     protected RLogicalVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((getLength() >= size) || !fillNA);
         return RDataFactory.createLogicalVector(copyResizedData(size, fillNA), isComplete);
     }
 
@@ -177,12 +206,12 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractLogicalVector other = (RAbstractLogicalVector) fromVector;
-        data[toIndex] = other.getDataAt(fromIndex);
+        setDataInternal(toIndex, other.getDataAt(fromIndex));
     }
 
     @Override
     public byte[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return copyData(getLength());
     }
 
     /**
@@ -191,12 +220,28 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
      */
     @Override
     public byte[] getDataWithoutCopying() {
-        return data;
+        return heapData();
+    }
+
+    /**
+     * Copies all elements into {@code dest}, starting at {@code destPos}. Unlike
+     * {@link #getDataWithoutCopying()} this leaves off-heap data where it is.
+     */
+    public void copyTo(byte[] dest, int destPos) {
+        byte[] d = data;
+        if (d != null) {
+            System.arraycopy(d, 0, dest, destPos, d.length);
+        } else {
+            int length = nativeMirror.getLength();
+            for (int i = 0; i < length; i++) {
+                dest[destPos + i] = nativeMirror.getLogical(i);
+            }
+        }
     }
 
     @Override
     public RLogicalVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createLogicalVector(data, isComplete(), newDimensions);
+        return RDataFactory.createLogicalVector(heapData(), isComplete(), newDimensions);
     }
 
     @Override
@@ -213,4 +258,63 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
     public RStringVector getImplicitClass() {
         return getClassHierarchyHelper(implicitClassHeader);
     }
+
+    private byte[] copyData(int size) {
+        byte[] d = data;
+        return d != null ? Arrays.copyOf(d, size) : NativeDataAccess.copyLogicals(nativeMirror, size);
+    }
+
+    private void setDataInternal(int index, byte value) {
+        byte[] d = data;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putLogical(index, value);
+        }
+    }
+
+    /**
+     * Returns the data as a Java array, moving it back on-heap if it currently lives off-heap. The
+     * mirror is detached from then on, see {@link NativeDataAccess}. Permanently shared vectors may
+     * be read by other threads, their data is never moved: they hand out a copy, which is only
+     * made on the first request.
+     */
+    private byte[] heapData() {
+        byte[] d = data;
+        if (d == null) {
+            if (isSharedPermanent()) {
+                d = sharedCopy;
+                if (d == null) {
+                    d = NativeDataAccess.copyLogicals(nativeMirror, nativeMirror.getLength());
+                    sharedCopy = d;
+                }
+            } else {
+                d = NativeDataAccess.copyLogicals(nativeMirror, nativeMirror.getLength());
+                data = d;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Moves the data off-heap, unless it already lives there, and returns its address for native
+     * code. The address remains valid for the lifetime of this vector. The data of a permanently
+     * shared vector stays on-heap, native code gets the address of a read-only snapshot.
+     */
+    public long getNativeAddress() {
+        byte[] d = data;
+        if (d != null) {
+            if (isSharedPermanent()) {
+                NativeDataAccess.NativeMirror mirror = nativeMirror;
+                if (mirror == null || !mirror.isSnapshot()) {
+                    mirror = NativeDataAccess.logicalToNative(this, null, d, true);
+                    nativeMirror = mirror;
+                }
+                return mirror.getAddress();
+            }
+            nativeMirror = NativeDataAccess.logicalToNative(this, nativeMirror, d, false);
+            data = null;
+        }
+        return nativeMirror.getAddress();
+    }
 }
@@ -37,7 +37,17 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Raw.getClazz());
 
-    private final byte[] data;
+    /**
+     * The data, or {@code null} while it lives off-heap in {@link #nativeMirror}, see
+     * {@link NativeDataAccess}.
+     */
+    private byte[] data;
+    private NativeDataAccess.NativeMirror nativeMirror;
+    /**
+     * The on-heap copy a permanently shared vector hands out while its data lives off-heap. It is
+     * made once, the data of such a vector never changes.
+     */
+    private volatile byte[] sharedCopy;
 
     RRawVector(byte[] data, int[] dims, RStringVector names) {
         super(true, data.length, dims, names);
@@ -45,6 +55,14 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
         assert verify();
     }
 
+    /**
+     * Creates a vector whose data is the given file mapping, see {@link NativeDataAccess#mapFile}.
+     */
+    RRawVector(NativeDataAccess.FileMapping mapping) {
+        super(true, mapping.getLength(), null, null);
+        this.nativeMirror = NativeDataAccess.attach(this, mapping);
+    }
+
     private RRawVector(byte[] data, int[] dims) {
         this(data, dims, null);
     }
@@ -69,34 +87,52 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
 
     @Override
     public byte getRawDataAt(int index) {
-        return data[index];
+        byte[] d = data;
+        return d != null ? d[index] : nativeMirror.getByte(index);
     }
 
     @Override
     public byte getRawDataAt(Object store, int index) {
-        assert data == store;
-        return ((byte[]) store)[index];
+        // a permanently shared vector hands out a copy of its off-heap data
+        assert data == store || isSharedPermanent();
+        byte[] d = (byte[]) store;
+        return d != null ? d[index] : nativeMirror.getByte(index);
     }
 
     @Override
     public byte[] getInternalStore() {
+        return heapData();
+    }
+
+    /**
+     * Does not move the data on-heap, {@code null} is returned while it lives off-heap and the
+     * accessors then read and write the off-heap data.
+     */
+    @Override
+    public Object getInternalStoreForAccess() {
         return data;
     }
 
     @Override
     public void setRawDataAt(Object store, int index, byte value) {
         assert data == store;
-        ((byte[]) store)[index] = value;
+        byte[] d = (byte[]) store;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putByte(index, value);
+        }
     }
 
     @Override
     protected RRawVector internalCopy() {
-        return new RRawVector(Arrays.copyOf(data, data.length), null);
+        return new RRawVector(getDataCopy(), null);
     }
 
     @Override
     public int getLength() {
-        return data.length;
+        byte[] d = data;
+        return d != null ? d.length : nativeMirror.getLength();
     }
 
     @Override
@@ -111,12 +147,12 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
 
     @Override
     public RRaw getDataAt(int i) {
-        return RDataFactory.createRaw(data[i]);
+        return RDataFactory.createRaw(getRawDataAt(i));
     }
 
     @Override
     public byte[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return copyData(getLength());
     }
 
     /**
@@ -125,12 +161,28 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
      */
     @Override
     public byte[] getDataWithoutCopying() {
-        return data;
+        return heapData();
+    }
+
+    /**
+     * Copies all elements into {@code dest}, starting at {@code destPos}. Unlike
+     * {@link #getDataWithoutCopying()} this leaves off-heap data where it is.
+     */
+    public void copyTo(byte[] dest, int destPos) {
+        byte[] d = data;
+        if (d != null) {
+            System.arraycopy(d, 0, dest, destPos, d.length);
+        } else {
+            int length = nativeMirror.getLength();
+            for (int i = 0; i < length; i++) {
+                dest[destPos + i] = nativeMirror.getByte(i);
+            }
+        }
     }
 
     @Override
     public RRawVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createRawVector(data, newDimensions);
+        return RDataFactory.createRawVector(heapData(), newDimensions);
     }
 
     @Override
@@ -140,7 +192,7 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
 
     public RRawVector updateDataAt(int i, RRaw right) {
         assert !this.isShared();
-        data[i] = right.getValue();
+        setDataInternal(i, right.getValue());
         return this;
     }
 
@@ -150,11 +202,11 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
     }
 
     private byte[] copyResizedData(int size, boolean fillNA) {
-        byte[] newData = Arrays.copyOf(data, size);
+        byte[] newData = copyData(size);
         if (!fillNA) {
             // NA is 00 for raw
-            for (int i = data.length, j = 0; i < size; ++i, j = Utils.incMod(j, data.length)) {
-                newData[i] = data[j];
+            for (int i = getLength(), j = 0; i < size; ++i, j = Utils.incMod(j, getLength())) {
+                newData[i] = newData[j];
             }
         }
         return newData;
@@ -174,7 +226,7 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractRawVector other = (RAbstractRawVector) fromVector;
-        data[toIndex] = other.getRawDataAt(fromIndex);
+        setDataInternal(toIndex, other.getRawDataAt(fromIndex));
     }
 
     @Override
@@ -186,4 +238,67 @@ public final class RRawVector extends RVector<byte[]> implements RAbstractRawVec
     public RStringVector getImplicitClass() {
         return getClassHierarchyHelper(implicitClassHeader);
     }
+
+    private byte[] copyData(int size) {
+        byte[] d = data;
+        return d != null ? Arrays.copyOf(d, size) : NativeDataAccess.copyBytes(nativeMirror, size);
+    }
+
+    private void setDataInternal(int index, byte value) {
+        byte[] d = data;
+        if (d != null) {
+            d[index] = value;
+        } else {
+            nativeMirror.putByte(index, value);
+        }
+    }
+
+    /**
+     * Returns the data as a Java array, moving it back on-heap if it currently lives off-heap. The
+     * mirror is detached from then on, see {@link NativeDataAccess}. Permanently shared vectors may
+     * be read by other threads, their data is never moved: they hand out a copy, which is only
+     * made on the first request.
+     */
+    private byte[] heapData() {
+        byte[] d = data;
+        if (d == null) {
+            if (isSharedPermanent()) {
+                d = sharedCopy;
+                if (d == null) {
+                    d = NativeDataAccess.copyBytes(nativeMirror, nativeMirror.getLength());
+                    sharedCopy = d;
+                }
+            } else {
+                d = NativeDataAccess.copyBytes(nativeMirror, nativeMirror.getLength());
+                data = d;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Moves the data off-heap, unless it already lives there, and returns its address for native
+     * code. The address remains valid for the lifetime of this vector. The data of a permanently
+     * shared vector stays on-heap, native code gets the address of a read-only snapshot.
+     */
+    public long getNativeAddress() {
+        byte[] d = data;
+        if (d != null) {
+            if (isSharedPermanent()) {
+                NativeDataAccess.NativeMirror mirror = nativeMirror;
+                if (mirror == null || !mirror.isSnapshot()) {
+                    mirror = NativeDataAccess.toNative(this, null, d, true);
+                    nativeMirror = mirror;
+                }
+                return mirror.getAddress();
+            }
+            nativeMirror = NativeDataAccess.toNative(this, nativeMirror, d, false);
+            data = null;
+        }
+        return nativeMirror.getAddress();
+    }
+
+    NativeDataAccess.NativeMirror getNativeMirror() {
+        return nativeMirror;
+    }
 }
@@ -85,6 +85,11 @@ public abstract class RScalarVector extends RScalar implements RAbstractVector {
         return materialize().getNonShared();
     }
 
+    @Override
+    public RTypedValue reuseNonShared() {
+        return materialize();
+    }
+
     @Override
     public RShareable materializeToShareable() {
         return materialize().materializeToShareable();
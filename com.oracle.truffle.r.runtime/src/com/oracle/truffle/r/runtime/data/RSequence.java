@@ -87,6 +87,13 @@ public abstract class RSequence implements RAbstractVector {
 
     protected abstract RVector<?> internalCreateVector();
 
+    /**
+     * Returns the elements at {@code from}, {@code from + by}, ... as a new sequence of
+     * {@code count} elements, or {@code null} if that would not reproduce the element values
+     * exactly. The caller guarantees that all of these indices are valid.
+     */
+    public abstract RSequence subsequence(int from, int by, int count);
+
     @Override
     public final RAbstractVector copy() {
         return createVector();
@@ -175,6 +182,11 @@ public abstract class RSequence implements RAbstractVector {
         return materialize().getNonShared();
     }
 
+    @Override
+    public final RTypedValue reuseNonShared() {
+        return materialize();
+    }
+
     @Override
     public final RShareable materializeToShareable() {
         return this.materialize();
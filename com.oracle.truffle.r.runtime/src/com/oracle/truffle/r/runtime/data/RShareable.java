@@ -61,4 +61,13 @@ public interface RShareable extends RTypedValue {
 
     RTypedValue getNonShared();
 
+    /**
+     * Like {@link #getNonShared()}, but a copy made because this object is shared is returned as
+     * a temporary, and a temporary object is returned unchanged. This is meant for builtins that
+     * update their argument and return it, e.g., {@code attr<-}, where the assignment of the result
+     * increments the reference count. Using {@link #getNonShared()} there would leave the assigned
+     * copy shared, and every following update would make another copy.
+     */
+    RTypedValue reuseNonShared();
+
 }
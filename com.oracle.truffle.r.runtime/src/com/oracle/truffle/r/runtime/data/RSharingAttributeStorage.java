@@ -76,4 +76,14 @@ public abstract class RSharingAttributeStorage extends RAttributeStorage impleme
         }
         return this;
     }
+
+    @Override
+    public final RTypedValue reuseNonShared() {
+        if (isShared()) {
+            RShareable res = copy();
+            assert res.isTemporary();
+            return res;
+        }
+        return this;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * The counterpart of GnuR's global CHARSXP cache: a process-wide table of canonical string
+ * instances. Strings that typically occur many times in data coming from outside, e.g., the values
+ * of factor-like columns read by {@code scan} or {@code readRDS}, are interned here so that equal
+ * elements share a single {@link String}. Besides the memory, this makes {@link String#equals}
+ * (which checks identity first) and {@link String#hashCode} (which is cached per instance) cheap for
+ * them in {@code match}, {@code unique}, comparisons, etc.
+ *
+ * The table only references the strings weakly, an entry disappears once its canonical instance is
+ * no longer used. {@link RRuntime#STRING_NA} is never interned, as it is distinguished from other
+ * {@code "NA"} strings by identity.
+ */
+public final class RStringCache {
+
+    private static final WeakHashMap<String, WeakReference<String>> table = new WeakHashMap<>();
+
+    private RStringCache() {
+        // only static members
+    }
+
+    public static boolean isEnabled() {
+        return FastROptions.InternStrings.getBooleanValue();
+    }
+
+    /**
+     * Returns the canonical instance of {@code value}.
+     */
+    public static String intern(String value) {
+        if (RRuntime.isNA(value) || !isEnabled()) {
+            return value;
+        }
+        return internSynchronized(value);
+    }
+
+    @TruffleBoundary
+    private static String internSynchronized(String value) {
+        synchronized (table) {
+            return lookup(value);
+        }
+    }
+
+    /**
+     * Replaces the first {@code length} elements of {@code values} by their canonical instances,
+     * taking the lock only once.
+     */
+    @TruffleBoundary
+    public static void internAll(String[] values, int length) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (table) {
+            for (int i = 0; i < length; i++) {
+                String value = values[i];
+                if (!RRuntime.isNA(value)) {
+                    values[i] = lookup(value);
+                }
+            }
+        }
+    }
+
+    private static String lookup(String value) {
+        WeakReference<String> ref = table.get(value);
+        if (ref != null) {
+            String existing = ref.get();
+            if (existing != null) {
+                return existing;
+            }
+        }
+        table.put(value, new WeakReference<>(value));
+        return value;
+    }
+}
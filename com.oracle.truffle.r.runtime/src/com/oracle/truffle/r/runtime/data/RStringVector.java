@@ -70,6 +70,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
     @Override
     public void setDataAt(Object store, int index, String value) {
         assert data == store;
+        clearHashIndex();
         ((String[]) store)[index] = value;
     }
 
@@ -105,6 +106,13 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
         return data;
     }
 
+    /**
+     * Copies all elements into {@code dest}, starting at {@code destPos}.
+     */
+    public void copyTo(String[] dest, int destPos) {
+        System.arraycopy(data, 0, dest, destPos, data.length);
+    }
+
     @Override
     public String toString() {
         return toString(i -> getDataAt(i));
@@ -131,6 +139,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
         if (this.isShared()) {
             throw RInternalError.shouldNotReachHere("update shared vector");
         }
+        clearHashIndex();
         data[i] = right;
         if (rightNACheck.check(right)) {
             setComplete(false);
@@ -183,6 +192,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractStringVector other = (RAbstractStringVector) fromVector;
+        clearHashIndex();
         data[toIndex] = other.getDataAt(fromIndex);
     }
 
@@ -208,6 +218,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
 
     @Override
     public void setElement(int i, Object value) {
+        clearHashIndex();
         data[i] = (String) value;
     }
 }
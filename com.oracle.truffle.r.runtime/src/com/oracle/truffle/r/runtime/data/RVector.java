@@ -64,6 +64,8 @@ public abstract class RVector<ArrayT> extends RSharingAttributeStorage implement
     private RList dimNames;
     // cache rownames for data frames as they are accessed at every data frame access
     private Object rowNames;
+    // cached hash index of the elements, see VectorHashIndex
+    private VectorHashIndex hashIndex;
 
     protected RVector(boolean complete, int length, int[] dimensions, RStringVector names) {
         this.complete = complete;
@@ -112,7 +114,11 @@ public abstract class RVector<ArrayT> extends RSharingAttributeStorage implement
      * @return vector data
      */
     public final ArrayT getDataNonShared() {
-        return isShared() ? getDataCopy() : getDataWithoutCopying();
+        if (isShared()) {
+            return getDataCopy();
+        }
+        clearHashIndex();
+        return getDataWithoutCopying();
     }
 
     /**
@@ -158,6 +164,21 @@ public abstract class RVector<ArrayT> extends RSharingAttributeStorage implement
         rowNames = newRowNames;
     }
 
+    public final VectorHashIndex getHashIndex() {
+        return hashIndex;
+    }
+
+    public final void setHashIndex(VectorHashIndex hashIndex) {
+        this.hashIndex = hashIndex;
+    }
+
+    /**
+     * Must be called before the elements of a non-temporary vector are modified in place.
+     */
+    public final void clearHashIndex() {
+        hashIndex = null;
+    }
+
     @Override
     public final void setComplete(boolean complete) {
         this.complete = complete;
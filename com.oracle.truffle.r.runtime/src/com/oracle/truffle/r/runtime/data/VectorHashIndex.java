@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * An open-addressing hash index over the elements of an atomic vector, mapping each distinct
+ * element value to the positions of its first and last occurrence. It serves {@code match},
+ * {@code unique}, {@code duplicated} and friends.
+ *
+ * The slots only hold positions, keys are compared against the vector itself, so an index needs
+ * roughly two ints per element. {@code NA} (and for doubles, {@code NaN}) are kept in two extra
+ * slots past the hashed range, and {@code -0} is hashed like {@code 0}, which gives the equality
+ * semantics of {@code match}.
+ *
+ * An index built for a non-temporary {@link RVector} is cached in the vector, see
+ * {@link #getIndex(RAbstractIntVector)} and friends, so that repeated lookups against the same
+ * table do not rehash it. The element setters of the vectors and code that modifies the internal
+ * store of a vector in place must call {@link RVector#clearHashIndex()}; in addition the index is
+ * dropped if the length or the internal store of the vector changed. The store is compared without
+ * materializing it, so that validating an index does not move off-heap data back to the heap.
+ */
+public abstract class VectorHashIndex {
+
+    private final RAbstractVector vector;
+    private final Object store;
+    private final int length;
+
+    protected final int mask;
+    protected final int naSlot;
+    protected final int nanSlot;
+
+    /** Position + 1 of the first occurrence for each slot, {@code 0} for an empty slot. */
+    protected final int[] first;
+    /** Position + 1 of the last occurrence for each slot, computed on demand. */
+    private int[] last;
+    private int distinct;
+
+    protected VectorHashIndex(RAbstractVector vector) {
+        this.vector = vector;
+        this.store = vector.getInternalStoreForAccess();
+        this.length = vector.getLength();
+        int capacity = Integer.highestOneBit(Math.max(length * 3 / 2, 1)) << 1;
+        this.mask = capacity - 1;
+        this.naSlot = capacity;
+        this.nanSlot = capacity + 1;
+        this.first = new int[capacity + 2];
+    }
+
+    protected static int hash(int h, int mask) {
+        int x = h * 0x9E3779B9;
+        return (x ^ (x >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the slot holding the value at {@code position}, or the empty slot where it would be
+     * inserted.
+     */
+    protected abstract int slotOf(int position);
+
+    protected final void build() {
+        for (int i = 0; i < length; i++) {
+            int slot = slotOf(i);
+            if (first[slot] == 0) {
+                first[slot] = i + 1;
+                distinct++;
+            }
+        }
+    }
+
+    private int[] getLast() {
+        if (last == null) {
+            int[] result = new int[first.length];
+            for (int i = 0; i < length; i++) {
+                result[slotOf(i)] = i + 1;
+            }
+            last = result;
+        }
+        return last;
+    }
+
+    protected final boolean isValidFor(RAbstractVector v) {
+        return vector == v && length == v.getLength() && store == v.getInternalStoreForAccess();
+    }
+
+    public final int getDistinctCount() {
+        return distinct;
+    }
+
+    /**
+     * Tells whether the element at {@code position} also occurs before it (or, if
+     * {@code fromLast}, after it).
+     */
+    public final boolean isDuplicate(int position, boolean fromLast) {
+        int slot = slotOf(position);
+        return (fromLast ? getLast()[slot] : first[slot]) != position + 1;
+    }
+
+    /**
+     * The result of {@code duplicated(x, fromLast = fromLast)} for the indexed vector.
+     */
+    @TruffleBoundary
+    public final byte[] duplicated(boolean fromLast) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = RRuntime.asLogical(isDuplicate(i, fromLast));
+        }
+        return result;
+    }
+
+    /**
+     * The result of {@code anyDuplicated(x, fromLast = fromLast)}, i.e., the 1-based position of
+     * the first duplicate found or {@code 0}.
+     */
+    @TruffleBoundary
+    public final int anyDuplicated(boolean fromLast) {
+        if (distinct == length) {
+            return 0;
+        }
+        if (fromLast) {
+            for (int i = length - 1; i >= 0; i--) {
+                if (isDuplicate(i, true)) {
+                    return i + 1;
+                }
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                if (isDuplicate(i, false)) {
+                    return i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The ascending positions of the elements retained by {@code unique(x, fromLast = fromLast)}.
+     */
+    @TruffleBoundary
+    public final int[] uniquePositions(boolean fromLast) {
+        int[] result = new int[distinct];
+        int ind = 0;
+        for (int i = 0; i < length; i++) {
+            if (!isDuplicate(i, fromLast)) {
+                result[ind++] = i;
+            }
+        }
+        return result;
+    }
+
+    private static VectorHashIndex getCached(RAbstractVector v) {
+        if (v instanceof RVector) {
+            VectorHashIndex index = ((RVector<?>) v).getHashIndex();
+            if (index != null && index.isValidFor(v)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    private static <T extends VectorHashIndex> T cache(RAbstractVector v, T index) {
+        if (v instanceof RVector && !((RVector<?>) v).isTemporary()) {
+            ((RVector<?>) v).setHashIndex(index);
+        }
+        return index;
+    }
+
+    /**
+     * Tells whether {@link #getIndex} for {@code v} would find or store a cached index.
+     */
+    public static boolean isCacheable(RAbstractVector v) {
+        return v instanceof RVector && !((RVector<?>) v).isTemporary();
+    }
+
+    @TruffleBoundary
+    public static IntIndex getIndex(RAbstractIntVector v) {
+        VectorHashIndex cached = getCached(v);
+        if (cached instanceof IntIndex) {
+            return (IntIndex) cached;
+        }
+        IntIndex index = new IntIndex(v);
+        index.build();
+        return cache(v, index);
+    }
+
+    @TruffleBoundary
+    public static DoubleIndex getIndex(RAbstractDoubleVector v) {
+        VectorHashIndex cached = getCached(v);
+        if (cached instanceof DoubleIndex) {
+            return (DoubleIndex) cached;
+        }
+        DoubleIndex index = new DoubleIndex(v);
+        index.build();
+        return cache(v, index);
+    }
+
+    @TruffleBoundary
+    public static StringIndex getIndex(RAbstractStringVector v) {
+        VectorHashIndex cached = getCached(v);
+        if (cached instanceof StringIndex) {
+            return (StringIndex) cached;
+        }
+        StringIndex index = new StringIndex(v);
+        index.build();
+        return cache(v, index);
+    }
+
+    public static final class IntIndex extends VectorHashIndex {
+        private final RAbstractIntVector v;
+
+        private IntIndex(RAbstractIntVector v) {
+            super(v);
+            this.v = v;
+        }
+
+        @Override
+        protected int slotOf(int position) {
+            return slotOfKey(v.getDataAt(position));
+        }
+
+        private int slotOfKey(int key) {
+            if (RRuntime.isNA(key)) {
+                return naSlot;
+            }
+            int slot = hash(key, mask);
+            while (first[slot] != 0 && v.getDataAt(first[slot] - 1) != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Returns the position of the first element equal to {@code key}, or {@code -1}.
+         */
+        public int lookup(int key) {
+            return first[slotOfKey(key)] - 1;
+        }
+
+        /**
+         * Looks up a double as {@code match} does after coercing the table to double.
+         */
+        public int lookup(double key) {
+            if (RRuntime.isNA(key)) {
+                return first[naSlot] - 1;
+            } else if (key == (int) key && !RRuntime.isNA((int) key)) {
+                return lookup((int) key);
+            }
+            return -1;
+        }
+    }
+
+    public static final class DoubleIndex extends VectorHashIndex {
+        private final RAbstractDoubleVector v;
+
+        private DoubleIndex(RAbstractDoubleVector v) {
+            super(v);
+            this.v = v;
+        }
+
+        @Override
+        protected int slotOf(int position) {
+            return slotOfKey(v.getDataAt(position));
+        }
+
+        private int slotOfKey(double key) {
+            if (Double.isNaN(key)) {
+                return RRuntime.isNA(key) ? naSlot : nanSlot;
+            }
+            // adding 0.0 turns -0.0 into 0.0
+            long bits = Double.doubleToRawLongBits(key + 0.0);
+            int slot = hash((int) (bits ^ (bits >>> 32)), mask);
+            while (first[slot] != 0 && v.getDataAt(first[slot] - 1) != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Returns the position of the first element equal to {@code key}, or {@code -1}.
+         */
+        public int lookup(double key) {
+            return first[slotOfKey(key)] - 1;
+        }
+
+        /**
+         * Looks up an int as {@code match} does after coercing it to double.
+         */
+        public int lookup(int key) {
+            return lookup(RRuntime.int2double(key));
+        }
+    }
+
+    public static final class StringIndex extends VectorHashIndex {
+        private final RAbstractStringVector v;
+
+        private StringIndex(RAbstractStringVector v) {
+            super(v);
+            this.v = v;
+        }
+
+        @Override
+        protected int slotOf(int position) {
+            return slotOfKey(v.getDataAt(position));
+        }
+
+        private int slotOfKey(String key) {
+            if (RRuntime.isNA(key)) {
+                return naSlot;
+            }
+            int slot = hash(key.hashCode(), mask);
+            while (first[slot] != 0) {
+                String other = v.getDataAt(first[slot] - 1);
+                if (other == key || key.equals(other)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Returns the position of the first element equal to {@code key}, or {@code -1}.
+         */
+        public int lookup(String key) {
+            return first[slotOfKey(key)] - 1;
+        }
+    }
+}
@@ -186,6 +186,11 @@ abstract class RToVectorClosure implements RAbstractVector {
         return vector.getNonShared();
     }
 
+    @Override
+    public final RTypedValue reuseNonShared() {
+        return vector.reuseNonShared();
+    }
+
     @Override
     public final RShareable materializeToShareable() {
         return vector.materialize();
@@ -47,6 +47,13 @@ public interface RAbstractContainer extends RAttributable, RTypedValue {
 
     RTypedValue getNonShared();
 
+    /**
+     * See {@link RShareable#reuseNonShared()}.
+     */
+    default RTypedValue reuseNonShared() {
+        return getNonShared();
+    }
+
     RShareable materializeToShareable();
 
     Object getDataAtAsObject(int index);
@@ -64,6 +71,15 @@ public interface RAbstractContainer extends RAttributable, RTypedValue {
         return null;
     }
 
+    /**
+     * Like {@link #getInternalStore()}, but only for use with the {@code getDataAt(store, index)}
+     * and {@code setDataAt(store, index, value)} accessors: implementations may return {@code null}
+     * instead of materializing their data, e.g., vectors whose data lives off-heap.
+     */
+    default Object getInternalStoreForAccess() {
+        return getInternalStore();
+    }
+
     RStringVector getNames(RAttributeProfiles attrProfiles);
 
     void setNames(RStringVector newNames);
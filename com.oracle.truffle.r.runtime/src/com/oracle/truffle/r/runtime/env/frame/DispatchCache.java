@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.env.frame;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.InvalidAssumptionException;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RPromise;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.FrameAndSlotLookupResult;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.LookupResult;
+
+/**
+ * A per-context cache for the results of method dispatch that is consulted when a call site has
+ * seen too many different receivers to cache them itself. An entry records the variable lookups
+ * that its result is based on as {@link LookupResult}s, and is only used as long as all of them
+ * still deliver the same values. The keys are defined by the users of the cache and must implement
+ * {@code equals} and {@code hashCode}.
+ */
+public final class DispatchCache {
+
+    private DispatchCache() {
+        // no instances
+    }
+
+    private static Object unwrap(Object value) {
+        if (value instanceof RPromise && ((RPromise) value).isEvaluated()) {
+            return ((RPromise) value).getValue();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the current value described by {@code lookup}.
+     */
+    private static Object currentValue(LookupResult lookup) throws InvalidAssumptionException {
+        if (lookup instanceof FrameAndSlotLookupResult) {
+            // the binding is known, but its value is not stable
+            FrameAndSlotLookupResult frameAndSlot = (FrameAndSlotLookupResult) lookup;
+            return unwrap(frameAndSlot.getFrame().getValue(frameAndSlot.getSlot()));
+        }
+        return unwrap(lookup.getValue());
+    }
+
+    /**
+     * Collects the lookups performed while computing a dispatch result. The result can only be
+     * cached if each lookup could be described by a {@link LookupResult}.
+     */
+    public static final class Dependencies {
+        private final ArrayList<LookupResult> lookups = new ArrayList<>();
+        private final ArrayList<Object> values = new ArrayList<>();
+        private boolean cacheable = true;
+
+        /**
+         * Records that a lookup delivered {@code value} ({@code null} if nothing was found), where
+         * {@code lookup} is the corresponding result of {@link FrameSlotChangeMonitor}.
+         */
+        public void add(LookupResult lookup, Object value) {
+            if (!cacheable) {
+                return;
+            }
+            if (lookup == null) {
+                cacheable = false;
+                return;
+            }
+            try {
+                Object expected = unwrap(value);
+                if (currentValue(lookup) != expected) {
+                    // e.g. a binding that is skipped because it is not a function
+                    cacheable = false;
+                    return;
+                }
+                lookups.add(lookup);
+                values.add(expected);
+            } catch (InvalidAssumptionException e) {
+                cacheable = false;
+            }
+        }
+
+        public void markUncacheable() {
+            cacheable = false;
+        }
+
+        public boolean isCacheable() {
+            return cacheable;
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final LookupResult[] lookups;
+        private final Object[] values;
+
+        private Entry(Object value, Dependencies dependencies) {
+            this.value = value;
+            this.lookups = dependencies.lookups.toArray(new LookupResult[dependencies.lookups.size()]);
+            this.values = dependencies.values.toArray();
+        }
+
+        private boolean isValid() {
+            try {
+                for (int i = 0; i < lookups.length; i++) {
+                    LookupResult lookup = lookups[i];
+                    if (!lookup.isValid() || (lookup instanceof FrameAndSlotLookupResult && currentValue(lookup) != values[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InvalidAssumptionException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The cache holds at most {@link FastROptions#DispatchCacheSize} entries and evicts the least
+     * recently used one first.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+
+        private final Map<Object, Entry> cache = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > FastROptions.DispatchCacheSize.getNonNegativeIntValue();
+            }
+        };
+
+        private long hits;
+        private long misses;
+
+        /**
+         * Returns the cached value for {@code key}, or {@code null} if there is none or it is no
+         * longer valid.
+         */
+        @TruffleBoundary
+        public Object get(Object key) {
+            Entry entry = cache.get(key);
+            if (entry != null) {
+                if (entry.isValid()) {
+                    hits++;
+                    return entry.value;
+                }
+                cache.remove(key);
+            }
+            misses++;
+            return null;
+        }
+
+        @TruffleBoundary
+        public void put(Object key, Object value, Dependencies dependencies) {
+            if (dependencies.isCacheable()) {
+                cache.put(key, new Entry(value, dependencies));
+            }
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public int getSize() {
+            return cache.size();
+        }
+
+        @Override
+        public void beforeDestroy(RContext context) {
+            cache.clear();
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+    }
+}
@@ -181,6 +181,11 @@ public final class FrameSlotChangeMonitor {
          * A set of all lookups that started in this frame descriptor.
          */
         private final WeakHashMap<Object, WeakReference<LookupResult>> lookupResults = new WeakHashMap<>();
+        /**
+         * A set of all local lookups, i.e., lookups that do not continue in the enclosing frames,
+         * that were performed in this frame descriptor.
+         */
+        private final WeakHashMap<Object, WeakReference<LookupResult>> localLookupResults = new WeakHashMap<>();
 
         private WeakReference<FrameDescriptor> enclosingFrameDescriptor = new WeakReference<>(null);
         private Assumption enclosingFrameDescriptorAssumption = Truffle.getRuntime().createAssumption("enclosing frame descriptor");
@@ -262,6 +267,47 @@ public final class FrameSlotChangeMonitor {
         return lookupResult;
     }
 
+    /**
+     * Like {@link #lookup(Frame, Object)}, but only considers the given frame itself, as e.g. the
+     * lookups in S3 methods tables do. Returns {@code null} in case this was not possible.
+     */
+    public static synchronized LookupResult lookupLocal(Frame frame, Object identifier) {
+        CompilerAsserts.neverPartOfCompilation();
+        FrameDescriptorMetaData metaData = getMetaData(frame);
+        WeakReference<LookupResult> weakResult = metaData.localLookupResults.get(identifier);
+        LookupResult result = weakResult == null ? null : weakResult.get();
+        if (result != null && result.isValid()) {
+            return result;
+        }
+        FrameSlot slot = frame.getFrameDescriptor().findFrameSlot(identifier);
+        LookupResult lookupResult;
+        if (slot == null) {
+            lookupResult = new MissingLookupResult(identifier.toString());
+        } else {
+            StableValue<Object> stableValue = getFrameSlotInfo(slot).stableValue;
+            if (stableValue != null) {
+                lookupResult = new StableValueLookupResult(identifier.toString(), stableValue);
+            } else if (metaData.singletonFrame == null) {
+                return null;
+            } else {
+                assert metaData.singletonFrame.get() != null;
+                lookupResult = new FrameAndSlotLookupResult(identifier.toString(), metaData.singletonFrame.get(), slot);
+            }
+        }
+        metaData.previousLookups.add(identifier);
+        metaData.localLookupResults.put(identifier, new WeakReference<>(lookupResult));
+        return lookupResult;
+    }
+
+    /**
+     * Returns the frame descriptor under which the lookups starting in {@code frame} are
+     * maintained, or {@code null} if the frame is not known to this class.
+     */
+    public static synchronized FrameDescriptor getLookupDescriptor(Frame frame) {
+        FrameDescriptor descriptor = handleBaseNamespaceEnv(frame);
+        return frameDescriptors.containsKey(descriptor) ? descriptor : null;
+    }
+
     private static void addPreviousLookups(Frame from, Frame to, Object identifier) {
         Frame mark = from;
         while (true) {
@@ -284,13 +330,8 @@ public final class FrameSlotChangeMonitor {
     private static synchronized void invalidateNames(FrameDescriptorMetaData metaData, Collection<Object> identifiers) {
         if (metaData.previousLookups.removeAll(identifiers)) {
             for (Object identifier : identifiers) {
-                WeakReference<LookupResult> result = metaData.lookupResults.remove(identifier);
-                if (result != null) {
-                    LookupResult lookup = result.get();
-                    if (lookup != null) {
-                        lookup.invalidate();
-                    }
-                }
+                invalidate(metaData.lookupResults.remove(identifier));
+                invalidate(metaData.localLookupResults.remove(identifier));
             }
             for (FrameDescriptor descriptor : metaData.subDescriptors) {
                 FrameDescriptorMetaData sub = getMetaData(descriptor);
@@ -299,6 +340,15 @@ public final class FrameSlotChangeMonitor {
         }
     }
 
+    private static void invalidate(WeakReference<LookupResult> result) {
+        if (result != null) {
+            LookupResult lookup = result.get();
+            if (lookup != null) {
+                lookup.invalidate();
+            }
+        }
+    }
+
     /**
      * Special handling (return a marker frame descriptor) for the namespace:base environment.
      */
@@ -385,12 +435,13 @@ public final class FrameSlotChangeMonitor {
 
     private static void invalidateAllNames(FrameDescriptorMetaData target) {
         for (Map.Entry<Object, WeakReference<LookupResult>> entry : target.lookupResults.entrySet()) {
-            LookupResult lookup = entry.getValue().get();
-            if (lookup != null) {
-                lookup.invalidate();
-            }
+            invalidate(entry.getValue());
+        }
+        for (Map.Entry<Object, WeakReference<LookupResult>> entry : target.localLookupResults.entrySet()) {
+            invalidate(entry.getValue());
         }
         target.lookupResults.clear();
+        target.localLookupResults.clear();
         target.previousLookups.clear();
         for (FrameDescriptor sub : target.subDescriptors) {
             invalidateAllNames(getMetaData(sub));
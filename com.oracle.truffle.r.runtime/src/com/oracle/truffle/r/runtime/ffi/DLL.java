@@ -17,8 +17,10 @@ import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.RErrorException;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -64,6 +66,23 @@ public class DLL {
      */
     private static final AtomicInteger ID = new AtomicInteger();
 
+    /**
+     * Valid as long as the result of {@link #findSymbol} cannot have changed, i.e., no library was
+     * loaded or unloaded and no library changed its registered symbols or lookup mode. Allows call
+     * sites to cache symbol lookups.
+     */
+    private static volatile Assumption symbolsUnchanged = Truffle.getRuntime().createAssumption("DLL symbols unchanged");
+
+    public static Assumption getSymbolsUnchangedAssumption() {
+        return symbolsUnchanged;
+    }
+
+    private static void symbolsChanged() {
+        Assumption old = symbolsUnchanged;
+        symbolsUnchanged = Truffle.getRuntime().createAssumption("DLL symbols unchanged");
+        old.invalidate();
+    }
+
     public enum NativeSymbolType {
         C,
         Call,
@@ -136,11 +155,13 @@ public class DLL {
         private static synchronized DLLInfo create(String name, String path, boolean dynamicLookup, Object handle) {
             DLLInfo result = new DLLInfo(name, path, dynamicLookup, handle);
             list.add(result);
+            symbolsChanged();
             return result;
         }
 
         public void setNativeSymbols(int nstOrd, DotSymbol[] symbols) {
             nativeSymbols[nstOrd] = symbols;
+            symbolsChanged();
         }
 
         public DotSymbol[] getNativeSymbols(NativeSymbolType nst) {
@@ -346,6 +367,7 @@ public class DLL {
                 if (rc != 0) {
                     throw new DLLException(RError.Message.DLL_LOAD_ERROR, path, "");
                 }
+                symbolsChanged();
                 return;
             }
         }
@@ -485,12 +507,14 @@ public class DLL {
     public static int useDynamicSymbols(DLLInfo dllInfo, int value) {
         int old = dllInfo.dynamicLookup ? 1 : 0;
         dllInfo.dynamicLookup = value == 0 ? false : true;
+        symbolsChanged();
         return old;
     }
 
     public static int forceSymbols(DLLInfo dllInfo, int value) {
         int old = dllInfo.forceSymbols ? 1 : 0;
         dllInfo.forceSymbols = value == 0 ? false : true;
+        symbolsChanged();
         return old;
     }
 
@@ -59,4 +59,10 @@ public interface PCRERFFI {
 
     int exec(long code, long extra, String subject, int offset, int options, int[] ovector);
 
+    /**
+     * Releases a compiled pattern returned by {@link #compile} or tables returned by
+     * {@link #maketables}.
+     */
+    void free(long address);
+
 }
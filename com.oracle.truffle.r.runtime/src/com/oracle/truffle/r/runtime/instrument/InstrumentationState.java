@@ -70,6 +70,12 @@ public final class InstrumentationState implements RContext.ContextState {
 
     private TracememContext tracememContext;
 
+    /**
+     * The functions currently executing in this {@link RContext}, maintained while
+     * {@link ShadowStack#isEnabled()}.
+     */
+    private final ShadowStack shadowStack = new ShadowStack();
+
     Map<String, RprofState> rprofStates = new ConcurrentHashMap<>(7);
 
     /**
@@ -254,6 +260,23 @@ public final class InstrumentationState implements RContext.ContextState {
         rprofStates.put(name, state);
     }
 
+    /**
+     * Ends the profiling sessions that are still running, as {@code Rprof(NULL)} would, which
+     * writes their output and stops maintaining the {@link ShadowStack}.
+     */
+    @Override
+    public void beforeDestroy(RContext context) {
+        for (RprofState state : rprofStates.values()) {
+            if (state.out() != null) {
+                state.cleanup(0);
+            }
+        }
+    }
+
+    public ShadowStack getShadowStack() {
+        return shadowStack;
+    }
+
     public TracememContext getTracemem() {
         if (tracememContext == null) {
             tracememContext = new TracememContext();
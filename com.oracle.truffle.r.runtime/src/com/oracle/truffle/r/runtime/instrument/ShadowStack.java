@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.instrument;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
+
+/**
+ * A cheap record of the R functions currently executing in a context, used by the sampling mode of
+ * {@code Rprof}. Function roots push themselves on entry and pop on exit, but only while a sampling
+ * profiler is running in some context, see {@link #enable()}; otherwise the check folds away in
+ * compiled code.
+ *
+ * The stack is written only by the thread evaluating the context and is read by the sampling thread
+ * without synchronization. A sample may therefore be slightly stale. Nothing forces the updates of a
+ * compiled call to become visible to the sampling thread while it runs: when a callee is inlined,
+ * the compiler may combine its push and pop with the surrounding code, in which case samples taken
+ * while the callee executes are attributed to the caller. Frames of interpreted and of non-inlined
+ * compiled calls are always recorded.
+ */
+public final class ShadowStack {
+
+    private static final CyclicAssumption enabledUnchanged = new CyclicAssumption("shadow stack enabled state unchanged");
+    @CompilationFinal private static boolean enabled;
+    /**
+     * The number of sampling profilers running, in all contexts.
+     */
+    private static int users;
+
+    private RootNode[] frames = new RootNode[64];
+    private int depth;
+
+    public static boolean isEnabled() {
+        if (!enabledUnchanged.getAssumption().isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+        }
+        return enabled;
+    }
+
+    /**
+     * Starts recording function entries and exits in all contexts. Every call to this method must
+     * be matched by a call to {@link #disable()} once the profiler stops.
+     */
+    @TruffleBoundary
+    public static synchronized void enable() {
+        if (users++ == 0) {
+            setEnabled(true);
+        }
+    }
+
+    /**
+     * Stops recording once no sampling profiler is running any more, so that function calls no
+     * longer maintain the stack.
+     */
+    @TruffleBoundary
+    public static synchronized void disable() {
+        assert users > 0;
+        if (--users == 0) {
+            setEnabled(false);
+        }
+    }
+
+    private static void setEnabled(boolean newState) {
+        // the new state must be visible before code compiled against the old one is invalidated
+        enabled = newState;
+        enabledUnchanged.invalidate();
+    }
+
+    public void push(RootNode function) {
+        if (depth == frames.length) {
+            grow();
+        }
+        frames[depth] = function;
+        depth++;
+    }
+
+    public void pop() {
+        depth--;
+    }
+
+    @TruffleBoundary
+    private void grow() {
+        frames = Arrays.copyOf(frames, frames.length * 2);
+    }
+
+    /**
+     * Returns a copy of the current stack, innermost function first. Can be called from any thread.
+     */
+    public RootNode[] snapshot() {
+        RootNode[] currentFrames = frames;
+        int currentDepth = Math.min(depth, currentFrames.length);
+        RootNode[] result = new RootNode[currentDepth];
+        for (int i = 0; i < currentDepth; i++) {
+            result[i] = currentFrames[currentDepth - 1 - i];
+        }
+        return result;
+    }
+}
@@ -160,7 +160,7 @@ public abstract class BinaryCompare extends BooleanOperation {
 
         @Override
         public boolean op(String left, String right) {
-            return left.compareTo(right) >= 0;
+            return left == right || left.compareTo(right) >= 0;
         }
 
         @Override
@@ -192,7 +192,7 @@ public abstract class BinaryCompare extends BooleanOperation {
 
         @Override
         public boolean op(String left, String right) {
-            return left.compareTo(right) > 0;
+            return left != right && left.compareTo(right) > 0;
         }
 
         @Override
@@ -224,7 +224,7 @@ public abstract class BinaryCompare extends BooleanOperation {
 
         @Override
         public boolean op(String left, String right) {
-            return left.compareTo(right) <= 0;
+            return left == right || left.compareTo(right) <= 0;
         }
 
         @Override
@@ -261,7 +261,7 @@ public abstract class BinaryCompare extends BooleanOperation {
              * not in use the "1" < "-1" returns FALSE, if set to "root" as on Mac it returns TRUE.
              * The Collator class should be used when we implement the ICU support.
              */
-            return left.compareTo(right) < 0;
+            return left != right && left.compareTo(right) < 0;
         }
 
         @Override
@@ -25,4 +25,11 @@ public abstract class RNGInitAdapter implements RandomNumberGenerator {
         }
         fixupSeeds(false);
     }
+
+    @Override
+    public double[] genrandDouble(int count) {
+        double[] result = new double[count];
+        genrandDouble(result, 0, count);
+        return result;
+    }
 }
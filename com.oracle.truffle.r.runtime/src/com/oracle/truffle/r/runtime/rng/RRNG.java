@@ -11,6 +11,7 @@
  */
 package com.oracle.truffle.r.runtime.rng;
 
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -28,14 +29,16 @@ import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LecuyerCMRG;
 import com.oracle.truffle.r.runtime.rng.mm.MarsagliaMulticarry;
 import com.oracle.truffle.r.runtime.rng.mt.MersenneTwister;
 import com.oracle.truffle.r.runtime.rng.user.UserRNG;
 
 /**
  * Facade class to the R random number generators, (see src/main/RNG.c in GnuR). The individual
- * generators are implemented in their own class. Currently there are only two implemented, the
- * default, {@link MersenneTwister} and {@link MarsagliaMulticarry}.
+ * generators are implemented in their own class. Currently there are only three implemented, the
+ * default, {@link MersenneTwister}, {@link MarsagliaMulticarry} and {@link LecuyerCMRG}. A child
+ * context whose parent uses {@link LecuyerCMRG} starts with its own stream of that generator.
  *
  * The fact that the R programmer can set {@code .Random.seed} explicitly, as opposed to the
  * recommended approach of calling {@code set.seed}, is something of a pain as it changes the
@@ -57,7 +60,7 @@ public class RRNG {
         KNUTH_TAOCP(),
         USER_UNIF(UserRNG::new),
         KNUTH_TAOCP2(),
-        LECUYER_CMRG();
+        LECUYER_CMRG(LecuyerCMRG::new);
 
         @CompilationFinal static final Kind[] VALUES = values();
 
@@ -115,6 +118,12 @@ public class RRNG {
 
         int[] getSeeds();
 
+        /**
+         * Stores the next {@code count} numbers of the sequence into {@code result}, starting at
+         * {@code offset}. This yields the same numbers as {@code count} single draws.
+         */
+        void genrandDouble(double[] result, int offset, int count);
+
         double[] genrandDouble(int count);
 
         Kind getKind();
@@ -128,6 +137,22 @@ public class RRNG {
         private RandomNumberGenerator currentGenerator;
         private final RandomNumberGenerator[] allGenerators;
         private NormKind currentNormKind;
+        /**
+         * The second number of the last Box-Muller pair (cf. {@code BM_norm_keep} in GnuR), 0 if
+         * there is none.
+         */
+        private double boxMullerKeep;
+        private final double[] unifBuffer = new double[1];
+        /**
+         * The {@code .Random.seed} of the {@link Kind#LECUYER_CMRG} stream that was last given to
+         * a child context, {@code null} if none was given since the generator was last seeded.
+         */
+        private int[] childStream;
+        /**
+         * Whether this context was started with a stream from its parent that has not yet been
+         * stored in {@code .Random.seed}.
+         */
+        private boolean hasParentStream;
 
         private ContextStateImpl() {
             this.currentNormKind = DEFAULT_NORM_KIND;
@@ -136,14 +161,54 @@ public class RRNG {
 
         @Override
         public RContext.ContextState initialize(RContext context) {
-            int seed = timeToSeed();
-            RandomNumberGenerator rng = DEFAULT_KIND.create();
-            initGenerator(rng, seed);
+            int[] stream = context.getInitialRNGStream();
+            RandomNumberGenerator rng;
+            if (stream != null) {
+                rng = Kind.LECUYER_CMRG.create();
+                rng.setISeed(stream);
+                this.currentNormKind = intToNormKind(stream[0] / 100);
+                this.hasParentStream = true;
+            } else {
+                int seed = timeToSeed();
+                rng = DEFAULT_KIND.create();
+                initGenerator(rng, seed);
+            }
             this.currentGenerator = rng;
             this.allGenerators[rng.getKind().ordinal()] = rng;
             return this;
         }
 
+        /**
+         * Called by a parent context when it creates a child, in the parent's thread. If the
+         * current generator is {@link Kind#LECUYER_CMRG} this returns the {@code .Random.seed} of
+         * the next stream (cf. {@code nextRNGStream}) for the child, otherwise {@code null}.
+         * Successive children get successive streams starting from the current seed, the same as
+         * {@code clusterSetRNGStream} in the parallel package would assign them. Like the other
+         * entry points, this first takes the state from {@code .Random.seed}, and the streams start
+         * over if that was assigned since the previous child was created.
+         */
+        public synchronized int[] nextChildStream() {
+            assert getContextState() == this : "called in the parent's thread";
+            Kind previousKind = currentGenerator.getKind();
+            int[] seeds = currentGenerator.getSeeds();
+            int[] previousSeeds = seeds == null ? null : seeds.clone();
+            getRNGState();
+            if (currentGenerator.getKind() != previousKind || !Arrays.equals(previousSeeds, currentGenerator.getSeeds())) {
+                childStream = null;
+            }
+            if (currentGenerator.getKind() != Kind.LECUYER_CMRG) {
+                return null;
+            }
+            if (childStream == null) {
+                int lenSeeds = currentGenerator.getNSeed();
+                childStream = new int[lenSeeds + 1];
+                childStream[0] = Kind.LECUYER_CMRG.ordinal() + 100 * currentNormKind.ordinal();
+                System.arraycopy(currentGenerator.getSeeds(), 0, childStream, 1, lenSeeds);
+            }
+            childStream = LecuyerCMRG.nextStream(childStream);
+            return childStream.clone();
+        }
+
         /*
          * Similar to GNUR's RNGkind function.
          */
@@ -151,6 +216,8 @@ public class RRNG {
         void updateCurrentGenerator(RandomNumberGenerator newRng, boolean saveState) {
             this.currentGenerator = newRng;
             this.allGenerators[newRng.getKind().ordinal()] = newRng;
+            this.boxMullerKeep = 0.0;
+            resetChildStream();
             if (saveState) {
                 getRNGState();
                 double u = unifRand();
@@ -183,12 +250,19 @@ public class RRNG {
         @TruffleBoundary
         void updateCurrentNormKind(NormKind normKind, boolean saveState) {
             currentNormKind = normKind;
+            if (normKind == NormKind.BOX_MULLER) {
+                boxMullerKeep = 0.0;
+            }
             if (saveState) {
                 getRNGState();
                 updateDotRandomSeed();
             }
         }
 
+        private synchronized void resetChildStream() {
+            childStream = null;
+        }
+
         public static ContextStateImpl newContextState() {
             return new ContextStateImpl();
         }
@@ -215,7 +289,7 @@ public class RRNG {
         return getContextState().currentGenerator;
     }
 
-    private static NormKind currentNormKind() {
+    public static NormKind currentNormKind() {
         return getContextState().currentNormKind;
     }
 
@@ -223,7 +297,53 @@ public class RRNG {
      * Ask the current generator for a random double. (cf. {@code unif_rand} in RNG.c.
      */
     public static double unifRand() {
-        return currentGenerator().genrandDouble(1)[0];
+        ContextStateImpl state = getContextState();
+        state.currentGenerator.genrandDouble(state.unifBuffer, 0, 1);
+        return state.unifBuffer[0];
+    }
+
+    /**
+     * Stores {@code count} random doubles into {@code result}, starting at {@code offset}, in the
+     * order in which {@link #unifRand()} would return them.
+     */
+    public static void unifRand(double[] result, int offset, int count) {
+        currentGenerator().genrandDouble(result, offset, count);
+    }
+
+    /**
+     * Stores {@code count} normally distributed doubles into {@code result}, starting at
+     * {@code offset}, using the {@link NormKind#BOX_MULLER} method. This is the sequence that
+     * repeated calls of {@code norm_rand} in RNG.c return, including the second number of a pair
+     * that is kept across calls.
+     */
+    @TruffleBoundary
+    public static void boxMullerNormRand(double[] result, int offset, int count) {
+        ContextStateImpl state = getContextState();
+        int pos = offset;
+        int end = offset + count;
+        if (pos < end && state.boxMullerKeep != 0.0) { /* An exact test is intentional */
+            result[pos++] = state.boxMullerKeep;
+            state.boxMullerKeep = 0.0;
+        }
+        while (pos < end) {
+            // a pair yields two numbers unless the second one is exactly 0, in which case GnuR
+            // draws a new pair; this loop runs again if that happens
+            int pairs = (end - pos + 1) / 2;
+            double[] u = state.currentGenerator.genrandDouble(pairs * 2);
+            for (int i = 0; i < pairs; i++) {
+                double theta = 2 * Math.PI * u[i * 2];
+                double r = Math.sqrt(-2 * Math.log(u[i * 2 + 1])) + 10 * Double.MIN_NORMAL; /* ensure non-zero */
+                result[pos++] = r * Math.cos(theta);
+                double second = r * Math.sin(theta);
+                if (pos < end) {
+                    if (second != 0.0) {
+                        result[pos++] = second;
+                    }
+                } else {
+                    state.boxMullerKeep = second;
+                }
+            }
+        }
     }
 
     /**
@@ -268,6 +388,8 @@ public class RRNG {
 
         if (newSeed != SAME_SEED) {
             initGenerator(rng, newSeed);
+            getContextState().boxMullerKeep = 0.0;
+            getContextState().resetChildStream();
         }
 
         if (normKindAsInt != NO_KIND_CHANGE) {
@@ -408,7 +530,13 @@ public class RRNG {
     public static void getRNGState() {
         Object seedsObj = getDotRandomSeed();
         if (seedsObj == null) {
-            randomize(currentKind());
+            if (getContextState().hasParentStream) {
+                // keep the stream assigned by the parent
+                getContextState().hasParentStream = false;
+                updateDotRandomSeed();
+            } else {
+                randomize(currentKind());
+            }
         } else {
             getRNGKind(seedsObj);
             int[] seeds;
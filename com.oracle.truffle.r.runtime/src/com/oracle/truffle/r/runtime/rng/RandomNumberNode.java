@@ -33,4 +33,8 @@ public final class RandomNumberNode extends RBaseNode {
     public double[] executeDouble(int count) {
         return generatorClassProfile.profile(generatorProfile.profile(RRNG.currentGenerator())).genrandDouble(count);
     }
+
+    public void executeDouble(double[] result, int offset, int count) {
+        generatorClassProfile.profile(generatorProfile.profile(RRNG.currentGenerator())).genrandDouble(result, offset, count);
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ * This material is distributed under the GNU General Public License
+ * Version 2. You may review the terms of this license at
+ * http://www.gnu.org/licenses/gpl-2.0.html
+ *
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2016, Oracle and/or its affiliates
+ *
+ * All rights reserved.
+ */
+package com.oracle.truffle.r.runtime.rng.lecuyer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "L'Ecuyer-CMRG" RNG. Transcribed from GnuR RNG.c, the stream jumps are transcribed from
+ * {@code rngstream.c} in the parallel package.
+ */
+public final class LecuyerCMRG extends RNGInitAdapter {
+
+    private static final long M1 = 4294967087L;
+    private static final long M2 = 4294944443L;
+    private static final double NORMC = 2.328306549295727688e-10;
+    private static final long A12 = 1403580;
+    private static final long A13N = 810728;
+    private static final long A21 = 527612;
+    private static final long A23N = 1370589;
+
+    private static final long[][] A1P76 = {
+                    {82758667L, 1871391091L, 4127413238L},
+                    {3672831523L, 69195019L, 1871391091L},
+                    {3672091415L, 3528743235L, 69195019L}
+    };
+
+    private static final long[][] A2P76 = {
+                    {1511326704L, 3759209742L, 1610795712L},
+                    {4292754251L, 1511326704L, 3889917532L},
+                    {3859662829L, 4292754251L, 3708466080L}
+    };
+
+    private static final long[][] A1P127 = {
+                    {2427906178L, 3580155704L, 949770784L},
+                    {226153695L, 1230515664L, 3580155704L},
+                    {1988835001L, 986791581L, 1230515664L}
+    };
+
+    private static final long[][] A2P127 = {
+                    {1464411153L, 277697599L, 1610723613L},
+                    {32183930L, 1464411153L, 1022607788L},
+                    {2824425944L, 32183930L, 2093834863L}
+    };
+
+    @Override
+    @TruffleBoundary
+    public void init(int seedParam) {
+        int seed = seedParam;
+        for (int i = 0; i < getNSeed(); i++) {
+            seed = (69069 * seed + 1);
+            while (Integer.toUnsignedLong(seed) >= M2) {
+                seed = (69069 * seed + 1);
+            }
+            iSeed[i] = seed;
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        /*
+         * first set: not all zero, in [0, m1); second set: not all zero, in [0, m2)
+         */
+        boolean notAllZero = false;
+        boolean allOK = true;
+        for (int i = 0; i < 3; i++) {
+            long tmp = Integer.toUnsignedLong(iSeed[i]);
+            if (tmp != 0) {
+                notAllZero = true;
+            }
+            if (tmp >= M1) {
+                allOK = false;
+            }
+        }
+        if (!notAllZero || !allOK) {
+            init(RRNG.timeToSeed());
+        }
+        for (int i = 3; i < 6; i++) {
+            long tmp = Integer.toUnsignedLong(iSeed[i]);
+            if (tmp != 0) {
+                notAllZero = true;
+            }
+            if (tmp >= M2) {
+                allOK = false;
+            }
+        }
+        if (!notAllZero || !allOK) {
+            init(RRNG.timeToSeed());
+        }
+    }
+
+    @Override
+    public int[] getSeeds() {
+        return iSeed;
+    }
+
+    @Override
+    public void genrandDouble(double[] result, int offset, int count) {
+        long s0 = Integer.toUnsignedLong(iSeed[0]);
+        long s1 = Integer.toUnsignedLong(iSeed[1]);
+        long s2 = Integer.toUnsignedLong(iSeed[2]);
+        long s3 = Integer.toUnsignedLong(iSeed[3]);
+        long s4 = Integer.toUnsignedLong(iSeed[4]);
+        long s5 = Integer.toUnsignedLong(iSeed[5]);
+        for (int i = offset; i < offset + count; i++) {
+            long p1 = A12 * s1 - A13N * s0;
+            /* p1 % m1 would surely do */
+            long k = p1 / M1;
+            p1 -= k * M1;
+            if (p1 < 0) {
+                p1 += M1;
+            }
+            s0 = s1;
+            s1 = s2;
+            s2 = p1;
+
+            long p2 = A21 * s5 - A23N * s3;
+            k = p2 / M2;
+            p2 -= k * M2;
+            if (p2 < 0) {
+                p2 += M2;
+            }
+            s3 = s4;
+            s4 = s5;
+            s5 = p2;
+
+            result[i] = ((p1 > p2) ? (p1 - p2) : (p1 - p2 + M1)) * NORMC;
+        }
+        iSeed[0] = (int) s0;
+        iSeed[1] = (int) s1;
+        iSeed[2] = (int) s2;
+        iSeed[3] = (int) s3;
+        iSeed[4] = (int) s4;
+        iSeed[5] = (int) s5;
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.LECUYER_CMRG;
+    }
+
+    @Override
+    public int getNSeed() {
+        return 6;
+    }
+
+    /**
+     * Advances a {@code .Random.seed} vector of this generator (the kind followed by the six
+     * seeds) to the start of the next stream, 2^127 steps ahead (cf. {@code nextRNGStream}).
+     */
+    public static int[] nextStream(int[] seed) {
+        return jump(seed, A1P127, A2P127);
+    }
+
+    /**
+     * Advances a {@code .Random.seed} vector of this generator to the start of the next
+     * substream, 2^76 steps ahead (cf. {@code nextRNGSubStream}).
+     */
+    public static int[] nextSubStream(int[] seed) {
+        return jump(seed, A1P76, A2P76);
+    }
+
+    private static int[] jump(int[] seed, long[][] a1, long[][] a2) {
+        // the arithmetic is unsigned 64 bit, including the wrap-around of the sums, as in GnuR
+        int[] result = new int[7];
+        result[0] = seed[0];
+        for (int i = 0; i < 3; i++) {
+            long tmp = 0;
+            for (int j = 0; j < 3; j++) {
+                tmp += a1[i][j] * Integer.toUnsignedLong(seed[j + 1]);
+                tmp = Long.remainderUnsigned(tmp, M1);
+            }
+            result[i + 1] = (int) tmp;
+        }
+        for (int i = 0; i < 3; i++) {
+            long tmp = 0;
+            for (int j = 0; j < 3; j++) {
+                tmp += a2[i][j] * Integer.toUnsignedLong(seed[j + 4]);
+                tmp = Long.remainderUnsigned(tmp, M2);
+            }
+            result[i + 4] = (int) tmp;
+        }
+        return result;
+    }
+}
@@ -49,11 +49,10 @@ public final class MarsagliaMulticarry extends RNGInitAdapter {
     }
 
     @Override
-    public double[] genrandDouble(int count) {
+    public void genrandDouble(double[] result, int offset, int count) {
         int state0 = iSeed[0];
         int state1 = iSeed[1];
-        double[] result = new double[count];
-        for (int i = 0; i < count; i++) {
+        for (int i = offset; i < offset + count; i++) {
             state0 = 36969 * (state0 & 0177777) + (state0 >>> 16);
             state1 = 18000 * (state1 & 0177777) + (state1 >>> 16);
             int x = (state0 << 16) ^ (state1 & 0177777);
@@ -62,7 +61,6 @@ public final class MarsagliaMulticarry extends RNGInitAdapter {
         }
         iSeed[0] = state0;
         iSeed[1] = state1;
-        return result;
     }
 
     @Override
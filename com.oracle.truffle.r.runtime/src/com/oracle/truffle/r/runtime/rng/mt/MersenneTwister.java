@@ -100,8 +100,8 @@ public final class MersenneTwister extends RNGInitAdapter {
      * Following GnuR this is set to {@code N+1} to indicate unset if MT_genrand is called, although
      * that condition never appears to happen in practice, as {@code RNG_init}, cf. {@link #init} is
      * always called first. N.B. This value has a relationship with {@code dummy0} in that it is
-     * always loaded from {@code dummy0} in {@link #genrandDouble(int)} and the updated value is
-     * stored back in {@code dummy[0]}.
+     * always loaded from {@code dummy0} in {@link #genrandDouble(double[], int, int)} and the
+     * updated value is stored back in {@code dummy[0]}.
      */
     private int mti = N + 1;
 
@@ -159,19 +159,19 @@ public final class MersenneTwister extends RNGInitAdapter {
      * {@link #generateNewNumbers()}.
      */
     @Override
-    public double[] genrandDouble(int count) {
+    public void genrandDouble(double[] result, int offset, int count) {
         int localDummy0 = dummy[0];
         int localMti = mti;
-        double[] result = new double[count];
 
         localMti = localDummy0;
         // It appears that this never happens
         // sgenrand(4357);
         RInternalError.guarantee(localMti != N + 1);
 
-        int pos = 0;
+        int pos = offset;
+        int end = offset + count;
         while (true) {
-            int loopCount = Math.min(count - pos, N - localMti);
+            int loopCount = Math.min(end - pos, N - localMti);
             for (int i = 0; i < loopCount; i++) {
                 int y = getMt(localMti + i);
                 /* Tempering */
@@ -187,7 +187,7 @@ public final class MersenneTwister extends RNGInitAdapter {
             localMti += loopCount;
             pos += loopCount;
 
-            if (pos == count) {
+            if (pos == end) {
                 break;
             }
             /* generate N words at one time */
@@ -208,7 +208,6 @@ public final class MersenneTwister extends RNGInitAdapter {
         localDummy0 = localMti;
         mti = localMti;
         dummy[0] = localDummy0;
-        return result;
     }
 
     private static int mag01(int v) {
@@ -130,12 +130,10 @@ public final class UserRNG extends RNGInitAdapter {
     }
 
     @Override
-    public double[] genrandDouble(int count) {
-        double[] result = new double[count];
-        for (int i = 0; i < count; i++) {
+    public void genrandDouble(double[] result, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
             result[i] = userRngRFFI.rand();
         }
-        return result;
     }
 
     @Override
@@ -280,3 +280,36 @@ SEXP findvar(SEXP x, SEXP env) {
 	}
 }
 
+
+SEXP sum_list_reals(SEXP x) {
+	int len = LENGTH(x);
+	double sum = 0;
+	int i;
+	for (i = 0; i < len; i++) {
+		SEXP elem = VECTOR_ELT(x, i);
+		double *data = REAL(elem);
+		int elemLen = LENGTH(elem);
+		int j;
+		for (j = 0; j < elemLen; j++) {
+			sum += data[j];
+		}
+	}
+	return ScalarReal(sum);
+}
+
+SEXP set_real(SEXP x, SEXP i, SEXP v) {
+	REAL(x)[asInteger(i)] = asReal(v);
+	return R_NilValue;
+}
+
+SEXP set_reals_across_upcalls(SEXP x, SEXP f, SEXP env) {
+	double *p = REAL(x);
+	SEXP call = PROTECT(lang1(f));
+	p[0] = 1;
+	eval(call, env);
+	p[1] = 2;
+	eval(call, env);
+	p[2] = 3;
+	UNPROTECT(1);
+	return R_NilValue;
+}
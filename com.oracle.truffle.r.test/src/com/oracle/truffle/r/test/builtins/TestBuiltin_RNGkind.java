@@ -37,4 +37,11 @@ public class TestBuiltin_RNGkind extends TestBase {
         // Note: GnuR also prints warning about NAs
         assertEval(Output.IgnoreErrorMessage, ".Internal(RNGkind(NULL, 'abc'))");
     }
+
+    @Test
+    public void testLecuyerCMRG() {
+        assertEval("{ set.seed(123, kind=\"L'Ecuyer-CMRG\"); s <- .Random.seed; list(s, runif(5), RNGkind()) }");
+        assertEval("{ RNGkind(\"L'Ecuyer-CMRG\"); set.seed(42); x <- runif(10000); RNGkind(\"default\"); c(x[1:3], sum(x)) }");
+        assertEval("{ set.seed(123, kind=\"L'Ecuyer-CMRG\"); s <- parallel::nextRNGStream(.Random.seed); list(s, parallel::nextRNGSubStream(s)) }");
+    }
 }
@@ -194,5 +194,10 @@ public class TestBuiltin_attributes extends TestBase {
 
         assertEval("{ e <- new.env(); attributes(e) <- list(a=1); attributes(e) }");
         assertEval("{ e <- new.env(); attributes(e) <- list(class=\"srcfile\"); attributes(e) }");
+
+        // copies of attributes are independent of the original
+        assertEval("{ x <- structure(1:3, a=1, b=2, class=\"foo\"); y <- x + 1L; attr(y, \"a\") <- 3; attr(x, \"b\") <- NULL; list(attributes(x), attributes(y)) }");
+        assertEval("{ x <- structure(c(1,2), a=1); y <- x; y[1] <- 3; attr(y, \"b\") <- 2; attr(x, \"a\") <- 4; list(attributes(x), attributes(y)) }");
+        assertEval("{ x <- structure(1:4, class=\"foo\"); y <- -x; z <- x * 2L; class(z) <- \"bar\"; list(class(x), class(y), class(z)) }");
     }
 }
@@ -533,6 +533,13 @@ public class TestBuiltin_c extends TestBase {
         assertEval("{ x<-c(a=42); y<-c(b=7); z<-c(x,y); w<-names(z); w[[1]]<-\"c\"; z }");
     }
 
+    @Test
+    public void testCombineBlockCopy() {
+        assertEval("{ x <- c(1:3, NA, 5:6); c(x, x, 7L) }");
+        assertEval("{ c(c(a=1.5, b=NA), c(2.5, 3.5), x=4) }");
+        assertEval("{ c(c(\"a\", NA), letters[1:3]) }");
+    }
+
     @Test
     public void testRecursive() {
         assertEval("argv <- list(c(list(c(1,2),c(3,4)),c(5,6), recursive=TRUE));c(argv[[1]]);");
@@ -135,5 +135,8 @@ public class TestBuiltin_duplicated extends TestBase {
         assertEval("{ x<-function() 42; duplicated(x) }");
         assertEval(Output.IgnoreErrorContext, "{ duplicated(c(1,2,1), incomparables=function() 42) }");
 
+        assertEval("{ x <- c(\"a\", NA, \"b\", NA, \"a\"); list(duplicated(x), duplicated(x, fromLast=TRUE), anyDuplicated(x), anyDuplicated(x, fromLast=TRUE)) }");
+        assertEval("{ x <- c(1, NaN, NA, 0, -0, NA); list(duplicated(x), anyDuplicated(x), anyDuplicated(x, fromLast=TRUE)) }");
+        assertEval("{ x <- c(3L, 1L, 2L); r1 <- duplicated(x); x[[3]] <- 3L; list(r1, duplicated(x), anyDuplicated(x)) }");
     }
 }
@@ -186,5 +186,8 @@ public class TestBuiltin_gsub extends TestBase {
         assertEval("{ .Internal(gsub(\"7\", 42, \"7\", F, F, F, F)) }");
         assertEval("{ .Internal(gsub(\"7\", character(), \"7\", F, F, F, F)) }");
         assertEval("{ .Internal(gsub(\"7\", \"42\", 7, F, F, F, F)) }");
+        assertEval("{ gsub('.', '-', c('a.b.c', 'abc', NA, '...'), fixed=TRUE) }");
+        assertEval("{ sub('.', '-', c('a.b.c', 'abc', NA, '...'), fixed=TRUE) }");
+        assertEval("{ vapply(c('a1', 'b22', 'c'), function(s) gsub('([0-9])', '<\\\\1>', s), '') }");
     }
 }
@@ -204,5 +204,10 @@ public class TestBuiltin_match extends TestBase {
         assertEval(Ignored.ImplementationError, "{ match(c(7, 42), NULL, integer()) }");
         assertEval("{ match(c(7, 42), NULL, 1L) }");
         assertEval("{ match(NULL, NULL) }");
+
+        assertEval("{ match(c(-0, 0, NaN, NA), c(NA, 0, NaN)) }");
+        assertEval("{ t <- c(3L, 1L, 2L); f <- function(x, t) match(x, t); r1 <- f(1:3, t); t[[2]] <- 5L; list(r1, f(1:3, t), f(c(1, 5), t)) }");
+        assertEval("{ t <- as.double(1:1000); x <- c(0, 5, 1000, NA, 999.5); r1 <- x %in% t; r2 <- x %in% t; t[1000] <- -1; list(r1, r2, x %in% t, match(c(-1L, 5L), t)) }");
+        assertEval("{ t <- c(\"b\", NA, \"a\", \"b\"); r1 <- match(c(\"a\", \"b\", NA), t); t[2] <- \"c\"; list(r1, match(c(\"a\", \"b\", NA, \"c\"), t)) }");
     }
 }
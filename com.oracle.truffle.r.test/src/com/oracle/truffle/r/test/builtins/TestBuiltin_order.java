@@ -162,5 +162,14 @@ public class TestBuiltin_order extends TestBase {
         assertEval("{ order(c(0/0, -1/0, 2), na.last=NA) }");
 
         assertEval("order(c('40 50', '405', '40 51', '4028', '40 20', '40 30', '404'))");
+
+        assertEval("{ x <- c(3L, -1L, 3L, NA, 0L, -1L, 2147483647L, -2147483647L); order(x) }");
+        assertEval("{ x <- c(3L, -1L, 3L, NA, 0L, -1L, 2147483647L, -2147483647L); order(x, decreasing=TRUE, na.last=FALSE) }");
+        assertEval("{ order(c(0, -0, 1e300, -1e-300, 1/0, -1/0, NaN, 2, -0)) }");
+        assertEval("{ order(factor(c('b', 'a', 'c', 'a', 'b'))) }");
+        assertEval("{ order(c('b', 'A', 'a', 'B', NA, 'a')) }");
+        assertEval("{ order(c(2, 1, 2, 1, NA, 1), c('b', 'a', 'a', NA, 'a', 'a'), c(TRUE, FALSE, NA, TRUE, FALSE, FALSE)) }");
+        assertEval("{ order(c(1+2i, 1+1i, NA, 0+5i, 1+1i)) }");
+        assertEval("{ set.seed(42); x <- sample(100L, 1000L, replace=TRUE); y <- runif(1000L); identical(order(x, y), order(x + y / 2)) }");
     }
 }
@@ -219,4 +219,20 @@ public class TestBuiltin_rep extends TestBase {
         assertEval("{ rep(c(7, 42), times=c(2, NA)) }");
         assertEval(Output.IgnoreWarningContext, "{ rep(7, times=\"foo\") }");
     }
+
+    @Test
+    public void testRepConstant() {
+        assertEval("{ x <- rep(0, 5); x[3] <- 1; x }");
+        assertEval("{ x <- rep(2L, 4); list(sum(x), max(x), min(x), x[2:3], rev(x), x + 1L, x * 2.5) }");
+        assertEval("{ x <- rep(1.5, 3); list(sum(x), mean(x), x - 1, x / 3) }");
+        assertEval("{ 1 / rep(-0, 2) }");
+        assertEval("{ x <- rep(0, 3); 1 / (x * -1) }");
+        assertEval("{ deparse(rep(5L, 3)) }");
+        assertEval("{ x <- c(1, 2, 3); list(x[rep(2L, 3)], (1:10)[rep(4L, 2)]) }");
+        assertEval("{ x <- c(1, 2, 3); x[rep(2L, 3)] <- 5; x }");
+        assertEval("{ rep_len(3L, 4) }");
+        assertEval("{ rep_len(numeric(2), 3) }");
+        assertEval("{ x <- integer(5); x[[2]] <- 3L; list(x, numeric(3), sum(integer(10)), typeof(vector(\"double\", 2))) }");
+        assertEval("{ sum(rep(.Machine$integer.max, 2L)) }");
+    }
 }
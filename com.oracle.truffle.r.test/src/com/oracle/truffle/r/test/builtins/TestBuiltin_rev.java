@@ -28,4 +28,14 @@ public class TestBuiltin_rev extends TestBase {
         assertEval("{ rev(1:3) }");
         assertEval("{ rev(c(1+1i, 2+2i)) }");
     }
+
+    @Test
+    public void testRevSequence() {
+        assertEval("{ x <- rev(1:10); list(x, x[2:4], sum(x), max(x)) }");
+        assertEval("{ x <- 1:10; list(x[8:3], x[3:8], (2:20)[c(5:2)]) }");
+        assertEval("{ rev(as.double(1:5)) }");
+        assertEval("{ rev(seq(0.1, 0.5, by=0.1)) }");
+        assertEval("{ list(sum(-5:5), sum(rev(1:100000)), sum(1:65536)) }");
+        assertEval("{ x <- seq.int(-2147483647L, 2147483647L, 2147483647L); list(x[seq.int(1L, 3L, 2L)], x[3:1]) }");
+    }
 }
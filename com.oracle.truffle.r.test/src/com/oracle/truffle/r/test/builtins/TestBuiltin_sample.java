@@ -74,6 +74,15 @@ public class TestBuiltin_sample extends TestBase {
         assertEval(Ignored.Unknown, "{ set.seed(9567, \"Marsaglia-Multicarry\"); x <- 5 ; sample(x, 6, FALSE, NULL) ;}");
     }
 
+    @Test
+    public void testSampleLarge() {
+        assertEval("{ set.seed(42); x <- sample(100000, 10); y <- sample(100000); c(x, y[c(1, 50000, 100000)], sum(y)) }");
+        assertEval("{ set.seed(42); sample(1000000, 5) }");
+        assertEval("{ set.seed(42); x <- sample(10000, 20000, TRUE); c(x[1:5], sum(x)) }");
+        assertEval("{ set.seed(42); x <- sample(300, 10000, TRUE, prob=(1:300) %% 7 + 1); c(x[1:5], tabulate(x, 300)[1:10]) }");
+        assertEval("{ set.seed(42); sample(50, 10, TRUE, prob=1:50) }");
+    }
+
     @Test
     public void testArgsCasts() {
         // x
@@ -48,5 +48,26 @@ public class TestBuiltin_scan extends TestBase {
         assertEval("{ con<-textConnection(c(\"bar'foo'\")); scan(con, what=list(\"\")) }");
         assertEval("{ con<-textConnection(c(\"'foo'\")); scan(con, what=list(\"\")) }");
         assertEval("{ con<-textConnection(c(\"bar 'foo'\")); scan(con, what=list(\"\")) }");
+
+        assertEval("{ con<-textConnection(c(\"1.5 2e3 -7 # comment\", \"# only a comment\", \"0.1 NA 1e-300\")); scan(con, comment.char=\"#\", quiet=TRUE) }");
+        assertEval("{ con<-textConnection(c(\"1,5;2\", \"-3,25;\")); scan(con, what=list(0, 0L), sep=\";\", dec=\",\", quiet=TRUE) }");
+        assertEval("{ con<-textConnection(c(\"a|\\\"b|c\\\"|-\", \"d|e|f\")); scan(con, what=list(\"\", \"\", \"\"), sep=\"|\", na.strings=\"-\", fill=TRUE, quiet=TRUE) }");
+        assertEval("{ con<-textConnection(c(\"T F\", \"TRUE false NA\")); scan(con, what=logical(), quiet=TRUE) }");
+        assertEval("{ con<-textConnection(c(\"1 2 3\", \"4 5 6\", \"7 8 9\")); scan(con, what=list(1L, 1L), nmax=2, quiet=TRUE) }");
+    }
+
+    @Test
+    public void testScanSeparatorWhiteSpace() {
+        assertEval("{ con<-textConnection(c(\"a\\t1\\t\", \"b\\t\\t\", \"  c\\t3\\t \")); scan(con, what=list(\"\", 0L, \"\"), sep=\"\\t\", quiet=TRUE) }");
+        assertEval("{ con<-textConnection(c(\" a , 1 ,\\\" b \\\"\", \"c,  2 , d \")); scan(con, what=list(\"\", 0, \"\"), sep=\",\", quiet=TRUE) }");
+        assertEval("{ con<-textConnection(c(\" a , 1 ,\\\" b \\\"\", \"c,  2 , d \")); scan(con, what=list(\"\", 0, \"\"), sep=\",\", strip.white=TRUE, quiet=TRUE) }");
+    }
+
+    @Test
+    public void testScanRepeatedStrings() {
+        assertEval("{ con<-textConnection(c(\"a b - a\", \"b a NA b\")); x <- scan(con, what=\"\", na.strings=\"-\", quiet=TRUE); " +
+                        "list(x, is.na(x), x == \"a\", x >= \"b\", x < x[1], match(x, c(\"b\", \"NA\")), unique(x)) }");
+        assertEval("{ con<-textConnection(rep(c(\"x,1\", \"y,2\", \"x,3\"), 100)); d <- scan(con, what=list(\"\", 0), sep=\",\", quiet=TRUE); " +
+                        "list(table(d[[1]]), tapply(d[[2]], d[[1]], sum)) }");
     }
 }
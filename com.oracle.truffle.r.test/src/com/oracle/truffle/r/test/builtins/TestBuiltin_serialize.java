@@ -86,4 +86,11 @@ public class TestBuiltin_serialize extends TestBase {
         assertEval("options(keep.source=FALSE); val <- new.env(hash=FALSE); val$e <- 5+9i; serialize(val, connection=NULL)");
         assertEval("options(keep.source=FALSE); val <- new.env(hash=FALSE); val$f <- NA; serialize(val, connection=NULL)");
     }
+
+    @Test
+    public void testserializeLarge() {
+        // larger than the chunks in which vectors are written
+        assertEval("{ x <- list(as.double(1:5000), 1:10000, as.raw(1:40000 %% 256), rep(c(TRUE, NA, FALSE), 4000)); y <- unserialize(serialize(x, NULL)); c(identical(x, y), length(serialize(x, NULL))) }");
+        assertEval("{ x <- c(1.5, NA, -Inf, 1:8190); y <- unserialize(serialize(x, NULL)); identical(x, y) }");
+    }
 }
@@ -121,5 +121,7 @@ public class TestBuiltin_strsplit extends TestBase {
         assertEval("strsplit('foo bar baz', '[f z]', perl=TRUE)");
         assertEval("strsplit('oo bar baz', '[f z]', perl=TRUE)");
         assertEval("strsplit('foo \u1010ÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄÄbar baz ', '[f z]', perl=TRUE)");
+        assertEval("{ strsplit(c('a.b..c.', '.x', 'abc', ''), '.', fixed=TRUE) }");
+        assertEval("{ strsplit(c('a1b22c', 'x3'), '[0-9]+') }");
     }
 }
@@ -62,4 +62,20 @@ public class TestBuiltin_tcrossprod extends TestBase {
         assertEval(Ignored.Unknown,
                         "argv <- list(structure(c(1.1173625565162, 1.46907016195074, 1.1173625565162, -0.59596185089264, -1.32605913508878e-308, 0.595961850892641), .Dim = c(3L, 2L)), structure(c(0.517876924314756, 0.680886908762812, 0.517876924314755, -0.707106781186547, -1.57336481399136e-308, 0.707106781186548), .Dim = c(3L, 2L))); .Internal(tcrossprod(argv[[1]], argv[[2]]))");
     }
+
+    @Test
+    public void testTcrossprod() {
+        assertEval("{ x <- matrix(c(0.368962955428, 0.977400955511, 0.5002433417831, 0.0664379808586, 0.6384031679481, 0.4481831840239), nrow=2); tcrossprod(x) }");
+        assertEval("{ x <- 1:6 ; tcrossprod(x) }");
+        assertEval("{ tcrossprod(matrix(1:6, nrow=2), matrix(1:9, nrow=3)) }");
+        assertEval("{ x <- matrix(c(NaN,2,3,4,5,NA), nrow=3); tcrossprod(x) }");
+    }
+
+    @Test
+    public void testLargeMatrixProducts() {
+        // large enough to take the multi-threaded path
+        assertEval("{ set.seed(1); x <- matrix(runif(300*200), 300); y <- matrix(runif(200*150), 200); r <- x %*% y; all.equal(r[7, 11], sum(x[7, ] * y[, 11])) }");
+        assertEval("{ set.seed(1); x <- matrix(runif(300*200), 300); x[5, 9] <- NA; r <- crossprod(x); c(isSymmetric(r), is.na(r[9, 9]), all.equal(r[3, 4], sum(x[, 3] * x[, 4]))) }");
+        assertEval("{ set.seed(1); x <- matrix(runif(300*200), 300); r <- tcrossprod(x); c(isSymmetric(r), all.equal(r[3, 250], sum(x[3, ] * x[250, ]))) }");
+    }
 }
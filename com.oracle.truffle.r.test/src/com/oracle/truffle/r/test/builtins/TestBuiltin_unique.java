@@ -190,5 +190,8 @@ public class TestBuiltin_unique extends TestBase {
         assertEval("{ x<-function() 42; unique(x) }");
         assertEval(Ignored.Unknown, "{ unique(c(1,2,1), incomparables=function() 42) }");
 
+        assertEval("{ unique(c(1L, 2L, 1L, 3L, 2L), fromLast=TRUE) }");
+        assertEval("{ unique(c(1, NaN, NA, 1, -0, 0, NA, NaN), fromLast=TRUE) }");
+        assertEval("{ unique(c(\"a\", NA, \"b\", \"a\", NA), fromLast=TRUE) }");
     }
 }
@@ -335,4 +335,13 @@ public class TestBuiltin_unlist extends TestBase {
 
         assertEval("{ x<-quote(f(1,2)); y<-function(z) 42; l<-list(x, y, NULL); y<-unlist(l); c(length(y), typeof(y)) }");
     }
+
+    @Test
+    public void testUnlistBlockCopy() {
+        assertEval("{ unlist(list(1:3, c(1.5, NA), 4:5)) }");
+        assertEval("{ unlist(list(1:3, c(TRUE, NA), list(as.raw(1), \"a\"))) }");
+        assertEval("{ unlist(list(a=1:2, list(3L, b=4:5), c(x=6L))) }");
+        assertEval("{ x <- lapply(1:1000, function(i) c(i, NA)); y <- unlist(x); c(length(y), sum(y, na.rm=TRUE), is.null(names(y))) }");
+        assertEval("{ unlist(list(1:2, list(3i, 4)), recursive=FALSE) }");
+    }
 }
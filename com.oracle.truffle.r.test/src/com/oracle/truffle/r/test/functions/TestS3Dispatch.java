@@ -134,6 +134,16 @@ public class TestS3Dispatch extends TestRBase {
         assertEval("f.default<-function(abc, bbb, ...)list(abc, bbb, ...); f<-function(x,...)UseMethod('f'); f(13, ab=42, b=1, c=5);");
     }
 
+    @Test
+    public void testMegamorphicDispatch() {
+        // the call site in g sees more classes than it caches, redefinitions must still be seen
+        assertEval("{ f <- function(x) UseMethod('f'); f.default <- function(x) 'default'; for (cl in letters[1:6]) assign(paste0('f.', cl), eval(substitute(function(x) cl, list(cl = cl)))); " +
+                        "g <- function(x) f(x); r1 <- sapply(letters[1:8], function(cl) g(structure(1, class = cl))); f.b <- function(x) 'new b'; f.g <- function(x) 'new g'; rm(f.c); " +
+                        "r2 <- sapply(letters[1:8], function(cl) g(structure(1, class = cl))); list(r1, r2) }");
+        assertEval("{ f <- function(x) UseMethod('f'); f.default <- function(x) 'default'; f.a <- function(x) 'a'; g <- function(x) { f.a <- function(x) 'local a'; f(x) }; " +
+                        "sapply(c('z', 'y', 'x', 'w', 'a'), function(cl) c(f(structure(1, class = cl)), g(structure(1, class = cl)))) }");
+    }
+
     @Override
     public String getTestDir() {
         return "functions/S3";
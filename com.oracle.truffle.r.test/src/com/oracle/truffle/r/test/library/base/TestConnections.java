@@ -64,6 +64,19 @@ public class TestConnections extends TestBase {
         assertEval(TestBase.template("{ con <- file(\"%0\"); readLines(con, 2) }", testDir.subDir("wl2")));
     }
 
+    @Test
+    public void testFileReadLinesBlocks() {
+        // the "\r\n" after the first line is split between the first two blocks of 8192 bytes
+        assertEval(TestBase.template("{ con <- file(\"%0\", \"wb\"); writeBin(charToRaw(paste0(strrep(\"a\", 8191), \"\\r\\nb\\r\\nc\\n\")), con); close(con); " +
+                        "x <- readLines(\"%0\"); con <- file(\"%0\", \"r\"); y <- readLines(con, 1); z <- readLines(con, 1); close(con); list(nchar(x), x[-1], nchar(y), z) }", testDir.subDir("rlb1")));
+        // lines not requested by an n-limited read remain available to readBin and readLines
+        assertEval(TestBase.template("{ con <- file(\"%0\", \"wb\"); writeBin(charToRaw(paste0(\"l1\\n\", strrep(\"b\", 10000), \"\\nl3\\n\")), con); close(con); " +
+                        "con <- file(\"%0\", \"rb\"); x <- readLines(con, 1); y <- readBin(con, \"raw\", 3); z <- readLines(con); close(con); list(x, y, nchar(z), z[2]) }", testDir.subDir("rlb2")));
+        assertEval(TestBase.template("{ con <- file(\"%0\", \"wb\"); writeBin(as.raw(c(0x61, 0, 0x62, 0x0a, 0x63, 0x0d, 0x64)), con); close(con); " +
+                        "list(readLines(\"%0\", skipNul = TRUE, warn = FALSE), readLines(\"%0\", warn = FALSE), readLines(\"%0\", 1, skipNul = TRUE)) }", testDir.subDir("rlb3")));
+        assertEval(TestBase.template("{ con <- file(\"%0\", \"wb\"); writeBin(as.raw(c(0x61, 0, 0x62, 0x0a, 0x63, 0x0a)), con); close(con); readLines(\"%0\") }", testDir.subDir("rlb4")));
+    }
+
     @Test
     public void testFileWriteReadChar() {
         assertEval(TestBase.template("{ writeChar(\"abc\", file(\"%0\")) }", testDir.subDir("wc1")));
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.base;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.runtime.LazyDBCache;
+
+/**
+ * Tests when the mappings of {@link LazyDBCache} are reused and when they are checked against the
+ * file.
+ */
+public class TestLazyDBCache {
+
+    private static Path writeDB(byte[] contents) throws IOException {
+        Path path = Files.createTempFile("fastr-lazydb", ".rdb");
+        Files.write(path, contents);
+        return path;
+    }
+
+    /**
+     * Replaces the file, as installing a package does, which leaves existing mappings intact.
+     */
+    private static void replace(Path path, byte[] contents) throws IOException {
+        FileTime before = Files.getLastModifiedTime(path);
+        Path tmp = Files.createTempFile(path.getParent(), "fastr-lazydb", ".tmp");
+        Files.write(tmp, contents);
+        // file systems with a coarse time stamp resolution would not see the change
+        Files.setLastModifiedTime(tmp, FileTime.fromMillis(before.toMillis() + 2000));
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    public void testHit() throws IOException {
+        Path path = writeDB(new byte[]{1, 2, 3, 4, 5, 6});
+        try {
+            LazyDBCache.ContextStateImpl state = LazyDBCache.ContextStateImpl.newContextState();
+            assertArrayEquals(new byte[]{2, 3}, state.getData(path.toString(), 1, 2));
+            // only the first fetch looks at the file, later ones use the mapping as it is
+            replace(path, new byte[]{6, 5, 4, 3, 2, 1, 0});
+            assertArrayEquals(new byte[]{4, 5, 6}, state.getData(path.toString(), 3, 3));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testInvalidation() throws IOException {
+        Path path = writeDB(new byte[]{1, 2, 3, 4, 5, 6});
+        try {
+            LazyDBCache.ContextStateImpl state = LazyDBCache.ContextStateImpl.newContextState();
+            assertArrayEquals(new byte[]{1, 2}, state.getData(path.toString(), 0, 2));
+            replace(path, new byte[]{6, 5, 4, 3, 2, 1, 0});
+            // a context that has not used the file yet finds the change
+            LazyDBCache.ContextStateImpl other = LazyDBCache.ContextStateImpl.newContextState();
+            assertArrayEquals(new byte[]{6, 5}, other.getData(path.toString(), 0, 2));
+            replace(path, new byte[]{7, 7, 7, 7, 7, 7, 7, 7});
+            // lazyLoadDBflush
+            state.remove(path.toString());
+            assertArrayEquals(new byte[]{7, 7, 7}, state.getData(path.toString(), 5, 3));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
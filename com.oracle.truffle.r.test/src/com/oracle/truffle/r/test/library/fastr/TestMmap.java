@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestMmap extends TestBase {
+
+    private static final String WRITE = "f <- tempfile(); con <- file(f, 'wb'); writeBin(as.double(1:1000), con, endian = .Platform$endian); close(con); ";
+
+    @Test
+    public void testMmapRead() {
+        assertEvalFastR("{ " + WRITE + "x <- .fastr.mmap(f); r <- c(length(x), sum(x), max(x), x[500], sum(x[10:20] * 2)); unlink(f); r }", "c(1000, 500500, 1000, 500, 330)");
+        assertEvalFastR("{ " + WRITE + "x <- .fastr.mmap(f, length = 10L); y <- x; y[1] <- -1; r <- c(x[1], y[1], length(x)); unlink(f); r }", "c(1, -1, 10)");
+        assertEvalFastR("{ " + WRITE + "x <- .fastr.mmap(f, 'raw', 8L); r <- identical(x, writeBin(1, raw(), endian = .Platform$endian)); unlink(f); r }", "TRUE");
+        // written in chunks, the mapped data is not copied on-heap
+        assertEvalFastR("{ f <- tempfile(); con <- file(f, 'wb'); writeBin(as.double(1:10000), con, endian = .Platform$endian); close(con); x <- .fastr.mmap(f); " +
+                        "r <- identical(unserialize(serialize(x, NULL)), as.double(1:10000)); unlink(f); r }", "TRUE");
+        assertEvalFastR("{ f <- tempfile(); con <- file(f, 'wb'); writeBin(as.raw(1:50000 %% 256), con); close(con); x <- .fastr.mmap(f, 'raw'); " +
+                        "r <- identical(unserialize(serialize(x, NULL)), as.raw(1:50000 %% 256)); unlink(f); r }", "TRUE");
+    }
+
+    @Test
+    public void testMmapWrite() {
+        assertEvalFastR("{ " + WRITE + "x <- .fastr.mmap(f, 'double', 1000L, FALSE); x[2] <- 42; .fastr.mmap.flush(x); con <- file(f, 'rb'); " +
+                        "r <- readBin(con, 'double', 3, endian = .Platform$endian); close(con); unlink(f); r }", "c(1, 42, 3)");
+        // element updates write directly into the file, without flush
+        assertEvalFastR("{ " + WRITE + "x <- .fastr.mmap(f, 'double', 1000L, FALSE); x[2] <- 42; x[3:4] <- c(-3, -4); con <- file(f, 'rb'); " +
+                        "r <- readBin(con, 'double', 5, endian = .Platform$endian); close(con); unlink(f); r }", "c(1, 42, -3, -4, 5)");
+        assertEvalFastR("{ f <- tempfile(); x <- .fastr.mmap(f, 'integer', 4L, FALSE); x[] <- 1:4; .fastr.mmap.flush(x); y <- .fastr.mmap(f, 'integer'); r <- sum(y); unlink(f); r }", "10L");
+    }
+}
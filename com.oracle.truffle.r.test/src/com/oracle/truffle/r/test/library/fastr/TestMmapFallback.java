@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.NativeDataAccess;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.ops.na.NACheck;
+
+/**
+ * Tests the {@link java.nio.channels.FileChannel#map} fallback of
+ * {@link NativeDataAccess#mapFile}, which is used if the single region mapping is not available.
+ */
+public class TestMmapFallback {
+
+    private static Path writeDoubles(int count) throws IOException {
+        Path path = Files.createTempFile("fastr-mmap", ".bin");
+        ByteBuffer buffer = ByteBuffer.allocate(count * 8).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < count; i++) {
+            buffer.putDouble(i);
+        }
+        Files.write(path, buffer.array());
+        return path;
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        Path path = writeDoubles(100);
+        try {
+            RDoubleVector x = (RDoubleVector) NativeDataAccess.mapFile(path.toString(), RType.Double, -1, true, false);
+            assertEquals(100, x.getLength());
+            assertEquals(42, x.getDataAt(42), 0);
+            assertTrue(x.isSharedPermanent());
+            // the on-heap copy of a read-only map is made once
+            double[] data = x.getInternalStore();
+            assertEquals(99, data[99], 0);
+            assertSame(data, x.getInternalStore());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testWriteThrough() throws IOException {
+        Path path = writeDoubles(100);
+        try {
+            RDoubleVector x = (RDoubleVector) NativeDataAccess.mapFile(path.toString(), RType.Double, 10, false, false);
+            x.updateDataAt(1, 42, NACheck.create());
+            ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.nativeOrder());
+            assertEquals(42, contents.getDouble(8), 0);
+            assertEquals(2, contents.getDouble(16), 0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSizeLimit() throws IOException {
+        Path path = Files.createTempFile("fastr-mmap", ".bin");
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                // sparse, does not use any disk space
+                file.setLength(3L << 30);
+            }
+            NativeDataAccess.mapFile(path.toString(), RType.Double, -1, true, false);
+            fail("mapping more than 2GB through FileChannel.map must fail");
+        } catch (IOException e) {
+            assertEquals("cannot map more than 2GB on this platform", e.getMessage());
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestRegExpCache extends TestBase {
+
+    @Test
+    public void testCacheHits() {
+        assertEvalFastR("{ s0 <- .fastr.regexp.cachestats(); x <- vapply(c('ab1', 'cd', 'e2'), function(s) grepl('[0-9]$', s), TRUE, USE.NAMES = FALSE); s1 <- .fastr.regexp.cachestats(); c(x, s1[['misses']] - s0[['misses']] <= 1) }",
+                        "c(TRUE, FALSE, TRUE, TRUE)");
+        assertEvalFastR("{ s0 <- .fastr.regexp.cachestats(); for (i in 1:10) gsub('o+', '0', 'foo boo'); s1 <- .fastr.regexp.cachestats(); s1[['hits']] - s0[['hits']] >= 9 }", "TRUE");
+    }
+
+    @Test
+    public void testEviction() {
+        // more distinct patterns than the cache holds, every compiled pattern is used after insertion
+        assertEvalFastR("{ x <- vapply(1:200, function(i) grepl(paste0('^a', i, '$'), paste0('a', i), perl = TRUE), TRUE); " +
+                        "y <- vapply(200:1, function(i) sub(paste0('a', i), 'b', paste0('xa', i, 'x'), perl = TRUE), ''); c(all(x), all(y == 'xbx'), .fastr.regexp.cachestats()[['size']] < 200) }",
+                        "c(TRUE, TRUE, TRUE)");
+    }
+}
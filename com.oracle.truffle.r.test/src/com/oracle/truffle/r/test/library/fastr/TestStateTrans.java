@@ -41,4 +41,17 @@ public class TestStateTrans extends TestBase {
         assertEvalFastR("{ x<-rep(1, 100); xi1<-.fastr.identity(x); f<-function(x) { x }; f(x); x[1]<-7; xi2<-.fastr.identity(x); xi1 == xi2 }", "TRUE");
         assertEvalFastR("{ x<-rep(1, 100); xi1<-.fastr.identity(x); f<-function(x) { y<-x; y }; f(x); x[1]<-7; xi2<-.fastr.identity(x); xi1 == xi2 }", "TRUE");
     }
+
+    @Test
+    public void testReplacementCopies() {
+        // a copy made by a replacement function is only referenced by the assigned variable
+        assertEvalFastR("{ x<-y<-rep(1, 100); names(x)<-paste0('n', 1:100); .fastr.refcountinfo(x) }", "1");
+        assertEvalFastR("{ x<-y<-rep(1, 100); attr(x, 'a')<-1; xi1<-.fastr.identity(x); attr(x, 'b')<-2; xi2<-.fastr.identity(x); xi1 == xi2 }", "TRUE");
+        assertEvalFastR("{ x<-1:100; class(x)<-'foo'; xi1<-.fastr.identity(x); levels(x)<-'a'; xi2<-.fastr.identity(x); xi1 == xi2 }", "TRUE");
+        // updates in a loop must not copy the vector in every iteration
+        assertEvalFastR("{ x<-y<-numeric(100); .fastr.stats.copies(TRUE); for (i in 1:100) x[i]<-i; .fastr.stats.copies() <= 1 }", "TRUE");
+        assertEvalFastR("{ x<-y<-1:100; .fastr.stats.copies(TRUE); for (i in 1:100) attr(x, 'a')<-i; .fastr.stats.copies() <= 1 }", "TRUE");
+        assertEvalFastR("{ x<-y<-rep(1, 100); .fastr.stats.copies(TRUE); for (i in 1:100) { names(x)<-NULL; oldClass(x)<-'foo' }; .fastr.stats.copies() <= 1 }", "TRUE");
+        assertEvalFastR("{ f<-function(v) { for (i in 1:100) v[i]<-i; v }; .fastr.stats.copies(TRUE); x<-f(numeric(100)); .fastr.stats.copies() <= 1 }", "TRUE");
+    }
 }
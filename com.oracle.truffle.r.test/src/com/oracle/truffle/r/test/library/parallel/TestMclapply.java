@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.parallel;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestMclapply extends TestBase {
+
+    @Test
+    public void testLoadBalancing() {
+        // elements of varying cost, the results are reassembled in input order
+        assertEval("{ library(parallel); f <- function(i) { if (i %% 7 == 0) Sys.sleep(0.05); i * 2 }; " +
+                        "r <- list(unlist(mclapply(1:50, f, mc.cores = 3)), unlist(mclapply(1:10, f, mc.cores = 3, mc.preschedule = FALSE)), mclapply(c(a = 1, b = 4, c = 9), sqrt, mc.cores = 2)); " +
+                        "detach('package:parallel'); r }");
+        assertEvalFastR("{ library(parallel); options(fastr.mc.chunks = 2L); r <- unlist(mclapply(1:20, function(i) i, mc.cores = 2)); options(fastr.mc.chunks = NULL); " +
+                        "detach('package:parallel'); identical(r, 1:20) }", "TRUE");
+    }
+
+    @Test
+    public void testNoStateBetweenCalls() {
+        // every worker starts from a fresh state, as a forked child would
+        assertEval("{ library(parallel); f <- function(i) { r <- exists('leaked', envir = globalenv()); assign('leaked', i, envir = globalenv()); r }; " +
+                        "r <- list(unlist(mclapply(1:2, f, mc.cores = 2)), unlist(mclapply(1:2, f, mc.cores = 2)), exists('leaked')); detach('package:parallel'); r }");
+        assertEval("{ library(parallel); f <- function(i) { r <- 'package:tools' %in% search(); library(tools); r }; " +
+                        "r <- list(unlist(mclapply(1:2, f, mc.cores = 2)), unlist(mclapply(1:2, f, mc.cores = 2)), 'package:tools' %in% search()); detach('package:parallel'); r }");
+        assertEval("{ library(parallel); f <- function(i) { r <- exists('.Random.seed', envir = globalenv()); runif(1); r }; " +
+                        "r <- list(unlist(mclapply(1:2, f, mc.cores = 2)), unlist(mclapply(1:2, f, mc.cores = 2))); detach('package:parallel'); r }");
+        assertEval("{ library(parallel); RNGkind(\"L'Ecuyer-CMRG\"); set.seed(42); a <- mclapply(1:4, function(i) runif(2), mc.cores = 2); " +
+                        "set.seed(42); b <- mclapply(1:4, function(i) runif(2), mc.cores = 2); RNGkind('default'); detach('package:parallel'); identical(a, b) }");
+    }
+
+    @Test
+    public void testPoolReuse() {
+        assertEvalFastR("{ library(parallel); mclapply(1:2, identity, mc.cores = 2); cl <- parallel:::fastr.mcPool$cluster; mclapply(1:2, identity, mc.cores = 2); " +
+                        "r <- identical(cl, parallel:::fastr.mcPool$cluster); detach('package:parallel'); r }", "TRUE");
+        // unloading the namespace stops the pooled workers
+        assertEvalFastR("{ library(parallel); mclapply(1:2, identity, mc.cores = 2); pool <- parallel:::fastr.mcPool; r <- !is.null(pool$cluster); " +
+                        "detach('package:parallel', unload = TRUE); r && is.null(pool$cluster) }", "TRUE");
+    }
+}
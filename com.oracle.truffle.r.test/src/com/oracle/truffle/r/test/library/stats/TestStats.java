@@ -144,6 +144,9 @@ public class TestStats extends TestBase {
         assertEval("{ set.seed(7); round( runif(3), digits = 5 ) }");
         assertEval("{ set.seed(7); round( runif(3,1,10), digits = 5 ) }");
         assertEval("{ set.seed(7); round( rnorm(3,c(1000,2,3),c(10,11)), digits = 5 ) }");
+        assertEval("{ set.seed(7); x <- rnorm(5000); round( c(x[1:3], x[2001:2003], sum(x)), digits = 5 ) }");
+        assertEval("{ RNGkind(normal.kind=\"Box-Muller\"); set.seed(7); x <- round( c(rnorm(3), rnorm(4)), digits = 5 ); RNGkind(normal.kind=\"default\"); x }");
+        assertEval("{ RNGkind(normal.kind=\"Box-Muller\"); set.seed(7); x <- rnorm(1); set.seed(7); y <- rnorm(2); RNGkind(normal.kind=\"default\"); x == y[1] }");
 
         assertEval("{ set.seed(7); round( rbinom(3,3,0.9), digits = 5 ) }");
         assertEval("{ set.seed(7); round( rbinom(3,10,(1:5)/5), digits = 5 ) }");
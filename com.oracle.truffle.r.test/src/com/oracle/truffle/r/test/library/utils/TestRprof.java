@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.utils;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestRprof extends TestBase {
+    private static final String PROFILE = "f <- tempfile(); g <- function() { t <- proc.time()[[3]]; while (proc.time()[[3]] - t < 0.3) NULL }; h <- function() g(); " +
+                    "Rprof(f, interval = 0.01); h(); Rprof(NULL); ";
+
+    @Test
+    public void testSampling() {
+        // stacks are recorded innermost function first
+        assertEval("{ " + PROFILE + "x <- readLines(f); unlink(f); c(grepl('^sample.interval=10000', x[1]), any(grepl('\"g\" \"h\"', x)), any(grepl('\"h\" \"g\"', x))) }");
+        assertEvalFastR("{ " + PROFILE + "x <- readLines(paste0(f, '.folded')); unlink(c(f, paste0(f, '.folded'))); c(any(grepl('(^|;)h;g [0-9]+$', x)), any(grepl('g;h', x))) }",
+                        "c(TRUE, FALSE)");
+    }
+}
@@ -38,5 +38,10 @@ public class TestTypeConvert extends TestBase {
         assertEval("type.convert(c(NA, '44.5'))");  // string NA
         // looks like integer, but is double (because it would be INT_NA)
         assertEval("type.convert('-2147483648')");
+        assertEval("type.convert(c('1', NA, '2.5', '-3'))");
+        assertEval("type.convert(c('T', 'NA', 'false', '-'), na.strings=c('NA', '-'))");
+        assertEval("type.convert(c('b', 'a', NA, 'b', 'c', 'a', '1'))");
+        assertEval("type.convert(c('1', 'TRUE', '2'))");
+        assertEval("type.convert(c('1', 'x', 'x'), as.is=TRUE)");
     }
 }
@@ -59,6 +59,41 @@ public class TestRFFIPackage extends TestRPackages {
                         "{ library(\"testrffi\", lib.loc = \"%0\"); c3 <- c(1L,2L,3L); r1 <- rffi.iterate_iarray(c3); r2 <- rffi.iterate_iptr(c3); " +
                                         "detach(\"package:testrffi\"); list(r1, r2) }",
                         new String[]{TestRPackages.libLoc()}));
+        assertEval(TestBase.template(
+                        "{ library(\"testrffi\", lib.loc = \"%0\"); x <- lapply(1:1000, function(i) c(i, 0.5)); r1 <- rffi.sumListReals(x); " +
+                                        "r2 <- rffi.sumListReals(list(x[[1]], x[[1]], 3)); detach(\"package:testrffi\"); list(r1, r2) }",
+                        new String[]{TestRPackages.libLoc()}));
+        assertEval(TestBase.template(
+                        "{ library(\"testrffi\", lib.loc = \"%0\"); r1 <- 0L; for (i in 1:100) r1 <- rffi.addInt(r1, i); r2 <- sapply(1:3, function(i) rffi.addDouble(i, 0.5)); " +
+                                        "detach(\"package:testrffi\"); list(r1, r2) }",
+                        new String[]{TestRPackages.libLoc()}));
+    }
+
+    @Test
+    public void testLoadTestRFFIInPlaceWrites() {
+        assertEval(TestBase.template(
+                        "{ library(\"testrffi\", lib.loc = \"%0\"); x <- c(0, 0, 0); rffi.setReal(x, 0L, 1); x[2] <- 2; r1 <- sum(x); r2 <- sort(x, decreasing = TRUE); " +
+                                        "rffi.setReal(x, 2L, 3); x[1] <- x[1] + 10; detach(\"package:testrffi\"); list(r1, r2, x) }",
+                        new String[]{TestRPackages.libLoc()}));
+        // memory mapped vectors are always handed to native code by address
+        assertEvalFastR(TestBase.template(
+                        "{ library(\"testrffi\", lib.loc = \"%0\"); f <- tempfile(); x <- .fastr.mmap(f, 'double', 3L, FALSE); x[] <- 0; rffi.setReal(x, 0L, 1); x[2] <- 2; r1 <- sum(x); " +
+                                        "r2 <- sort(x, decreasing = TRUE); rffi.setReal(x, 2L, 3); x[1] <- x[1] + 10; r3 <- sort(x); rffi.setReal(x, 1L, 5); r <- c(r1, r2, x); " +
+                                        "unlink(f); detach(\"package:testrffi\"); r }",
+                        new String[]{TestRPackages.libLoc()})[0], "c(3, 2, 1, 0, 11, 5, 3)");
+        // the cached hash index of the table must not survive a write from native code
+        assertEval(TestBase.template(
+                        "{ library(\"testrffi\", lib.loc = \"%0\"); x <- as.double(1:100); r1 <- match(c(2, 500), x); rffi.setReal(x, 1L, 500); r2 <- match(c(2, 500), x); " +
+                                        "r3 <- duplicated(x)[2]; rffi.setReal(x, 2L, 500); detach(\"package:testrffi\"); list(r1, r2, r3, anyDuplicated(x)) }",
+                        new String[]{TestRPackages.libLoc()}));
+    }
+
+    @Test
+    public void testLoadTestRFFIWritesAcrossUpcalls() {
+        assertEval(TestBase.template(
+                        "{ library(\"testrffi\", lib.loc = \"%0\"); x <- c(0, 0, 0); r <- NULL; rffi.setRealsAcrossUpcalls(x, function() r <<- c(r, sum(x))); " +
+                                        "detach(\"package:testrffi\"); list(r, x) }",
+                        new String[]{TestRPackages.libLoc()}));
     }
 
     @Test
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.tools;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.oracle.truffle.r.runtime.conn.BufferedLineReader;
+import com.oracle.truffle.r.runtime.conn.GZIPConnections;
+
+/**
+ * Throughput benchmark for the {@code readLines} implementation used by the connections. Compares
+ * the block-oriented paths of {@link BufferedLineReader} (file channel, buffered stream, buffered
+ * gzip stream) with reading one byte at a time, which is what happens for streams that cannot give
+ * back read-ahead data and what all connections did before.
+ *
+ * Usage: {@code ReadLinesBenchmark [--lines n] [--iterations n]}.
+ */
+public class ReadLinesBenchmark {
+
+    private interface StreamFactory {
+        InputStream open(File file) throws IOException;
+    }
+
+    /**
+     * Hides {@link InputStream#markSupported()}, which forces the byte-at-a-time path.
+     */
+    private static final class UnmarkableInputStream extends FilterInputStream {
+        UnmarkableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int lines = 2000000;
+        int iterations = 5;
+        int i = 0;
+        while (i < args.length) {
+            String arg = args[i];
+            if (arg.equals("--lines")) {
+                lines = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--iterations")) {
+                iterations = Integer.parseInt(args[++i]);
+            }
+            i++;
+        }
+        File text = File.createTempFile("readLinesBenchmark", ".txt");
+        File gzip = File.createTempFile("readLinesBenchmark", ".gz");
+        try {
+            writeLines(new FileOutputStream(text), lines);
+            writeLines(new GZIPOutputStream(new FileOutputStream(gzip)), lines);
+            long size = text.length();
+            run("file, byte at a time", f -> new UnmarkableInputStream(new BufferedInputStream(new FileInputStream(f))), text, size, lines, iterations);
+            run("file, buffered stream", f -> new BufferedInputStream(new FileInputStream(f)), text, size, lines, iterations);
+            run("file, file channel", f -> new FileInputStream(f), text, size, lines, iterations);
+            run("gzip, byte at a time", f -> new GZIPInputStream(new FileInputStream(f), GZIPConnections.GZIP_BUFFER_SIZE), gzip, size, lines, iterations);
+            run("gzip, buffered stream", f -> new BufferedInputStream(new GZIPInputStream(new FileInputStream(f), GZIPConnections.GZIP_BUFFER_SIZE)), gzip, size, lines, iterations);
+        } finally {
+            text.delete();
+            gzip.delete();
+        }
+    }
+
+    private static void writeLines(OutputStream out, int lines) throws IOException {
+        try (OutputStream os = out) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < lines; i++) {
+                sb.setLength(0);
+                sb.append(i).append(",\"some text in column two\",").append(i * 0.5).append(",TRUE\n");
+                os.write(sb.toString().getBytes());
+            }
+        }
+    }
+
+    private static void run(String name, StreamFactory factory, File file, long size, int lines, int iterations) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            try (InputStream in = factory.open(file)) {
+                String[] result = BufferedLineReader.readLines(in, -1, false, false);
+                if (result.length != lines) {
+                    throw new AssertionError(name + ": expected " + lines + " lines, got " + result.length);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-25s %8.1f ms %8.1f MB/s%n", name, best / 1e6, size / (best / 1e9) / (1 << 20));
+    }
+}
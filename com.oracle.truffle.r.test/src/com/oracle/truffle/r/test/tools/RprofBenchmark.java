@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.tools;
+
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.instrument.ShadowStack;
+import com.oracle.truffle.r.test.generate.FastRSession;
+
+/**
+ * Overhead of the sampling mode of {@code Rprof} on compiled code. Runs a call-heavy workload
+ * without profiling, with a sampling profiler running and after the profiler has been stopped, in
+ * which case the {@link ShadowStack} must be off again and the time must match the first run.
+ *
+ * Usage: {@code RprofBenchmark [--n n] [--iterations n]}.
+ */
+public class RprofBenchmark {
+
+    private static final String WORKLOAD = "fib <- function(n) if (n < 2) n else fib(n - 1) + fib(n - 2); " +
+                    "work <- function(n) { s <- 0; for (i in 1:n) s <- s + fib(15); s }";
+
+    public static void main(String[] args) {
+        int n = 200;
+        int iterations = 20;
+        int i = 0;
+        while (i < args.length) {
+            String arg = args[i];
+            if (arg.equals("--n")) {
+                n = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--iterations")) {
+                iterations = Integer.parseInt(args[++i]);
+            }
+            i++;
+        }
+        PolyglotEngine vm = FastRSession.create().checkContext(null).createVM();
+        try {
+            eval(vm, WORKLOAD);
+            eval(vm, "f <- tempfile()");
+            long plain = run(vm, "no profiling", n, iterations);
+            eval(vm, "Rprof(f, interval = 0.005)");
+            long profiled = run(vm, "sampling Rprof", n, iterations);
+            eval(vm, "Rprof(NULL)");
+            long after = run(vm, "after Rprof(NULL)", n, iterations);
+            eval(vm, "unlink(c(f, paste0(f, '.folded')))");
+            System.out.printf("overhead while profiling: %5.1f%%%n", 100.0 * (profiled - plain) / plain);
+            System.out.printf("overhead after profiling: %5.1f%% (shadow stack enabled: %b)%n", 100.0 * (after - plain) / plain, ShadowStack.isEnabled());
+        } finally {
+            vm.dispose();
+        }
+    }
+
+    private static Object eval(PolyglotEngine vm, String code) {
+        return vm.eval(RSource.fromTextInternal(code, RSource.Internal.UNIT_TEST)).get();
+    }
+
+    private static long run(PolyglotEngine vm, String name, int n, int iterations) {
+        String code = "work(" + n + ")";
+        // warm up, so that the measured runs use compiled code
+        for (int i = 0; i < iterations; i++) {
+            eval(vm, code);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            eval(vm, code);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s %8.1f ms%n", name, best / 1e6);
+        return best;
+    }
+}